@@ -0,0 +1,58 @@
+package io.github.dabogadog.benchmarks;
+
+import io.github.dabogadog.CSVReader;
+import io.github.dabogadog.CSVSearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la búsqueda de frases en CSV, secuencial y en paralelo. Las frases son las últimas palabras del
+ * archivo, así que cada búsqueda lo recorre completo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(3)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CSVReaderBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"1", "100", "1000"})
+    public int phrases;
+
+    private String file;
+    private String phrasesString;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Fixtures.csv(rows);
+        phrasesString = Fixtures.phrases(phrases);
+    }
+
+    @Benchmark
+    public boolean searchPhrasesInCSV() {
+        return CSVReader.searchPhrasesInCSV(file, phrasesString, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public CSVSearchResult findPhrasesInCSVParallel() throws IOException {
+        return CSVReader.findPhrasesInCSVParallel(file, phrasesString, StandardCharsets.UTF_8,
+                Runtime.getRuntime().availableProcessors());
+    }
+}
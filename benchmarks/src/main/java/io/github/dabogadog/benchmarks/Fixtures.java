@@ -0,0 +1,182 @@
+package io.github.dabogadog.benchmarks;
+
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.Paragraph;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Genera los archivos sintéticos de los benchmarks en {@code target/fixtures}. Cada archivo se genera una
+ * sola vez por combinación de parámetros y se reutiliza entre forks y ejecuciones.
+ */
+final class Fixtures {
+
+    /**
+     * Número de palabras distintas repartidas por los documentos. Las frases buscadas son las últimas
+     * palabras, de modo que cada búsqueda recorre el documento completo.
+     */
+    static final int VOCABULARY = 1000;
+
+    private static final Path DIRECTORY = Paths.get("target", "fixtures");
+
+    private static final String FILLER = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod "
+            + "tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation.";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Variantes de un documento con el mismo número de páginas.
+     */
+    enum Variant {
+        /** Documento de referencia. */
+        BASE,
+        /** Mismo contenido generado otra vez: los bytes del archivo difieren (fechas e /ID), las páginas no. */
+        REGENERATED,
+        /** Copia byte a byte del documento de referencia. */
+        COPY,
+        /** Mismo documento con el texto de la última página cambiado. */
+        CHANGED
+    }
+
+    /**
+     * Desactiva el registro de la biblioteca, que de otro modo mediría la escritura de las diferencias.
+     */
+    static void silenceLogging() {
+        Logger.getLogger("io.github.dabogadog").setLevel(Level.OFF);
+    }
+
+    static String pdf(int pages, Variant variant) throws IOException {
+        Path file = DIRECTORY.resolve("doc-" + pages + "-" + variant.name().toLowerCase() + ".pdf");
+        if (!Files.exists(file)) {
+            Files.createDirectories(DIRECTORY);
+            if (variant == Variant.COPY) {
+                Files.copy(Paths.get(pdf(pages, Variant.BASE)), file, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                writePdf(file, pages, variant == Variant.CHANGED);
+            }
+        }
+        return file.toString();
+    }
+
+    /**
+     * Documento como los escaneados: una página por MB, cada una con una imagen de 1 MB sin comprimir y una
+     * línea de texto. El tamaño del archivo crece con las imágenes, no con el texto.
+     *
+     * @param megabytes Tamaño aproximado del archivo, en MB.
+     * @param variant   {@link Variant#BASE} o {@link Variant#CHANGED}.
+     */
+    static String scannedPdf(int megabytes, Variant variant) throws IOException {
+        Path file = DIRECTORY.resolve("scanned-" + megabytes + "mb-" + variant.name().toLowerCase() + ".pdf");
+        if (!Files.exists(file)) {
+            Files.createDirectories(DIRECTORY);
+            writeScannedPdf(file, megabytes, variant == Variant.CHANGED);
+        }
+        return file.toString();
+    }
+
+    static String csv(int rows) throws IOException {
+        Path file = DIRECTORY.resolve("data-" + rows + ".csv");
+        if (!Files.exists(file)) {
+            Files.createDirectories(DIRECTORY);
+            Path temporary = Files.createTempFile(DIRECTORY, "data", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for (int r = 0; r < rows; r++) {
+                    writer.write(r + ",cliente-" + (r % 9973) + ",\"Calle " + r + ", piso " + (r % 12)
+                            + "\"," + (r * 31 % 100000) + ".50,EUR," + word((int) ((long) r * VOCABULARY / rows))
+                            + ",\"nota con \"\"comillas\"\"\",fin\r\n");
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file.toString();
+    }
+
+    /**
+     * @return Las últimas {@code count} palabras del vocabulario, separadas por comas.
+     */
+    static String phrases(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = VOCABULARY - count; i < VOCABULARY; i++) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(word(i));
+        }
+        return sb.toString();
+    }
+
+    private static String word(int index) {
+        return String.format("palabra%04d", index);
+    }
+
+    private static void writePdf(Path file, int pages, boolean changeLastPage) throws IOException {
+        Path temporary = Files.createTempFile(DIRECTORY, "doc", ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary);
+             Document document = new Document(new PdfDocument(new PdfWriter(out)))) {
+            for (int page = 0; page < pages; page++) {
+                if (page > 0) {
+                    document.add(new AreaBreak());
+                }
+                document.add(new Paragraph("Página " + (page + 1)));
+                StringBuilder words = new StringBuilder();
+                for (int w = page * VOCABULARY / pages; w < (page + 1) * VOCABULARY / pages; w++) {
+                    words.append(word(w)).append(' ');
+                }
+                document.add(new Paragraph(words.toString()));
+                document.add(new Paragraph(changeLastPage && page == pages - 1 ? "Texto cambiado." : FILLER));
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeScannedPdf(Path file, int pages, boolean changeLastPage) throws IOException {
+        Path temporary = Files.createTempFile(DIRECTORY, "scanned", ".tmp");
+        Random random = new Random(pages);
+        WriterProperties properties = new WriterProperties().setCompressionLevel(CompressionConstants.NO_COMPRESSION);
+        try (OutputStream out = Files.newOutputStream(temporary);
+             PdfDocument pdfDoc = new PdfDocument(new PdfWriter(out, properties))) {
+            PdfFont font = PdfFontFactory.createFont();
+            for (int page = 0; page < pages; page++) {
+                // Imagen de 1024 x 1024 píxeles en escala de grises, con ruido para que no se pueda comprimir.
+                byte[] pixels = new byte[1024 * 1024];
+                random.nextBytes(pixels);
+                PdfPage pdfPage = pdfDoc.addNewPage();
+                PdfCanvas canvas = new PdfCanvas(pdfPage);
+                canvas.beginText().setFontAndSize(font, 12).moveText(50, 800)
+                        .showText(changeLastPage && page == pages - 1
+                                ? "Texto cambiado." : "Página escaneada " + (page + 1) + " " + word(page % VOCABULARY))
+                        .endText();
+                canvas.addXObjectFittedIntoRectangle(
+                        new PdfImageXObject(ImageDataFactory.create(1024, 1024, 1, 8, pixels, null)),
+                        new Rectangle(50, 250, 500, 500));
+                canvas.release();
+                // Se escribe cada página en cuanto está completa, para no retener las imágenes en el heap.
+                pdfPage.flush(true);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
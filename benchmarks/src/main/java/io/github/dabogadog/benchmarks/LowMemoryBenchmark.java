@@ -0,0 +1,65 @@
+package io.github.dabogadog.benchmarks;
+
+import io.github.dabogadog.PDFComparator;
+import io.github.dabogadog.PdfReaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el modo normal con el modo de poca memoria de {@link PdfReaders} según el tamaño del archivo, sobre
+ * documentos como los escaneados (ver {@link Fixtures#scannedPdf(int, Fixtures.Variant)}). Cada iteración es
+ * una comparación, así que con {@link PeakHeapProfiler} se obtiene el heap máximo de cada comparación frente
+ * al tamaño del archivo:
+ *
+ * <pre>
+ * mvn package exec:exec -Djmh.args="LowMemoryBenchmark -prof gc -prof io.github.dabogadog.benchmarks.PeakHeapProfiler"
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 3, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class LowMemoryBenchmark {
+
+    @Param({"16", "64", "256", "1024"})
+    public int megabytes;
+
+    @Param({"false", "true"})
+    public boolean lowMemory;
+
+    private String base;
+    private String changed;
+
+    @Setup
+    public void setUp() throws IOException {
+        Fixtures.silenceLogging();
+        base = Fixtures.scannedPdf(megabytes, Fixtures.Variant.BASE);
+        changed = Fixtures.scannedPdf(megabytes, Fixtures.Variant.CHANGED);
+        PdfReaders.setLowMemoryMode(lowMemory);
+    }
+
+    @TearDown
+    public void tearDown() {
+        PdfReaders.setLowMemoryMode(false);
+    }
+
+    @Benchmark
+    public boolean changedLastPage() {
+        return PDFComparator.comparePDFs(base, changed);
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.dabogadog.benchmarks;
+
+import io.github.dabogadog.PDFAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@link PDFAnalyzer#checkPhrasesInPDF(String, String)}. Las frases son las últimas palabras del
+ * documento, así que cada búsqueda extrae todas las páginas.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(3)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PDFAnalyzerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int pages;
+
+    @Param({"1", "100", "1000"})
+    public int phrases;
+
+    private String file;
+    private String targetPhrase;
+
+    @Setup
+    public void setUp() throws IOException {
+        Fixtures.silenceLogging();
+        file = Fixtures.pdf(pages, Fixtures.Variant.BASE);
+        targetPhrase = Fixtures.phrases(phrases);
+    }
+
+    @Benchmark
+    public boolean checkPhrasesInPDF() {
+        return PDFAnalyzer.checkPhrasesInPDF(file, targetPhrase);
+    }
+}
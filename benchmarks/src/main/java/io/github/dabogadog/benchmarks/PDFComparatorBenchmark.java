@@ -0,0 +1,62 @@
+package io.github.dabogadog.benchmarks;
+
+import io.github.dabogadog.PDFComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@link PDFComparator#comparePDFs(String, String)} en los tres niveles de la comparación escalonada:
+ * archivos idénticos, archivos regenerados con las mismas páginas y un archivo con la última página cambiada.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(3)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PDFComparatorBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int pages;
+
+    private String base;
+    private String copy;
+    private String regenerated;
+    private String changed;
+
+    @Setup
+    public void setUp() throws IOException {
+        Fixtures.silenceLogging();
+        base = Fixtures.pdf(pages, Fixtures.Variant.BASE);
+        copy = Fixtures.pdf(pages, Fixtures.Variant.COPY);
+        regenerated = Fixtures.pdf(pages, Fixtures.Variant.REGENERATED);
+        changed = Fixtures.pdf(pages, Fixtures.Variant.CHANGED);
+    }
+
+    @Benchmark
+    public boolean identicalFiles() {
+        return PDFComparator.comparePDFs(base, copy);
+    }
+
+    @Benchmark
+    public boolean regeneratedFiles() {
+        return PDFComparator.comparePDFs(base, regenerated);
+    }
+
+    @Benchmark
+    public boolean changedLastPage() {
+        return PDFComparator.comparePDFs(base, changed);
+    }
+}
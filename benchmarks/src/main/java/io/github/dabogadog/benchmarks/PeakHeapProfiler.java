@@ -0,0 +1,87 @@
+package io.github.dabogadog.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Perfilador de JMH que informa el heap máximo usado en cada iteración. Antes de la iteración recoge la
+ * basura y reinicia el máximo de cada zona del heap con {@link MemoryPoolMXBean#resetPeakUsage()}; después
+ * lee los máximos:
+ *
+ * <ul>
+ *     <li>{@code heap.peak}: suma de los máximos de todas las zonas, en MB. Es una cota superior, porque cada
+ *     zona alcanza su máximo en un momento distinto, e incluye la zona joven, que depende del tamaño del heap
+ *     más que del trabajo.</li>
+ *     <li>{@code heap.peak.old}: máximo de la zona de objetos antiguos, en MB. Con G1 incluye los objetos
+ *     grandes, que se reservan directamente en ella; es la medida que crece si se retienen las páginas o el
+ *     archivo completo.</li>
+ * </ul>
+ *
+ * <p>Se activa con {@code -prof io.github.dabogadog.benchmarks.PeakHeapProfiler}. El resultado de varias
+ * iteraciones es el máximo de todas ellas.</p>
+ */
+public class PeakHeapProfiler implements InternalProfiler {
+
+    private static final double MEGABYTE = 1024 * 1024;
+
+    @Override
+    public String getDescription() {
+        return "Heap máximo usado en cada iteración, por MemoryPoolMXBean";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        System.gc();
+        for (MemoryPoolMXBean pool : heapPools()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                       IterationParams iterationParams, IterationResult result) {
+        long peak = 0;
+        long oldPeak = 0;
+        for (MemoryPoolMXBean pool : heapPools()) {
+            long used = pool.getPeakUsage().getUsed();
+            peak += used;
+            if (isOld(pool)) {
+                oldPeak = Math.max(oldPeak, used);
+            }
+        }
+        List<Result> results = new ArrayList<>();
+        results.add(new ScalarResult("heap.peak", peak / MEGABYTE, "MB", AggregationPolicy.MAX));
+        results.add(new ScalarResult("heap.peak.old", oldPeak / MEGABYTE, "MB", AggregationPolicy.MAX));
+        return results;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    /**
+     * @return true si es la zona de objetos antiguos: "G1 Old Gen", "PS Old Gen", "Tenured Gen"...
+     */
+    private static boolean isOld(MemoryPoolMXBean pool) {
+        String name = pool.getName();
+        return name.contains("Old") || name.contains("Tenured");
+    }
+}
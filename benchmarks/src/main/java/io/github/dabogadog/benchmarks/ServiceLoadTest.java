@@ -0,0 +1,350 @@
+package io.github.dabogadog.benchmarks;
+
+import io.github.dabogadog.ComparisonService;
+import io.github.dabogadog.LatencyHistogram;
+import io.github.dabogadog.PDFAnalyzer;
+import io.github.dabogadog.PDFComparator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de carga de {@link ComparisonService} contra localhost, frente a lanzar un proceso nuevo por cada
+ * comprobación. Los trabajos alternan una comparación de texto y una búsqueda de frases sobre documentos de 10,
+ * 20 y 50 páginas, y se informan los percentiles de latencia de cada forma de invocación.
+ *
+ * <p>No es un benchmark JMH: lanza el servicio en su propia JVM, como se usaría en producción, y lo mide desde
+ * los clientes. Se ejecuta con el jar del módulo:</p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar io.github.dabogadog.benchmarks.ServiceLoadTest [--requests N] [--clients N]
+ *      [--warmup N] [--processes N] [--timeouts N]
+ * </pre>
+ *
+ * <p>Con {@code --processes 0} solo se mide el servicio. Después de la carga, {@code --timeouts} rondas agotan
+ * el tiempo de una búsqueda en un archivo de más de 64 MB y vuelven a buscar en él; la prueba falla si el
+ * servicio no responde bien a la segunda búsqueda. Con {@code --timeouts 0} no se ejecutan. La salida de las
+ * JVM lanzadas se guarda en {@code target/service-load.log}.</p>
+ */
+public final class ServiceLoadTest {
+
+    private static final int[] PAGES = {10, 20, 50};
+
+    private static final File LOG = new File("target", "service-load.log");
+
+    /**
+     * Tamaño del archivo de las rondas de tiempo agotado. A partir de 64 MB iText no proyecta el archivo entero
+     * al abrirlo, sino ventanas de 4 MB a medida que las lee.
+     */
+    private static final int LARGE_MEGABYTES = 96;
+
+    private ServiceLoadTest() {
+    }
+
+    /**
+     * Un trabajo: una comparación de dos documentos o una búsqueda de frases en uno.
+     */
+    private static final class Job {
+        private final String file1;
+        private final String file2;
+        private final String phrases;
+
+        private Job(String file1, String file2, String phrases) {
+            this.file1 = file1;
+            this.file2 = file2;
+            this.phrases = phrases;
+        }
+
+        private String query() throws IOException {
+            if (file2 != null) {
+                return "/compare?file1=" + encode(file1) + "&file2=" + encode(file2);
+            }
+            return "/phrases?file=" + encode(file1) + "&phrases=" + encode(phrases);
+        }
+
+        private List<String> arguments() {
+            List<String> arguments = new ArrayList<>();
+            arguments.add(file1);
+            arguments.add(file2 != null ? file2 : phrases);
+            arguments.add(file2 != null ? "compare" : "phrases");
+            return arguments;
+        }
+    }
+
+    /**
+     * Punto de entrada de cada proceso de la invocación por proceso: una comprobación y termina.
+     */
+    public static final class OneShot {
+
+        private OneShot() {
+        }
+
+        public static void main(String[] args) {
+            Fixtures.silenceLogging();
+            boolean result = "compare".equals(args[2])
+                    ? PDFComparator.comparePDFs(args[0], args[1])
+                    : PDFAnalyzer.checkPhrasesInPDF(args[0], args[1]);
+            System.out.println(result);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = 2000;
+        int clients = 1;
+        int warmup = 200;
+        int processes = 40;
+        int timeouts = 200;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--requests":
+                    requests = Integer.parseInt(args[++i]);
+                    break;
+                case "--clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--processes":
+                    processes = Integer.parseInt(args[++i]);
+                    break;
+                case "--timeouts":
+                    timeouts = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Argumento inesperado: " + args[i]);
+                    System.err.println("Uso: ServiceLoadTest [--requests N] [--clients N] [--warmup N] "
+                            + "[--processes N] [--timeouts N]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        List<Job> jobs = jobs();
+        LOG.getParentFile().mkdirs();
+        System.out.println("Java " + System.getProperty("java.version") + ", "
+                + Runtime.getRuntime().availableProcessors() + " CPU, " + jobs.size() + " trabajos distintos");
+
+        if (processes > 0) {
+            LatencyHistogram perProcess = new LatencyHistogram();
+            for (int i = 0; i < processes; i++) {
+                long start = System.nanoTime();
+                run(command(OneShot.class.getName(), jobs.get(i % jobs.size()).arguments()));
+                perProcess.record(System.nanoTime() - start);
+            }
+            print("Un proceso por comprobación (" + processes + " procesos)", perProcess);
+        }
+
+        int port = freePort();
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--port");
+        arguments.add(Integer.toString(port));
+        Process service = start(command(ComparisonService.class.getName(), arguments));
+        try {
+            String base = "http://127.0.0.1:" + port;
+            awaitHealthy(base);
+            send(base, jobs, warmup, clients, new LatencyHistogram());
+            LatencyHistogram latency = new LatencyHistogram();
+            long start = System.nanoTime();
+            send(base, jobs, requests, clients, latency);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            print("Servicio, " + clients + (clients == 1 ? " cliente" : " clientes") + " (" + requests
+                    + " peticiones tras " + warmup + " de calentamiento, "
+                    + String.format("%.0f", requests / seconds) + " peticiones/s)", latency);
+            if (timeouts > 0) {
+                timeoutThenReuse(base, timeouts);
+            }
+            System.out.println("Métricas del servicio: " + get(base + "/metrics"));
+        } finally {
+            service.destroy();
+            service.waitFor();
+        }
+    }
+
+    /**
+     * Comparaciones de cada documento con su versión cambiada, y búsquedas de frases en cada documento.
+     */
+    private static List<Job> jobs() throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        for (int pages : PAGES) {
+            String base = Fixtures.pdf(pages, Fixtures.Variant.BASE);
+            jobs.add(new Job(base, Fixtures.pdf(pages, Fixtures.Variant.CHANGED), null));
+            jobs.add(new Job(base, null, Fixtures.phrases(10)));
+            String regenerated = Fixtures.pdf(pages, Fixtures.Variant.REGENERATED);
+            jobs.add(new Job(regenerated, base, null));
+            jobs.add(new Job(regenerated, null, Fixtures.phrases(1)));
+        }
+        return jobs;
+    }
+
+    /**
+     * Envía las peticiones desde {@code clients} hilos, cada uno de ellos con una petición en curso a la vez.
+     */
+    private static void send(final String base, final List<Job> jobs, final int requests, int clients,
+                             final LatencyHistogram latency) throws Exception {
+        final AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        String url = base + jobs.get(i % jobs.size()).query();
+                        long start = System.nanoTime();
+                        get(url);
+                        latency.record(System.nanoTime() - start);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Agota el tiempo de búsquedas de una frase que no está en un archivo grande, de modo que se interrumpen
+     * mientras leen páginas, y vuelve a buscar en el mismo archivo sin tiempo máximo. Antes de cada ronda cambia
+     * la fecha de modificación del archivo, para que el servicio lo abra de nuevo y la búsqueda interrumpida
+     * tenga que proyectar ventanas del archivo.
+     */
+    private static void timeoutThenReuse(String base, int rounds) throws Exception {
+        File file = new File(Fixtures.scannedPdf(LARGE_MEGABYTES, Fixtures.Variant.BASE));
+        String url = base + "/phrases?file=" + encode(file.getPath()) + "&phrases=" + encode("frase ausente");
+        long lastModified = file.lastModified();
+
+        // La búsqueda completa más rápida con el archivo recién abierto, para repartir los tiempos máximos.
+        long fullMillis = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            file.setLastModified(lastModified += 1000);
+            long start = System.nanoTime();
+            get(url);
+            fullMillis = Math.min(fullMillis, Math.max(1, (System.nanoTime() - start) / 1_000_000));
+        }
+
+        Random random = new Random(LARGE_MEGABYTES);
+        int timedOut = 0;
+        List<String> failures = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            file.setLastModified(lastModified += 1000);
+            long timeout = 1 + random.nextInt((int) fullMillis);
+            int status = request(url + "&timeout=" + timeout, new ByteArrayOutputStream());
+            if (status == 504) {
+                timedOut++;
+            } else if (status != 200) {
+                failures.add("ronda " + round + ": respuesta " + status + " con tiempo máximo de " + timeout + " ms");
+            }
+            try {
+                get(url);
+            } catch (IOException e) {
+                failures.add("ronda " + round + ", tras " + timeout + " ms: " + e.getMessage());
+            }
+        }
+        System.out.println("Tiempo agotado en un archivo de " + LARGE_MEGABYTES + " MB (búsqueda completa en "
+                + fullMillis + " ms): " + timedOut + " de " + rounds + " búsquedas agotaron su tiempo, "
+                + failures.size() + " búsquedas posteriores fallaron");
+        if (!failures.isEmpty()) {
+            throw new IOException("El archivo no se pudo volver a usar tras agotar el tiempo: " + failures);
+        }
+    }
+
+    private static String get(String url) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int status = request(url, body);
+        String text = new String(body.toByteArray(), StandardCharsets.UTF_8);
+        if (status != 200) {
+            throw new IOException("Respuesta " + status + " de " + url + ": " + text);
+        }
+        return text;
+    }
+
+    /**
+     * @return El código de la respuesta; el cuerpo se copia en {@code body}.
+     */
+    private static int request(String url, ByteArrayOutputStream body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return status;
+    }
+
+    private static void awaitHealthy(String base) throws Exception {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (true) {
+            try {
+                get(base + "/health");
+                return;
+            } catch (IOException e) {
+                if (System.nanoTime() > deadline) {
+                    throw new IOException("El servicio no arrancó; ver " + LOG, e);
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private static List<String> command(String mainClass, List<String> arguments) {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+        command.addAll(arguments);
+        return command;
+    }
+
+    private static Process start(List<String> command) throws IOException {
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(LOG))
+                .start();
+    }
+
+    private static void run(List<String> command) throws Exception {
+        Process process = start(command);
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IOException("El proceso terminó con código " + exitCode + "; ver " + LOG);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String encode(String value) throws IOException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+
+    private static void print(String title, LatencyHistogram latency) {
+        System.out.println(title);
+        System.out.println(String.format("  p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, máx %.1f ms",
+                latency.getPercentileMillis(50), latency.getPercentileMillis(90),
+                latency.getPercentileMillis(99), latency.getMaxMillis()));
+    }
+}
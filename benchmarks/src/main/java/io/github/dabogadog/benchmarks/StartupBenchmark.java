@@ -0,0 +1,64 @@
+package io.github.dabogadog.benchmarks;
+
+import io.github.dabogadog.PDFAnalyzer;
+import io.github.dabogadog.PDFComparator;
+import io.github.dabogadog.PdfDocumentHandle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el arranque en frío: la primera llamada de cada operación en una JVM nueva, incluida la carga de las
+ * clases de la biblioteca y de iText, sobre un documento de 10 páginas. Es el coste que paga un proceso de
+ * línea de comandos de corta duración. Con {@code -prof cl} se informa además el número de clases cargadas.
+ *
+ * <p>Los archivos de prueba deben existir antes (los genera cualquier otro benchmark), para que su generación
+ * no cargue clases en la JVM medida.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+    private static final int PAGES = 10;
+
+    private String base;
+    private String changed;
+    private String phrases;
+
+    @Setup
+    public void setUp() throws IOException {
+        Fixtures.silenceLogging();
+        base = Fixtures.pdf(PAGES, Fixtures.Variant.BASE);
+        changed = Fixtures.pdf(PAGES, Fixtures.Variant.CHANGED);
+        phrases = Fixtures.phrases(10);
+    }
+
+    @Benchmark
+    public boolean comparePDFs() {
+        return PDFComparator.comparePDFs(base, changed);
+    }
+
+    @Benchmark
+    public boolean checkPhrasesInPDF() {
+        return PDFAnalyzer.checkPhrasesInPDF(base, phrases);
+    }
+
+    @Benchmark
+    public boolean compareAll() {
+        return PdfDocumentHandle.compareAll(base, changed);
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.dabogadog.benchmarks;
+
+import io.github.dabogadog.BookmarksAndLinksComparator;
+import io.github.dabogadog.MetadataComparator;
+import io.github.dabogadog.PagePropertiesComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide los comparadores de metadatos, propiedades de página y marcadores y enlaces sobre dos archivos
+ * regenerados con las mismas páginas.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(3)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StructureComparatorBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int pages;
+
+    private String base;
+    private String regenerated;
+
+    @Setup
+    public void setUp() throws IOException {
+        Fixtures.silenceLogging();
+        base = Fixtures.pdf(pages, Fixtures.Variant.BASE);
+        regenerated = Fixtures.pdf(pages, Fixtures.Variant.REGENERATED);
+    }
+
+    @Benchmark
+    public boolean compareMetadata() {
+        return MetadataComparator.compareMetadata(base, regenerated);
+    }
+
+    @Benchmark
+    public boolean comparePageProperties() {
+        return PagePropertiesComparator.comparePageProperties(base, regenerated);
+    }
+
+    @Benchmark
+    public boolean compareBookmarksAndLinks() {
+        return BookmarksAndLinksComparator.compareBookmarksAndLinks(base, regenerated);
+    }
+}
@@ -0,0 +1,367 @@
+package io.github.dabogadog;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Esta clase compara por lotes los archivos PDF de dos árboles de directorios. Cada archivo del primer
+ * directorio se empareja con el de la misma ruta relativa en el segundo, y las comparaciones se ejecutan en
+ * un número fijo de hilos. Los resultados se escriben como JSON Lines (un objeto por línea) a medida que
+ * terminan, y al final se escribe una línea de resumen con el rendimiento.
+ *
+ * <p>La cola de trabajo está acotada: cuando hay {@code parallelism + queueCapacity} comparaciones
+ * pendientes, el recorrido de los directorios espera a que termine alguna. Así el número de documentos
+ * abiertos a la vez no depende del número de archivos, y con {@link PdfReaders#setLowMemoryMode(boolean)}
+ * la ejecución cabe en un tamaño de heap fijo ({@code -Xmx}).</p>
+ *
+ * <p>También puede ejecutarse desde la línea de comandos:</p>
+ * <pre>
+ * java -Xmx512m -cp clioPDF.jar io.github.dabogadog.BatchComparator [--threads N] [--queue N]
+ *      [--full] [--fail-fast | --max-differences N] [--low-memory] [--output resultados.jsonl]
+ *      directorio1 directorio2
+ * </pre>
+ */
+public class BatchComparator {
+
+    private static final Logger logger = Logger.getLogger(BatchComparator.class.getName());
+
+    /**
+     * Cada cuántos archivos se registra el progreso.
+     */
+    private static final int PROGRESS_INTERVAL = 100;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = -1;
+    private boolean fullComparison;
+    private ComparisonMode mode = ComparisonMode.EXHAUSTIVE;
+
+    /**
+     * @param parallelism Número de comparaciones simultáneas.
+     * @return Este comparador.
+     */
+    public BatchComparator setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("El paralelismo debe ser al menos 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @param queueCapacity Comparaciones que pueden esperar en cola además de las que se están ejecutando.
+     *                      Por defecto, el doble del paralelismo.
+     * @return Este comparador.
+     */
+    public BatchComparator setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("La capacidad de la cola no puede ser negativa: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * @param fullComparison true para comparar también metadatos, propiedades de página, recursos, marcadores y
+     *                       enlaces, como {@link PdfDocumentHandle#compareAll(PdfDocumentHandle, PdfDocumentHandle)};
+     *                       false (por defecto) para comparar solo el texto.
+     * @return Este comparador.
+     */
+    public BatchComparator setFullComparison(boolean fullComparison) {
+        this.fullComparison = fullComparison;
+        return this;
+    }
+
+    /**
+     * @param mode Cuántas diferencias buscar en cada par de archivos antes de pasar al siguiente. Por
+     *             defecto, todas; con {@link ComparisonMode#FAIL_FAST} el número de páginas diferentes de
+     *             cada resultado es como mucho 1.
+     * @return Este comparador.
+     */
+    public BatchComparator setMode(ComparisonMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("El modo de comparación no puede ser null");
+        }
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * Compara todos los archivos PDF de dos árboles de directorios.
+     *
+     * @param directory1 Directorio con los archivos de referencia.
+     * @param directory2 Directorio con los archivos a comparar.
+     * @param output     Destino de los resultados en formato JSON Lines. Cada línea se vacía al escribirse.
+     * @return El resumen de la ejecución.
+     * @throws IOException Si ocurre un error recorriendo los directorios o escribiendo los resultados.
+     */
+    public BatchReport compareDirectories(Path directory1, Path directory2, Writer output) throws IOException {
+        long start = System.nanoTime();
+        Run run = new Run(output, start);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory());
+        Semaphore slots = new Semaphore(parallelism + (queueCapacity >= 0 ? queueCapacity : 2 * parallelism));
+
+        try {
+            Files.walkFileTree(directory1, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    if (!isPdf(file)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    run.checkFailure();
+                    String relative = relativePath(directory1, file);
+                    Path counterpart = directory2.resolve(relative);
+                    if (!Files.isRegularFile(counterpart)) {
+                        run.record(new BatchFileResult(relative, BatchFileResult.Status.MISSING, -1, -1, -1, 0, null), 0);
+                        return FileVisitResult.CONTINUE;
+                    }
+                    try {
+                        slots.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Comparación por lotes interrumpida", e);
+                    }
+                    executor.execute(() -> {
+                        try {
+                            BatchFileResult result = compare(relative, file, counterpart);
+                            run.record(result, Math.max(result.getNumberOfPages1(), 0));
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            Files.walkFileTree(directory2, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    if (isPdf(file)) {
+                        String relative = relativePath(directory2, file);
+                        if (!Files.isRegularFile(directory1.resolve(relative))) {
+                            run.record(new BatchFileResult(relative, BatchFileResult.Status.EXTRA, -1, -1, -1, 0, null), 0);
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.log(Level.INFO, "Esperando a que terminen las comparaciones: {0}", run.progress());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Comparación por lotes interrumpida", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        run.checkFailure();
+
+        BatchReport report = run.report();
+        run.writeLine(report.toJson());
+        logger.log(Level.INFO, "Comparación por lotes terminada: {0}", report);
+        return report;
+    }
+
+    private BatchFileResult compare(String relative, Path file1, Path file2) {
+        long start = System.nanoTime();
+        try {
+            PDFComparisonResult result;
+            boolean equal;
+            if (fullComparison) {
+                try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(file1.toString());
+                     PdfDocumentHandle handle2 = PdfDocumentHandle.open(file2.toString())) {
+                    result = PDFComparator.comparePDFsDetailed(handle1, handle2, mode);
+                    equal = PdfDocumentHandle.compareStructure(handle1, handle2, mode, result.areEqual());
+                }
+            } else {
+                result = PDFComparator.comparePDFsDetailed(file1.toString(), null, file2.toString(), null, mode);
+                equal = result.areEqual();
+            }
+
+            int differentPages = -1;
+            if (!result.isPageCountDifferent()) {
+                differentPages = 0;
+                for (PDFComparisonResult.PageResult page : result.getPages()) {
+                    if (!page.isEqual()) {
+                        differentPages++;
+                    }
+                }
+            }
+            return new BatchFileResult(relative, equal ? BatchFileResult.Status.EQUAL : BatchFileResult.Status.DIFFERENT,
+                    result.getNumberOfPages1(), result.getNumberOfPages2(), differentPages, elapsedMillis(start), null);
+        } catch (Exception | OutOfMemoryError e) {
+            logger.log(Level.WARNING, "Ocurrió un error comparando " + relative + ":", e);
+            return new BatchFileResult(relative, BatchFileResult.Status.ERROR, -1, -1, -1, elapsedMillis(start), e.toString());
+        }
+    }
+
+    private static boolean isPdf(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".pdf");
+    }
+
+    private static String relativePath(Path directory, Path file) {
+        return directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Ejecuta la comparación por lotes desde la línea de comandos. Termina con código 0 si todos los archivos
+     * son iguales, 1 si hay diferencias, archivos que faltan o errores, y 2 si los argumentos no son válidos.
+     *
+     * @param args Opciones y los dos directorios a comparar.
+     */
+    public static void main(String[] args) {
+        BatchComparator comparator = new BatchComparator();
+        String outputPath = null;
+        String directory1 = null;
+        String directory2 = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        comparator.setParallelism(Integer.parseInt(args[++i]));
+                        break;
+                    case "--queue":
+                        comparator.setQueueCapacity(Integer.parseInt(args[++i]));
+                        break;
+                    case "--full":
+                        comparator.setFullComparison(true);
+                        break;
+                    case "--fail-fast":
+                        comparator.setMode(ComparisonMode.FAIL_FAST);
+                        break;
+                    case "--max-differences":
+                        comparator.setMode(ComparisonMode.firstDifferences(Integer.parseInt(args[++i])));
+                        break;
+                    case "--low-memory":
+                        PdfReaders.setLowMemoryMode(true);
+                        break;
+                    case "--output":
+                        outputPath = args[++i];
+                        break;
+                    default:
+                        if (directory1 == null) {
+                            directory1 = args[i];
+                        } else if (directory2 == null) {
+                            directory2 = args[i];
+                        } else {
+                            throw new IllegalArgumentException("Argumento inesperado: " + args[i]);
+                        }
+                }
+            }
+            if (directory2 == null) {
+                throw new IllegalArgumentException("Faltan los directorios a comparar");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: BatchComparator [--threads N] [--queue N] [--full] "
+                    + "[--fail-fast | --max-differences N] [--low-memory] [--output archivo.jsonl] "
+                    + "directorio1 directorio2");
+            System.exit(2);
+            return;
+        }
+
+        try (Writer output = outputPath != null
+                ? Files.newBufferedWriter(Paths.get(outputPath), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            BatchReport report = comparator.compareDirectories(Paths.get(directory1), Paths.get(directory2), output);
+            output.flush();
+            System.exit(report.allEqual() ? 0 : 1);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación por lotes:", e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Estado compartido de una ejecución: los contadores y el destino de los resultados.
+     */
+    private static final class Run {
+
+        private final Writer output;
+        private final long start;
+        private final Map<BatchFileResult.Status, Long> counts = new EnumMap<>(BatchFileResult.Status.class);
+        private long files;
+        private long pages;
+        private IOException failure;
+
+        private Run(Writer output, long start) {
+            this.output = output;
+            this.start = start;
+        }
+
+        private synchronized void record(BatchFileResult result, int resultPages) {
+            Long count = counts.get(result.getStatus());
+            counts.put(result.getStatus(), count != null ? count + 1 : 1);
+            files++;
+            pages += resultPages;
+            try {
+                writeLine(result.toJson());
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            if (files % PROGRESS_INTERVAL == 0) {
+                logger.log(Level.INFO, "Progreso de la comparación por lotes: {0}", progress());
+            }
+        }
+
+        private synchronized void writeLine(String line) throws IOException {
+            output.write(line);
+            output.write('\n');
+            output.flush();
+        }
+
+        private synchronized void checkFailure() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private synchronized String progress() {
+            return report().toString();
+        }
+
+        private synchronized BatchReport report() {
+            return new BatchReport(counts, pages, elapsedMillis(start));
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "clioPdf-batch-" + COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
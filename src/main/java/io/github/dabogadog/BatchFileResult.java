@@ -0,0 +1,146 @@
+package io.github.dabogadog;
+
+/**
+ * Esta clase contiene el resultado de comparar un archivo de una ejecución por lotes de {@link BatchComparator}.
+ */
+public final class BatchFileResult {
+
+    /**
+     * Resultado de un archivo.
+     */
+    public enum Status {
+        /** Los dos archivos son iguales. */
+        EQUAL,
+        /** Los archivos son diferentes. */
+        DIFFERENT,
+        /** El archivo existe en el primer directorio pero no en el segundo. */
+        MISSING,
+        /** El archivo existe en el segundo directorio pero no en el primero. */
+        EXTRA,
+        /** Ocurrió un error durante la comparación. */
+        ERROR
+    }
+
+    private final String path;
+    private final Status status;
+    private final int pages1;
+    private final int pages2;
+    private final int differentPages;
+    private final long elapsedMillis;
+    private final String message;
+
+    BatchFileResult(String path, Status status, int pages1, int pages2, int differentPages, long elapsedMillis,
+                    String message) {
+        this.path = path;
+        this.status = status;
+        this.pages1 = pages1;
+        this.pages2 = pages2;
+        this.differentPages = differentPages;
+        this.elapsedMillis = elapsedMillis;
+        this.message = message;
+    }
+
+    /**
+     * @return Ruta del archivo relativa a los directorios comparados, con {@code /} como separador.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return El resultado del archivo.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Número de páginas del primer archivo, o -1 si no se abrió.
+     */
+    public int getNumberOfPages1() {
+        return pages1;
+    }
+
+    /**
+     * @return Número de páginas del segundo archivo, o -1 si no se abrió.
+     */
+    public int getNumberOfPages2() {
+        return pages2;
+    }
+
+    /**
+     * @return Número de páginas con texto diferente, o -1 si no se compararon las páginas.
+     */
+    public int getDifferentPages() {
+        return differentPages;
+    }
+
+    /**
+     * @return Tiempo de la comparación en milisegundos.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return La descripción del error, o null si no hubo error.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return El resultado como un objeto JSON en una sola línea.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"type\":\"file\",\"path\":");
+        appendJsonString(sb, path);
+        sb.append(",\"status\":\"").append(status).append('"');
+        sb.append(",\"pages1\":").append(pages1);
+        sb.append(",\"pages2\":").append(pages2);
+        sb.append(",\"differentPages\":").append(differentPages);
+        sb.append(",\"millis\":").append(elapsedMillis);
+        if (message != null) {
+            sb.append(",\"message\":");
+            appendJsonString(sb, message);
+        }
+        return sb.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return status + " " + path;
+    }
+
+    static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.dabogadog;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Esta clase contiene el resumen de una ejecución por lotes de {@link BatchComparator}: el número de archivos
+ * de cada resultado y el rendimiento. Solo guarda contadores, no los resultados de cada archivo, para que la
+ * memoria no crezca con el número de archivos.
+ */
+public final class BatchReport {
+
+    private final Map<BatchFileResult.Status, Long> counts;
+    private final long pages;
+    private final long elapsedMillis;
+
+    BatchReport(Map<BatchFileResult.Status, Long> counts, long pages, long elapsedMillis) {
+        this.counts = new EnumMap<>(counts);
+        this.pages = pages;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @param status Resultado buscado.
+     * @return Número de archivos con ese resultado.
+     */
+    public long count(BatchFileResult.Status status) {
+        Long count = counts.get(status);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @return Número total de archivos procesados, incluidos los que faltan en alguno de los directorios.
+     */
+    public long getFiles() {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return Número de páginas comparadas (las del primer archivo de cada par).
+     */
+    public long getPages() {
+        return pages;
+    }
+
+    /**
+     * @return true si todos los archivos existen en los dos directorios y son iguales.
+     */
+    public boolean allEqual() {
+        return count(BatchFileResult.Status.EQUAL) == getFiles();
+    }
+
+    /**
+     * @return Tiempo total de la ejecución en milisegundos.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return Archivos procesados por segundo.
+     */
+    public double getFilesPerSecond() {
+        return perSecond(getFiles());
+    }
+
+    /**
+     * @return Páginas comparadas por segundo.
+     */
+    public double getPagesPerSecond() {
+        return perSecond(pages);
+    }
+
+    private double perSecond(long value) {
+        return elapsedMillis > 0 ? value * 1000.0 / elapsedMillis : 0;
+    }
+
+    /**
+     * @return El resumen como un objeto JSON en una sola línea.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"type\":\"summary\"");
+        for (BatchFileResult.Status status : BatchFileResult.Status.values()) {
+            sb.append(",\"").append(status.name().toLowerCase(Locale.ROOT)).append("\":").append(count(status));
+        }
+        sb.append(",\"files\":").append(getFiles());
+        sb.append(",\"pages\":").append(pages);
+        sb.append(",\"millis\":").append(elapsedMillis);
+        sb.append(",\"filesPerSecond\":").append(String.format(Locale.ROOT, "%.2f", getFilesPerSecond()));
+        sb.append(",\"pagesPerSecond\":").append(String.format(Locale.ROOT, "%.2f", getPagesPerSecond()));
+        return sb.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "BatchReport[archivos=%d, iguales=%d, diferentes=%d, faltantes=%d, "
+                        + "sobrantes=%d, errores=%d, páginas=%d, ms=%d, archivos/s=%.2f, páginas/s=%.2f]",
+                getFiles(), count(BatchFileResult.Status.EQUAL), count(BatchFileResult.Status.DIFFERENT),
+                count(BatchFileResult.Status.MISSING), count(BatchFileResult.Status.EXTRA),
+                count(BatchFileResult.Status.ERROR), pages, elapsedMillis, getFilesPerSecond(), getPagesPerSecond());
+    }
+}
@@ -1,10 +1,19 @@
 package io.github.dabogadog;
 
-import com.itextpdf.text.pdf.PdfArray;
-import com.itextpdf.text.pdf.PdfDictionary;
-import com.itextpdf.text.pdf.PdfName;
-import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfString;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,6 +24,13 @@ public class BookmarksAndLinksComparator {
 
     private static final Logger logger = Logger.getLogger(BookmarksAndLinksComparator.class.getName());
 
+    private static final String BOOKMARKS_PATH = "Marcadores";
+
+    /**
+     * Tolerancia para comparar las coordenadas del rectángulo de las anotaciones.
+     */
+    private static final float RECT_EPSILON = 0.01f;
+
     /**
      * Compara los marcadores y los enlaces internos de dos archivos PDF.
      *
@@ -23,24 +39,49 @@ public class BookmarksAndLinksComparator {
      * @return true si los marcadores y enlaces son iguales, false si son diferentes o si ocurre un error.
      */
     public static boolean compareBookmarksAndLinks(String filePath1, String filePath2) {
-        try {
-            PdfReader reader1 = new PdfReader(filePath1);
-            PdfReader reader2 = new PdfReader(filePath2);
+        return compareBookmarksAndLinks(filePath1, null, filePath2, null);
+    }
 
-            boolean areBookmarksEqual = compareBookmarks(reader1, reader2);
-            if (!areBookmarksEqual) {
-                logger.log(Level.INFO, "Los marcadores de los archivos PDF son diferentes.");
-            }
+    /**
+     * Compara los marcadores y los enlaces internos de dos archivos PDF, protegidos o no.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return true si los marcadores y enlaces son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean compareBookmarksAndLinks(String filePath1, PdfCredentials credentials1,
+                                                   String filePath2, PdfCredentials credentials2) {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return compareBookmarksAndLinks(handle1, handle2);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de marcadores y enlaces:", e);
+            return false;
+        }
+    }
 
-            boolean areLinksEqual = compareLinks(reader1, reader2);
-            if (!areLinksEqual) {
-                logger.log(Level.INFO, "Los enlaces internos de los archivos PDF son diferentes.");
+    /**
+     * Compara los marcadores y los enlaces internos de dos documentos ya abiertos.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return true si los marcadores y enlaces son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean compareBookmarksAndLinks(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        try {
+            StructureDifference bookmarkDifference = findBookmarkDifference(handle1, handle2);
+            if (bookmarkDifference != null) {
+                logger.log(Level.INFO, "Los marcadores de los archivos PDF son diferentes: {0}", bookmarkDifference);
             }
 
-            reader1.close();
-            reader2.close();
+            StructureDifference linkDifference = findLinkDifference(handle1, handle2);
+            if (linkDifference != null) {
+                logger.log(Level.INFO, "Los enlaces internos de los archivos PDF son diferentes: {0}", linkDifference);
+            }
 
-            return areBookmarksEqual && areLinksEqual;
+            return bookmarkDifference == null && linkDifference == null;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de marcadores y enlaces:", e);
             return false;
@@ -48,83 +89,379 @@ public class BookmarksAndLinksComparator {
     }
 
     /**
-     * Compara los marcadores de dos archivos PDF.
+     * Busca la primera diferencia en los marcadores o, si son iguales, en las anotaciones de dos archivos PDF.
      *
-     * @param reader1 Lector del primer archivo PDF.
-     * @param reader2 Lector del segundo archivo PDF.
-     * @return true si los marcadores son iguales, false si son diferentes o uno de los archivos no tiene marcadores.
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return La primera diferencia, o null si los marcadores y las anotaciones son iguales.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
      */
-    private static boolean compareBookmarks(PdfReader reader1, PdfReader reader2) {
-        PdfDictionary bookmarks1 = reader1.getCatalog().getAsDict(PdfName.OUTLINES);
-        PdfDictionary bookmarks2 = reader2.getCatalog().getAsDict(PdfName.OUTLINES);
+    public static StructureDifference findDifference(String filePath1, String filePath2) throws IOException {
+        return findDifference(filePath1, null, filePath2, null);
+    }
 
-        if (bookmarks1 == null || bookmarks2 == null) {
-            logger.log(Level.INFO, "Uno de los archivos PDF no tiene marcadores.");
-            return false;
+    /**
+     * Busca la primera diferencia en los marcadores o en las anotaciones de dos archivos PDF, protegidos o no.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return La primera diferencia, o null si los marcadores y las anotaciones son iguales.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static StructureDifference findDifference(String filePath1, PdfCredentials credentials1,
+                                                     String filePath2, PdfCredentials credentials2)
+            throws IOException {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            StructureDifference difference = findBookmarkDifference(handle1, handle2);
+            return difference != null ? difference : findLinkDifference(handle1, handle2);
         }
+    }
+
+    /**
+     * Recorre a la vez los árboles de marcadores de dos documentos (por {@code /First} y {@code /Next}) y se
+     * detiene en la primera diferencia de título o de destino. El recorrido es iterativo, detecta ciclos y
+     * resuelve los destinos, incluidos los destinos con nombre, a números de página.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return La primera diferencia, o null si los marcadores son iguales o ninguno de los dos tiene.
+     */
+    public static StructureDifference findBookmarkDifference(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        long start = Metrics.start();
+        StructureDifference difference = PdfDocumentHandle.withLocks(handle1, handle2,
+                () -> bookmarkDifference(handle1, handle2));
+        Metrics.end(ComparisonMetrics.Phase.COMPARE, start);
+        return difference;
+    }
+
+    private static StructureDifference bookmarkDifference(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        PdfDictionary root1 = handle1.getOutlines();
+        PdfDictionary root2 = handle2.getOutlines();
 
-        return bookmarks1.toString().equals(bookmarks2.toString());
+        Deque<Frame> pending = new ArrayDeque<>();
+        pending.push(new Frame(first(root1), first(root2), null, 1));
+        Set<Integer> visited1 = new HashSet<>();
+        Set<Integer> visited2 = new HashSet<>();
+
+        while (!pending.isEmpty()) {
+            Frame frame = pending.pop();
+            if (frame.object1 == null && frame.object2 == null) {
+                continue;
+            }
+            PdfDictionary item1 = asDictionary(frame.object1);
+            PdfDictionary item2 = asDictionary(frame.object2);
+            if (item1 == null || item2 == null) {
+                return new StructureDifference(frame.path(BOOKMARKS_PATH), "Marcador",
+                        item1 == null ? null : title(item1), item2 == null ? null : title(item2));
+            }
+
+            boolean revisited1 = !markVisited(visited1, frame.object1);
+            boolean revisited2 = !markVisited(visited2, frame.object2);
+            if (revisited1 || revisited2) {
+                if (revisited1 && revisited2) {
+                    // El mismo ciclo en los dos archivos: no se vuelve a recorrer.
+                    continue;
+                }
+                return new StructureDifference(frame.path(BOOKMARKS_PATH), "Ciclo",
+                        String.valueOf(revisited1), String.valueOf(revisited2));
+            }
+
+            PdfString title1 = item1.getAsString(PdfName.Title);
+            PdfString title2 = item2.getAsString(PdfName.Title);
+            if (!sameString(title1, title2)) {
+                return new StructureDifference(frame.path(BOOKMARKS_PATH), "Title", title(item1), title(item2));
+            }
+
+            StructureDifference targetDifference = compareTargets(handle1, item1, handle2, item2, frame, BOOKMARKS_PATH);
+            if (targetDifference != null) {
+                return targetDifference;
+            }
+
+            // Primero los hijos y después el siguiente hermano, para recorrer en preorden.
+            pending.push(new Frame(item1.get(PdfName.Next, false), item2.get(PdfName.Next, false), frame.parent, frame.index + 1));
+            pending.push(new Frame(item1.get(PdfName.First, false), item2.get(PdfName.First, false), frame, 1));
+        }
+        return null;
     }
 
     /**
-     * Compara los enlaces internos de dos archivos PDF.
+     * Compara las anotaciones de cada página de dos documentos y se detiene en la primera diferencia de
+     * tipo, posición o destino.
      *
-     * @param reader1 Lector del primer archivo PDF.
-     * @param reader2 Lector del segundo archivo PDF.
-     * @return true si los enlaces son iguales, false si son diferentes o uno de los archivos no tiene enlaces en una página.
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return La primera diferencia, o null si las anotaciones son iguales.
      */
-    private static boolean compareLinks(PdfReader reader1, PdfReader reader2) {
-        int numPages1 = reader1.getNumberOfPages();
-        int numPages2 = reader2.getNumberOfPages();
+    public static StructureDifference findLinkDifference(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        long start = Metrics.start();
+        StructureDifference difference = linkDifference(handle1, handle2);
+        Metrics.end(ComparisonMetrics.Phase.COMPARE, start);
+        return difference;
+    }
+
+    private static StructureDifference linkDifference(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        int numPages1 = handle1.getNumberOfPages();
+        int numPages2 = handle2.getNumberOfPages();
 
         if (numPages1 != numPages2) {
-            logger.log(Level.INFO, "Los archivos PDF tienen un número diferente de páginas.");
-            return false;
+            return new StructureDifference("Documento", "Páginas", String.valueOf(numPages1), String.valueOf(numPages2));
         }
 
         for (int i = 1; i <= numPages1; i++) {
-            PdfDictionary pageDict1 = reader1.getPageN(i);
-            PdfDictionary pageDict2 = reader2.getPageN(i);
+            StructureDifference difference = pageLinkDifference(handle1, handle2, i);
+            if (difference != null) {
+                return difference;
+            }
+        }
 
-            PdfArray annotations1 = pageDict1.getAsArray(PdfName.ANNOTS);
-            PdfArray annotations2 = pageDict2.getAsArray(PdfName.ANNOTS);
+        return null;
+    }
 
-            if (annotations1 == null || annotations2 == null) {
-                // Uno de los archivos PDF no tiene enlaces en esta página
-                if (annotations1 == null && annotations2 == null) {
-                    // Ambos archivos no tienen enlaces, por lo que son iguales en esta página
-                    continue;
-                } else {
-                    // Solo uno de los archivos tiene enlaces, por lo que son diferentes en esta página
-                    logger.log(Level.INFO, "Los enlaces internos de la página " + i + " son diferentes.");
-                    return false;
+    /**
+     * Compara las anotaciones de una página de dos documentos, con los monitores de los dos, porque recorre
+     * los objetos de iText de cada documento.
+     *
+     * @param pageNumber Número de página, empezando en 1, que existe en los dos documentos.
+     * @return La primera diferencia de la página, o null si sus anotaciones son iguales.
+     */
+    static StructureDifference pageLinkDifference(PdfDocumentHandle handle1, PdfDocumentHandle handle2,
+                                                  int pageNumber) {
+        return PdfDocumentHandle.withLocks(handle1, handle2,
+                () -> annotationDifference(handle1, handle2, pageNumber));
+    }
+
+    private static StructureDifference annotationDifference(PdfDocumentHandle handle1, PdfDocumentHandle handle2,
+                                                            int pageNumber) {
+        PdfArray annotations1 = handle1.getAnnotations(pageNumber);
+        PdfArray annotations2 = handle2.getAnnotations(pageNumber);
+        int count1 = annotations1 == null ? 0 : annotations1.size();
+        int count2 = annotations2 == null ? 0 : annotations2.size();
+        String pagePath = "Página " + pageNumber;
+
+        if (count1 != count2) {
+            return new StructureDifference(pagePath, "Anotaciones", String.valueOf(count1), String.valueOf(count2));
+        }
+
+        for (int j = 0; j < count1; j++) {
+            PdfDictionary annotation1 = annotations1.getAsDictionary(j);
+            PdfDictionary annotation2 = annotations2.getAsDictionary(j);
+            Frame frame = new Frame(null, null, null, j + 1);
+            String annotationsPath = pagePath + "/Anotación";
+            if (annotation1 == null || annotation2 == null) {
+                if (annotation1 != annotation2) {
+                    return new StructureDifference(frame.path(annotationsPath), "Anotación",
+                            String.valueOf(annotation1 != null), String.valueOf(annotation2 != null));
                 }
+                continue;
             }
 
-            if (!annotations1.toString().equals(annotations2.toString())) {
-                logger.log(Level.INFO, "Los enlaces internos de la página " + i + " son diferentes.");
-                return false;
+            PdfName subtype1 = annotation1.getAsName(PdfName.Subtype);
+            PdfName subtype2 = annotation2.getAsName(PdfName.Subtype);
+            if (subtype1 == null ? subtype2 != null : !subtype1.equals(subtype2)) {
+                return new StructureDifference(frame.path(annotationsPath), "Subtype",
+                        String.valueOf(subtype1), String.valueOf(subtype2));
+            }
+
+            PdfArray rect1 = annotation1.getAsArray(PdfName.Rect);
+            PdfArray rect2 = annotation2.getAsArray(PdfName.Rect);
+            if (!sameNumbers(rect1, rect2)) {
+                return new StructureDifference(frame.path(annotationsPath), "Rect",
+                        String.valueOf(rect1), String.valueOf(rect2));
+            }
+
+            if (PdfName.Link.equals(subtype1)) {
+                StructureDifference targetDifference =
+                        compareTargets(handle1, annotation1, handle2, annotation2, frame, annotationsPath);
+                if (targetDifference != null) {
+                    return targetDifference;
+                }
             }
         }
+        return null;
+    }
+
+    /**
+     * Compara el destino o la acción de un marcador o de una anotación de enlace.
+     */
+    private static StructureDifference compareTargets(PdfDocumentHandle handle1, PdfDictionary item1,
+                                                      PdfDocumentHandle handle2, PdfDictionary item2,
+                                                      Frame frame, String rootPath) {
+        PdfObject dest1 = item1.get(PdfName.Dest);
+        PdfObject dest2 = item2.get(PdfName.Dest);
+        PdfDictionary action1 = item1.getAsDictionary(PdfName.A);
+        PdfDictionary action2 = item2.getAsDictionary(PdfName.A);
+
+        PdfName type1 = action1 == null ? null : action1.getAsName(PdfName.S);
+        PdfName type2 = action2 == null ? null : action2.getAsName(PdfName.S);
+        if (dest1 == null && PdfName.GoTo.equals(type1)) {
+            dest1 = action1.get(PdfName.D);
+            type1 = null;
+        }
+        if (dest2 == null && PdfName.GoTo.equals(type2)) {
+            dest2 = action2.get(PdfName.D);
+            type2 = null;
+        }
+
+        if (dest1 != null || dest2 != null) {
+            PdfArray explicit1 = explicitDestination(handle1, dest1);
+            PdfArray explicit2 = explicitDestination(handle2, dest2);
+            int page1 = destinationPage(handle1, explicit1);
+            int page2 = destinationPage(handle2, explicit2);
+            PdfName fit1 = explicit1 == null ? null : explicit1.getAsName(1);
+            PdfName fit2 = explicit2 == null ? null : explicit2.getAsName(1);
+            if (page1 != page2 || (fit1 == null ? fit2 != null : !fit1.equals(fit2))) {
+                return new StructureDifference(frame.path(rootPath), "Destino",
+                        describeDestination(page1, fit1), describeDestination(page2, fit2));
+            }
+            return null;
+        }
+
+        if (type1 == null ? type2 != null : !type1.equals(type2)) {
+            return new StructureDifference(frame.path(rootPath), "Acción", String.valueOf(type1), String.valueOf(type2));
+        }
+        if (PdfName.URI.equals(type1)) {
+            PdfString uri1 = action1.getAsString(PdfName.URI);
+            PdfString uri2 = action2.getAsString(PdfName.URI);
+            if (!sameString(uri1, uri2)) {
+                return new StructureDifference(frame.path(rootPath), "URI",
+                        uri1 == null ? null : uri1.toUnicodeString(), uri2 == null ? null : uri2.toUnicodeString());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Devuelve el destino explícito ({@code [página /Ajuste ...]}), resolviendo los destinos con nombre.
+     */
+    private static PdfArray explicitDestination(PdfDocumentHandle handle, PdfObject dest) {
+        if (dest == null) {
+            return null;
+        }
+        if (dest.isArray()) {
+            return (PdfArray) dest;
+        }
+        String name = null;
+        if (dest.isName()) {
+            name = ((PdfName) dest).getValue();
+        } else if (dest.isString()) {
+            name = ((PdfString) dest).toUnicodeString();
+        }
+        PdfObject resolved = name == null ? null : resolve(handle.getNamedDestinations().get(name));
+        if (resolved != null && resolved.isDictionary()) {
+            resolved = ((PdfDictionary) resolved).get(PdfName.D);
+        }
+        return resolved != null && resolved.isArray() ? (PdfArray) resolved : null;
+    }
+
+    private static int destinationPage(PdfDocumentHandle handle, PdfArray explicit) {
+        if (explicit == null || explicit.isEmpty()) {
+            return -1;
+        }
+        PdfObject page = explicit.get(0, false);
+        if (page instanceof PdfIndirectReference) {
+            return handle.getPageNumber(page);
+        }
+        // Destinos remotos: el número de página empieza en 0.
+        return page != null && page.isNumber() ? ((PdfNumber) page).intValue() + 1 : -1;
+    }
+
+    private static String describeDestination(int page, PdfName fit) {
+        return page < 0 ? "sin destino" : "página " + page + (fit != null ? " " + fit : "");
+    }
 
+    private static PdfObject first(PdfDictionary root) {
+        return root == null ? null : root.get(PdfName.First, false);
+    }
+
+    private static boolean markVisited(Set<Integer> visited, PdfObject object) {
+        return !(object instanceof PdfIndirectReference) || visited.add(((PdfIndirectReference) object).getObjNumber());
+    }
+
+    private static boolean sameString(PdfString s1, PdfString s2) {
+        if (s1 == null || s2 == null) {
+            return s1 == s2;
+        }
+        return Arrays.equals(s1.getValueBytes(), s2.getValueBytes()) || s1.toUnicodeString().equals(s2.toUnicodeString());
+    }
+
+    private static boolean sameNumbers(PdfArray array1, PdfArray array2) {
+        if (array1 == null || array2 == null) {
+            return array1 == array2;
+        }
+        if (array1.size() != array2.size()) {
+            return false;
+        }
+        for (int i = 0; i < array1.size(); i++) {
+            PdfNumber n1 = array1.getAsNumber(i);
+            PdfNumber n2 = array2.getAsNumber(i);
+            if (n1 == null || n2 == null ? n1 != n2 : Math.abs(n1.floatValue() - n2.floatValue()) > RECT_EPSILON) {
+                return false;
+            }
+        }
         return true;
     }
+
+    /**
+     * Resuelve una referencia indirecta; los objetos directos se devuelven tal cual.
+     */
+    private static PdfObject resolve(PdfObject object) {
+        return object instanceof PdfIndirectReference ? ((PdfIndirectReference) object).getRefersTo() : object;
+    }
+
+    private static PdfDictionary asDictionary(PdfObject object) {
+        PdfObject resolved = resolve(object);
+        return resolved != null && resolved.isDictionary() ? (PdfDictionary) resolved : null;
+    }
+
+    private static String title(PdfDictionary item) {
+        PdfString title = item.getAsString(PdfName.Title);
+        return title == null ? null : title.toUnicodeString();
+    }
+
+    /**
+     * Posición de un elemento durante el recorrido: los objetos de cada archivo en esa posición, el marcador
+     * padre y el índice entre sus hermanos. La ruta solo se construye cuando se informa una diferencia.
+     */
+    private static final class Frame {
+
+        private final PdfObject object1;
+        private final PdfObject object2;
+        private final Frame parent;
+        private final int index;
+
+        private Frame(PdfObject object1, PdfObject object2, Frame parent, int index) {
+            this.object1 = object1;
+            this.object2 = object2;
+            this.parent = parent;
+            this.index = index;
+        }
+
+        private String path(String root) {
+            StringBuilder sb = new StringBuilder();
+            for (Frame frame = this; frame != null; frame = frame.parent) {
+                sb.insert(0, frame.index).insert(0, '/');
+            }
+            return sb.insert(0, root).toString();
+        }
+    }
 }
 
 
 
 
 /**
-*En este código, abrimos y leemos ambos archivos PDF utilizando PdfReader. Luego, comparamos los marcadores utilizando
-* el método compareBookmarks, y los enlaces intrnos utilizando el método compareLinks.
+*En este código, abrimos ambos archivos PDF una sola vez con PdfDocumentHandle. Luego, comparamos los marcadores
+* con el método findBookmarkDifference, y los enlaces internos con el método findLinkDifference.
 
-En el método compareBookmarks, obtenemos los diccionarios de marcadores de cada archivo utilizando
-* reader.getCatalog().getAsDict(PdfName.OUTLINES). Comparmos los diccionarios de marcadores convertidos a cadenas utilizando toString(). Si los diccionarios de marcadores son iguales, se devuelve true.
+En el método findBookmarkDifference, recorremos a la vez los dos árboles de marcadores siguiendo /First y /Next
+* con una pila explícita, sin recursión y sin convertir los diccionarios a cadenas. En cada marcador comparamos el
+* título y el destino resuelto a número de página, y nos detenemos en la primera diferencia, indicando su ruta.
 
-En el método compareLinks, iteramos sobre cada página de los archivos PDF y obtenemos los diccionarios
-* de anotaciones de cada página utilizando reader.getPageN(i).getAsArray(PdfName.ANNOTS). Comparamos
-* los diccionarios de anotaciones convertidos a cadenas utilizando toString(). Si los diccionarios
-* de anotaciones de todas las páginas son iguales, se devuelve true.
+En el método findLinkDifference, iteramos sobre cada página de los archivos PDF y comparamos sus anotaciones una
+* por una: tipo, rectángulo y, para los enlaces, el destino o la URI.
 
-*Si los marcadores y los enlaces internos son iguales, se imprimen mensajes indicando que los marcadores
- */
\ No newline at end of file
+*Si los marcadores y los enlaces internos son iguales, el método compareBookmarksAndLinks devuelve true.
+ */
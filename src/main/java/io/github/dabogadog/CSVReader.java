@@ -1,16 +1,61 @@
 package io.github.dabogadog;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+/**
+ * Esta clase busca frases en archivos CSV. El archivo se lee por bloques con un conjunto de caracteres
+ * explícito y cada campo se recorre con un único autómata para todas las frases ({@link PhraseMatcher}), sin
+ * crear cadenas por registro. La lectura termina en cuanto se encuentran todas las frases.
+ *
+ * <p>El formato es el de {@code CSVFormat.DEFAULT}: campos separados por comas, comillas dobles para los
+ * campos con separadores o saltos de línea (con {@code ""} como comilla escapada) y líneas vacías ignoradas.
+ * Las frases no se buscan a través de campos distintos.</p>
+ */
 public class CSVReader {
 
+    private static final Logger logger = Logger.getLogger(CSVReader.class.getName());
+
+    /**
+     * Tamaño de los bloques de lectura y de decodificación.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Tamaño mínimo de cada trozo del archivo en el modo paralelo.
+     */
+    private static final long MIN_CHUNK_SIZE = 8L << 20;
+
+    /**
+     * Trozos por hilo en el modo paralelo: con más trozos que hilos, los primeros del archivo terminan antes
+     * y los siguientes pueden descartarse en cuanto ya no aportan una primera aparición.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Cada cuántos registros se revisa si la búsqueda puede terminar en el modo paralelo.
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
     /**
      * Busca frases en un archivo CSV.
      *
@@ -19,45 +64,407 @@ public class CSVReader {
      * @return true si todas las frases fueron encontradas, false de lo contrario.
      */
     public static boolean searchPhrasesInCSV(String filePath, String phrasesString) {
-        /**
-         * Convertir la cadena de frases separadas por coma a una lista
-         */
+        return searchPhrasesInCSV(filePath, phrasesString, Charset.defaultCharset());
+    }
+
+    /**
+     * Busca frases en un archivo CSV con el conjunto de caracteres indicado.
+     *
+     * @param filePath      Ruta del archivo CSV.
+     * @param phrasesString Cadena de frases separadas por coma.
+     * @param charset       Conjunto de caracteres del archivo.
+     * @return true si todas las frases fueron encontradas, false de lo contrario.
+     */
+    public static boolean searchPhrasesInCSV(String filePath, String phrasesString, Charset charset) {
+        try {
+            return findPhrasesInCSV(filePath, phrasesString, charset).allFound();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la búsqueda de frases en el CSV:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Busca frases en un archivo CSV leyéndolo en streaming, y se detiene en cuanto las encuentra todas.
+     *
+     * @param filePath      Ruta del archivo CSV.
+     * @param phrasesString Cadena de frases separadas por coma. Se eliminan los espacios de los extremos.
+     * @param charset       Conjunto de caracteres del archivo.
+     * @return El resultado de cada frase, con la primera fila y columna donde aparece.
+     * @throws IOException Si ocurre un error leyendo el archivo.
+     */
+    public static CSVSearchResult findPhrasesInCSV(String filePath, String phrasesString, Charset charset) throws IOException {
+        PhraseMatcher matcher = matcherFor(phrasesString);
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            RecordScanner scanner = new RecordScanner(matcher, null, 0);
+            scanner.scan(channel, 0, channel.size(), charset);
+            return new CSVSearchResult(matcher.getPhrases(), scanner.firstRows, scanner.firstColumns);
+        }
+    }
+
+    /**
+     * Busca frases en un archivo CSV repartiendo el archivo en trozos entre varios hilos. Los trozos se cortan
+     * en límites de registro: primero se cuentan en paralelo las comillas de cada trozo para saber si su
+     * inicio cae dentro de un campo entre comillas, y después cada corte se desplaza al siguiente salto de
+     * línea fuera de comillas. El resultado es el mismo que el de
+     * {@link #findPhrasesInCSV(String, String, Charset)}.
+     *
+     * <p>Requiere un conjunto de caracteres compatible con ASCII (por ejemplo UTF-8 o ISO-8859-1) y comillas
+     * bien formadas; con otros conjuntos de caracteres, o con archivos pequeños, se usa la búsqueda
+     * secuencial.</p>
+     *
+     * @param filePath      Ruta del archivo CSV.
+     * @param phrasesString Cadena de frases separadas por coma. Se eliminan los espacios de los extremos.
+     * @param charset       Conjunto de caracteres del archivo.
+     * @param parallelism   Número de hilos.
+     * @return El resultado de cada frase, con la primera fila y columna donde aparece.
+     * @throws IOException Si ocurre un error leyendo el archivo.
+     */
+    public static CSVSearchResult findPhrasesInCSVParallel(String filePath, String phrasesString, Charset charset,
+                                                           int parallelism) throws IOException {
+        return findPhrasesInCSVParallel(filePath, phrasesString, charset, parallelism, MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Igual que {@link #findPhrasesInCSVParallel(String, String, Charset, int)}, con el tamaño mínimo de cada
+     * trozo indicado, para poder cortar archivos pequeños en muchos trozos.
+     */
+    static CSVSearchResult findPhrasesInCSVParallel(String filePath, String phrasesString, Charset charset,
+                                                    int parallelism, long minChunkSize) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("El paralelismo debe ser al menos 1: " + parallelism);
+        }
+        PhraseMatcher matcher = matcherFor(phrasesString);
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.min((long) parallelism * CHUNKS_PER_THREAD, size / minChunkSize);
+            if (parallelism == 1 || chunks < 2 || !isAsciiCompatible(charset)) {
+                RecordScanner scanner = new RecordScanner(matcher, null, 0);
+                scanner.scan(channel, 0, size, charset);
+                return new CSVSearchResult(matcher.getPhrases(), scanner.firstRows, scanner.firstColumns);
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                return searchChunks(channel, size, chunks, matcher, charset, pool);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static CSVSearchResult searchChunks(FileChannel channel, long size, int chunks, PhraseMatcher matcher,
+                                                Charset charset, ForkJoinPool pool) throws IOException {
+        // Primera pasada: comillas de cada trozo nominal, para conocer el estado al inicio de cada trozo.
+        List<CompletableFuture<Long>> quoteCounts = new ArrayList<>(chunks - 1);
+        for (int i = 0; i < chunks - 1; i++) {
+            final long start = size * i / chunks;
+            final long end = size * (i + 1) / chunks;
+            quoteCounts.add(CompletableFuture.supplyAsync(() -> countQuotes(channel, start, end), pool));
+        }
+
+        long[] boundaries = new long[chunks + 1];
+        boundaries[chunks] = size;
+        long quotes = 0;
+        for (int i = 1; i < chunks; i++) {
+            quotes += await(quoteCounts.get(i - 1));
+            boundaries[i] = Math.max(boundaries[i - 1], recordBoundary(channel, size * i / chunks, (quotes & 1) != 0, size));
+        }
+
+        // Segunda pasada: cada trozo busca las frases y cuenta sus registros para calcular las filas globales.
+        AtomicIntegerArray firstChunks = new AtomicIntegerArray(matcher.size());
+        for (int p = 0; p < matcher.size(); p++) {
+            firstChunks.set(p, Integer.MAX_VALUE);
+        }
+        RecordScanner[] scanners = new RecordScanner[chunks];
+        List<CompletableFuture<Void>> scans = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            final RecordScanner scanner = new RecordScanner(matcher, firstChunks, i);
+            final long start = boundaries[i];
+            final long end = boundaries[i + 1];
+            scanners[i] = scanner;
+            scans.add(CompletableFuture.runAsync(() -> {
+                try {
+                    scanner.scan(channel, start, end, charset);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, pool));
+        }
+        for (CompletableFuture<Void> scan : scans) {
+            await(scan);
+        }
+
+        long[] rowOffsets = new long[chunks];
+        for (int i = 1; i < chunks; i++) {
+            rowOffsets[i] = rowOffsets[i - 1] + scanners[i - 1].records;
+        }
+        long[] firstRows = new long[matcher.size()];
+        int[] firstColumns = new int[matcher.size()];
+        Arrays.fill(firstRows, CSVSearchResult.NOT_FOUND);
+        Arrays.fill(firstColumns, (int) CSVSearchResult.NOT_FOUND);
+        for (int p = 0; p < matcher.size(); p++) {
+            int chunk = firstChunks.get(p);
+            if (chunk != Integer.MAX_VALUE) {
+                firstRows[p] = rowOffsets[chunk] + scanners[chunk].firstRows[p];
+                firstColumns[p] = scanners[chunk].firstColumns[p];
+            }
+        }
+        return new CSVSearchResult(matcher.getPhrases(), firstRows, firstColumns);
+    }
+
+    /**
+     * Convierte la cadena de frases separadas por coma en el autómata de búsqueda, eliminando los espacios
+     * adicionales de cada frase.
+     */
+    private static PhraseMatcher matcherFor(String phrasesString) {
         List<String> phrases = new ArrayList<>();
-        String[] phrasesArray = phrasesString.split(",");
-        for (String phrase : phrasesArray) {
+        for (String phrase : phrasesString.split(",")) {
             phrases.add(phrase.trim());
-            /**
-             * Agregar cada frase a la lista, eliminando espacios adicionales
-             */
-        }
-
-        try (CSVParser parser = new CSVParser(new FileReader(filePath), CSVFormat.DEFAULT)) {
-            for (CSVRecord record : parser) {
-                Iterator<String> iterator = phrases.iterator();
-                while (iterator.hasNext()) {
-                    String phrase = iterator.next();
-                    boolean phraseFound = false;
-                    for (String value : record) {
-                        if (value.contains(phrase)) {
-                            phraseFound = true;
-                            break;
-                        }
-                    }
-                    if (phraseFound) {
-                        iterator.remove();
+        }
+        return new PhraseMatcher(phrases);
+    }
+
+    /**
+     * Indica si las comillas, comas y saltos de línea se codifican con su byte ASCII y ese byte no puede
+     * aparecer dentro de otro carácter, de modo que el archivo puede cortarse sin decodificarlo.
+     */
+    private static boolean isAsciiCompatible(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return true;
+        }
+        return charset.canEncode()
+                && charset.newEncoder().maxBytesPerChar() == 1
+                && Arrays.equals("\",\r\n".getBytes(charset), new byte[]{'"', ',', '\r', '\n'});
+    }
+
+    private static long countQuotes(FileChannel channel, long start, long end) {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        long count = 0;
+        long position = start;
+        try {
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] == '"') {
+                        count++;
                     }
                 }
+                position += read;
             }
         } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    /**
+     * Devuelve la posición siguiente al primer salto de línea fuera de comillas a partir de {@code position}.
+     */
+    private static long recordBoundary(FileChannel channel, long position, boolean inQuotes, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        byte[] bytes = buffer.array();
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] == '"') {
+                    inQuotes = !inQuotes;
+                } else if (bytes[i] == '\n' && !inQuotes) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
         }
+        return size;
+    }
 
-        return phrases.isEmpty();
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
     }
 
+    /**
+     * Recorre los registros de un tramo del archivo carácter a carácter y pasa el contenido de cada campo al
+     * autómata. En el modo paralelo, cuando el tramo ya no puede aportar ninguna primera aparición deja de
+     * buscar y solo cuenta registros, y se detiene del todo si tampoco hace falta su número de registros.
+     */
+    private static final class RecordScanner implements PhraseMatcher.MatchListener {
 
+        private final PhraseMatcher.Session session;
+        private final AtomicIntegerArray firstChunks;
+        private final int chunk;
+        private final long[] firstRows;
+        private final int[] firstColumns;
 
-}
+        private long records;
+        private int column;
+        private boolean lineStarted;
+        private boolean fieldEmpty;
+        private boolean inQuotes;
+        private boolean closingQuote;
+        private boolean matching = true;
+        private boolean stopped;
 
+        private RecordScanner(PhraseMatcher matcher, AtomicIntegerArray firstChunks, int chunk) {
+            this.session = matcher.newSession(this);
+            this.firstChunks = firstChunks;
+            this.chunk = chunk;
+            this.firstRows = new long[matcher.size()];
+            this.firstColumns = new int[matcher.size()];
+            Arrays.fill(firstRows, CSVSearchResult.NOT_FOUND);
+            Arrays.fill(firstColumns, (int) CSVSearchResult.NOT_FOUND);
+        }
 
+        private void scan(FileChannel channel, long start, long end, Charset charset) throws IOException {
+            updateState();
+            CharsetDecoder decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+            CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+            long position = start;
+            boolean endOfInput = false;
+
+            while (!stopped && !endOfInput) {
+                bytes.limit(bytes.position() + (int) Math.min(bytes.remaining(), end - position));
+                int read = channel.read(bytes, position);
+                if (read > 0) {
+                    position += read;
+                }
+                endOfInput = read < 0 || position >= end;
+                bytes.flip();
+
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, endOfInput);
+                    drain(chars);
+                } while (result.isOverflow() && !stopped);
+                if (endOfInput) {
+                    decoder.flush(chars);
+                    drain(chars);
+                }
+                bytes.compact();
+            }
+        }
+
+        private void drain(CharBuffer chars) {
+            chars.flip();
+            process(chars.array(), chars.position(), chars.limit());
+            chars.clear();
+        }
+
+        private void process(char[] text, int from, int to) {
+            for (int i = from; i < to && !stopped; i++) {
+                char c = text[i];
+                if (inQuotes) {
+                    if (c == '"') {
+                        if (closingQuote) {
+                            closingQuote = false;
+                            feed(c);
+                        } else {
+                            closingQuote = true;
+                        }
+                        continue;
+                    }
+                    if (!closingQuote) {
+                        feed(c);
+                        continue;
+                    }
+                    // La comilla anterior cerraba el campo: el carácter actual se procesa fuera de comillas.
+                    closingQuote = false;
+                    inQuotes = false;
+                }
+
+                if (c == '\n' || c == '\r') {
+                    lineStarted = false;
+                    continue;
+                }
+                if (!lineStarted) {
+                    startRecord();
+                }
+                if (c == ',') {
+                    column++;
+                    startField();
+                } else if (c == '"' && fieldEmpty) {
+                    inQuotes = true;
+                    fieldEmpty = false;
+                } else {
+                    feed(c);
+                }
+            }
+        }
+
+        private void startRecord() {
+            records++;
+            column = 1;
+            lineStarted = true;
+            if (firstChunks != null && records % CHECK_INTERVAL == 0) {
+                updateState();
+            }
+            startField();
+        }
+
+        private void startField() {
+            fieldEmpty = true;
+            if (matching) {
+                session.beginSegment();
+            }
+        }
+
+        private void feed(char c) {
+            fieldEmpty = false;
+            if (matching) {
+                session.feed(c);
+            }
+        }
+
+        @Override
+        public void phraseFound(int phraseIndex) {
+            firstRows[phraseIndex] = records;
+            firstColumns[phraseIndex] = column;
+            if (firstChunks != null) {
+                firstChunks.accumulateAndGet(phraseIndex, chunk, Math::min);
+            }
+            updateState();
+        }
+
+        /**
+         * Decide si el tramo debe seguir buscando, solo contar registros o detenerse.
+         */
+        private void updateState() {
+            if (firstChunks == null) {
+                stopped = session.isComplete();
+                return;
+            }
+            boolean pending = false;
+            boolean countNeeded = false;
+            for (int p = 0; p < firstRows.length; p++) {
+                int first = firstChunks.get(p);
+                if (first > chunk) {
+                    countNeeded = true;
+                    if (!session.isFound(p)) {
+                        pending = true;
+                    }
+                }
+            }
+            matching = pending;
+            stopped = !countNeeded;
+        }
+    }
+}
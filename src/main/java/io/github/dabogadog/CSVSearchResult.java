@@ -0,0 +1,97 @@
+package io.github.dabogadog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esta clase contiene el resultado de buscar varias frases en un archivo CSV: para cada frase indica si se
+ * encontró y en qué fila y columna apareció por primera vez.
+ */
+public final class CSVSearchResult {
+
+    /**
+     * Valor de fila y columna para las frases que no se encontraron.
+     */
+    public static final long NOT_FOUND = -1;
+
+    private final List<String> phrases;
+    private final long[] firstRows;
+    private final int[] firstColumns;
+
+    CSVSearchResult(List<String> phrases, long[] firstRows, int[] firstColumns) {
+        this.phrases = phrases;
+        this.firstRows = firstRows.clone();
+        this.firstColumns = firstColumns.clone();
+    }
+
+    /**
+     * @return Las frases buscadas, en el orden original.
+     */
+    public List<String> getPhrases() {
+        return phrases;
+    }
+
+    /**
+     * @param index Índice de la frase.
+     * @return true si la frase se encontró en el archivo.
+     */
+    public boolean isFound(int index) {
+        return firstRows[index] != NOT_FOUND;
+    }
+
+    /**
+     * @param index Índice de la frase.
+     * @return Primer registro (empezando en 1, sin contar las líneas vacías) donde aparece la frase,
+     * o {@link #NOT_FOUND}.
+     */
+    public long getFirstRow(int index) {
+        return firstRows[index];
+    }
+
+    /**
+     * @param index Índice de la frase.
+     * @return Columna (empezando en 1) del primer registro donde aparece la frase, o {@link #NOT_FOUND}.
+     */
+    public int getFirstColumn(int index) {
+        return firstColumns[index];
+    }
+
+    /**
+     * @return true si todas las frases se encontraron.
+     */
+    public boolean allFound() {
+        for (long row : firstRows) {
+            if (row == NOT_FOUND) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Las frases que no se encontraron, en el orden original.
+     */
+    public List<String> getNotFoundPhrases() {
+        List<String> notFound = new ArrayList<>();
+        for (int i = 0; i < firstRows.length; i++) {
+            if (firstRows[i] == NOT_FOUND) {
+                notFound.add(phrases.get(i));
+            }
+        }
+        return Collections.unmodifiableList(notFound);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CSVSearchResult[");
+        for (int i = 0; i < firstRows.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('"').append(phrases.get(i)).append("\"=");
+            sb.append(isFound(i) ? "fila " + firstRows[i] + ", columna " + firstColumns[i] : "no encontrada");
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.dabogadog;
+
+/**
+ * Comprobaciones de la comparación por revisiones de {@link RevisionComparator}. Las cuatro primeras se hacen
+ * página a página; las dos últimas, sobre el documento.
+ */
+public enum ComparisonCheck {
+
+    /**
+     * El texto de la página, como en {@link PDFComparator}.
+     */
+    TEXT(true),
+
+    /**
+     * Las cajas, la rotación y la unidad de usuario de la página, como en {@link PagePropertiesComparator}.
+     */
+    PAGE_GEOMETRY(true),
+
+    /**
+     * Las imágenes, formularios y fuentes de la página, como en {@link ResourceComparator}.
+     */
+    RESOURCES(true),
+
+    /**
+     * Las anotaciones de la página y el destino de sus enlaces, como en {@link BookmarksAndLinksComparator}.
+     */
+    LINKS(true),
+
+    /**
+     * Los metadatos del diccionario Info, como en {@link MetadataComparator}.
+     */
+    METADATA(false),
+
+    /**
+     * Los marcadores, como en {@link BookmarksAndLinksComparator}.
+     */
+    BOOKMARKS(false);
+
+    private final boolean pageCheck;
+
+    ComparisonCheck(boolean pageCheck) {
+        this.pageCheck = pageCheck;
+    }
+
+    /**
+     * @return true si la comprobación se hace página a página.
+     */
+    public boolean isPageCheck() {
+        return pageCheck;
+    }
+
+    int mask() {
+        return 1 << ordinal();
+    }
+}
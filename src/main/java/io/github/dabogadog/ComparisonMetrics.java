@@ -0,0 +1,74 @@
+package io.github.dabogadog;
+
+/**
+ * Receptor de las métricas de las comparaciones y búsquedas: el tiempo de cada fase, las páginas cuyo texto
+ * se extrae y los bytes de los archivos abiertos. Se configura con {@link Metrics#setDefault(ComparisonMetrics)};
+ * por defecto no se registra nada.
+ *
+ * <p>Los métodos se llaman desde los hilos que hacen el trabajo, también desde los de
+ * {@link ParallelPageExtractor} y {@link BatchComparator}, así que las implementaciones deben ser seguras entre
+ * hilos y rápidas. Todos los métodos tienen una implementación vacía, para que cada receptor implemente solo
+ * los que le interesan.</p>
+ *
+ * @see MetricsCollector
+ */
+public interface ComparisonMetrics {
+
+    /**
+     * Receptor que descarta todas las métricas.
+     */
+    ComparisonMetrics NONE = new ComparisonMetrics() {
+    };
+
+    /**
+     * Fases en que se mide el tiempo. Las fases no se solapan: el tiempo de una fase no incluye el de otra.
+     */
+    enum Phase {
+        /**
+         * Apertura de un archivo: lectura de la tabla de referencias cruzadas y del tráiler.
+         */
+        OPEN,
+        /**
+         * Lectura de la estructura del documento: resúmenes del archivo y de las páginas, tamaños, metadatos y
+         * marcadores.
+         */
+        PARSE,
+        /**
+         * Extracción del texto de una página.
+         */
+        EXTRACT,
+        /**
+         * Comparación de los valores ya leídos de los dos documentos, incluido el cálculo de las diferencias.
+         * En la comparación de marcadores y enlaces incluye la lectura de los objetos que se recorren.
+         */
+        COMPARE
+    }
+
+    /**
+     * Registra la duración de una fase. Una misma operación puede registrar muchas veces cada fase, por
+     * ejemplo una vez por página.
+     *
+     * @param phase Fase medida.
+     * @param nanos Duración en nanosegundos.
+     */
+    default void recordPhase(Phase phase, long nanos) {
+    }
+
+    /**
+     * Registra páginas cuyo texto se ha extraído del archivo. Las páginas que se leen de la
+     * {@link ExtractionCache} no se cuentan.
+     *
+     * @param pages Número de páginas.
+     */
+    default void recordPages(int pages) {
+    }
+
+    /**
+     * Registra el tamaño de un archivo abierto. iText lee del archivo solo los objetos que se piden, así que
+     * es el máximo que se puede leer de él.
+     *
+     * @param bytes Tamaño del archivo en bytes.
+     */
+    default void recordBytesRead(long bytes) {
+    }
+}
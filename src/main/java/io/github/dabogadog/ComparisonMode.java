@@ -0,0 +1,64 @@
+package io.github.dabogadog;
+
+/**
+ * Cuántas diferencias busca una comparación antes de detenerse: todas ({@link #EXHAUSTIVE}), solo la primera
+ * ({@link #FAIL_FAST}), o las N primeras ({@link #firstDifferences(int)}). Para decidir si dos archivos son
+ * iguales basta la primera diferencia; las páginas siguientes ya no se leen ni se comparan.
+ *
+ * <p>Cada comparador cuenta como una diferencia lo que informa en su resultado: una página en la comparación
+ * de texto, de propiedades de página y visual, y un fragmento de texto en la comparación de disposición.</p>
+ */
+public final class ComparisonMode {
+
+    /**
+     * Compara todas las páginas. Es el modo por defecto.
+     */
+    public static final ComparisonMode EXHAUSTIVE = new ComparisonMode(Integer.MAX_VALUE);
+
+    /**
+     * Se detiene en la primera diferencia.
+     */
+    public static final ComparisonMode FAIL_FAST = new ComparisonMode(1);
+
+    private final int maxDifferences;
+
+    private ComparisonMode(int maxDifferences) {
+        this.maxDifferences = maxDifferences;
+    }
+
+    /**
+     * @param maxDifferences Número de diferencias tras el que se detiene la comparación.
+     * @return El modo que se detiene tras esas diferencias.
+     */
+    public static ComparisonMode firstDifferences(int maxDifferences) {
+        if (maxDifferences < 1) {
+            throw new IllegalArgumentException("El número de diferencias debe ser al menos 1: " + maxDifferences);
+        }
+        return maxDifferences == 1 ? FAIL_FAST : new ComparisonMode(maxDifferences);
+    }
+
+    /**
+     * @return Número de diferencias tras el que se detiene la comparación, o {@link Integer#MAX_VALUE} si
+     * compara todas las páginas.
+     */
+    public int getMaxDifferences() {
+        return maxDifferences;
+    }
+
+    /**
+     * @param differences Diferencias encontradas hasta ahora.
+     * @return true si la comparación debe detenerse.
+     */
+    boolean isDone(int differences) {
+        return differences >= maxDifferences;
+    }
+
+    @Override
+    public String toString() {
+        if (this == EXHAUSTIVE) {
+            return "ComparisonMode[exhaustivo]";
+        }
+        return this == FAIL_FAST ? "ComparisonMode[primera diferencia]"
+                : "ComparisonMode[" + maxDifferences + " diferencias]";
+    }
+}
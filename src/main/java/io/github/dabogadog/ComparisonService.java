@@ -0,0 +1,579 @@
+package io.github.dabogadog;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servicio HTTP de larga duración que compara archivos PDF y busca frases en ellos. La JVM, iText y las
+ * cachés ya están calientes en cada petición, y los documentos abiertos se reutilizan entre peticiones mientras
+ * el archivo no cambie, así que comprobar un archivo cuesta lo que cuesta la comparación y no el arranque de un
+ * proceso.
+ *
+ * <p>Rutas, con los parámetros en la consulta o, en las peticiones POST, en un cuerpo
+ * {@code application/x-www-form-urlencoded}:</p>
+ * <pre>
+ * /compare  file1, file2, mode (exhaustive, fail-fast o un número de diferencias), full (true para todas las
+ *           comparaciones, no solo la de texto), timeout (milisegundos)
+ * /phrases  file, phrases (separadas por comas), timeout
+ * /metrics  histogramas de latencia de cada ruta, tiempos agotados, errores y documentos abiertos;
+ *           con reset=true además los reinicia
+ * /health   responde {"status":"ok"} cuando el servicio está en marcha
+ * </pre>
+ *
+ * <p>Las respuestas son objetos JSON. Los parámetros no válidos devuelven 400, los archivos que no existen
+ * 404, los trabajos que superan su tiempo máximo 504 y los demás errores 500.</p>
+ *
+ * <p>Cada petición y cada trabajo se ejecuta en su propio hilo: en Java 21 o posterior son hilos virtuales, y
+ * en versiones anteriores hilos de plataforma. Los trabajos que se ejecutan a la vez se limitan con
+ * {@link #setMaxConcurrentJobs(int)}; los demás esperan su turno dentro de su tiempo máximo. Un trabajo que
+ * supera su tiempo se interrumpe: se detiene en la siguiente página que lee, o antes de la siguiente
+ * comparación de estructura, y libera su turno y sus documentos. Los documentos de un trabajo interrumpido o
+ * que termina con un error se descartan, y la siguiente petición los vuelve a abrir. La respuesta no espera a
+ * que termine.</p>
+ *
+ * <p>Solo admite archivos sin protección. Por defecto escucha solo en la interfaz local; con
+ * {@link #setRootDirectory(Path)} las rutas se resuelven dentro de un directorio y no pueden salir de él.</p>
+ *
+ * <pre>{@code
+ * try (ComparisonService service = new ComparisonService().setPort(0).start()) {
+ *     // GET http://127.0.0.1:<service.getPort()>/compare?file1=a.pdf&file2=b.pdf
+ * }
+ * }</pre>
+ */
+public class ComparisonService implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ComparisonService.class.getName());
+
+    /**
+     * Puerto por defecto.
+     */
+    public static final int DEFAULT_PORT = 8765;
+
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private InetAddress bindAddress = InetAddress.getLoopbackAddress();
+    private int port = DEFAULT_PORT;
+    private int maxConcurrentJobs = Runtime.getRuntime().availableProcessors();
+    private long defaultTimeoutMillis = 60_000;
+    private int maxOpenDocuments = 64;
+    private Path rootDirectory;
+
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private HttpServer server;
+    private ExecutorService requestExecutor;
+    private ExecutorService jobExecutor;
+    private Semaphore jobSlots;
+    private DocumentHandlePool documents;
+    private long startMillis;
+
+    public ComparisonService() {
+        endpoints.put("compare", new Endpoint());
+        endpoints.put("phrases", new Endpoint());
+    }
+
+    /**
+     * @param bindAddress Interfaz donde escuchar. Por defecto, la local.
+     * @return Este servicio.
+     */
+    public ComparisonService setBindAddress(InetAddress bindAddress) {
+        checkNotStarted();
+        if (bindAddress == null) {
+            throw new IllegalArgumentException("La interfaz no puede ser nula");
+        }
+        this.bindAddress = bindAddress;
+        return this;
+    }
+
+    /**
+     * @param port Puerto donde escuchar, o 0 para usar uno libre. Por defecto, {@link #DEFAULT_PORT}.
+     * @return Este servicio.
+     */
+    public ComparisonService setPort(int port) {
+        checkNotStarted();
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("El puerto debe estar entre 0 y 65535: " + port);
+        }
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * @param maxConcurrentJobs Número máximo de comparaciones y búsquedas que se ejecutan a la vez. Por
+     *                          defecto, el número de procesadores.
+     * @return Este servicio.
+     */
+    public ComparisonService setMaxConcurrentJobs(int maxConcurrentJobs) {
+        checkNotStarted();
+        if (maxConcurrentJobs < 1) {
+            throw new IllegalArgumentException("El número de trabajos simultáneos debe ser al menos 1: "
+                    + maxConcurrentJobs);
+        }
+        this.maxConcurrentJobs = maxConcurrentJobs;
+        return this;
+    }
+
+    /**
+     * @param defaultTimeoutMillis Tiempo máximo de las peticiones que no indican el suyo, incluida la espera
+     *                             de turno. Por defecto, un minuto.
+     * @return Este servicio.
+     */
+    public ComparisonService setDefaultTimeout(long defaultTimeoutMillis) {
+        checkNotStarted();
+        if (defaultTimeoutMillis < 1) {
+            throw new IllegalArgumentException("El tiempo máximo debe ser al menos 1 ms: " + defaultTimeoutMillis);
+        }
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * @param maxOpenDocuments Número máximo de documentos abiertos que se reutilizan entre peticiones. Por
+     *                         defecto, 64. Cada documento guarda el texto de las páginas ya extraídas, salvo
+     *                         en el modo de bajo consumo de memoria de {@link PdfReaders}.
+     * @return Este servicio.
+     */
+    public ComparisonService setMaxOpenDocuments(int maxOpenDocuments) {
+        checkNotStarted();
+        if (maxOpenDocuments < 0) {
+            throw new IllegalArgumentException("El número de documentos abiertos no puede ser negativo: "
+                    + maxOpenDocuments);
+        }
+        this.maxOpenDocuments = maxOpenDocuments;
+        return this;
+    }
+
+    /**
+     * @param rootDirectory Directorio donde se resuelven las rutas de las peticiones, que no pueden salir de
+     *                      él, o null para aceptar cualquier ruta. Por defecto, null.
+     * @return Este servicio.
+     */
+    public ComparisonService setRootDirectory(Path rootDirectory) {
+        checkNotStarted();
+        this.rootDirectory = rootDirectory != null ? rootDirectory.toAbsolutePath().normalize() : null;
+        return this;
+    }
+
+    /**
+     * Empieza a escuchar peticiones.
+     *
+     * @return Este servicio.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public synchronized ComparisonService start() throws IOException {
+        checkNotStarted();
+        documents = new DocumentHandlePool(maxOpenDocuments);
+        jobSlots = new Semaphore(maxConcurrentJobs);
+        requestExecutor = ServiceThreads.newThreadPerTaskExecutor("clioPdf-service");
+        jobExecutor = ServiceThreads.newThreadPerTaskExecutor("clioPdf-job");
+
+        // Sin TCP_NODELAY, las respuestas pequeñas esperan al ACK retardado del cliente, unos 40 ms por
+        // petición. El servidor del JDK lee la propiedad al crear el primer servidor.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        server.createContext("/compare", exchange -> handleJob(exchange, "compare"));
+        server.createContext("/phrases", exchange -> handleJob(exchange, "phrases"));
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/health", exchange -> send(exchange, 200, "{\"status\":\"ok\"}"));
+        server.setExecutor(requestExecutor);
+        server.start();
+        startMillis = System.currentTimeMillis();
+        logger.log(Level.INFO, "Servicio de comparación escuchando en {0} con hilos {1}",
+                new Object[]{server.getAddress(), ServiceThreads.isVirtual() ? "virtuales" : "de plataforma"});
+        return this;
+    }
+
+    /**
+     * @return El puerto donde escucha el servicio, también cuando se configuró el 0.
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("El servicio no está en marcha");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @param endpoint Ruta sin la barra: {@code compare} o {@code phrases}.
+     * @return El histograma de latencias de la ruta, medidas desde que llega la petición hasta que se responde.
+     */
+    public LatencyHistogram getLatencyHistogram(String endpoint) {
+        Endpoint e = endpoints.get(endpoint);
+        if (e == null) {
+            throw new IllegalArgumentException("Ruta desconocida: " + endpoint);
+        }
+        return e.latency;
+    }
+
+    /**
+     * Deja de escuchar, interrumpe los trabajos en curso y cierra los documentos abiertos.
+     */
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        jobExecutor.shutdownNow();
+        requestExecutor.shutdownNow();
+        documents.close();
+        logger.log(Level.INFO, "Servicio de comparación detenido");
+    }
+
+    private void checkNotStarted() {
+        if (server != null) {
+            throw new IllegalStateException("El servicio ya está en marcha");
+        }
+    }
+
+    private void handleJob(HttpExchange exchange, String name) throws IOException {
+        Endpoint endpoint = endpoints.get(name);
+        long start = System.nanoTime();
+        int status;
+        String body;
+        try {
+            Map<String, String> params = parameters(exchange);
+            long timeout = params.containsKey("timeout") ? parseTimeout(params.get("timeout")) : defaultTimeoutMillis;
+            Callable<String> job = "compare".equals(name) ? compare(params) : phrases(params);
+            body = execute(job, timeout);
+            status = 200;
+        } catch (TimeoutException e) {
+            endpoint.timeouts.increment();
+            status = 504;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (NoSuchFileException e) {
+            status = 404;
+            body = error("No existe el archivo: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            status = 503;
+            body = error("El servicio se está deteniendo");
+        } catch (Exception | OutOfMemoryError e) {
+            logger.log(Level.WARNING, "Ocurrió un error atendiendo " + exchange.getRequestURI() + ":", e);
+            endpoint.errors.increment();
+            status = 500;
+            body = error(e.toString());
+        }
+        endpoint.latency.record(System.nanoTime() - start);
+        send(exchange, status, body);
+    }
+
+    /**
+     * Ejecuta un trabajo en su propio hilo, cuando hay turno, y espera su resultado hasta el tiempo máximo.
+     */
+    private String execute(final Callable<String> job, long timeoutMillis) throws Exception {
+        Future<String> future = jobExecutor.submit(() -> {
+            // Si se cancela mientras espera turno, acquire lanza InterruptedException y no hay permiso que liberar.
+            jobSlots.acquire();
+            try {
+                return job.call();
+            } finally {
+                jobSlots.release();
+            }
+        });
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TimeoutException("La petición superó su tiempo máximo de " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private Callable<String> compare(Map<String, String> params) {
+        final Path file1 = resolve(required(params, "file1"));
+        final Path file2 = resolve(required(params, "file2"));
+        final ComparisonMode mode = parseMode(params.get("mode"));
+        final boolean full = Boolean.parseBoolean(params.get("full"));
+        return () -> {
+            try (DocumentHandlePool.Lease lease1 = documents.acquire(file1);
+                 DocumentHandlePool.Lease lease2 = documents.acquire(file2)) {
+                PdfDocumentHandle handle1 = lease1.handle();
+                PdfDocumentHandle handle2 = lease2.handle();
+                PDFComparisonResult result = PDFComparator.comparePDFsDetailed(handle1, handle2, mode);
+                boolean equal = full
+                        ? PdfDocumentHandle.compareStructure(handle1, handle2, mode, result.areEqual())
+                        : result.areEqual();
+
+                int differentPages = -1;
+                if (!result.isPageCountDifferent()) {
+                    differentPages = 0;
+                    for (PDFComparisonResult.PageResult page : result.getPages()) {
+                        if (!page.isEqual()) {
+                            differentPages++;
+                        }
+                    }
+                }
+                StringBuilder sb = new StringBuilder(128);
+                sb.append("{\"equal\":").append(equal);
+                sb.append(",\"pages1\":").append(result.getNumberOfPages1());
+                sb.append(",\"pages2\":").append(result.getNumberOfPages2());
+                sb.append(",\"differentPages\":").append(differentPages);
+                sb.append(",\"complete\":").append(result.isComplete());
+                lease1.complete();
+                lease2.complete();
+                return sb.append('}').toString();
+            }
+        };
+    }
+
+    private Callable<String> phrases(Map<String, String> params) {
+        final Path file = resolve(required(params, "file"));
+        final PhraseMatcher matcher = PhraseMatcher.fromCommaSeparated(required(params, "phrases"));
+        return () -> {
+            try (DocumentHandlePool.Lease lease = documents.acquire(file)) {
+                PhraseSearchResult result = PDFAnalyzer.searchPhrases(lease.handle(), matcher);
+                StringBuilder sb = new StringBuilder(128);
+                sb.append("{\"allFound\":").append(result.allFound()).append(",\"phrases\":[");
+                for (int i = 0; i < result.getPhrases().size(); i++) {
+                    sb.append(i > 0 ? ",{\"phrase\":" : "{\"phrase\":");
+                    BatchFileResult.appendJsonString(sb, result.getPhrases().get(i));
+                    sb.append(",\"page\":").append(result.getFirstPage(i)).append('}');
+                }
+                lease.complete();
+                return sb.append("]}").toString();
+            }
+        };
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        boolean reset;
+        try {
+            reset = Boolean.parseBoolean(parameters(exchange).get("reset"));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+            return;
+        }
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("{\"threads\":\"").append(ServiceThreads.isVirtual() ? "virtual" : "platform").append('"');
+        sb.append(",\"uptimeMillis\":").append(System.currentTimeMillis() - startMillis);
+        sb.append(",\"maxConcurrentJobs\":").append(maxConcurrentJobs);
+        sb.append(",\"activeJobs\":").append(maxConcurrentJobs - jobSlots.availablePermits());
+        sb.append(",\"documents\":{\"open\":").append(documents.size());
+        sb.append(",\"hits\":").append(documents.getHits());
+        sb.append(",\"misses\":").append(documents.getMisses());
+        sb.append(",\"evictions\":").append(documents.getEvictions()).append('}');
+        sb.append(",\"endpoints\":{");
+        boolean first = true;
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint endpoint = entry.getValue();
+            sb.append(first ? "\"" : ",\"").append(entry.getKey()).append("\":{");
+            sb.append("\"latency\":").append(endpoint.latency.toJson());
+            sb.append(",\"timeouts\":").append(endpoint.timeouts.sum());
+            sb.append(",\"errors\":").append(endpoint.errors.sum()).append('}');
+            if (reset) {
+                endpoint.reset();
+            }
+            first = false;
+        }
+        sb.append("}}");
+        send(exchange, 200, sb.toString());
+    }
+
+    private Path resolve(String path) {
+        if (rootDirectory == null) {
+            return Paths.get(path);
+        }
+        Path resolved = rootDirectory.resolve(path).normalize();
+        if (!resolved.startsWith(rootDirectory)) {
+            throw new IllegalArgumentException("La ruta está fuera del directorio raíz: " + path);
+        }
+        return resolved;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Falta el parámetro " + name);
+        }
+        return value;
+    }
+
+    private static long parseTimeout(String value) {
+        long timeout = Long.parseLong(value);
+        if (timeout < 1) {
+            throw new IllegalArgumentException("El tiempo máximo debe ser al menos 1 ms: " + value);
+        }
+        return timeout;
+    }
+
+    private static ComparisonMode parseMode(String value) {
+        if (value == null || value.equals("exhaustive")) {
+            return ComparisonMode.EXHAUSTIVE;
+        }
+        if (value.equals("fail-fast")) {
+            return ComparisonMode.FAIL_FAST;
+        }
+        return ComparisonMode.firstDifferences(Integer.parseInt(value));
+    }
+
+    /**
+     * Lee los parámetros de la consulta y, en las peticiones POST de formulario, los del cuerpo.
+     */
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (!"GET".equals(method) && !"POST".equals(method)) {
+            throw new IllegalArgumentException("Método no admitido: " + method);
+        }
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if ("POST".equals(method) && contentType != null
+                && contentType.startsWith("application/x-www-form-urlencoded")) {
+            parseForm(readBody(exchange.getRequestBody()), params);
+        }
+        return params;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+            if (body.size() > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("El cuerpo de la petición supera " + MAX_BODY_BYTES + " bytes");
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    private static void parseForm(String form, Map<String, String> params) throws UnsupportedEncodingException {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals >= 0 ? pair.substring(0, equals) : pair;
+            String value = equals >= 0 ? pair.substring(equals + 1) : "";
+            params.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+    }
+
+    private static String error(String message) {
+        StringBuilder sb = new StringBuilder(64).append("{\"error\":");
+        BatchFileResult.appendJsonString(sb, message != null ? message : "");
+        return sb.append('}').toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Ejecuta el servicio desde la línea de comandos hasta que se detiene el proceso.
+     *
+     * @param args Opciones.
+     */
+    public static void main(String[] args) {
+        final ComparisonService service = new ComparisonService();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--host":
+                        service.setBindAddress(InetAddress.getByName(args[++i]));
+                        break;
+                    case "--port":
+                        service.setPort(Integer.parseInt(args[++i]));
+                        break;
+                    case "--jobs":
+                        service.setMaxConcurrentJobs(Integer.parseInt(args[++i]));
+                        break;
+                    case "--timeout":
+                        service.setDefaultTimeout(Long.parseLong(args[++i]));
+                        break;
+                    case "--documents":
+                        service.setMaxOpenDocuments(Integer.parseInt(args[++i]));
+                        break;
+                    case "--root":
+                        service.setRootDirectory(Paths.get(args[++i]));
+                        break;
+                    case "--low-memory":
+                        PdfReaders.setLowMemoryMode(true);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Argumento inesperado: " + args[i]);
+                }
+            }
+        } catch (RuntimeException | IOException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: ComparisonService [--host interfaz] [--port N] [--jobs N] [--timeout ms] "
+                    + "[--documents N] [--root directorio] [--low-memory]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            service.start();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "No se pudo iniciar el servicio de comparación:", e);
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close, "clioPdf-service-shutdown"));
+    }
+
+    /**
+     * Latencias y contadores de una ruta.
+     */
+    private static final class Endpoint {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private void reset() {
+            latency.reset();
+            timeouts.reset();
+            errors.reset();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.dabogadog;
+
+/**
+ * Nivel de la comparación escalonada de {@link PDFComparator} que decidió el resultado de una página.
+ */
+public enum ComparisonTier {
+
+    /**
+     * Los dos archivos tienen el mismo resumen completo, así que ninguna página se abrió.
+     */
+    FILE_DIGEST,
+
+    /**
+     * Los flujos de contenido y los recursos de la página tienen el mismo resumen; no se extrajo el texto.
+     */
+    PAGE_DIGEST,
+
+    /**
+     * Los resúmenes de la página difieren y se extrajo y comparó su texto.
+     */
+    TEXT
+}
@@ -0,0 +1,222 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfString;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Esta clase calcula resúmenes SHA-256 de archivos PDF completos y del contenido de sus páginas, para
+ * descartar las páginas idénticas sin extraer su texto.
+ *
+ * <p>El resumen de una página cubre los bytes sin decodificar de sus flujos de contenido y una serialización
+ * canónica de sus recursos, propios o heredados del árbol de páginas (diccionarios con claves ordenadas y
+ * flujos resumidos por sus bytes). Los objetos indirectos se resumen una sola vez por documento, así que los
+ * recursos compartidos entre páginas no se vuelven a recorrer.</p>
+ */
+final class ContentDigests {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PdfDocument pdfDoc;
+    private final Map<Long, byte[]> objectDigests = new HashMap<>();
+    private final Set<Long> inProgress = new HashSet<>();
+
+    /**
+     * @param pdfDoc Documento cuyas páginas se van a resumir, o null si solo se van a resumir objetos sueltos.
+     */
+    ContentDigests(PdfDocument pdfDoc) {
+        this.pdfDoc = pdfDoc;
+    }
+
+    /**
+     * Calcula el resumen de un archivo completo leyéndolo por bloques.
+     *
+     * @param filePath Ruta al archivo.
+     * @return El resumen SHA-256 del archivo.
+     * @throws IOException Si ocurre un error leyendo el archivo.
+     */
+    static byte[] fileDigest(String filePath) throws IOException {
+        long start = Metrics.start();
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(filePath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        byte[] result = digest.digest();
+        Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+        return result;
+    }
+
+    /**
+     * Calcula en una sola lectura el resumen SHA-256 del archivo completo y el de sus primeros bytes, para
+     * comprobar que un archivo con actualizaciones incrementales empieza con una revisión anterior.
+     *
+     * @param filePath     Ruta al archivo.
+     * @param prefixLength Número de bytes del prefijo.
+     * @return El resumen del archivo y el del prefijo; el segundo es null si el archivo es más corto.
+     * @throws IOException Si ocurre un error leyendo el archivo.
+     */
+    static byte[][] fileDigests(String filePath, long prefixLength) throws IOException {
+        long start = Metrics.start();
+        MessageDigest digest = newDigest();
+        byte[] prefix = prefixLength == 0 ? newDigest().digest() : null;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = 0;
+        try (InputStream in = new FileInputStream(filePath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (prefix == null && position + read >= prefixLength) {
+                    int head = (int) (prefixLength - position);
+                    digest.update(buffer, 0, head);
+                    try {
+                        prefix = ((MessageDigest) digest.clone()).digest();
+                    } catch (CloneNotSupportedException e) {
+                        throw new IllegalStateException("El resumen SHA-256 no se puede copiar", e);
+                    }
+                    digest.update(buffer, head, read - head);
+                } else {
+                    digest.update(buffer, 0, read);
+                }
+                position += read;
+            }
+        }
+        byte[][] result = {digest.digest(), prefix};
+        Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+        return result;
+    }
+
+    /**
+     * Calcula el resumen de los flujos de contenido y los recursos de una página.
+     *
+     * @param pageNumber Número de página, empezando en 1.
+     * @return El resumen SHA-256 de la página.
+     * @throws IOException Si ocurre un error leyendo los flujos de la página.
+     */
+    byte[] pageDigest(int pageNumber) throws IOException {
+        long start = Metrics.start();
+        PdfDictionary page = pdfDoc.getPage(pageNumber).getPdfObject();
+        MessageDigest digest = newDigest();
+        digest.update((byte) 'C');
+        update(digest, page.get(PdfName.Contents, false));
+        digest.update((byte) 'R');
+        update(digest, ResourceDigests.inheritedResources(page));
+        PdfReaders.releasePage(pdfDoc, pageNumber);
+        byte[] result = digest.digest();
+        Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+        return result;
+    }
+
+    /**
+     * Calcula el resumen de la serialización canónica de un objeto y de los objetos a los que se refiere.
+     *
+     * @param object Objeto resumido.
+     * @return El resumen SHA-256 del objeto.
+     * @throws IOException Si ocurre un error leyendo los flujos del objeto.
+     */
+    byte[] objectDigest(PdfObject object) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, object);
+        return digest.digest();
+    }
+
+    private void update(MessageDigest digest, PdfObject object) throws IOException {
+        if (object == null || object.isNull()) {
+            digest.update((byte) 'n');
+        } else if (object.isIndirectReference()) {
+            digest.update((byte) 'r');
+            digest.update(indirectDigest((PdfIndirectReference) object));
+        } else if (object.isStream()) {
+            digest.update((byte) 'S');
+            updateDictionary(digest, (PdfDictionary) object);
+            digest.update(((PdfStream) object).getBytes(false));
+        } else if (object.isDictionary()) {
+            digest.update((byte) 'D');
+            updateDictionary(digest, (PdfDictionary) object);
+        } else if (object.isArray()) {
+            PdfArray array = (PdfArray) object;
+            digest.update((byte) '[');
+            for (int i = 0; i < array.size(); i++) {
+                update(digest, array.get(i, false));
+            }
+            digest.update((byte) ']');
+        } else {
+            // Nombres, cadenas, números y booleanos: el tipo más su representación en bytes.
+            digest.update(object.getType());
+            byte[] bytes = object.isString()
+                    ? ((PdfString) object).getValueBytes()
+                    : object.toString().getBytes(StandardCharsets.ISO_8859_1);
+            updateLength(digest, bytes.length);
+            digest.update(bytes);
+        }
+    }
+
+    private void updateDictionary(MessageDigest digest, PdfDictionary dictionary) throws IOException {
+        List<PdfName> keys = new ArrayList<>(dictionary.keySet());
+        Collections.sort(keys);
+        updateLength(digest, keys.size());
+        for (PdfName key : keys) {
+            byte[] name = key.getValue().getBytes(StandardCharsets.UTF_8);
+            updateLength(digest, name.length);
+            digest.update(name);
+            update(digest, dictionary.get(key, false));
+        }
+    }
+
+    private byte[] indirectDigest(PdfIndirectReference reference) throws IOException {
+        long key = ((long) reference.getObjNumber() << 16) | reference.getGenNumber();
+        byte[] cached = objectDigests.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (!inProgress.add(key)) {
+            // Referencia circular: se marca el ciclo sin volver a recorrerlo.
+            return new byte[]{'c'};
+        }
+        try {
+            MessageDigest digest = newDigest();
+            update(digest, reference.getRefersTo());
+            byte[] result = digest.digest();
+            objectDigests.put(key, result);
+            return result;
+        } finally {
+            inProgress.remove(key);
+        }
+    }
+
+    private static void updateLength(MessageDigest digest, int length) {
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+}
@@ -0,0 +1,1076 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Esta clase mantiene en disco un índice invertido del texto de muchos archivos PDF, para saber en qué
+ * documentos y páginas aparecen unas frases sin volver a abrir ni extraer ningún archivo. Cada archivo se
+ * extrae una sola vez, al indexarlo; después solo se vuelve a leer si cambia su tamaño o su fecha de
+ * modificación.
+ *
+ * <p>El índice es un directorio con segmentos inmutables y un manifiesto. Cada segmento guarda los términos
+ * de sus documentos, ordenados, con la lista de páginas y posiciones donde aparece cada uno, y se lee
+ * proyectado en memoria ({@link FileChannel#map}): una búsqueda solo toca las listas de los términos de las
+ * frases. Los documentos nuevos se acumulan en memoria y se escriben como un segmento nuevo al llenarse el
+ * búfer ({@link #setBufferBytes(long)}) o en {@link #commit()}. Quitar o volver a indexar un documento solo lo
+ * marca como borrado en su segmento; {@link #compact()} reescribe los segmentos sin los borrados.
+ * {@link #commit()} sustituye el manifiesto de forma atómica, así que una interrupción deja el índice como
+ * estaba en la confirmación anterior.</p>
+ *
+ * <p>Las frases se comparan por términos: secuencias de letras y dígitos, sin distinguir mayúsculas ni
+ * acentos, con cualquier separación entre ellos (espacios, puntuación o saltos de línea). Así "Fecha de
+ * emisión" encuentra "FECHA DE\nEMISION:". Es una búsqueda más flexible que la de {@link PDFAnalyzer}, que
+ * busca el texto exacto, y no encuentra fragmentos de palabras. Como en {@link PDFAnalyzer}, una frase debe
+ * estar entera en una página.</p>
+ *
+ * <p>Las búsquedas pueden hacerse desde varios hilos a la vez y ven el índice de la última confirmación. Los
+ * cambios ({@link #update(Path)}, {@link #remove(Path)}, {@link #sync(Path)}) se serializan. Un directorio
+ * solo puede tenerlo abierto una instancia a la vez.</p>
+ */
+public final class CorpusIndex implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(CorpusIndex.class.getName());
+
+    private static final String MANIFEST = "manifest";
+    private static final String MANIFEST_MAGIC = "clioPdf-corpus-index";
+    private static final int MANIFEST_VERSION = 1;
+    private static final String LOCK = "write.lock";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * Tamaño máximo de los segmentos que produce {@link #compact()} y del búfer de {@link #setBufferBytes(long)},
+     * muy por debajo del límite de 2 GB de una proyección en memoria.
+     */
+    static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Path directory;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long bufferBytes = 64L << 20;
+
+    // Estado de escritura, protegido por this.
+    private final List<Segment> segments = new ArrayList<>();
+    private Pending pending = new Pending();
+    private int nextSegment;
+    private boolean dirty;
+    private boolean closed;
+
+    private volatile List<Segment> committed = Collections.emptyList();
+
+    private CorpusIndex(Path directory, FileChannel lockChannel, FileLock lock) {
+        this.directory = directory;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+    }
+
+    /**
+     * Abre el índice de un directorio, o lo crea si el directorio no existe o está vacío.
+     *
+     * @param directory Directorio del índice.
+     * @return El índice abierto. Debe cerrarse con {@link #close()}.
+     * @throws IOException Si el índice no se puede leer o ya está abierto en otra instancia.
+     */
+    public static CorpusIndex open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("El índice ya está abierto en otra instancia: " + directory);
+        }
+        CorpusIndex index = new CorpusIndex(directory, lockChannel, lock);
+        try {
+            index.readManifest();
+            index.deleteUnreferenced();
+        } catch (IOException | RuntimeException e) {
+            index.release();
+            throw e;
+        }
+        index.publish();
+        return index;
+    }
+
+    /**
+     * @param parallelism Número de archivos que {@link #sync(Path)} extrae a la vez.
+     * @return Este índice.
+     */
+    public CorpusIndex setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("El paralelismo debe ser al menos 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @param bufferBytes Tamaño aproximado de los documentos acumulados en memoria tras el que se escriben
+     *                    como un segmento nuevo. Por defecto, 64 MB; como máximo, 1 GB, para que el segmento
+     *                    se pueda proyectar en memoria.
+     * @return Este índice.
+     */
+    public synchronized CorpusIndex setBufferBytes(long bufferBytes) {
+        if (bufferBytes < 1) {
+            throw new IllegalArgumentException("El tamaño del búfer debe ser positivo: " + bufferBytes);
+        }
+        if (bufferBytes > MAX_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("El tamaño del búfer no puede superar " + MAX_SEGMENT_BYTES
+                    + " bytes: " + bufferBytes);
+        }
+        this.bufferBytes = bufferBytes;
+        return this;
+    }
+
+    /**
+     * Indexa un archivo si no está en el índice o si cambió su tamaño o su fecha de modificación desde que se
+     * indexó. La versión anterior deja de encontrarse tras {@link #commit()}.
+     *
+     * @param file Archivo PDF.
+     * @return true si el archivo se indexó; false si no había cambiado.
+     * @throws IOException Si ocurre un error leyendo el PDF o escribiendo el índice.
+     */
+    public boolean update(Path file) throws IOException {
+        String path = key(file);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (isCurrent(path, attributes)) {
+            return false;
+        }
+        addDocument(extract(file, path, attributes));
+        return true;
+    }
+
+    /**
+     * Quita un archivo del índice. Deja de encontrarse tras {@link #commit()}.
+     *
+     * @param file Archivo PDF.
+     * @return true si el archivo estaba en el índice.
+     * @throws IOException Si el índice está cerrado.
+     */
+    public synchronized boolean remove(Path file) throws IOException {
+        checkOpen();
+        return delete(key(file));
+    }
+
+    /**
+     * Sincroniza el índice con los archivos PDF de un árbol de directorios: indexa los nuevos y los que
+     * cambiaron, extrayendo varios a la vez, quita los que ya no existen y confirma los cambios. Los archivos
+     * sin cambios no se leen.
+     *
+     * @param root Directorio raíz.
+     * @return El resumen de la sincronización.
+     * @throws IOException Si ocurre un error recorriendo el directorio o escribiendo el índice.
+     */
+    public CorpusSyncReport sync(Path root) throws IOException {
+        long start = System.nanoTime();
+        final List<Path> files = new ArrayList<>();
+        final List<BasicFileAttributes> attributes = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".pdf")) {
+                    files.add(file);
+                    attributes.add(attrs);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Set<String> present = new HashSet<>();
+        List<Path> changed = new ArrayList<>();
+        Set<Path> previous = new HashSet<>();
+        int unchanged = 0;
+        int updated = 0;
+        int removed = 0;
+        synchronized (this) {
+            checkOpen();
+            for (int i = 0; i < files.size(); i++) {
+                String path = key(files.get(i));
+                present.add(path);
+                if (isCurrent(path, attributes.get(i))) {
+                    unchanged++;
+                } else {
+                    if (contains(path)) {
+                        previous.add(files.get(i));
+                        updated++;
+                    }
+                    changed.add(files.get(i));
+                }
+            }
+            String prefix = key(root) + File.separator;
+            for (String path : livePaths()) {
+                if (path.startsWith(prefix) && !present.contains(path)) {
+                    delete(path);
+                    removed++;
+                }
+            }
+        }
+
+        Set<Path> failed = indexAll(changed);
+        int added = 0;
+        for (Path file : changed) {
+            if (!failed.contains(file) && !previous.contains(file)) {
+                added++;
+            }
+        }
+        for (Path file : failed) {
+            if (previous.contains(file)) {
+                updated--;
+            }
+        }
+        commit();
+        CorpusSyncReport report = new CorpusSyncReport(added, updated, removed, unchanged, failed.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.log(Level.INFO, "Índice sincronizado con {0}: {1}", new Object[]{root, report});
+        return report;
+    }
+
+    /**
+     * Extrae los archivos en paralelo, con a lo sumo el doble del paralelismo en curso para que la memoria no
+     * dependa del número de archivos. Un archivo que no se puede leer se quita del índice, para no dejar su
+     * versión anterior.
+     *
+     * @return Los archivos que no se pudieron indexar.
+     */
+    private Set<Path> indexAll(List<Path> files) throws IOException {
+        final Set<Path> failed = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+        if (files.isEmpty()) {
+            return failed;
+        }
+        final IOException[] writeFailure = new IOException[1];
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory());
+        final Semaphore slots = new Semaphore(2 * parallelism);
+        try {
+            for (final Path file : files) {
+                slots.acquireUninterruptibly();
+                synchronized (writeFailure) {
+                    if (writeFailure[0] != null) {
+                        break;
+                    }
+                }
+                executor.execute(() -> {
+                    String path = key(file);
+                    try {
+                        ExtractedDocument document;
+                        try {
+                            document = extract(file, path, Files.readAttributes(file, BasicFileAttributes.class));
+                        } catch (IOException | RuntimeException e) {
+                            logger.log(Level.WARNING, "No se pudo indexar el archivo " + file, e);
+                            failed.add(file);
+                            synchronized (CorpusIndex.this) {
+                                delete(path);
+                            }
+                            return;
+                        }
+                        addDocument(document);
+                    } catch (IOException e) {
+                        synchronized (writeFailure) {
+                            writeFailure[0] = e;
+                        }
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    logger.log(Level.FINE, "Esperando a que termine la indexación");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Indexación interrumpida", e);
+            }
+        }
+        synchronized (writeFailure) {
+            if (writeFailure[0] != null) {
+                throw writeFailure[0];
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Escribe los documentos acumulados como un segmento y sustituye el manifiesto, de forma atómica. Las
+     * búsquedas ven los cambios a partir de este momento.
+     *
+     * @throws IOException Si ocurre un error escribiendo el índice.
+     */
+    public synchronized void commit() throws IOException {
+        checkOpen();
+        flush();
+        if (dirty) {
+            writeManifest();
+            dirty = false;
+            publish();
+            deleteUnreferenced();
+        }
+    }
+
+    /**
+     * Confirma los cambios y reescribe los segmentos sin los documentos borrados, fusionando los pequeños en
+     * segmentos de hasta 1 GB. Recorre los diccionarios de los segmentos en orden, así que no necesita
+     * cargarlos en memoria ni volver a extraer ningún archivo.
+     *
+     * @throws IOException Si ocurre un error escribiendo el índice.
+     */
+    public synchronized void compact() throws IOException {
+        commit();
+        List<Segment> compacted = new ArrayList<>();
+        List<Segment> group = new ArrayList<>();
+        long groupBytes = 0;
+        for (Segment segment : segments) {
+            long live = segment.liveBytes();
+            if (!group.isEmpty() && groupBytes + live > MAX_SEGMENT_BYTES) {
+                compacted.addAll(merge(group));
+                group.clear();
+                groupBytes = 0;
+            }
+            group.add(segment);
+            groupBytes += live;
+        }
+        compacted.addAll(merge(group));
+        if (!compacted.equals(segments)) {
+            segments.clear();
+            segments.addAll(compacted);
+            dirty = true;
+            commit();
+        }
+    }
+
+    /**
+     * Busca frases en todos los documentos del índice.
+     *
+     * @param phrases Frases a buscar.
+     * @return Los documentos y páginas donde aparece cada frase.
+     * @throws IOException              Si el índice está cerrado.
+     * @throws IllegalArgumentException Si no hay frases o alguna no tiene ninguna palabra.
+     */
+    public CorpusSearchResult search(List<String> phrases) throws IOException {
+        if (phrases.isEmpty()) {
+            throw new IllegalArgumentException("No hay frases que buscar");
+        }
+        List<Segment> view = committed;
+        checkOpen();
+        List<SortedMap<String, int[]>> matches = new ArrayList<>();
+        for (String phrase : phrases) {
+            byte[][] terms = terms(phrase);
+            SortedMap<String, int[]> documents = new TreeMap<>();
+            for (Segment segment : view) {
+                segment.match(terms, -1, documents);
+            }
+            matches.add(documents);
+        }
+        return new CorpusSearchResult(new ArrayList<>(phrases), matches);
+    }
+
+    /**
+     * Busca frases separadas por comas, como {@link PDFAnalyzer#checkPhrasesInPDF(String, String)}, en todos
+     * los documentos del índice.
+     *
+     * @param targetPhrase Frases objetivo separadas por comas.
+     * @return Los documentos y páginas donde aparece cada frase.
+     * @throws IOException              Si el índice está cerrado.
+     * @throws IllegalArgumentException Si alguna frase no tiene ninguna palabra.
+     */
+    public CorpusSearchResult search(String targetPhrase) throws IOException {
+        return search(PhraseMatcher.fromCommaSeparated(targetPhrase).getPhrases());
+    }
+
+    /**
+     * Busca frases separadas por comas en un documento del índice, sin abrirlo.
+     *
+     * @param file         Archivo PDF.
+     * @param targetPhrase Frases objetivo separadas por comas.
+     * @return El resultado de cada frase, con la primera página donde aparece; o null si el archivo no está en
+     * el índice o cambió desde que se indexó.
+     * @throws IOException              Si el archivo no se puede leer o el índice está cerrado.
+     * @throws IllegalArgumentException Si alguna frase no tiene ninguna palabra.
+     */
+    public PhraseSearchResult findPhrases(Path file, String targetPhrase) throws IOException {
+        List<Segment> view = committed;
+        checkOpen();
+        String path = key(file);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        for (Segment segment : view) {
+            int doc = segment.index.findDocument(path);
+            if (doc < 0 || segment.deleted.get(doc)) {
+                continue;
+            }
+            if (!segment.index.getDocument(doc).matches(attributes)) {
+                return null;
+            }
+            List<String> phrases = PhraseMatcher.fromCommaSeparated(targetPhrase).getPhrases();
+            int[] firstPages = new int[phrases.size()];
+            for (int i = 0; i < firstPages.length; i++) {
+                SortedMap<String, int[]> documents = new TreeMap<>();
+                segment.match(terms(phrases.get(i)), doc, documents);
+                firstPages[i] = documents.isEmpty() ? PhraseSearchResult.NOT_FOUND : documents.get(path)[0];
+            }
+            return new PhraseSearchResult(phrases, firstPages);
+        }
+        return null;
+    }
+
+    /**
+     * @return Número de documentos en el índice, según la última confirmación.
+     */
+    public int getDocumentCount() {
+        int count = 0;
+        for (Segment segment : committed) {
+            count += segment.liveCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return Número de segmentos del índice, según la última confirmación.
+     */
+    public int getSegmentCount() {
+        return committed.size();
+    }
+
+    /**
+     * Confirma los cambios pendientes y libera el directorio.
+     *
+     * @throws IOException Si ocurre un error escribiendo el índice.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            commit();
+        } finally {
+            closed = true;
+            committed = Collections.emptyList();
+            release();
+        }
+    }
+
+    private void release() throws IOException {
+        try {
+            lock.release();
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("El índice está cerrado: " + directory);
+        }
+    }
+
+    private static String key(Path file) {
+        return file.toAbsolutePath().normalize().toString();
+    }
+
+    private static byte[][] terms(String phrase) {
+        List<String> terms = IndexTerms.terms(phrase);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("La frase no contiene ninguna palabra: \"" + phrase + "\"");
+        }
+        byte[][] encoded = new byte[terms.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = terms.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    // Estado de escritura: todos los métodos siguientes se llaman con el monitor de this.
+
+    private synchronized boolean isCurrent(String path, BasicFileAttributes attributes) {
+        for (Segment segment : segments) {
+            int doc = segment.index.findDocument(path);
+            if (doc >= 0 && !segment.deleted.get(doc)) {
+                return segment.index.getDocument(doc).matches(attributes);
+            }
+        }
+        Integer doc = pending.byPath.get(path);
+        return doc != null && pending.documents.get(doc).matches(attributes);
+    }
+
+    private boolean contains(String path) {
+        for (Segment segment : segments) {
+            int doc = segment.index.findDocument(path);
+            if (doc >= 0 && !segment.deleted.get(doc)) {
+                return true;
+            }
+        }
+        return pending.byPath.containsKey(path);
+    }
+
+    private List<String> livePaths() {
+        List<String> paths = new ArrayList<>(pending.byPath.keySet());
+        for (Segment segment : segments) {
+            for (int doc = 0; doc < segment.index.getDocumentCount(); doc++) {
+                if (!segment.deleted.get(doc)) {
+                    paths.add(segment.index.getDocument(doc).path);
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Marca como borrada la versión actual de un documento, en su segmento o en el búfer. Las búsquedas
+     * siguen viéndola hasta la siguiente confirmación, porque cada confirmación publica copias de las marcas.
+     */
+    private boolean delete(String path) {
+        Integer pendingDoc = pending.byPath.remove(path);
+        if (pendingDoc != null) {
+            pending.deleted.set(pendingDoc);
+            return true;
+        }
+        for (Segment segment : segments) {
+            int doc = segment.index.findDocument(path);
+            if (doc >= 0 && !segment.deleted.get(doc)) {
+                segment.deleted.set(doc);
+                dirty = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void addDocument(ExtractedDocument document) throws IOException {
+        checkOpen();
+        delete(document.info.path);
+        pending.add(document);
+        dirty = true;
+        if (pending.bytes >= bufferBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Escribe los documentos del búfer como un segmento nuevo. No cambia el manifiesto: si el proceso se
+     * interrumpe antes de confirmar, el segmento se borra al volver a abrir el índice.
+     */
+    private void flush() throws IOException {
+        if (pending.documents.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Path file = directory.resolve(segmentName(nextSegment++));
+        List<TermPostings> terms = new ArrayList<>(pending.terms.values());
+        terms.sort((a, b) -> IndexSegment.compareTerms(a.term, b.term));
+        try (IndexSegmentWriter writer = new IndexSegmentWriter(file)) {
+            for (IndexSegment.Document document : pending.documents) {
+                writer.addDocument(document);
+            }
+            for (TermPostings term : terms) {
+                writer.addTerm(term.term, term.bytes.array(), term.bytes.size());
+            }
+            writer.finish();
+        }
+        segments.add(new Segment(IndexSegment.open(file), (BitSet) pending.deleted.clone()));
+        logger.log(Level.FINE, "Segmento {0} escrito: {1} documentos, {2} términos, {3} ms", new Object[]{
+                file.getFileName(), pending.documents.size(), terms.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)});
+        pending = new Pending();
+    }
+
+    /**
+     * Fusiona un grupo de segmentos consecutivos en uno sin los documentos borrados, recorriendo sus
+     * diccionarios a la vez en orden de término. Los documentos conservan su orden, así que los bloques de
+     * apariciones se copian tal cual con el número de documento nuevo.
+     *
+     * @return El segmento fusionado; el grupo sin cambios si no hay nada que fusionar, o vacío si no queda
+     * ningún documento.
+     */
+    private List<Segment> merge(List<Segment> group) throws IOException {
+        if (group.isEmpty() || (group.size() == 1 && group.get(0).deleted.isEmpty())) {
+            return new ArrayList<>(group);
+        }
+        int live = 0;
+        for (Segment segment : group) {
+            live += segment.liveCount();
+        }
+        if (live == 0) {
+            return new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        Path file = directory.resolve(segmentName(nextSegment++));
+        try (IndexSegmentWriter writer = new IndexSegmentWriter(file)) {
+            int[][] remap = new int[group.size()][];
+            int next = 0;
+            PriorityQueue<TermCursor> queue = new PriorityQueue<>();
+            for (int s = 0; s < group.size(); s++) {
+                Segment segment = group.get(s);
+                remap[s] = new int[segment.index.getDocumentCount()];
+                for (int doc = 0; doc < remap[s].length; doc++) {
+                    if (segment.deleted.get(doc)) {
+                        remap[s][doc] = -1;
+                    } else {
+                        remap[s][doc] = next++;
+                        writer.addDocument(segment.index.getDocument(doc));
+                    }
+                }
+                if (segment.index.getTermCount() > 0) {
+                    queue.add(new TermCursor(s, segment.index));
+                }
+            }
+            while (!queue.isEmpty()) {
+                byte[] term = queue.peek().term;
+                writer.startTerm(term);
+                // Con el mismo término, la cola devuelve los segmentos en orden.
+                while (!queue.isEmpty() && IndexSegment.compareTerms(queue.peek().term, term) == 0) {
+                    TermCursor cursor = queue.poll();
+                    IndexSegment.Postings postings = cursor.segment.postings(cursor.termIndex);
+                    while (postings.next()) {
+                        int doc = remap[cursor.ordinal][postings.doc()];
+                        if (doc >= 0) {
+                            writer.addBlock(doc, postings);
+                        }
+                    }
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    }
+                }
+            }
+            writer.finish();
+        }
+        logger.log(Level.FINE, "Segmentos fusionados en {0}: {1} documentos, {2} ms", new Object[]{
+                file.getFileName(), live, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)});
+        return new ArrayList<>(Collections.singletonList(new Segment(IndexSegment.open(file), new BitSet())));
+    }
+
+    /**
+     * Publica para las búsquedas una copia de los segmentos y de sus marcas de borrado.
+     */
+    private void publish() {
+        List<Segment> view = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            view.add(new Segment(segment.index, (BitSet) segment.deleted.clone()));
+        }
+        committed = Collections.unmodifiableList(view);
+    }
+
+    private static String segmentName(int number) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    private void readManifest() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest)))) {
+            if (!MANIFEST_MAGIC.equals(in.readUTF()) || in.readInt() != MANIFEST_VERSION) {
+                throw new IOException("El manifiesto del índice no es válido: " + manifest);
+            }
+            nextSegment = in.readInt();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Path file = directory.resolve(in.readUTF());
+                long[] words = new long[in.readInt()];
+                for (int j = 0; j < words.length; j++) {
+                    words[j] = in.readLong();
+                }
+                segments.add(new Segment(IndexSegment.open(file), BitSet.valueOf(words)));
+            }
+        }
+    }
+
+    private void writeManifest() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        Path temp = directory.resolve(MANIFEST + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeUTF(MANIFEST_MAGIC);
+            out.writeInt(MANIFEST_VERSION);
+            out.writeInt(nextSegment);
+            out.writeInt(segments.size());
+            for (Segment segment : segments) {
+                out.writeUTF(segment.index.getFile().getFileName().toString());
+                long[] words = segment.deleted.toLongArray();
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        try {
+            Files.move(temp, manifest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Borra los segmentos que no están en el manifiesto (sustituidos por una fusión, o escritos por un
+     * proceso que se interrumpió antes de confirmar) y los archivos temporales. En Windows, un segmento que
+     * alguna búsqueda sigue teniendo proyectado no se puede borrar; se borra la próxima vez.
+     */
+    private void deleteUnreferenced() {
+        Set<String> referenced = new HashSet<>();
+        for (Segment segment : segments) {
+            referenced.add(segment.index.getFile().getFileName().toString());
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if ((name.startsWith(SEGMENT_PREFIX) && !referenced.contains(name)) || name.endsWith(".tmp")) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        logger.log(Level.FINE, "No se pudo borrar " + file, e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.FINE, "No se pudo recorrer el directorio del índice " + directory, e);
+        }
+    }
+
+    /**
+     * Extrae el texto de un archivo y agrupa las posiciones de cada término.
+     */
+    private static ExtractedDocument extract(Path file, String path, BasicFileAttributes attributes)
+            throws IOException {
+        PdfDocument pdfDoc = PdfReaders.open(file.toString());
+        try {
+            PageTextSource source = ExtractionCache.cachedPageTexts(PageTextSource.forDocument(pdfDoc), pdfDoc,
+                    file.toString());
+            int numPages = source.getNumberOfPages();
+            final ExtractedDocument document = new ExtractedDocument(new IndexSegment.Document(path,
+                    attributes.size(), attributes.lastModifiedTime().toMillis(), numPages));
+            for (int pageNumber = 1; pageNumber <= numPages; pageNumber++) {
+                final int page = pageNumber;
+                final int[] position = new int[1];
+                IndexTerms.tokenize(source.getPageText(pageNumber),
+                        term -> document.occurrences(term).add(page, position[0]++));
+            }
+            return document;
+        } finally {
+            pdfDoc.close();
+        }
+    }
+
+    /**
+     * Segmento con sus marcas de borrado.
+     */
+    private static final class Segment {
+
+        private final IndexSegment index;
+        private final BitSet deleted;
+
+        private Segment(IndexSegment index, BitSet deleted) {
+            this.index = index;
+            this.deleted = deleted;
+        }
+
+        private int liveCount() {
+            return index.getDocumentCount() - deleted.cardinality();
+        }
+
+        private long liveBytes() {
+            try {
+                long size = Files.size(index.getFile());
+                int count = index.getDocumentCount();
+                return count > 0 ? size * liveCount() / count : 0;
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * Busca una frase en los documentos del segmento. Recorre las apariciones de sus términos a la vez,
+         * empezando por el menos frecuente, y solo decodifica las páginas de los documentos que contienen
+         * todos; en ellos comprueba que los términos estén en posiciones consecutivas.
+         *
+         * @param terms     Términos de la frase, en UTF-8.
+         * @param onlyDoc   Documento al que limitar la búsqueda, o -1 para todos.
+         * @param documents Destino de las páginas donde aparece, por ruta del documento.
+         */
+        private void match(byte[][] terms, int onlyDoc, Map<String, int[]> documents) {
+            IndexSegment.Postings[] postings = new IndexSegment.Postings[terms.length];
+            IndexSegment.Postings lead = null;
+            int leadLength = Integer.MAX_VALUE;
+            for (int i = 0; i < terms.length; i++) {
+                int term = index.findTerm(terms[i]);
+                if (term < 0) {
+                    return;
+                }
+                postings[i] = index.postings(term);
+                if (index.getPostingsLength(term) < leadLength) {
+                    leadLength = index.getPostingsLength(term);
+                    lead = postings[i];
+                }
+            }
+
+            int target = Math.max(onlyDoc, 0);
+            while (lead.advance(target)) {
+                int doc = lead.doc();
+                if (onlyDoc >= 0 && doc != onlyDoc) {
+                    return;
+                }
+                target = doc;
+                for (IndexSegment.Postings other : postings) {
+                    if (!other.advance(doc)) {
+                        return;
+                    }
+                    target = Math.max(target, other.doc());
+                }
+                if (target > doc) {
+                    continue;
+                }
+                if (!deleted.get(doc)) {
+                    int[] pages = matchPages(postings);
+                    if (pages.length > 0) {
+                        documents.put(index.getDocument(doc).path, pages);
+                    }
+                }
+                target = doc + 1;
+            }
+        }
+
+        /**
+         * @return Las páginas del documento actual donde los términos aparecen en posiciones consecutivas.
+         */
+        private static int[] matchPages(IndexSegment.Postings[] postings) {
+            IndexSegment.Postings first = postings[0];
+            int[] pageIndexes = new int[postings.length];
+            int[] pages = new int[first.pageCount()];
+            int found = 0;
+            for (int p = 0; p < first.pageCount(); p++) {
+                int page = first.page(p);
+                boolean onPage = true;
+                for (int i = 1; i < postings.length && onPage; i++) {
+                    pageIndexes[i] = postings[i].findPage(page);
+                    onPage = pageIndexes[i] >= 0;
+                }
+                if (!onPage) {
+                    continue;
+                }
+                for (int k = first.positionStart(p); k < first.positionEnd(p); k++) {
+                    int position = first.position(k);
+                    boolean consecutive = true;
+                    for (int i = 1; i < postings.length && consecutive; i++) {
+                        consecutive = postings[i].containsPosition(pageIndexes[i], position + i);
+                    }
+                    if (consecutive) {
+                        pages[found++] = page;
+                        break;
+                    }
+                }
+            }
+            return Arrays.copyOf(pages, found);
+        }
+    }
+
+    /**
+     * Posición en el diccionario de un segmento durante una fusión. Se ordena por término y, con el mismo
+     * término, por el orden del segmento.
+     */
+    private static final class TermCursor implements Comparable<TermCursor> {
+
+        private final int ordinal;
+        private final IndexSegment segment;
+        private int termIndex;
+        private byte[] term;
+
+        private TermCursor(int ordinal, IndexSegment segment) {
+            this.ordinal = ordinal;
+            this.segment = segment;
+            this.term = segment.getTerm(0);
+        }
+
+        private boolean advance() {
+            if (++termIndex >= segment.getTermCount()) {
+                return false;
+            }
+            term = segment.getTerm(termIndex);
+            return true;
+        }
+
+        @Override
+        public int compareTo(TermCursor other) {
+            int cmp = IndexSegment.compareTerms(term, other.term);
+            return cmp != 0 ? cmp : Integer.compare(ordinal, other.ordinal);
+        }
+    }
+
+    /**
+     * Documentos extraídos que aún no se han escrito en un segmento, con las apariciones de cada término ya
+     * codificadas en el formato de {@link IndexSegment}.
+     */
+    private static final class Pending {
+
+        private final Map<String, TermPostings> terms = new HashMap<>();
+        private final List<IndexSegment.Document> documents = new ArrayList<>();
+        private final Map<String, Integer> byPath = new HashMap<>();
+        private final BitSet deleted = new BitSet();
+        private final IndexSegment.Bytes block = new IndexSegment.Bytes();
+        private long bytes;
+
+        private void add(ExtractedDocument document) {
+            int doc = documents.size();
+            documents.add(document.info);
+            byPath.put(document.info.path, doc);
+            bytes += 64 + 2L * document.info.path.length();
+            for (Map.Entry<String, Occurrences> entry : document.terms.entrySet()) {
+                entry.getValue().encode(block);
+                TermPostings postings = terms.get(entry.getKey());
+                if (postings == null) {
+                    postings = new TermPostings(entry.getKey().getBytes(StandardCharsets.UTF_8));
+                    terms.put(entry.getKey(), postings);
+                    bytes += 96 + 2L * entry.getKey().length();
+                }
+                int before = postings.bytes.capacity();
+                postings.bytes.writeVarInt(doc - postings.lastDoc);
+                postings.bytes.writeVarInt(block.size());
+                postings.bytes.write(block.array(), 0, block.size());
+                postings.lastDoc = doc;
+                bytes += postings.bytes.capacity() - before;
+            }
+        }
+    }
+
+    private static final class TermPostings {
+
+        private final byte[] term;
+        private final IndexSegment.Bytes bytes = new IndexSegment.Bytes();
+        private int lastDoc = -1;
+
+        private TermPostings(byte[] term) {
+            this.term = term;
+        }
+    }
+
+    private static final class ExtractedDocument {
+
+        private final IndexSegment.Document info;
+        private final Map<String, Occurrences> terms = new HashMap<>();
+
+        private ExtractedDocument(IndexSegment.Document info) {
+            this.info = info;
+        }
+
+        private Occurrences occurrences(String term) {
+            Occurrences occurrences = terms.get(term);
+            if (occurrences == null) {
+                occurrences = new Occurrences();
+                terms.put(term, occurrences);
+            }
+            return occurrences;
+        }
+    }
+
+    /**
+     * Pares (página, posición) de un término en un documento, en orden.
+     */
+    private static final class Occurrences {
+
+        private int[] values = new int[8];
+        private int size;
+
+        private void add(int page, int position) {
+            if (size + 2 > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = page;
+            values[size++] = position;
+        }
+
+        /**
+         * Codifica el bloque de un documento: páginas, y por página sus posiciones.
+         */
+        private void encode(IndexSegment.Bytes block) {
+            block.reset();
+            int pageCount = 0;
+            for (int i = 0; i < size; i += 2) {
+                if (i == 0 || values[i] != values[i - 2]) {
+                    pageCount++;
+                }
+            }
+            block.writeVarInt(pageCount);
+            int lastPage = 0;
+            for (int i = 0; i < size; ) {
+                int page = values[i];
+                int end = i;
+                while (end < size && values[end] == page) {
+                    end += 2;
+                }
+                block.writeVarInt(page - lastPage);
+                block.writeVarInt((end - i) / 2);
+                int lastPosition = 0;
+                for (int j = i; j < end; j += 2) {
+                    block.writeVarInt(j == i ? values[j + 1] : values[j + 1] - lastPosition);
+                    lastPosition = values[j + 1];
+                }
+                lastPage = page;
+                i = end;
+            }
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "clioPdf-index-" + COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.dabogadog;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+
+/**
+ * Esta clase contiene el resultado de buscar varias frases en un {@link CorpusIndex}: para cada frase, los
+ * documentos donde aparece y en qué páginas.
+ */
+public final class CorpusSearchResult {
+
+    private static final int[] NO_PAGES = new int[0];
+
+    private final List<String> phrases;
+    private final List<SortedMap<String, int[]>> matches;
+
+    CorpusSearchResult(List<String> phrases, List<SortedMap<String, int[]>> matches) {
+        this.phrases = Collections.unmodifiableList(phrases);
+        this.matches = matches;
+    }
+
+    /**
+     * @return Las frases buscadas, en el orden original.
+     */
+    public List<String> getPhrases() {
+        return phrases;
+    }
+
+    /**
+     * @param index Índice de la frase.
+     * @return Rutas absolutas de los documentos donde aparece la frase, ordenadas.
+     */
+    public Set<String> getDocuments(int index) {
+        return Collections.unmodifiableSet(matches.get(index).keySet());
+    }
+
+    /**
+     * @param index    Índice de la frase.
+     * @param document Ruta absoluta del documento, como la devuelve {@link #getDocuments(int)}.
+     * @return Páginas (empezando en 1) del documento donde aparece la frase, en orden; vacío si no aparece.
+     */
+    public int[] getPages(int index, String document) {
+        int[] pages = matches.get(index).get(document);
+        return pages != null ? pages.clone() : NO_PAGES;
+    }
+
+    /**
+     * @return Rutas absolutas de los documentos donde aparecen todas las frases, ordenadas.
+     */
+    public Set<String> getDocumentsWithAllPhrases() {
+        Set<String> documents = new TreeSet<>(matches.get(0).keySet());
+        for (int i = 1; i < matches.size(); i++) {
+            documents.retainAll(matches.get(i).keySet());
+        }
+        return Collections.unmodifiableSet(documents);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CorpusSearchResult[");
+        for (int i = 0; i < phrases.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('"').append(phrases.get(i)).append("\"=").append(matches.get(i).size()).append(" documentos");
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.dabogadog;
+
+/**
+ * Esta clase contiene el resumen de una sincronización de {@link CorpusIndex} con un árbol de directorios:
+ * cuántos archivos se indexaron por primera vez, se volvieron a indexar porque cambiaron, se quitaron porque
+ * ya no existen o se dejaron como estaban.
+ */
+public final class CorpusSyncReport {
+
+    private final int added;
+    private final int updated;
+    private final int removed;
+    private final int unchanged;
+    private final int failed;
+    private final long elapsedMillis;
+
+    CorpusSyncReport(int added, int updated, int removed, int unchanged, int failed, long elapsedMillis) {
+        this.added = added;
+        this.updated = updated;
+        this.removed = removed;
+        this.unchanged = unchanged;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return Archivos que no estaban en el índice y se indexaron.
+     */
+    public int getAdded() {
+        return added;
+    }
+
+    /**
+     * @return Archivos cuyo tamaño o fecha de modificación cambió y se volvieron a indexar.
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    /**
+     * @return Archivos indexados que ya no existen en el directorio y se quitaron del índice.
+     */
+    public int getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return Archivos que no cambiaron desde la última vez que se indexaron, y que no se leyeron.
+     */
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @return Archivos que no se pudieron leer, por ejemplo por estar protegidos con contraseña. No quedan en
+     * el índice.
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return Tiempo total de la sincronización en milisegundos, incluida la escritura del índice.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "CorpusSyncReport[añadidos=" + added + ", actualizados=" + updated + ", quitados=" + removed
+                + ", sin cambios=" + unchanged + ", errores=" + failed + ", " + elapsedMillis + " ms]";
+    }
+}
@@ -0,0 +1,237 @@
+package io.github.dabogadog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Documentos abiertos que el {@link ComparisonService} reutiliza entre peticiones, hasta un máximo, con los
+ * menos usados recientemente descartados primero. Cada documento se identifica por su ruta, su tamaño y su
+ * fecha de modificación: si el archivo cambia, la siguiente petición abre la versión nueva.
+ *
+ * <p>Cada petición toma un préstamo del documento y lo devuelve al terminar. Un documento descartado o
+ * sustituido mientras está prestado se cierra cuando se devuelve el último préstamo.</p>
+ *
+ * <p>Si un préstamo se devuelve sin {@link Lease#complete()}, porque el trabajo terminó con una excepción, o
+ * con el hilo interrumpido, el documento se descarta: una interrupción mientras iText proyecta una ventana de
+ * un archivo de más de 64 MB cierra su canal, y el documento ya no se puede leer.</p>
+ */
+final class DocumentHandlePool implements Closeable {
+
+    private final int capacity;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+    private boolean closed;
+
+    DocumentHandlePool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Presta el documento de un archivo, abriéndolo si no está abierto o si cambió desde que se abrió.
+     *
+     * @param file Archivo PDF sin protección.
+     * @return El préstamo, que se debe cerrar al terminar de usar el documento.
+     * @throws IOException Si el archivo no existe o no se puede abrir.
+     */
+    Lease acquire(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        String key = file.toAbsolutePath().normalize().toString();
+        List<Entry> retired = new ArrayList<>();
+        Entry entry;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("El conjunto de documentos está cerrado");
+            }
+            entry = entries.get(key);
+            if (entry != null && !entry.matches(attributes)) {
+                entries.remove(key);
+                retire(entry, retired);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(key, attributes);
+                entries.put(key, entry);
+                misses++;
+                evict(retired);
+            } else {
+                hits++;
+            }
+            entry.references++;
+        }
+        closeAll(retired);
+
+        try {
+            return new Lease(entry, entry.open());
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    entries.remove(key);
+                }
+            }
+            release(entry, false);
+            throw e;
+        }
+    }
+
+    /**
+     * @return Número de documentos en el conjunto.
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Cierra los documentos que no están prestados; los prestados se cierran al devolverlos.
+     */
+    @Override
+    public void close() {
+        List<Entry> retired = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (Entry entry : entries.values()) {
+                retire(entry, retired);
+            }
+            entries.clear();
+        }
+        closeAll(retired);
+    }
+
+    private void evict(List<Entry> retired) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next();
+            it.remove();
+            evictions++;
+            retire(eldest, retired);
+        }
+    }
+
+    private void retire(Entry entry, List<Entry> retired) {
+        entry.retired = true;
+        if (entry.references == 0) {
+            retired.add(entry);
+        }
+    }
+
+    private void release(Entry entry, boolean discard) {
+        boolean close;
+        synchronized (this) {
+            if (discard && !entry.retired) {
+                if (entries.get(entry.path) == entry) {
+                    entries.remove(entry.path);
+                }
+                entry.retired = true;
+            }
+            entry.references--;
+            close = entry.retired && entry.references == 0;
+        }
+        if (close) {
+            entry.close();
+        }
+    }
+
+    private static void closeAll(List<Entry> entries) {
+        for (Entry entry : entries) {
+            entry.close();
+        }
+    }
+
+    /**
+     * Documento del conjunto. Los préstamos y el estado se protegen con el monitor del conjunto; la apertura,
+     * con el de la entrada, para que las peticiones de otros archivos no esperen.
+     */
+    private static final class Entry {
+
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private PdfDocumentHandle handle;
+        private int references;
+        private boolean retired;
+
+        private Entry(String path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+
+        private synchronized PdfDocumentHandle open() throws IOException {
+            if (handle == null) {
+                handle = PdfDocumentHandle.open(path);
+                handle.setInterruptible(true);
+            }
+            return handle;
+        }
+
+        private synchronized void close() {
+            if (handle != null) {
+                handle.close();
+                handle = null;
+            }
+        }
+    }
+
+    /**
+     * Préstamo de un documento. Cerrarlo lo devuelve al conjunto; cerrarlo más de una vez no tiene efecto.
+     */
+    final class Lease implements Closeable {
+
+        private final Entry entry;
+        private final PdfDocumentHandle handle;
+        private boolean completed;
+        private boolean released;
+
+        private Lease(Entry entry, PdfDocumentHandle handle) {
+            this.entry = entry;
+            this.handle = handle;
+        }
+
+        PdfDocumentHandle handle() {
+            return handle;
+        }
+
+        /**
+         * Indica que el trabajo terminó sin errores, para que el documento se siga reutilizando al devolverlo.
+         */
+        synchronized void complete() {
+            completed = true;
+        }
+
+        /**
+         * Devuelve el documento. Si no se llamó a {@link #complete()} o el hilo está interrumpido, lo descarta.
+         */
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                release(entry, !completed || Thread.currentThread().isInterrupted());
+            }
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfString;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Esta clase guarda los resultados de extracción (texto y tamaño de las páginas, metadatos y marcadores) de
+ * los documentos ya analizados, para no repetirlos cuando se vuelve a comprobar el mismo archivo.
+ *
+ * <p>Tiene un nivel en memoria con expulsión LRU y un nivel opcional en disco, ambos limitados por tamaño
+ * en bytes. Las claves empiezan por la huella del documento: su {@code /ID} más el resumen SHA-256 del
+ * archivo, de modo que un archivo modificado nunca reutiliza resultados anteriores.</p>
+ *
+ * <p>{@link PDFAnalyzer}, {@link PDFComparator}, {@link PagePropertiesComparator} y {@link PdfDocumentHandle}
+ * consultan la caché configurada con {@link #setDefault(ExtractionCache)}. Por defecto no hay caché. Los
+ * documentos protegidos con contraseña nunca se guardan, para no escribir su contenido descifrado.</p>
+ */
+public class ExtractionCache {
+
+    private static final Logger logger = Logger.getLogger(ExtractionCache.class.getName());
+
+    /**
+     * Clases permitidas al leer entradas del disco: solo los tipos que guarda esta caché.
+     */
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(
+            String.class.getName(), float[].class.getName(), Float.class.getName(), Integer.class.getName(),
+            Number.class.getName(), Boolean.class.getName(), java.util.HashMap.class.getName(),
+            java.util.TreeMap.class.getName(), ArrayList.class.getName()));
+
+    /**
+     * Prefijo de todas las claves. Cambia cuando cambia el formato de lo que se guarda, por ejemplo al cambiar
+     * el motor de extracción de texto, para no reutilizar entradas antiguas del disco.
+     */
+    private static final String FORMAT_VERSION = "2:";
+
+    private static volatile ExtractionCache defaultCache;
+
+    private final long maxMemoryBytes;
+    private final File directory;
+    private final long maxDiskBytes;
+
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskBytes;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Crea una caché solo en memoria.
+     *
+     * @param maxMemoryBytes Tamaño máximo aproximado en bytes de las entradas en memoria.
+     */
+    public ExtractionCache(long maxMemoryBytes) {
+        this(maxMemoryBytes, null, 0);
+    }
+
+    /**
+     * Crea una caché en memoria respaldada por un directorio en disco. Las entradas que ya existan en el
+     * directorio se reutilizan.
+     *
+     * @param maxMemoryBytes Tamaño máximo aproximado en bytes de las entradas en memoria.
+     * @param directory      Directorio de las entradas en disco, o null para no usar el disco.
+     * @param maxDiskBytes   Tamaño máximo en bytes de los archivos del directorio.
+     */
+    public ExtractionCache(long maxMemoryBytes, File directory, long maxDiskBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        if (directory != null) {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IllegalArgumentException("No se pudo crear el directorio de la caché: " + directory);
+            }
+            loadDiskIndex();
+        }
+    }
+
+    /**
+     * Configura la caché que consultan todas las comprobaciones.
+     *
+     * @param cache La caché a usar, o null para desactivarla.
+     */
+    public static void setDefault(ExtractionCache cache) {
+        defaultCache = cache;
+    }
+
+    /**
+     * @return La caché configurada, o null si no hay ninguna.
+     */
+    public static ExtractionCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Calcula la huella de un documento: el primer elemento de su {@code /ID} más el resumen del archivo.
+     *
+     * @param pdfDoc     Documento abierto.
+     * @param fileDigest Resumen SHA-256 del archivo completo.
+     * @return La huella en hexadecimal.
+     */
+    static String fingerprint(PdfDocument pdfDoc, byte[] fileDigest) {
+        StringBuilder sb = new StringBuilder(FORMAT_VERSION);
+        PdfArray id = pdfDoc.getTrailer().getAsArray(PdfName.ID);
+        PdfString first = id != null && id.size() > 0 ? id.getAsString(0) : null;
+        if (first != null) {
+            appendHex(sb, first.getValueBytes());
+        }
+        sb.append('-');
+        appendHex(sb, fileDigest);
+        return sb.toString();
+    }
+
+    /**
+     * Envuelve una fuente de texto para que consulte la caché configurada antes de extraer cada página.
+     *
+     * @param source   Fuente que extrae el texto.
+     * @param pdfDoc   Documento, para obtener su {@code /ID}.
+     * @param filePath Ruta al archivo, para calcular su resumen.
+     * @return La fuente original si no hay caché configurada, o una fuente que la consulta.
+     * @throws IOException Si ocurre un error calculando la huella del documento.
+     */
+    static PageTextSource cachedPageTexts(final PageTextSource source, PdfDocument pdfDoc, String filePath)
+            throws IOException {
+        final ExtractionCache cache = defaultCache;
+        if (cache == null) {
+            return source;
+        }
+        final String fingerprint = fingerprint(pdfDoc, ContentDigests.fileDigest(filePath));
+        return new PageTextSource() {
+            @Override
+            public int getNumberOfPages() {
+                return source.getNumberOfPages();
+            }
+
+            @Override
+            public String getPageText(int pageNumber) throws IOException {
+                String key = pageKey(fingerprint, "text", pageNumber);
+                String text = (String) cache.get(key);
+                if (text == null) {
+                    text = source.getPageText(pageNumber);
+                    cache.put(key, text);
+                }
+                return text;
+            }
+        };
+    }
+
+    static String pageKey(String fingerprint, String kind, int pageNumber) {
+        return fingerprint + ':' + kind + ':' + pageNumber;
+    }
+
+    static String documentKey(String fingerprint, String kind) {
+        return fingerprint + ':' + kind;
+    }
+
+    /**
+     * Busca una entrada, primero en memoria y después en disco.
+     *
+     * @param key Clave de la entrada.
+     * @return El valor guardado, o null si no está.
+     */
+    public Object get(String key) {
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                memoryHits.incrementAndGet();
+                return entry.value;
+            }
+        }
+        Object value = readFromDisk(key);
+        if (value != null) {
+            diskHits.incrementAndGet();
+            putInMemory(key, value);
+            return value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Guarda una entrada en memoria y, si hay directorio, en disco.
+     *
+     * @param key   Clave de la entrada.
+     * @param value Valor a guardar: cadenas, arreglos de float, o mapas y listas de ellos.
+     */
+    public void put(String key, Serializable value) {
+        putInMemory(key, value);
+        writeToDisk(key, value);
+    }
+
+    /**
+     * @return Número de búsquedas resueltas en memoria.
+     */
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    /**
+     * @return Número de búsquedas resueltas en disco.
+     */
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    /**
+     * @return Número de búsquedas que no encontraron la entrada.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Tamaño aproximado en bytes de las entradas en memoria.
+     */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * @return Tamaño en bytes de los archivos de la caché en disco.
+     */
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    /**
+     * Vacía el nivel en memoria. Las entradas en disco se conservan.
+     */
+    public synchronized void clearMemory() {
+        memory.clear();
+        memoryBytes = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionCache[memoria=" + getMemoryHits() + ", disco=" + getDiskHits() + ", fallos=" + getMisses()
+                + ", bytesMemoria=" + getMemoryBytes() + ", bytesDisco=" + getDiskBytes() + "]";
+    }
+
+    private synchronized void putInMemory(String key, Object value) {
+        long weight = weigh(key) + weigh(value);
+        if (weight > maxMemoryBytes) {
+            return;
+        }
+        Entry previous = memory.put(key, new Entry(value, weight));
+        if (previous != null) {
+            memoryBytes -= previous.weight;
+        }
+        memoryBytes += weight;
+        Iterator<Entry> eldest = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            memoryBytes -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    private Object readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        String name = fileName(key);
+        synchronized (this) {
+            if (diskIndex.get(name) == null) {
+                return null;
+            }
+        }
+        File file = new File(directory, name);
+        // La fecha de modificación conserva el orden LRU entre ejecuciones.
+        file.setLastModified(System.currentTimeMillis());
+        try (ObjectInputStream in = new RestrictedObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            String storedKey = in.readUTF();
+            return key.equals(storedKey) ? in.readObject() : null;
+        } catch (IOException | ClassNotFoundException e) {
+            logger.log(Level.FINE, "No se pudo leer la entrada de la caché " + file, e);
+            synchronized (this) {
+                forget(name);
+            }
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Serializable value) {
+        if (directory == null) {
+            return;
+        }
+        String name = fileName(key);
+        File file = new File(directory, name);
+        File temp = new File(directory, name + ".tmp");
+        try {
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeUTF(key);
+                out.writeObject(value);
+            }
+            synchronized (this) {
+                forget(name);
+                if (!temp.renameTo(file)) {
+                    throw new IOException("No se pudo mover " + temp + " a " + file);
+                }
+                diskIndex.put(name, file.length());
+                diskBytes += file.length();
+                Iterator<Map.Entry<String, Long>> eldest = diskIndex.entrySet().iterator();
+                while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+                    Map.Entry<String, Long> entry = eldest.next();
+                    diskBytes -= entry.getValue();
+                    eldest.remove();
+                    new File(directory, entry.getKey()).delete();
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.FINE, "No se pudo escribir la entrada de la caché " + file, e);
+            temp.delete();
+        }
+    }
+
+    private void forget(String name) {
+        Long size = diskIndex.remove(name);
+        if (size != null) {
+            diskBytes -= size;
+            new File(directory, name).delete();
+        }
+    }
+
+    private void loadDiskIndex() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> entries = new ArrayList<>();
+        for (File file : files) {
+            if (file.isFile() && file.getName().endsWith(".entry")) {
+                entries.add(file);
+            }
+        }
+        // Las entradas usadas hace más tiempo son las primeras en expulsarse.
+        entries.sort((a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : entries) {
+            diskIndex.put(file.getName(), file.length());
+            diskBytes += file.length();
+        }
+    }
+
+    private static String fileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder sb = new StringBuilder();
+            appendHex(sb, digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+            return sb.append(".entry").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+
+    private static void appendHex(StringBuilder sb, byte[] bytes) {
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+    }
+
+    /**
+     * Estima el tamaño en memoria de un valor guardado.
+     */
+    private static long weigh(Object value) {
+        if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        }
+        if (value instanceof float[]) {
+            return 16 + 4L * ((float[]) value).length;
+        }
+        if (value instanceof Map) {
+            long weight = 48;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                weight += 32 + weigh(entry.getKey()) + weigh(entry.getValue());
+            }
+            return weight;
+        }
+        if (value instanceof List) {
+            long weight = 40;
+            for (Object item : (List<?>) value) {
+                weight += 8 + weigh(item);
+            }
+            return weight;
+        }
+        return 16;
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long weight;
+
+        private Entry(Object value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Lector de objetos que solo acepta los tipos que guarda la caché.
+     */
+    private static final class RestrictedObjectInputStream extends ObjectInputStream {
+
+        private RestrictedObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!ALLOWED_CLASSES.contains(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Tipo no permitido en la caché de extracción");
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package io.github.dabogadog;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Esta clase compara todos los metadatos de dos archivos PDF: las propiedades del diccionario Info de los dos
+ * archivos, también las que solo existen en uno, y las propiedades de los metadatos XMP, leídas con un
+ * analizador StAX sin construir el árbol del documento.
+ *
+ * <p>Las fechas se comparan por el instante que representan, de modo que {@code D:20240101120000+01'00'} y
+ * {@code D:20240101110000Z} son iguales. Se pueden ignorar propiedades que cambian en cada generación, por su
+ * nombre o por una expresión regular; las expresiones se compilan al configurarlas, no en cada comparación.</p>
+ */
+public class FullMetadataComparator {
+
+    private static final Logger logger = Logger.getLogger(FullMetadataComparator.class.getName());
+
+    /**
+     * Propiedades que cambian cada vez que se genera o se guarda un documento.
+     */
+    private static final List<String> VOLATILE_KEYS = Collections.unmodifiableList(Arrays.asList(
+            "ModDate", "Producer", "xmp:ModifyDate", "xmp:MetadataDate", "pdf:Producer", "xmpMM:InstanceID"));
+
+    /**
+     * Fecha de PDF: {@code D:AAAAMMDDHHmmSSOHH'mm'}, donde todo lo que sigue al año es opcional.
+     */
+    private static final Pattern PDF_DATE = Pattern.compile(
+            "D:(\\d{4})(\\d{2})?(\\d{2})?(\\d{2})?(\\d{2})?(\\d{2})?(?:([Zz+-])(?:(\\d{2})'?(?:(\\d{2})'?)?)?)?\\s*");
+
+    /**
+     * Fecha de XMP (ISO 8601) con hora: {@code AAAA-MM-DDTHH:mm[:SS[.s]][Z|+HH:mm]}.
+     */
+    private static final Pattern XMP_DATE = Pattern.compile(
+            "(\\d{4})-(\\d{2})-(\\d{2})T(\\d{2}):(\\d{2})(?::(\\d{2})(\\.\\d{1,9})?)?(?:([Zz])|([+-])(\\d{2}):(\\d{2}))?");
+
+    private final Set<String> ignoredKeys = new HashSet<>();
+    private final List<Pattern> ignoredPatterns = new ArrayList<>();
+    private boolean compareXmp = true;
+    private boolean normalizeDates = true;
+
+    /**
+     * Ignora una propiedad en los dos archivos. El nombre de una propiedad XMP también ignora sus elementos y
+     * campos: {@code dc:creator} ignora {@code dc:creator[1]}.
+     *
+     * @param key Nombre de la propiedad, por ejemplo {@code ModDate} o {@code xmp:ModifyDate}.
+     * @return Este comparador.
+     */
+    public FullMetadataComparator ignoreKey(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("El nombre de la propiedad no puede ser null");
+        }
+        ignoredKeys.add(key);
+        return this;
+    }
+
+    /**
+     * Ignora las propiedades cuyo nombre completo cumple una expresión regular.
+     *
+     * @param regex Expresión regular, por ejemplo {@code xmpMM:History.*}.
+     * @return Este comparador.
+     * @throws java.util.regex.PatternSyntaxException Si la expresión no es válida.
+     */
+    public FullMetadataComparator ignoreKeys(String regex) {
+        if (regex == null) {
+            throw new IllegalArgumentException("La expresión regular no puede ser null");
+        }
+        ignoredPatterns.add(Pattern.compile(regex));
+        return this;
+    }
+
+    /**
+     * Ignora las propiedades que cambian cada vez que se genera o se guarda un documento: {@code ModDate} y
+     * {@code Producer} del diccionario Info, y {@code xmp:ModifyDate}, {@code xmp:MetadataDate},
+     * {@code pdf:Producer} y {@code xmpMM:InstanceID} de XMP.
+     *
+     * @return Este comparador.
+     */
+    public FullMetadataComparator ignoreVolatileKeys() {
+        ignoredKeys.addAll(VOLATILE_KEYS);
+        return this;
+    }
+
+    /**
+     * @param compareXmp true (por defecto) para comparar también los metadatos XMP, false para comparar solo
+     *                   el diccionario Info.
+     * @return Este comparador.
+     */
+    public FullMetadataComparator setCompareXmp(boolean compareXmp) {
+        this.compareXmp = compareXmp;
+        return this;
+    }
+
+    /**
+     * @param normalizeDates true (por defecto) para comparar las fechas por el instante que representan, false
+     *                       para compararlas como texto.
+     * @return Este comparador.
+     */
+    public FullMetadataComparator setNormalizeDates(boolean normalizeDates) {
+        this.normalizeDates = normalizeDates;
+        return this;
+    }
+
+    /**
+     * Compara todos los metadatos de dos archivos PDF.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return true si los metadatos son iguales, false si son diferentes o si ocurre un error.
+     */
+    public boolean compareMetadata(String filePath1, String filePath2) {
+        return compareMetadata(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara todos los metadatos de dos archivos PDF, protegidos o no.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return true si los metadatos son iguales, false si son diferentes o si ocurre un error.
+     */
+    public boolean compareMetadata(String filePath1, PdfCredentials credentials1,
+                                   String filePath2, PdfCredentials credentials2) {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return compareMetadata(handle1, handle2);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de metadatos:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Compara todos los metadatos de dos documentos ya abiertos, y registra cada diferencia.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return true si los metadatos son iguales, false si son diferentes o si ocurre un error.
+     */
+    public boolean compareMetadata(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        try {
+            MetadataComparisonResult result = compare(handle1, handle2);
+            for (MetadataDifference difference : result.getDifferences()) {
+                logger.log(Level.INFO, "La propiedad de metadatos es diferente: {0}", difference);
+            }
+            return result.areEqual();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de metadatos:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Compara todos los metadatos de dos archivos PDF y devuelve las propiedades diferentes.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o sus metadatos XMP.
+     */
+    public MetadataComparisonResult compare(String filePath1, String filePath2) throws IOException {
+        return compare(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara todos los metadatos de dos archivos PDF, protegidos o no, y devuelve las propiedades diferentes.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o sus metadatos XMP, o si las
+     *                     credenciales no son válidas.
+     */
+    public MetadataComparisonResult compare(String filePath1, PdfCredentials credentials1,
+                                            String filePath2, PdfCredentials credentials2) throws IOException {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return compare(handle1, handle2);
+        }
+    }
+
+    /**
+     * Compara todos los metadatos de dos documentos ya abiertos. Una propiedad que solo existe en uno de los
+     * dos es una diferencia, con el valor null en el otro.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return El resultado de la comparación: primero las diferencias del diccionario Info y después las de
+     * XMP, cada grupo ordenado por nombre.
+     * @throws IOException Si ocurre un error leyendo alguno de los documentos o sus metadatos XMP.
+     */
+    public MetadataComparisonResult compare(PdfDocumentHandle handle1, PdfDocumentHandle handle2)
+            throws IOException {
+        MetadataComparisonResult result = new MetadataComparisonResult();
+        compare(MetadataDifference.Source.INFO, handle1.getInfo(), handle2.getInfo(), result);
+        if (compareXmp) {
+            compare(MetadataDifference.Source.XMP, handle1.getXmpMetadata(), handle2.getXmpMetadata(), result);
+        }
+        return result;
+    }
+
+    private void compare(MetadataDifference.Source source, Map<String, String> metadata1,
+                         Map<String, String> metadata2, MetadataComparisonResult result) {
+        long start = Metrics.start();
+        Set<String> keys = new TreeSet<>(metadata1.keySet());
+        keys.addAll(metadata2.keySet());
+        for (String key : keys) {
+            if (isIgnored(key)) {
+                continue;
+            }
+            String value1 = metadata1.get(key);
+            String value2 = metadata2.get(key);
+            if (value1 == null || value2 == null || !normalize(source, value1).equals(normalize(source, value2))) {
+                result.addDifference(new MetadataDifference(source, key, value1, value2));
+            }
+        }
+        Metrics.end(ComparisonMetrics.Phase.COMPARE, start);
+    }
+
+    private boolean isIgnored(String key) {
+        if (ignoredKeys.contains(key) || ignoredKeys.contains(propertyName(key))) {
+            return true;
+        }
+        for (Pattern pattern : ignoredPatterns) {
+            if (pattern.matcher(key).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return El nombre de la propiedad de una clave de XMP, sin sus elementos ni campos.
+     */
+    private static String propertyName(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '[' || c == '/') {
+                return key.substring(0, i);
+            }
+        }
+        return key;
+    }
+
+    private String normalize(MetadataDifference.Source source, String value) {
+        if (!normalizeDates) {
+            return value;
+        }
+        String date = source == MetadataDifference.Source.INFO ? normalizePdfDate(value) : normalizeXmpDate(value);
+        return date != null ? date : value;
+    }
+
+    /**
+     * @return La fecha en ISO 8601, en UTC si indica la zona horaria, o null si el valor no es una fecha de PDF.
+     */
+    static String normalizePdfDate(String value) {
+        if (!value.startsWith("D:")) {
+            return null;
+        }
+        Matcher matcher = PDF_DATE.matcher(value);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String sign = matcher.group(7);
+        int offsetSeconds = 0;
+        if ("+".equals(sign) || "-".equals(sign)) {
+            offsetSeconds = (number(matcher.group(8), 0) * 60 + number(matcher.group(9), 0)) * 60;
+            offsetSeconds = "-".equals(sign) ? -offsetSeconds : offsetSeconds;
+        }
+        return format(number(matcher.group(1), 0), number(matcher.group(2), 1), number(matcher.group(3), 1),
+                number(matcher.group(4), 0), number(matcher.group(5), 0), number(matcher.group(6), 0), 0,
+                sign != null, offsetSeconds);
+    }
+
+    /**
+     * @return La fecha en ISO 8601, en UTC si indica la zona horaria, o null si el valor no es una fecha y hora
+     * de XMP.
+     */
+    static String normalizeXmpDate(String value) {
+        if (value.length() < 16 || value.charAt(10) != 'T') {
+            return null;
+        }
+        Matcher matcher = XMP_DATE.matcher(value);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String fraction = matcher.group(7);
+        int nanos = fraction != null ? Integer.parseInt((fraction.substring(1) + "00000000").substring(0, 9)) : 0;
+        boolean zoned = matcher.group(8) != null || matcher.group(9) != null;
+        int offsetSeconds = 0;
+        if (matcher.group(9) != null) {
+            offsetSeconds = (number(matcher.group(10), 0) * 60 + number(matcher.group(11), 0)) * 60;
+            offsetSeconds = "-".equals(matcher.group(9)) ? -offsetSeconds : offsetSeconds;
+        }
+        return format(number(matcher.group(1), 0), number(matcher.group(2), 1), number(matcher.group(3), 1),
+                number(matcher.group(4), 0), number(matcher.group(5), 0), number(matcher.group(6), 0), nanos,
+                zoned, offsetSeconds);
+    }
+
+    private static String format(int year, int month, int day, int hour, int minute, int second, int nanos,
+                                 boolean zoned, int offsetSeconds) {
+        try {
+            LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+            if (!zoned) {
+                return dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            }
+            return dateTime.atOffset(ZoneOffset.ofTotalSeconds(offsetSeconds)).toInstant().toString();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int number(String digits, int defaultValue) {
+        return digits != null ? Integer.parseInt(digits) : defaultValue;
+    }
+}
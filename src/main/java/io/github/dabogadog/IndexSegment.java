@@ -0,0 +1,441 @@
+package io.github.dabogadog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Segmento inmutable de un {@link CorpusIndex}, proyectado en memoria con {@link FileChannel#map}. Las
+ * búsquedas leen el diccionario de términos y las listas de apariciones directamente del archivo, sin cargarlas
+ * en el heap; solo la tabla de documentos se lee al abrirlo.
+ *
+ * <p>Formato, con enteros big-endian:</p>
+ * <pre>
+ * cabecera    "CLIOIDX1", int documentos, int términos, long inicio de cada sección (4)
+ * documentos  por documento: int longitud, ruta en UTF-8, long tamaño, long modificación, int páginas
+ * índice      por término, más uno final: int inicio en los términos, int inicio en las apariciones
+ * términos    los términos en UTF-8, ordenados byte a byte sin signo
+ * apariciones por término, un bloque por documento:
+ *             varint salto de documento, varint longitud del resto del bloque, varint páginas,
+ *             y por página: varint salto de página, varint posiciones, varint posiciones (la primera
+ *             tal cual y el resto como saltos)
+ * </pre>
+ *
+ * <p>Las posiciones numeran los términos de cada página desde 0. La longitud del bloque permite saltar los
+ * documentos que no interesan sin decodificar sus páginas.</p>
+ */
+final class IndexSegment {
+
+    static final byte[] MAGIC = "CLIOIDX1".getBytes(StandardCharsets.US_ASCII);
+    static final int HEADER_LENGTH = 48;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final Document[] documents;
+    private final Map<String, Integer> byPath;
+    private final int termCount;
+    private final int termIndexOffset;
+    private final int termBytesOffset;
+    private final int postingsOffset;
+
+    private IndexSegment(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                throw new IOException("El archivo no es un segmento del índice: " + file);
+            }
+        }
+        int documentCount = buffer.getInt(8);
+        termCount = buffer.getInt(12);
+        int documentsOffset = offset(buffer, 16, file);
+        termIndexOffset = offset(buffer, 24, file);
+        termBytesOffset = offset(buffer, 32, file);
+        postingsOffset = offset(buffer, 40, file);
+
+        documents = new Document[documentCount];
+        byPath = new HashMap<>(documentCount * 2);
+        ByteBuffer in = buffer.duplicate();
+        in.position(documentsOffset);
+        for (int i = 0; i < documentCount; i++) {
+            byte[] path = new byte[in.getInt()];
+            in.get(path);
+            documents[i] = new Document(new String(path, StandardCharsets.UTF_8), in.getLong(), in.getLong(), in.getInt());
+            byPath.put(documents[i].path, i);
+        }
+    }
+
+    /**
+     * Lee del encabezado la posición de una sección. Se guarda como long, pero un segmento proyectado no puede
+     * superar 2 GB: una posición fuera del archivo indica un segmento dañado, no se trunca.
+     */
+    private static int offset(ByteBuffer buffer, int index, Path file) throws IOException {
+        long offset = buffer.getLong(index);
+        if (offset < HEADER_LENGTH || offset > buffer.limit()) {
+            throw new IOException("El encabezado del segmento del índice no es válido: " + file);
+        }
+        return (int) offset;
+    }
+
+    /**
+     * Proyecta un segmento en memoria. La proyección sigue siendo válida después de cerrar el canal.
+     *
+     * @param file Archivo del segmento.
+     * @return El segmento.
+     * @throws IOException Si el archivo no se puede leer o no es un segmento.
+     */
+    static IndexSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH || size > Integer.MAX_VALUE) {
+                throw new IOException("El archivo no es un segmento del índice: " + file);
+            }
+            return new IndexSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    int getDocumentCount() {
+        return documents.length;
+    }
+
+    Document getDocument(int doc) {
+        return documents[doc];
+    }
+
+    /**
+     * @param path Ruta absoluta del documento.
+     * @return Número del documento en el segmento, o -1 si no está. Puede estar borrado.
+     */
+    int findDocument(String path) {
+        Integer doc = byPath.get(path);
+        return doc != null ? doc : -1;
+    }
+
+    int getTermCount() {
+        return termCount;
+    }
+
+    /**
+     * Busca un término con una búsqueda binaria sobre el diccionario.
+     *
+     * @param term Término en UTF-8.
+     * @return Índice del término, o -1 si no está.
+     */
+    int findTerm(byte[] term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareTerm(mid, term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    byte[] getTerm(int index) {
+        int start = termStart(index);
+        byte[] term = new byte[termStart(index + 1) - start];
+        ByteBuffer in = buffer.duplicate();
+        in.position(start);
+        in.get(term);
+        return term;
+    }
+
+    /**
+     * @param index Índice del término.
+     * @return Tamaño en bytes de sus apariciones, proporcional al número de veces que aparece.
+     */
+    int getPostingsLength(int index) {
+        return postingsStart(index + 1) - postingsStart(index);
+    }
+
+    Postings postings(int index) {
+        return new Postings(postingsStart(index), postingsStart(index + 1));
+    }
+
+    private int termStart(int index) {
+        return termBytesOffset + buffer.getInt(termIndexOffset + index * 8);
+    }
+
+    private int postingsStart(int index) {
+        return postingsOffset + buffer.getInt(termIndexOffset + index * 8 + 4);
+    }
+
+    private int compareTerm(int index, byte[] term) {
+        int start = termStart(index);
+        int length = termStart(index + 1) - start;
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (buffer.get(start + i) & 0xff) - (term[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - term.length;
+    }
+
+    /**
+     * Compara dos términos en UTF-8 byte a byte sin signo, el orden del diccionario.
+     */
+    static int compareTerms(byte[] a, byte[] b) {
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * Documento de un segmento, con el tamaño y la fecha de modificación que tenía el archivo al indexarlo.
+     */
+    static final class Document {
+
+        final String path;
+        final long size;
+        final long lastModified;
+        final int numPages;
+
+        Document(String path, long size, long lastModified, int numPages) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.numPages = numPages;
+        }
+
+        /**
+         * @return true si el archivo tiene el mismo tamaño y fecha de modificación que al indexarlo.
+         */
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    /**
+     * Recorrido de las apariciones de un término, documento a documento. Solo usa lecturas absolutas del
+     * segmento, así que varios hilos pueden recorrer el mismo segmento a la vez, cada uno con su instancia.
+     */
+    final class Postings {
+
+        private final int end;
+        private int next;
+        private int doc = -1;
+        private int blockStart;
+        private int blockEnd;
+        private int cursor;
+        private boolean decoded;
+
+        private int pageCount;
+        private int[] pages = new int[8];
+        private int[] positionStarts = new int[9];
+        private int[] positions = new int[32];
+
+        private Postings(int start, int end) {
+            this.next = start;
+            this.end = end;
+        }
+
+        /**
+         * @return true si hay otro documento; false al terminar.
+         */
+        boolean next() {
+            if (next >= end) {
+                doc = Integer.MAX_VALUE;
+                return false;
+            }
+            cursor = next;
+            doc += readVarInt();
+            int length = readVarInt();
+            blockStart = cursor;
+            blockEnd = cursor + length;
+            next = blockEnd;
+            decoded = false;
+            return true;
+        }
+
+        /**
+         * Avanza hasta el primer documento igual o posterior a uno dado, saltando los bloques intermedios.
+         *
+         * @return false si no queda ninguno.
+         */
+        boolean advance(int target) {
+            while (doc < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return doc != Integer.MAX_VALUE;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int blockLength() {
+            return blockEnd - blockStart;
+        }
+
+        /**
+         * Copia el bloque del documento actual, sin el salto ni la longitud, para escribirlo en otro segmento.
+         */
+        void readBlock(byte[] target) {
+            ByteBuffer in = buffer.duplicate();
+            in.position(blockStart);
+            in.get(target, 0, blockEnd - blockStart);
+        }
+
+        /**
+         * @return Número de páginas del documento actual donde aparece el término.
+         */
+        int pageCount() {
+            decode();
+            return pageCount;
+        }
+
+        int page(int index) {
+            return pages[index];
+        }
+
+        /**
+         * @param page Número de página.
+         * @return Índice de la página en el documento actual, o -1 si el término no aparece en ella.
+         */
+        int findPage(int page) {
+            decode();
+            int low = 0;
+            int high = pageCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (pages[mid] < page) {
+                    low = mid + 1;
+                } else if (pages[mid] > page) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        int positionStart(int pageIndex) {
+            return positionStarts[pageIndex];
+        }
+
+        int positionEnd(int pageIndex) {
+            return positionStarts[pageIndex + 1];
+        }
+
+        int position(int index) {
+            return positions[index];
+        }
+
+        /**
+         * @return true si el término aparece en una posición de una página del documento actual.
+         */
+        boolean containsPosition(int pageIndex, int position) {
+            int low = positionStarts[pageIndex];
+            int high = positionStarts[pageIndex + 1] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (positions[mid] < position) {
+                    low = mid + 1;
+                } else if (positions[mid] > position) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void decode() {
+            if (decoded) {
+                return;
+            }
+            cursor = blockStart;
+            pageCount = readVarInt();
+            if (pages.length < pageCount) {
+                pages = new int[pageCount];
+                positionStarts = new int[pageCount + 1];
+            }
+            int page = 0;
+            int count = 0;
+            for (int i = 0; i < pageCount; i++) {
+                page += readVarInt();
+                pages[i] = page;
+                positionStarts[i] = count;
+                int n = readVarInt();
+                if (positions.length < count + n) {
+                    int[] grown = new int[Math.max(positions.length * 2, count + n)];
+                    System.arraycopy(positions, 0, grown, 0, count);
+                    positions = grown;
+                }
+                int position = 0;
+                for (int j = 0; j < n; j++) {
+                    position = j == 0 ? readVarInt() : position + readVarInt();
+                    positions[count++] = position;
+                }
+            }
+            positionStarts[pageCount] = count;
+            decoded = true;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(cursor++);
+                value |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Bytes en memoria con escritura de enteros de longitud variable: 7 bits por byte, con el bit alto
+     * indicando que sigue otro byte.
+     */
+    static final class Bytes extends ByteArrayOutputStream {
+
+        Bytes() {
+            super(64);
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7f) != 0) {
+                write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
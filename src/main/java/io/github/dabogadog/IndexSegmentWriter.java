@@ -0,0 +1,197 @@
+package io.github.dabogadog;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escribe un {@link IndexSegment}. Cada sección va a su propio archivo temporal a medida que llegan los
+ * documentos y los términos, así que fusionar segmentos grandes no necesita tenerlos en memoria; al terminar
+ * se concatenan detrás de la cabecera y el resultado se mueve a su nombre definitivo.
+ *
+ * <p>Los términos deben llegar en el orden de {@link IndexSegment#compareTerms(byte[], byte[])} y, dentro de
+ * cada término, los documentos en orden creciente.</p>
+ */
+final class IndexSegmentWriter implements Closeable {
+
+    private final Path file;
+    private final Path[] sections;
+    private final DataOutputStream documents;
+    private final DataOutputStream termIndex;
+    private final DataOutputStream termBytes;
+    private final DataOutputStream postings;
+
+    private int documentCount;
+    private int termCount;
+    private byte[] currentTerm;
+    private boolean termWritten;
+    private int lastDoc;
+    private byte[] block = new byte[256];
+    private final IndexSegment.Bytes header = new IndexSegment.Bytes();
+    private boolean finished;
+
+    IndexSegmentWriter(Path file) throws IOException {
+        this.file = file;
+        String name = file.getFileName().toString();
+        sections = new Path[]{file.resolveSibling(name + ".docs.tmp"), file.resolveSibling(name + ".index.tmp"),
+                file.resolveSibling(name + ".terms.tmp"), file.resolveSibling(name + ".postings.tmp")};
+        documents = open(sections[0]);
+        termIndex = open(sections[1]);
+        termBytes = open(sections[2]);
+        postings = open(sections[3]);
+    }
+
+    private static DataOutputStream open(Path section) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(section), 64 * 1024));
+    }
+
+    /**
+     * Añade un documento; su número en el segmento es el de documentos añadidos antes.
+     */
+    void addDocument(IndexSegment.Document document) throws IOException {
+        byte[] path = document.path.getBytes(StandardCharsets.UTF_8);
+        documents.writeInt(path.length);
+        documents.write(path);
+        documents.writeLong(document.size);
+        documents.writeLong(document.lastModified);
+        documents.writeInt(document.numPages);
+        documentCount++;
+    }
+
+    /**
+     * Añade un término con todas sus apariciones ya codificadas.
+     */
+    void addTerm(byte[] term, byte[] encodedPostings, int length) throws IOException {
+        startTerm(term);
+        writeTerm();
+        postings.write(encodedPostings, 0, length);
+        checkSize();
+    }
+
+    /**
+     * Empieza un término cuyas apariciones llegan bloque a bloque con {@link #addBlock}. Si no llega ninguno,
+     * el término no se escribe.
+     */
+    void startTerm(byte[] term) {
+        currentTerm = term;
+        termWritten = false;
+        lastDoc = -1;
+    }
+
+    /**
+     * Copia el bloque actual de un recorrido de apariciones con otro número de documento.
+     */
+    void addBlock(int doc, IndexSegment.Postings source) throws IOException {
+        if (!termWritten) {
+            writeTerm();
+        }
+        int length = source.blockLength();
+        if (block.length < length) {
+            block = new byte[Math.max(length, block.length * 2)];
+        }
+        source.readBlock(block);
+        header.reset();
+        header.writeVarInt(doc - lastDoc);
+        header.writeVarInt(length);
+        postings.write(header.array(), 0, header.size());
+        postings.write(block, 0, length);
+        lastDoc = doc;
+        checkSize();
+    }
+
+    private void writeTerm() throws IOException {
+        termIndex.writeInt(termBytes.size());
+        termIndex.writeInt(postings.size());
+        termBytes.write(currentTerm);
+        termWritten = true;
+        termCount++;
+    }
+
+    private void checkSize() throws IOException {
+        // DataOutputStream.size() se satura en Integer.MAX_VALUE.
+        if (postings.size() == Integer.MAX_VALUE) {
+            throw new IOException("El segmento del índice supera el tamaño máximo: " + file);
+        }
+    }
+
+    /**
+     * Escribe el segmento y lo mueve a su nombre definitivo.
+     *
+     * @throws IOException Si ocurre un error escribiendo o el segmento supera 2 GB.
+     */
+    void finish() throws IOException {
+        termIndex.writeInt(termBytes.size());
+        termIndex.writeInt(postings.size());
+        DataOutputStream[] streams = {documents, termIndex, termBytes, postings};
+        long[] offsets = new long[streams.length + 1];
+        offsets[0] = IndexSegment.HEADER_LENGTH;
+        for (int i = 0; i < streams.length; i++) {
+            streams[i].close();
+            offsets[i + 1] = offsets[i] + Files.size(sections[i]);
+        }
+        if (offsets[streams.length] > Integer.MAX_VALUE) {
+            throw new IOException("El segmento del índice supera el tamaño máximo: " + file);
+        }
+
+        ByteBuffer head = ByteBuffer.allocate(IndexSegment.HEADER_LENGTH);
+        head.put(IndexSegment.MAGIC).putInt(documentCount).putInt(termCount);
+        for (int i = 0; i < streams.length; i++) {
+            head.putLong(offsets[i]);
+        }
+        head.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (head.hasRemaining()) {
+                out.write(head);
+            }
+            for (Path section : sections) {
+                try (FileChannel in = FileChannel.open(section, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+            out.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finished = true;
+        close();
+    }
+
+    /**
+     * Borra los archivos temporales. Si el segmento no se terminó, no queda nada de él.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            for (DataOutputStream stream : new DataOutputStream[]{documents, termIndex, termBytes, postings}) {
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                    // Se borra a continuación.
+                }
+            }
+            Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+        }
+        for (Path section : sections) {
+            Files.deleteIfExists(section);
+        }
+    }
+}
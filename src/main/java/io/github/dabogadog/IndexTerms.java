@@ -0,0 +1,111 @@
+package io.github.dabogadog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Divide un texto en los términos que guarda {@link CorpusIndex}: secuencias de letras y dígitos, en
+ * minúsculas y sin acentos, de modo que "Canción" y "CANCION" son el mismo término. Todo lo demás (espacios,
+ * saltos de línea, puntuación) separa términos y no se guarda.
+ */
+final class IndexTerms {
+
+    /**
+     * Longitud máxima de un término. Los más largos, casi siempre texto sin separadores como resúmenes o
+     * base64, se recortan igual en los documentos y en las frases buscadas.
+     */
+    static final int MAX_TERM_LENGTH = 100;
+
+    /**
+     * Recibe los términos de un texto en orden.
+     */
+    interface Listener {
+
+        /**
+         * @param term Término normalizado.
+         */
+        void term(String term);
+    }
+
+    private IndexTerms() {
+    }
+
+    /**
+     * Recorre los términos de un texto.
+     *
+     * @param text     Texto a dividir.
+     * @param listener Destino de los términos.
+     */
+    static void tokenize(CharSequence text, Listener listener) {
+        StringBuilder token = new StringBuilder();
+        boolean ascii = true;
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                token.appendCodePoint(codePoint);
+                ascii &= codePoint < 0x80;
+            } else if (token.length() > 0 && Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+                // Acento combinado con la letra anterior: se descarta al normalizar.
+                token.appendCodePoint(codePoint);
+                ascii = false;
+            } else if (token.length() > 0) {
+                listener.term(normalize(token, ascii));
+                token.setLength(0);
+                ascii = true;
+            }
+        }
+        if (token.length() > 0) {
+            listener.term(normalize(token, ascii));
+        }
+    }
+
+    /**
+     * @param text Texto a dividir.
+     * @return Los términos del texto, en orden.
+     */
+    static List<String> terms(CharSequence text) {
+        final List<String> terms = new ArrayList<>();
+        tokenize(text, new Listener() {
+            @Override
+            public void term(String term) {
+                terms.add(term);
+            }
+        });
+        return terms;
+    }
+
+    private static String normalize(StringBuilder token, boolean ascii) {
+        String term;
+        if (ascii) {
+            for (int i = 0; i < token.length(); i++) {
+                char c = token.charAt(i);
+                if (c >= 'A' && c <= 'Z') {
+                    token.setCharAt(i, (char) (c + ('a' - 'A')));
+                }
+            }
+            term = token.toString();
+        } else {
+            String decomposed = Normalizer.normalize(token, Normalizer.Form.NFD);
+            StringBuilder stripped = new StringBuilder(decomposed.length());
+            for (int i = 0; i < decomposed.length(); i++) {
+                char c = decomposed.charAt(i);
+                if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                    stripped.append(c);
+                }
+            }
+            term = stripped.toString().toLowerCase(Locale.ROOT);
+        }
+        if (term.length() > MAX_TERM_LENGTH) {
+            int end = MAX_TERM_LENGTH;
+            if (Character.isHighSurrogate(term.charAt(end - 1))) {
+                end--;
+            }
+            term = term.substring(0, end);
+        }
+        return term;
+    }
+}
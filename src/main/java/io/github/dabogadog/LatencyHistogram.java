@@ -0,0 +1,158 @@
+package io.github.dabogadog;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas logarítmicas: cada potencia de dos de microsegundos se divide en ocho
+ * cubetas iguales, así que los percentiles tienen un error relativo menor del 12,5 % desde un microsegundo
+ * hasta varios días, con memoria fija. Es seguro entre hilos y se puede leer mientras se registran latencias.
+ *
+ * <pre>{@code
+ * LatencyHistogram histogram = new LatencyHistogram();
+ * long start = System.nanoTime();
+ * PDFComparator.comparePDFs(filePath1, filePath2);
+ * histogram.record(System.nanoTime() - start);
+ * double p99 = histogram.getPercentileMillis(99);
+ * }</pre>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int OCTAVES = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(OCTAVES * SUB_BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra una latencia.
+     *
+     * @param nanos Duración en nanosegundos.
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(Math.max(nanos, 0) / 1000));
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * @return Número de latencias registradas.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return Latencia media en milisegundos, o 0 si no hay ninguna.
+     */
+    public double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * @return Latencia máxima en milisegundos, o 0 si no hay ninguna.
+     */
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    /**
+     * Estima un percentil con el límite superior de su cubeta, sin pasar del máximo registrado.
+     *
+     * @param percentile Percentil, entre 0 y 100; por ejemplo 50 para la mediana o 99.
+     * @return La latencia en milisegundos por debajo de la cual está ese porcentaje de las registradas, o 0 si
+     * no hay ninguna.
+     */
+    public double getPercentileMillis(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100: " + percentile);
+        }
+        long[] snapshot = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundMicros(i) / 1000, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Descarta todas las latencias registradas.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * @return El histograma como un objeto JSON con el número de latencias, la media, los percentiles 50, 90,
+     * 99 y 99,9 y el máximo, en milisegundos.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"count\":").append(getCount());
+        sb.append(",\"meanMillis\":").append(round(getMeanMillis()));
+        sb.append(",\"p50Millis\":").append(round(getPercentileMillis(50)));
+        sb.append(",\"p90Millis\":").append(round(getPercentileMillis(90)));
+        sb.append(",\"p99Millis\":").append(round(getPercentileMillis(99)));
+        sb.append(",\"p999Millis\":").append(round(getPercentileMillis(99.9)));
+        sb.append(",\"maxMillis\":").append(round(getMaxMillis()));
+        return sb.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram[n=" + getCount()
+                + ", p50=" + round(getPercentileMillis(50)) + " ms"
+                + ", p99=" + round(getPercentileMillis(99)) + " ms"
+                + ", máx=" + round(getMaxMillis()) + " ms]";
+    }
+
+    /**
+     * La cubeta de un valor: la potencia de dos más alta que contiene, y dentro de ella los tres bits que la
+     * siguen.
+     */
+    private static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS + 1;
+        int index = octave * SUB_BUCKETS + (int) ((micros >>> (octave - 1)) & (SUB_BUCKETS - 1));
+        return Math.min(index, OCTAVES * SUB_BUCKETS - 1);
+    }
+
+    private static double upperBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int octave = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+        return (double) (SUB_BUCKETS + sub + 1) * (1L << (octave - 1));
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,229 @@
+package io.github.dabogadog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Esta clase compara el texto de dos archivos PDF teniendo en cuenta su posición en la página. El texto de
+ * cada página se divide en fragmentos con posición (normalmente palabras), y cada fragmento del primer archivo
+ * se busca, con una tolerancia, en la misma posición de la página del segundo archivo mediante un índice
+ * espacial. Así cada diferencia indica en qué lugar de la página está.
+ *
+ * <p>Se pueden ignorar zonas que cambian en cada generación (fechas, números de lote, códigos de barras) o
+ * comparar solo algunas zonas. El texto fuera de las zonas comparadas se descarta mientras se extrae la
+ * página, sin guardarlo ni ordenarlo, y las páginas sin ninguna zona incluida no se extraen.</p>
+ */
+public class LayoutComparator {
+
+    private static final Logger logger = Logger.getLogger(LayoutComparator.class.getName());
+
+    private float tolerance = 2f;
+    private ComparisonMode mode = ComparisonMode.EXHAUSTIVE;
+    private final List<PageRegion> ignoreRegions = new ArrayList<>();
+    private final List<PageRegion> includeRegions = new ArrayList<>();
+
+    /**
+     * @param tolerance Distancia máxima, en puntos y en cada eje, entre las posiciones de un mismo fragmento
+     *                  en los dos archivos. Por defecto 2.
+     * @return Este comparador.
+     */
+    public LayoutComparator setTolerance(float tolerance) {
+        if (tolerance < 0 || Float.isNaN(tolerance)) {
+            throw new IllegalArgumentException("La tolerancia no puede ser negativa: " + tolerance);
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * @param mode Cuántas diferencias buscar antes de detenerse. Por defecto, todas.
+     * @return Este comparador.
+     */
+    public LayoutComparator setMode(ComparisonMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("El modo de comparación no puede ser null");
+        }
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * Ignora el texto de un rectángulo en los dos archivos.
+     *
+     * @param region Rectángulo ignorado.
+     * @return Este comparador.
+     */
+    public LayoutComparator addIgnoreRegion(PageRegion region) {
+        ignoreRegions.add(region);
+        return this;
+    }
+
+    /**
+     * Compara solo el texto de los rectángulos incluidos. Sin rectángulos incluidos se compara toda la página.
+     * Los rectángulos ignorados se aplican también dentro de los incluidos.
+     *
+     * @param region Rectángulo incluido.
+     * @return Este comparador.
+     */
+    public LayoutComparator addIncludeRegion(PageRegion region) {
+        includeRegions.add(region);
+        return this;
+    }
+
+    /**
+     * Compara el texto y su posición en dos archivos PDF.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return true si el texto y su posición son iguales, false si son diferentes o si ocurre un error.
+     */
+    public boolean compareLayout(String filePath1, String filePath2) {
+        return compareLayout(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara el texto y su posición en dos archivos PDF, protegidos o no.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return true si el texto y su posición son iguales, false si son diferentes o si ocurre un error.
+     */
+    public boolean compareLayout(String filePath1, PdfCredentials credentials1,
+                                 String filePath2, PdfCredentials credentials2) {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return compareLayout(handle1, handle2);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de la disposición del texto:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Compara el texto y su posición en dos documentos ya abiertos, y registra cada diferencia.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return true si el texto y su posición son iguales, false si son diferentes o si ocurre un error.
+     */
+    public boolean compareLayout(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        try {
+            List<LayoutDifference> differences = findDifferences(handle1, handle2);
+            for (LayoutDifference difference : differences) {
+                logger.log(Level.INFO, "Diferencia de disposición: {0}", difference);
+            }
+            return differences.isEmpty();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de la disposición del texto:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Busca las diferencias de texto y posición entre dos archivos PDF.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return Las diferencias, o una lista vacía si no hay ninguna.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public List<LayoutDifference> findDifferences(String filePath1, String filePath2) throws IOException {
+        return findDifferences(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Busca las diferencias de texto y posición entre dos archivos PDF, protegidos o no.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return Las diferencias, o una lista vacía si no hay ninguna.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public List<LayoutDifference> findDifferences(String filePath1, PdfCredentials credentials1,
+                                                  String filePath2, PdfCredentials credentials2)
+            throws IOException {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return findDifferences(handle1, handle2);
+        }
+    }
+
+    /**
+     * Busca las diferencias de texto y posición entre dos documentos ya abiertos. Si uno tiene más páginas,
+     * el texto de las páginas que sobran se informa como eliminado o añadido. Con un modo distinto del
+     * exhaustivo, la búsqueda termina en la página donde se alcanza el máximo de diferencias y solo se
+     * devuelven las primeras.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return Las diferencias ordenadas por página, o una lista vacía si no hay ninguna.
+     * @throws IOException Si ocurre un error leyendo alguno de los documentos.
+     */
+    public List<LayoutDifference> findDifferences(PdfDocumentHandle handle1, PdfDocumentHandle handle2)
+            throws IOException {
+        List<LayoutDifference> differences = new ArrayList<>();
+        int numPages = Math.max(handle1.getNumberOfPages(), handle2.getNumberOfPages());
+        for (int i = 1; i <= numPages; i++) {
+            PageTextChunks.PointFilter filter = filterFor(i);
+            if (filter == null) {
+                continue;
+            }
+            List<LayoutGrid.Run> runs1 = runs(handle1, i, filter);
+            List<LayoutGrid.Run> runs2 = runs(handle2, i, filter);
+            differences.addAll(LayoutGrid.compare(i, runs1, runs2, tolerance));
+            if (mode.isDone(differences.size())) {
+                differences.subList(mode.getMaxDifferences(), differences.size()).clear();
+                break;
+            }
+        }
+        return differences;
+    }
+
+    private static List<LayoutGrid.Run> runs(PdfDocumentHandle handle, int pageNumber,
+                                             PageTextChunks.PointFilter filter) throws IOException {
+        if (pageNumber > handle.getNumberOfPages()) {
+            return Collections.emptyList();
+        }
+        return handle.getPageChunks(pageNumber, filter).runs();
+    }
+
+    /**
+     * @return El filtro de los rectángulos de una página, o null si hay rectángulos incluidos y ninguno se
+     * aplica a la página, que entonces no se compara.
+     */
+    private PageTextChunks.PointFilter filterFor(int pageNumber) {
+        final List<PageRegion> ignored = regionsFor(ignoreRegions, pageNumber);
+        final List<PageRegion> included = regionsFor(includeRegions, pageNumber);
+        if (!includeRegions.isEmpty() && included.isEmpty()) {
+            return null;
+        }
+        return (x, y) -> (included.isEmpty() || contains(included, x, y)) && !contains(ignored, x, y);
+    }
+
+    private static List<PageRegion> regionsFor(List<PageRegion> regions, int pageNumber) {
+        List<PageRegion> result = new ArrayList<>();
+        for (PageRegion region : regions) {
+            if (region.appliesTo(pageNumber)) {
+                result.add(region);
+            }
+        }
+        return result;
+    }
+
+    private static boolean contains(List<PageRegion> regions, float x, float y) {
+        for (PageRegion region : regions) {
+            if (region.contains(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
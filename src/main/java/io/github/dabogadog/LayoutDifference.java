@@ -0,0 +1,97 @@
+package io.github.dabogadog;
+
+import java.util.Locale;
+
+/**
+ * Esta clase describe una diferencia encontrada por {@link LayoutComparator}: un fragmento de texto que
+ * cambió, desapareció o apareció, con su página y su posición en cada archivo.
+ */
+public final class LayoutDifference {
+
+    /**
+     * Tipo de diferencia.
+     */
+    public enum Type {
+        /** En la misma posición hay un texto distinto en cada archivo. */
+        CHANGED,
+        /** El texto está en el primer archivo y no hay nada en esa posición en el segundo. */
+        REMOVED,
+        /** El texto está en el segundo archivo y no hay nada en esa posición en el primero. */
+        ADDED
+    }
+
+    private final int page;
+    private final Type type;
+    private final LayoutGrid.Run run1;
+    private final LayoutGrid.Run run2;
+
+    LayoutDifference(int page, Type type, LayoutGrid.Run run1, LayoutGrid.Run run2) {
+        this.page = page;
+        this.type = type;
+        this.run1 = run1;
+        this.run2 = run2;
+    }
+
+    /**
+     * @return Número de página, empezando en 1.
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * @return El tipo de diferencia.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return Texto en el primer archivo, o null si el fragmento no existe en él.
+     */
+    public String getText1() {
+        return run1 != null ? run1.getText() : null;
+    }
+
+    /**
+     * @return Texto en el segundo archivo, o null si el fragmento no existe en él.
+     */
+    public String getText2() {
+        return run2 != null ? run2.getText() : null;
+    }
+
+    /**
+     * @return Coordenada x del inicio de la línea base del fragmento en el primer archivo, o NaN si no existe.
+     */
+    public float getX1() {
+        return run1 != null ? run1.getX() : Float.NaN;
+    }
+
+    /**
+     * @return Coordenada y de la línea base del fragmento en el primer archivo, o NaN si no existe.
+     */
+    public float getY1() {
+        return run1 != null ? run1.getY() : Float.NaN;
+    }
+
+    /**
+     * @return Coordenada x del inicio de la línea base del fragmento en el segundo archivo, o NaN si no existe.
+     */
+    public float getX2() {
+        return run2 != null ? run2.getX() : Float.NaN;
+    }
+
+    /**
+     * @return Coordenada y de la línea base del fragmento en el segundo archivo, o NaN si no existe.
+     */
+    public float getY2() {
+        return run2 != null ? run2.getY() : Float.NaN;
+    }
+
+    @Override
+    public String toString() {
+        LayoutGrid.Run run = run1 != null ? run1 : run2;
+        return String.format(Locale.ROOT, "Página %d (%.1f, %.1f) %s: Archivo 1: %s, Archivo 2: %s",
+                page, run.getX(), run.getY(), type, getText1(), getText2());
+    }
+}
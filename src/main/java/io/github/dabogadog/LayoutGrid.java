@@ -0,0 +1,166 @@
+package io.github.dabogadog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice espacial de los fragmentos de texto de una página: una rejilla uniforme de celdas cuadradas, en la
+ * que cada fragmento se guarda en la celda del inicio de su línea base. Buscar los fragmentos cercanos a un
+ * punto solo recorre las celdas que cubren el cuadrado de la tolerancia alrededor de él, en lugar de toda la
+ * página.
+ *
+ * <p>Con pocos cientos de fragmentos por página y puntos de consulta que no se solapan, una rejilla es más
+ * sencilla que un R-tree y igual de eficaz.</p>
+ */
+final class LayoutGrid {
+
+    private final float cellSize;
+    private final Map<Long, List<Run>> cells = new HashMap<>();
+
+    /**
+     * @param runs      Fragmentos de la página.
+     * @param tolerance Distancia máxima, en puntos, que se buscará alrededor de un punto.
+     */
+    LayoutGrid(List<Run> runs, float tolerance) {
+        // Con celdas de al menos el doble de la tolerancia, cada consulta recorre como mucho 2x2 celdas.
+        this.cellSize = Math.max(2 * tolerance, 8f);
+        for (Run run : runs) {
+            Long key = key(cell(run.x), cell(run.y));
+            List<Run> cell = cells.get(key);
+            if (cell == null) {
+                cell = new ArrayList<>(2);
+                cells.put(key, cell);
+            }
+            cell.add(run);
+        }
+    }
+
+    /**
+     * Busca el fragmento sin emparejar más cercano a otro, dentro de la tolerancia en cada eje.
+     *
+     * @param run       Fragmento buscado.
+     * @param tolerance Distancia máxima en cada eje, en puntos.
+     * @param sameText  true para aceptar solo fragmentos con el mismo texto.
+     * @return El fragmento más cercano, o null si no hay ninguno.
+     */
+    Run nearest(Run run, float tolerance, boolean sameText) {
+        Run best = null;
+        float bestDistance = Float.MAX_VALUE;
+        int fromX = cell(run.x - tolerance);
+        int toX = cell(run.x + tolerance);
+        int fromY = cell(run.y - tolerance);
+        int toY = cell(run.y + tolerance);
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cy = fromY; cy <= toY; cy++) {
+                List<Run> cell = cells.get(key(cx, cy));
+                if (cell == null) {
+                    continue;
+                }
+                for (Run candidate : cell) {
+                    if (candidate.matched || (sameText && !candidate.text.equals(run.text))) {
+                        continue;
+                    }
+                    float dx = Math.abs(candidate.x - run.x);
+                    float dy = Math.abs(candidate.y - run.y);
+                    if (dx <= tolerance && dy <= tolerance && dx + dy < bestDistance) {
+                        best = candidate;
+                        bestDistance = dx + dy;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    /**
+     * Compara los fragmentos de una página de cada archivo. Primero empareja cada fragmento con el más
+     * cercano del mismo texto; después, los que quedan con el más cercano de texto distinto, que se
+     * informan como cambiados. Los que siguen sin pareja se informan como eliminados o añadidos.
+     *
+     * @param page      Número de página, empezando en 1.
+     * @param runs1     Fragmentos de la página del primer archivo.
+     * @param runs2     Fragmentos de la página del segundo archivo.
+     * @param tolerance Distancia máxima en cada eje, en puntos.
+     * @return Las diferencias, en el orden de lectura del primer archivo y después las añadidas.
+     */
+    static List<LayoutDifference> compare(int page, List<Run> runs1, List<Run> runs2, float tolerance) {
+        if (runs1.isEmpty() && runs2.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LayoutGrid grid = new LayoutGrid(runs2, tolerance);
+        for (Run run : runs1) {
+            Run match = grid.nearest(run, tolerance, true);
+            if (match != null) {
+                run.matched = true;
+                match.matched = true;
+            }
+        }
+
+        List<LayoutDifference> differences = new ArrayList<>();
+        for (Run run : runs1) {
+            if (run.matched) {
+                continue;
+            }
+            Run match = grid.nearest(run, tolerance, false);
+            if (match != null) {
+                match.matched = true;
+                differences.add(new LayoutDifference(page, LayoutDifference.Type.CHANGED, run, match));
+            } else {
+                differences.add(new LayoutDifference(page, LayoutDifference.Type.REMOVED, run, null));
+            }
+        }
+        for (Run run : runs2) {
+            if (!run.matched) {
+                differences.add(new LayoutDifference(page, LayoutDifference.Type.ADDED, null, run));
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * Fragmento de texto con posición: una secuencia de trozos de la misma línea sin separador entre ellos,
+     * normalmente una palabra o una frase escrita de una vez.
+     */
+    static final class Run {
+
+        private final String text;
+        private final float x;
+        private final float y;
+        private boolean matched;
+
+        Run(String text, float x, float y) {
+            this.text = text;
+            this.x = x;
+            this.y = y;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        /**
+         * @return Coordenada x del inicio de la línea base.
+         */
+        float getX() {
+            return x;
+        }
+
+        /**
+         * @return Coordenada y del inicio de la línea base.
+         */
+        float getY() {
+            return y;
+        }
+    }
+}
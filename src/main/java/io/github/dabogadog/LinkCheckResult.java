@@ -0,0 +1,106 @@
+package io.github.dabogadog;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esta clase contiene el resultado de validar un enlace (URL) de un archivo PDF.
+ */
+public final class LinkCheckResult {
+
+    /**
+     * Estado de un enlace tras validarlo.
+     */
+    public enum Status {
+        /** El servidor respondió con un código 2xx. */
+        VALID,
+        /** El servidor respondió con un código distinto de 2xx. */
+        BROKEN,
+        /** El enlace no usa los protocolos http ni https. */
+        INVALID_PROTOCOL,
+        /** El nombre de host no se pudo resolver. */
+        UNKNOWN_HOST,
+        /** La conexión o la lectura superaron el tiempo máximo configurado. */
+        TIMEOUT,
+        /** La URL está mal formada o ocurrió otro error de entrada/salida. */
+        ERROR
+    }
+
+    private final String url;
+    private final Status status;
+    private final int responseCode;
+    private final String message;
+    private final List<Integer> pages;
+
+    LinkCheckResult(String url, Status status, int responseCode, String message, List<Integer> pages) {
+        this.url = url;
+        this.status = status;
+        this.responseCode = responseCode;
+        this.message = message;
+        this.pages = pages;
+    }
+
+    LinkCheckResult withPages(List<Integer> pages) {
+        return new LinkCheckResult(url, status, responseCode, message, Collections.unmodifiableList(pages));
+    }
+
+    /**
+     * @return La URL validada.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return El estado del enlace.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true si el enlace es válido.
+     */
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+
+    /**
+     * @return El código de respuesta HTTP, o -1 si no hubo respuesta.
+     */
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    /**
+     * @return El mensaje de respuesta HTTP o la descripción del error, o null si no hay.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return Las páginas (empezando en 1) donde aparece el enlace.
+     */
+    public List<Integer> getPages() {
+        return pages;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(status.name()).append(' ').append(url);
+        if (responseCode >= 0) {
+            sb.append(" (").append(responseCode);
+            if (message != null) {
+                sb.append(' ').append(message);
+            }
+            sb.append(')');
+        } else if (message != null) {
+            sb.append(" (").append(message).append(')');
+        }
+        if (!pages.isEmpty()) {
+            sb.append(" páginas ").append(pages);
+        }
+        return sb.toString();
+    }
+}
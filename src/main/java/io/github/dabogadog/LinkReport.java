@@ -0,0 +1,77 @@
+package io.github.dabogadog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esta clase contiene el informe de validación de los enlaces de un archivo PDF: un resultado por cada URL
+ * distinta, en el orden en que aparecen en el documento.
+ */
+public final class LinkReport {
+
+    private final List<LinkCheckResult> results;
+    private final long elapsedMillis;
+
+    LinkReport(List<LinkCheckResult> results, long elapsedMillis) {
+        this.results = Collections.unmodifiableList(new ArrayList<>(results));
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return El resultado de cada URL distinta.
+     */
+    public List<LinkCheckResult> getResults() {
+        return results;
+    }
+
+    /**
+     * @return Los resultados de los enlaces que no son válidos.
+     */
+    public List<LinkCheckResult> getInvalidLinks() {
+        List<LinkCheckResult> invalid = new ArrayList<>();
+        for (LinkCheckResult result : results) {
+            if (!result.isValid()) {
+                invalid.add(result);
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * @return true si todos los enlaces son válidos.
+     */
+    public boolean allValid() {
+        return getInvalidLinks().isEmpty();
+    }
+
+    /**
+     * @param status Estado buscado.
+     * @return Número de URLs con ese estado.
+     */
+    public int count(LinkCheckResult.Status status) {
+        int count = 0;
+        for (LinkCheckResult result : results) {
+            if (result.getStatus() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Tiempo total de la validación en milisegundos.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("LinkReport[");
+        for (LinkCheckResult.Status status : LinkCheckResult.Status.values()) {
+            sb.append(status).append('=').append(count(status)).append(", ");
+        }
+        return sb.append("ms=").append(elapsedMillis).append(']').toString();
+    }
+}
@@ -0,0 +1,521 @@
+package io.github.dabogadog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Esta clase valida URLs de forma concurrente. Cada URL distinta se valida una sola vez, con un número
+ * máximo de peticiones simultáneas en total y por host, tiempos máximos de conexión y lectura, y una caché de
+ * resultados con caducidad que se conserva entre llamadas. Los resultados caducados se descartan al leerlos, y
+ * la caché guarda como máximo {@value #MAX_CACHED_RESULTS} URLs.
+ *
+ * <p>Las URLs de un conjunto se reparten en una cola por host, y cada hilo toma la siguiente URL de un host con
+ * permisos libres, por turnos entre hosts: ningún hilo espera a un host ocupado mientras queden URLs de otros
+ * hosts. Los permisos de un host se descartan cuando no tiene peticiones en curso.</p>
+ *
+ * <p>Primero se envía una petición HEAD; si el servidor responde 405 (o 501), se repite con GET. El cuerpo
+ * de las respuestas se lee y se cierra en lugar de desconectar, para que {@link HttpURLConnection} reutilice
+ * la conexión (keep-alive). El cliente HTTP/2 de {@code java.net.http} requiere Java 11, y esta biblioteca
+ * mantiene Java 8 como versión mínima.</p>
+ */
+public class LinkValidator {
+
+    private static final int MAX_DRAINED_BYTES = 64 * 1024;
+
+    /**
+     * Número máximo de resultados en caché. Al llenarse se descartan los caducados y, si no basta, el que
+     * caduca antes.
+     */
+    static final int MAX_CACHED_RESULTS = 10000;
+
+    /**
+     * Espera máxima de un hilo sin ningún host libre antes de volver a mirar los permisos, que pueden haber
+     * liberado otras validaciones del mismo validador.
+     */
+    private static final long HOST_WAIT_MILLIS = 50;
+
+    private int connectTimeoutMillis = 5000;
+    private int readTimeoutMillis = 10000;
+    private int maxConcurrency = 16;
+    private int maxConcurrencyPerHost = 4;
+    private long cacheTtlMillis = 10 * 60 * 1000L;
+
+    private final Map<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+    private final Map<String, CachedResult> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param millis Tiempo máximo para establecer la conexión, en milisegundos.
+     * @return Este validador.
+     */
+    public LinkValidator setConnectTimeout(int millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("El tiempo máximo de conexión debe ser positivo: " + millis);
+        }
+        this.connectTimeoutMillis = millis;
+        return this;
+    }
+
+    /**
+     * @param millis Tiempo máximo de espera de la respuesta, en milisegundos.
+     * @return Este validador.
+     */
+    public LinkValidator setReadTimeout(int millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("El tiempo máximo de lectura debe ser positivo: " + millis);
+        }
+        this.readTimeoutMillis = millis;
+        return this;
+    }
+
+    /**
+     * @param maxConcurrency Número máximo de peticiones simultáneas en total.
+     * @return Este validador.
+     */
+    public LinkValidator setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("La concurrencia debe ser al menos 1: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Cambia el número máximo de peticiones simultáneas a un mismo host. Solo afecta a los hosts que no tienen
+     * peticiones en curso.
+     *
+     * @param maxConcurrencyPerHost Número máximo de peticiones simultáneas por host.
+     * @return Este validador.
+     */
+    public LinkValidator setMaxConcurrencyPerHost(int maxConcurrencyPerHost) {
+        if (maxConcurrencyPerHost < 1) {
+            throw new IllegalArgumentException("La concurrencia por host debe ser al menos 1: " + maxConcurrencyPerHost);
+        }
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+        return this;
+    }
+
+    /**
+     * @param millis Tiempo durante el que se reutiliza el resultado de una URL, en milisegundos. 0 desactiva la caché.
+     * @return Este validador.
+     */
+    public LinkValidator setCacheTtl(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("La caducidad de la caché no puede ser negativa: " + millis);
+        }
+        this.cacheTtlMillis = millis;
+        return this;
+    }
+
+    /**
+     * Valida un conjunto de URLs. Las repetidas se validan una sola vez.
+     *
+     * @param urls URLs a validar.
+     * @return El informe con un resultado por URL distinta, en el orden de entrada.
+     */
+    public LinkReport validate(Collection<String> urls) {
+        Map<String, List<Integer>> occurrences = new LinkedHashMap<>();
+        for (String url : urls) {
+            occurrences.put(url, new ArrayList<Integer>());
+        }
+        return validate(occurrences);
+    }
+
+    /**
+     * Valida las URLs de un documento junto con las páginas donde aparece cada una.
+     *
+     * @param occurrences Páginas donde aparece cada URL distinta, en el orden del documento.
+     * @return El informe con un resultado por URL.
+     */
+    LinkReport validate(Map<String, List<Integer>> occurrences) {
+        long start = System.nanoTime();
+        Set<String> distinct = new LinkedHashSet<>(occurrences.keySet());
+        Batch batch = new Batch();
+        for (String url : distinct) {
+            LinkCheckResult result = cached(url);
+            if (result == null) {
+                result = checkSyntax(url);
+                if (result != null) {
+                    store(url, result);
+                }
+            }
+            if (result != null) {
+                batch.results.put(url, result);
+            } else {
+                batch.add(url);
+            }
+        }
+
+        if (batch.pending > 0) {
+            int threads = Math.min(maxConcurrency, batch.pending);
+            ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory());
+            try {
+                List<Future<?>> workers = new ArrayList<>(threads);
+                for (int i = 0; i < threads; i++) {
+                    workers.add(executor.submit(batch::work));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Cada URL sin resultado se informa como error.
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        List<LinkCheckResult> results = new ArrayList<>(distinct.size());
+        for (String url : distinct) {
+            LinkCheckResult result = batch.results.get(url);
+            if (result == null) {
+                result = result(url, LinkCheckResult.Status.ERROR, -1, "Validación interrumpida");
+            }
+            results.add(result.withPages(occurrences.get(url)));
+        }
+        return new LinkReport(results, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Valida una sola URL, reutilizando el resultado en caché si no ha caducado.
+     *
+     * @param urlString URL a validar.
+     * @return El resultado de la validación.
+     */
+    public LinkCheckResult validate(String urlString) {
+        return validateCached(urlString).withPages(new ArrayList<Integer>());
+    }
+
+    private LinkCheckResult validateCached(String urlString) {
+        LinkCheckResult result = cached(urlString);
+        if (result == null) {
+            result = check(urlString);
+            store(urlString, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return El resultado en caché de una URL, o null si no hay o ha caducado.
+     */
+    private LinkCheckResult cached(String urlString) {
+        CachedResult cached = cache.get(urlString);
+        if (cached != null) {
+            if (cached.expiresAt > System.currentTimeMillis()) {
+                return cached.result;
+            }
+            cache.remove(urlString, cached);
+        }
+        return null;
+    }
+
+    private void store(String urlString, LinkCheckResult result) {
+        if (cacheTtlMillis > 0) {
+            long now = System.currentTimeMillis();
+            if (cache.size() >= MAX_CACHED_RESULTS) {
+                evict(now);
+            }
+            cache.put(urlString, new CachedResult(result, now + cacheTtlMillis));
+        }
+    }
+
+    /**
+     * Descarta los resultados caducados y, si la caché sigue llena, el que caduca antes.
+     */
+    private void evict(long now) {
+        Map.Entry<String, CachedResult> first = null;
+        for (Map.Entry<String, CachedResult> entry : cache.entrySet()) {
+            if (entry.getValue().expiresAt <= now) {
+                cache.remove(entry.getKey(), entry.getValue());
+            } else if (first == null || entry.getValue().expiresAt < first.getValue().expiresAt) {
+                first = entry;
+            }
+        }
+        if (first != null && cache.size() >= MAX_CACHED_RESULTS) {
+            cache.remove(first.getKey(), first.getValue());
+        }
+    }
+
+    /**
+     * @return Número de resultados en caché.
+     */
+    int cachedResults() {
+        return cache.size();
+    }
+
+    /**
+     * @return Número de hosts con peticiones en curso o a la espera de permiso.
+     */
+    int activeHosts() {
+        return hostPermits.size();
+    }
+
+    /**
+     * Valida una URL esperando un permiso de su host.
+     */
+    private LinkCheckResult check(String urlString) {
+        LinkCheckResult invalid = checkSyntax(urlString);
+        if (invalid != null) {
+            return invalid;
+        }
+        String host = host(urlString);
+        HostPermits permits = enterHost(host);
+        try {
+            permits.semaphore.acquire();
+        } catch (InterruptedException e) {
+            leaveHost(host, permits);
+            Thread.currentThread().interrupt();
+            return result(urlString, LinkCheckResult.Status.ERROR, -1, "Validación interrumpida");
+        }
+        try {
+            return fetch(urlString);
+        } finally {
+            permits.semaphore.release();
+            leaveHost(host, permits);
+        }
+    }
+
+    /**
+     * @return El resultado de una URL que no se puede validar por HTTP, mal formada o con otro protocolo, o
+     * null si se puede.
+     */
+    private static LinkCheckResult checkSyntax(String urlString) {
+        URL url;
+        try {
+            url = new URL(urlString);
+        } catch (MalformedURLException e) {
+            return result(urlString, LinkCheckResult.Status.ERROR, -1, e.getMessage());
+        }
+        if (!"http".equals(url.getProtocol()) && !"https".equals(url.getProtocol())) {
+            return result(urlString, LinkCheckResult.Status.INVALID_PROTOCOL, -1, url.getProtocol());
+        }
+        return null;
+    }
+
+    /**
+     * @param urlString URL HTTP bien formada (ver {@link #checkSyntax(String)}).
+     */
+    private static String host(String urlString) {
+        try {
+            return new URL(urlString).getHost().toLowerCase(Locale.ROOT);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Registra un hilo que va a pedir o ya tiene un permiso del host, para que sus permisos no se descarten.
+     */
+    private HostPermits enterHost(String host) {
+        return hostPermits.compute(host, (key, permits) -> {
+            HostPermits entered = permits != null ? permits : new HostPermits(maxConcurrencyPerHost);
+            entered.users++;
+            return entered;
+        });
+    }
+
+    /**
+     * Quita el registro de {@link #enterHost(String)} y descarta los permisos del host si nadie más los usa.
+     */
+    private void leaveHost(String host, HostPermits permits) {
+        hostPermits.computeIfPresent(host, (key, current) -> {
+            if (current == permits && --current.users == 0) {
+                return null;
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Envía la petición HEAD, o GET si el servidor no admite HEAD, con el permiso del host ya adquirido.
+     */
+    private LinkCheckResult fetch(String urlString) {
+        try {
+            URL url = new URL(urlString);
+            int[] code = new int[1];
+            String message = request(url, "HEAD", code);
+            if (code[0] == HttpURLConnection.HTTP_BAD_METHOD || code[0] == HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+                message = request(url, "GET", code);
+            }
+            LinkCheckResult.Status status = code[0] >= 200 && code[0] < 300
+                    ? LinkCheckResult.Status.VALID
+                    : LinkCheckResult.Status.BROKEN;
+            return result(urlString, status, code[0], message);
+        } catch (UnknownHostException e) {
+            return result(urlString, LinkCheckResult.Status.UNKNOWN_HOST, -1, e.getMessage());
+        } catch (SocketTimeoutException e) {
+            return result(urlString, LinkCheckResult.Status.TIMEOUT, -1, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            return result(urlString, LinkCheckResult.Status.ERROR, -1, e.toString());
+        }
+    }
+
+    /**
+     * Envía una petición y lee el cuerpo de la respuesta para dejar la conexión lista para reutilizarse.
+     *
+     * @return El mensaje de respuesta; el código queda en {@code code[0]}.
+     */
+    private String request(URL url, String method, int[] code) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setRequestProperty("Connection", "keep-alive");
+        code[0] = connection.getResponseCode();
+        String message = connection.getResponseMessage();
+        InputStream body = code[0] >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (body != null) {
+            try {
+                byte[] buffer = new byte[8192];
+                int total = 0;
+                int read;
+                while (total < MAX_DRAINED_BYTES && (read = body.read(buffer)) != -1) {
+                    total += read;
+                }
+            } finally {
+                body.close();
+            }
+        }
+        return message;
+    }
+
+    private static LinkCheckResult result(String url, LinkCheckResult.Status status, int code, String message) {
+        return new LinkCheckResult(url, status, code, message, new ArrayList<Integer>());
+    }
+
+    /**
+     * URLs pendientes de una llamada a {@link #validate(Map)}, en una cola por host. Los hilos toman la
+     * siguiente URL de un host con un permiso libre, empezando por el host siguiente al último atendido, y solo
+     * esperan cuando ningún host con URLs pendientes tiene permisos libres.
+     */
+    private final class Batch {
+
+        private final LinkedHashMap<String, ArrayDeque<String>> queues = new LinkedHashMap<>();
+        private final Map<String, LinkCheckResult> results = new ConcurrentHashMap<>();
+        private int pending;
+
+        private void add(String url) {
+            String host = host(url);
+            ArrayDeque<String> queue = queues.get(host);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(host, queue);
+            }
+            queue.add(url);
+            pending++;
+        }
+
+        /**
+         * Valida URLs hasta que no queda ninguna en las colas o se interrumpe el hilo.
+         */
+        private void work() {
+            while (true) {
+                String host = null;
+                String url = null;
+                HostPermits permits = null;
+                synchronized (this) {
+                    while (url == null) {
+                        if (queues.isEmpty()) {
+                            return;
+                        }
+                        Iterator<Map.Entry<String, ArrayDeque<String>>> it = queues.entrySet().iterator();
+                        while (url == null && it.hasNext()) {
+                            Map.Entry<String, ArrayDeque<String>> entry = it.next();
+                            permits = enterHost(entry.getKey());
+                            if (permits.semaphore.tryAcquire()) {
+                                host = entry.getKey();
+                                url = entry.getValue().poll();
+                                // El host pasa al final, para turnarse con los demás.
+                                it.remove();
+                                if (!entry.getValue().isEmpty()) {
+                                    queues.put(host, entry.getValue());
+                                }
+                            } else {
+                                leaveHost(entry.getKey(), permits);
+                            }
+                        }
+                        if (url == null) {
+                            try {
+                                wait(HOST_WAIT_MILLIS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return;
+                            }
+                        }
+                    }
+                }
+                LinkCheckResult result;
+                try {
+                    result = fetch(url);
+                } finally {
+                    permits.semaphore.release();
+                    leaveHost(host, permits);
+                    synchronized (this) {
+                        notifyAll();
+                    }
+                }
+                store(url, result);
+                results.put(url, result);
+            }
+        }
+    }
+
+    /**
+     * Permisos de un host y número de hilos que los tienen o los esperan, protegido por el mapa de hosts.
+     */
+    private static final class HostPermits {
+
+        private final Semaphore semaphore;
+        private int users;
+
+        private HostPermits(int maxConcurrency) {
+            this.semaphore = new Semaphore(maxConcurrency);
+        }
+    }
+
+    private static final class CachedResult {
+
+        private final LinkCheckResult result;
+        private final long expiresAt;
+
+        private CachedResult(LinkCheckResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "clioPdf-links-" + COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
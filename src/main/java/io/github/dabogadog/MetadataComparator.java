@@ -1,18 +1,24 @@
 package io.github.dabogadog;
 
-import com.itextpdf.text.pdf.PdfReader;
-
-import java.util.Map;
+import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Esta clase compara los metadatos de dos archivos PDF.
+ * Esta clase compara los metadatos del diccionario Info de dos archivos PDF. Para comparar también los
+ * metadatos XMP o ignorar propiedades, {@link FullMetadataComparator}.
  */
 public class MetadataComparator {
 
     private static final Logger logger = Logger.getLogger(MetadataComparator.class.getName());
 
+    /**
+     * Comparador del diccionario Info. Compara los valores como texto, también las fechas, como siempre lo hizo
+     * esta clase. No se modifica después de crearlo, así que se comparte entre hilos.
+     */
+    private static final FullMetadataComparator INFO_ONLY = new FullMetadataComparator().setCompareXmp(false)
+            .setNormalizeDates(false);
+
     /**
      * Compara los metadatos de dos archivos PDF.
      *
@@ -21,33 +27,96 @@ public class MetadataComparator {
      * @return true si los metadatos son iguales, false si son diferentes o si ocurre un error.
      */
     public static boolean compareMetadata(String filePath1, String filePath2) {
-        try {
-            PdfReader reader1 = new PdfReader(filePath1);
-            PdfReader reader2 = new PdfReader(filePath2);
-
-            Map<String, String> metadata1 = reader1.getInfo();
-            Map<String, String> metadata2 = reader2.getInfo();
+        return compareMetadata(filePath1, null, filePath2, null);
+    }
 
-            boolean areEqual = true;
+    /**
+     * Compara los metadatos de dos archivos PDF, protegidos o no.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return true si los metadatos son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean compareMetadata(String filePath1, PdfCredentials credentials1,
+                                          String filePath2, PdfCredentials credentials2) {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return compareMetadata(handle1, handle2);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de metadatos:", e);
+            return false;
+        }
+    }
 
-            for (String key : metadata1.keySet()) {
-                if (!metadata2.containsKey(key) || !metadata1.get(key).equals(metadata2.get(key))) {
-                    areEqual = false;
-                    logger.log(Level.INFO, "La propiedad de metadatos '" + key + "' es diferente.");
-                    logger.log(Level.INFO, "Archivo 1: " + metadata1.get(key));
-                    logger.log(Level.INFO, "Archivo 2: " + metadata2.get(key));
-                    logger.log(Level.INFO, "");
-                }
+    /**
+     * Compara los metadatos de dos documentos ya abiertos.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return true si los metadatos son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean compareMetadata(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        try {
+            MetadataComparisonResult result = compareMetadataDetailed(handle1, handle2);
+            for (MetadataDifference difference : result.getDifferences()) {
+                logger.log(Level.INFO, "La propiedad de metadatos es diferente: {0}", difference);
             }
-
-            reader1.close();
-            reader2.close();
-            return areEqual;
+            return result.areEqual();
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de metadatos:", e);
             return false;
         }
     }
+
+    /**
+     * Compara los metadatos de dos archivos PDF y devuelve las propiedades diferentes.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static MetadataComparisonResult compareMetadataDetailed(String filePath1, String filePath2)
+            throws IOException {
+        return compareMetadataDetailed(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara los metadatos de dos archivos PDF, protegidos o no, y devuelve las propiedades diferentes.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static MetadataComparisonResult compareMetadataDetailed(String filePath1, PdfCredentials credentials1,
+                                                                   String filePath2, PdfCredentials credentials2)
+            throws IOException {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return compareMetadataDetailed(handle1, handle2);
+        }
+    }
+
+    /**
+     * Compara los metadatos de dos documentos ya abiertos. Se comparan las propiedades de los dos documentos:
+     * una propiedad que solo existe en uno de ellos es una diferencia. Los valores, también las fechas, se
+     * comparan como texto; para comparar las fechas por el instante que representan,
+     * {@link FullMetadataComparator}.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static MetadataComparisonResult compareMetadataDetailed(PdfDocumentHandle handle1,
+                                                                   PdfDocumentHandle handle2) throws IOException {
+        return INFO_ONLY.compare(handle1, handle2);
+    }
 }
 
 
@@ -0,0 +1,41 @@
+package io.github.dabogadog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esta clase contiene el resultado de la comparación de los metadatos de dos archivos PDF: las propiedades
+ * que solo existen en uno de los archivos o tienen otro valor en cada uno.
+ */
+public final class MetadataComparisonResult {
+
+    private final List<MetadataDifference> differences = new ArrayList<>();
+
+    MetadataComparisonResult() {
+    }
+
+    void addDifference(MetadataDifference difference) {
+        differences.add(difference);
+    }
+
+    /**
+     * @return true si los dos archivos tienen las mismas propiedades con los mismos valores.
+     */
+    public boolean areEqual() {
+        return differences.isEmpty();
+    }
+
+    /**
+     * @return Las propiedades diferentes: primero las del diccionario Info y después las de XMP, cada grupo
+     * ordenado por nombre.
+     */
+    public List<MetadataDifference> getDifferences() {
+        return Collections.unmodifiableList(differences);
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataComparisonResult[iguales=" + areEqual() + ", diferencias=" + differences + "]";
+    }
+}
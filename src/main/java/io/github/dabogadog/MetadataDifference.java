@@ -0,0 +1,68 @@
+package io.github.dabogadog;
+
+/**
+ * Esta clase describe una propiedad de los metadatos (del diccionario Info o de XMP) cuyo valor difiere entre
+ * dos archivos PDF o que solo existe en uno de ellos.
+ */
+public final class MetadataDifference {
+
+    /**
+     * Origen de una propiedad de los metadatos.
+     */
+    public enum Source {
+        /**
+         * Diccionario Info del tráiler.
+         */
+        INFO,
+        /**
+         * Flujo de metadatos XMP del catálogo.
+         */
+        XMP
+    }
+
+    private final Source source;
+    private final String key;
+    private final String value1;
+    private final String value2;
+
+    MetadataDifference(Source source, String key, String value1, String value2) {
+        this.source = source;
+        this.key = key;
+        this.value1 = value1;
+        this.value2 = value2;
+    }
+
+    /**
+     * @return Origen de la propiedad.
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * @return Nombre de la propiedad, por ejemplo {@code Title} o {@code ModDate} en el diccionario Info, o
+     * {@code xmp:ModifyDate} o {@code dc:title[x-default]} en XMP.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return Valor en el primer archivo, o null si la propiedad no existe en él.
+     */
+    public String getValue1() {
+        return value1;
+    }
+
+    /**
+     * @return Valor en el segundo archivo, o null si la propiedad no existe en él.
+     */
+    public String getValue2() {
+        return value2;
+    }
+
+    @Override
+    public String toString() {
+        return (source == Source.XMP ? "XMP " : "") + key + ": Archivo 1: " + value1 + ", Archivo 2: " + value2;
+    }
+}
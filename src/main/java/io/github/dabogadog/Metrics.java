@@ -0,0 +1,58 @@
+package io.github.dabogadog;
+
+/**
+ * Esta clase guarda el receptor de métricas de todas las operaciones, {@link ComparisonMetrics#NONE} por
+ * defecto. Mientras no se configure otro, medir una fase no llama a {@link System#nanoTime()}.
+ */
+public final class Metrics {
+
+    private static volatile ComparisonMetrics metrics = ComparisonMetrics.NONE;
+
+    private Metrics() {
+        // Constructor privado vacío para evitar instanciación
+    }
+
+    /**
+     * Configura el receptor de las métricas de todas las operaciones que empiecen después.
+     *
+     * @param metrics Receptor de las métricas, o null para no registrarlas.
+     */
+    public static void setDefault(ComparisonMetrics metrics) {
+        Metrics.metrics = metrics != null ? metrics : ComparisonMetrics.NONE;
+    }
+
+    /**
+     * @return El receptor de métricas configurado, o {@link ComparisonMetrics#NONE} si no hay ninguno.
+     */
+    public static ComparisonMetrics getDefault() {
+        return metrics;
+    }
+
+    /**
+     * @return El instante de inicio de una fase para {@link #end(ComparisonMetrics.Phase, long)}, o 0 si no
+     * hay receptor de métricas.
+     */
+    static long start() {
+        return metrics == ComparisonMetrics.NONE ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Registra la duración de una fase iniciada con {@link #start()}.
+     *
+     * @param phase Fase medida.
+     * @param start Instante de inicio devuelto por {@link #start()}.
+     */
+    static void end(ComparisonMetrics.Phase phase, long start) {
+        if (start != 0L) {
+            metrics.recordPhase(phase, System.nanoTime() - start);
+        }
+    }
+
+    static void pages(int pages) {
+        metrics.recordPages(pages);
+    }
+
+    static void bytesRead(long bytes) {
+        metrics.recordBytesRead(bytes);
+    }
+}
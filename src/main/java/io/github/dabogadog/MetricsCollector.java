@@ -0,0 +1,96 @@
+package io.github.dabogadog;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Receptor de métricas que acumula el tiempo de cada fase, las páginas extraídas y los bytes abiertos. Es
+ * seguro entre hilos y se puede leer mientras se registran métricas.
+ *
+ * <pre>{@code
+ * MetricsCollector collector = new MetricsCollector();
+ * Metrics.setDefault(collector);
+ * PDFComparator.comparePDFs(filePath1, filePath2);
+ * double pagesPerSecond = collector.getPagesPerSecond();
+ * }</pre>
+ */
+public final class MetricsCollector implements ComparisonMetrics {
+
+    private final LongAdder[] nanos = new LongAdder[Phase.values().length];
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+
+    public MetricsCollector() {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+        this.nanos[phase.ordinal()].add(nanos);
+    }
+
+    @Override
+    public void recordPages(int pages) {
+        this.pages.add(pages);
+    }
+
+    @Override
+    public void recordBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * @param phase Fase medida.
+     * @return Tiempo acumulado de la fase en nanosegundos, sumado entre todos los hilos.
+     */
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()].sum();
+    }
+
+    /**
+     * @return Número de páginas cuyo texto se ha extraído.
+     */
+    public long getPages() {
+        return pages.sum();
+    }
+
+    /**
+     * @return Bytes de los archivos abiertos.
+     */
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * @return Páginas extraídas por segundo de la fase {@link Phase#EXTRACT}, o 0 si no se ha extraído
+     * ninguna. Con extracción en paralelo es el ritmo de un hilo, porque el tiempo se suma entre hilos.
+     */
+    public double getPagesPerSecond() {
+        long extractNanos = getNanos(Phase.EXTRACT);
+        return extractNanos == 0 ? 0 : getPages() * (double) TimeUnit.SECONDS.toNanos(1) / extractNanos;
+    }
+
+    /**
+     * Pone a cero todos los contadores.
+     */
+    public void reset() {
+        for (LongAdder adder : nanos) {
+            adder.reset();
+        }
+        pages.reset();
+        bytesRead.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("MetricsCollector[");
+        for (Phase phase : Phase.values()) {
+            builder.append(phase).append('=').append(TimeUnit.NANOSECONDS.toMillis(getNanos(phase))).append(" ms, ");
+        }
+        return builder.append("páginas=").append(getPages())
+                .append(String.format(" (%.1f/s)", getPagesPerSecond()))
+                .append(", bytes=").append(getBytesRead()).append(']').toString();
+    }
+}
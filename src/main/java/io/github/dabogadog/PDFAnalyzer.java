@@ -1,10 +1,8 @@
 package io.github.dabogadog;
 
 import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.ReaderProperties;
-import com.itextpdf.text.pdf.PdfReader;
-import com.itextpdf.text.pdf.parser.PdfTextExtractor;
-import java.util.ArrayList;
+
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
@@ -29,82 +27,145 @@ public class PDFAnalyzer {
      * @return true si todas las frases se encuentran en el PDF, false si alguna no se encuentra o si ocurre un error.
      */
     public static boolean checkPhrasesInPDF(String filePath, String targetPhrase) {
-        boolean allPhrasesFound = true;
-
         try {
-            PdfReader reader = new PdfReader(filePath);
-            List<String> phrasesToCheck = Arrays.asList(targetPhrase.split(","));
-            List<String> notFoundPhrases = new ArrayList<>();
+            return reportResult(searchPhrasesInPDF(filePath, targetPhrase));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error leyendo el PDF y buscando la cadena:", e);
+            return false;
+        }
+    }
 
-            for (String phrase : phrasesToCheck) {
-                boolean found = false;
-                for (int pageNumber = 1; pageNumber <= reader.getNumberOfPages(); pageNumber++) {
-                    String pageText = PdfTextExtractor.getTextFromPage(reader, pageNumber);
-                    if (pageText.contains(phrase)) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    notFoundPhrases.add(phrase);
-                    allPhrasesFound = false;
-                }
-            }
+    /**
+     * Verifica si las frases objetivo se encuentran en un PDF protegido con contraseña.
+     *
+     * @param filePath     Ruta al archivo PDF.
+     * @param password     Contraseña del archivo PDF.
+     * @param targetPhrase Frases objetivo separadas por comas.
+     * @return true si todas las frases se encuentran en el PDF, false si alguna no se encuentra o si ocurre un error.
+     */
+    public static boolean checkPhrasesInPDF(String filePath, String password, String targetPhrase) {
+        try {
+            return reportResult(searchPhrasesInPDF(filePath, password, targetPhrase));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error leyendo el PDF y buscando la cadena:", e);
+            return false;
+        }
+    }
 
-            reader.close();
+    /**
+     * Busca las frases objetivo en el PDF extrayendo cada página una sola vez y recorriendo su texto con un
+     * único autómata para todas las frases. La búsqueda termina en cuanto se encuentran todas.
+     *
+     * @param filePath     Ruta al archivo PDF.
+     * @param targetPhrase Frases objetivo separadas por comas.
+     * @return El resultado de cada frase, con la primera página donde aparece.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    public static PhraseSearchResult searchPhrasesInPDF(String filePath, String targetPhrase) throws IOException {
+        return searchPhrasesInPDF(filePath, null, targetPhrase);
+    }
 
-            if (!notFoundPhrases.isEmpty()) {
-                StringBuilder errorMessage = new StringBuilder("Las siguientes frases no se encontraron en el PDF: ");
-                for (String phrase : notFoundPhrases) {
-                    errorMessage.append(phrase).append(", ");
-                }
-                errorMessage.delete(errorMessage.length() - 2, errorMessage.length());
-                logger.log(Level.WARNING, String.format("Frases no encontradas: %s", errorMessage.toString()));
+    /**
+     * Busca las frases objetivo en un PDF protegido con contraseña, con el mismo recorrido de una sola pasada
+     * que {@link #searchPhrasesInPDF(String, String)}.
+     *
+     * @param filePath     Ruta al archivo PDF.
+     * @param password     Contraseña del archivo PDF, o null si no está protegido.
+     * @param targetPhrase Frases objetivo separadas por comas.
+     * @return El resultado de cada frase, con la primera página donde aparece.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    public static PhraseSearchResult searchPhrasesInPDF(String filePath, String password, String targetPhrase)
+            throws IOException {
+        PdfDocument pdfDoc = PdfReaders.open(filePath, password);
+        try {
+            PageTextSource source = PageTextSource.forDocument(pdfDoc);
+            if (password == null) {
+                source = ExtractionCache.cachedPageTexts(source, pdfDoc, filePath);
             }
-        } catch (Exception e) {
-            logger.log(Level.WARNING, String.format("Error leyendo el PDF y buscando la cadena:", e));
-            allPhrasesFound=false;
+            return searchPhrases(source, PhraseMatcher.fromCommaSeparated(targetPhrase));
+        } finally {
+            pdfDoc.close();
         }
+    }
 
-        return allPhrasesFound;
+    /**
+     * Verifica si las frases objetivo se encuentran en el PDF extrayendo las páginas en paralelo.
+     *
+     * @param filePath     Ruta al archivo PDF.
+     * @param targetPhrase Frases objetivo separadas por comas.
+     * @param extractor    Extractor paralelo de páginas.
+     * @return true si todas las frases se encuentran en el PDF, false si alguna no se encuentra o si ocurre un error.
+     */
+    public static boolean checkPhrasesInPDF(String filePath, String targetPhrase, ParallelPageExtractor extractor) {
+        try {
+            return reportResult(searchPhrasesInPDF(filePath, null, targetPhrase, extractor));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error leyendo el PDF y buscando la cadena:", e);
+            return false;
+        }
     }
 
-    public static boolean checkPhrasesInPDF(String filePath, String password, String targetPhrase) {
-        boolean allPhrasesFound = true;
+    /**
+     * Busca las frases objetivo extrayendo las páginas en paralelo. Las páginas se recorren en orden a medida
+     * que cada rango termina, y la extracción pendiente se cancela en cuanto se encuentran todas las frases.
+     *
+     * @param filePath     Ruta al archivo PDF.
+     * @param password     Contraseña del archivo PDF, o null si no está protegido.
+     * @param targetPhrase Frases objetivo separadas por comas.
+     * @param extractor    Extractor paralelo de páginas.
+     * @return El resultado de cada frase, con la primera página donde aparece.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    public static PhraseSearchResult searchPhrasesInPDF(String filePath, String password, String targetPhrase,
+                                                        ParallelPageExtractor extractor) throws IOException {
+        ParallelPageExtractor.Extraction extraction = extractor.start(filePath, password);
         try {
-            com.itextpdf.kernel.pdf.PdfReader reader = new com.itextpdf.kernel.pdf.PdfReader(filePath, new ReaderProperties().setPassword(password.getBytes()));
-            PdfDocument pdfDoc = new PdfDocument(reader);
-            List<String> phrasesToCheck = Arrays.asList(targetPhrase.split(","));
-            List<String> notFoundPhrases = new ArrayList<>();
+            return searchPhrases(extraction, PhraseMatcher.fromCommaSeparated(targetPhrase));
+        } finally {
+            extraction.close();
+        }
+    }
+
+    /**
+     * Recorre las páginas una sola vez y alimenta el autómata con el texto de cada una.
+     *
+     * @param source  Fuente del texto de las páginas.
+     * @param matcher Autómata con las frases a buscar.
+     * @return El resultado de cada frase.
+     * @throws IOException Si ocurre un error extrayendo el texto de una página.
+     */
+    static PhraseSearchResult searchPhrases(PageTextSource source, PhraseMatcher matcher) throws IOException {
+        final int[] firstPages = new int[matcher.size()];
+        Arrays.fill(firstPages, PhraseSearchResult.NOT_FOUND);
+        final int[] currentPage = new int[1];
 
-            for (String phrase : phrasesToCheck) {
-                boolean found = false;
-                for (int i = 1; i <= pdfDoc.getNumberOfPages(); i++) {
-                    String pageText = com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor.getTextFromPage(pdfDoc.getPage(i));
-                    if (pageText.contains(phrase)) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    notFoundPhrases.add(phrase);
-                    allPhrasesFound = false;
-                }
+        PhraseMatcher.Session session = matcher.newSession(new PhraseMatcher.MatchListener() {
+            @Override
+            public void phraseFound(int phraseIndex) {
+                firstPages[phraseIndex] = currentPage[0];
             }
-            pdfDoc.close();
-            if (!notFoundPhrases.isEmpty()) {
-                StringBuilder errorMessage = new StringBuilder("Las siguientes frases no se encontraron en el PDF: ");
-                for (String phrase : notFoundPhrases) {
-                    errorMessage.append(phrase).append(", ");
-                }
-                errorMessage.delete(errorMessage.length() - 2, errorMessage.length());
-                logger.log(Level.WARNING, String.format("Frases no encontradas: %s", errorMessage.toString()));
+        });
+
+        int numPages = source.getNumberOfPages();
+        for (int pageNumber = 1; pageNumber <= numPages && !session.isComplete(); pageNumber++) {
+            currentPage[0] = pageNumber;
+            session.beginSegment();
+            source.getPageChunks(pageNumber).feed(session);
+        }
+        return new PhraseSearchResult(matcher.getPhrases(), firstPages);
+    }
+
+    private static boolean reportResult(PhraseSearchResult result) {
+        List<String> notFoundPhrases = result.getNotFoundPhrases();
+        if (!notFoundPhrases.isEmpty()) {
+            StringBuilder errorMessage = new StringBuilder("Las siguientes frases no se encontraron en el PDF: ");
+            for (String phrase : notFoundPhrases) {
+                errorMessage.append(phrase).append(", ");
             }
-        } catch (Exception e) {
-            logger.log(Level.WARNING, String.format("Error leyendo el PDF y buscando la cadena:", e));
-            allPhrasesFound = false;
+            errorMessage.delete(errorMessage.length() - 2, errorMessage.length());
+            logger.log(Level.WARNING, String.format("Frases no encontradas: %s", errorMessage.toString()));
         }
-        return allPhrasesFound;
+        return notFoundPhrases.isEmpty();
     }
 }
-
@@ -1,8 +1,7 @@
 package io.github.dabogadog;
 
-import com.itextpdf.text.pdf.PdfReader;
-import com.itextpdf.text.pdf.parser.PdfTextExtractor;
-
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,36 +20,277 @@ public class PDFComparator {
      * @return true si los archivos son iguales en contenido de texto, false si hay diferencias o si ocurre un error.
      */
     public static boolean comparePDFs(String filePath1, String filePath2) {
+        return comparePDFs(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara dos archivos PDF en busca de diferencias en el texto de sus páginas, deteniéndose según el modo.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @param mode      Cuántas páginas diferentes buscar antes de detenerse.
+     * @return true si los archivos son iguales en contenido de texto, false si hay diferencias o si ocurre un error.
+     */
+    public static boolean comparePDFs(String filePath1, String filePath2, ComparisonMode mode) {
+        return comparePDFs(filePath1, null, filePath2, null, mode);
+    }
+
+    /**
+     * Compara dos archivos PDF, protegidos o no, en busca de diferencias en el texto de sus páginas.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return true si los archivos son iguales en contenido de texto, false si hay diferencias o si ocurre un error.
+     */
+    public static boolean comparePDFs(String filePath1, PdfCredentials credentials1,
+                                      String filePath2, PdfCredentials credentials2) {
+        return comparePDFs(filePath1, credentials1, filePath2, credentials2, ComparisonMode.EXHAUSTIVE);
+    }
+
+    /**
+     * Compara dos archivos PDF, protegidos o no, en busca de diferencias en el texto de sus páginas,
+     * deteniéndose según el modo.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @param mode         Cuántas páginas diferentes buscar antes de detenerse.
+     * @return true si los archivos son iguales en contenido de texto, false si hay diferencias o si ocurre un error.
+     */
+    public static boolean comparePDFs(String filePath1, PdfCredentials credentials1,
+                                      String filePath2, PdfCredentials credentials2, ComparisonMode mode) {
         try {
-            PdfReader reader1 = new PdfReader(filePath1);
-            PdfReader reader2 = new PdfReader(filePath2);
+            return comparePDFsDetailed(filePath1, credentials1, filePath2, credentials2, mode).areEqual();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Ocurrió un error durante la comparación de archivos PDF: %s", e));
+            return false;
+        }
+    }
 
-            int numPages1 = reader1.getNumberOfPages();
-            int numPages2 = reader2.getNumberOfPages();
+    /**
+     * Compara el texto de las páginas de dos documentos ya abiertos. El texto extraído queda guardado en
+     * cada documento y lo reutilizan las comparaciones posteriores.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return true si los archivos son iguales en contenido de texto, false si hay diferencias o si ocurre un error.
+     */
+    public static boolean comparePDFs(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        return comparePDFs(handle1, handle2, ComparisonMode.EXHAUSTIVE);
+    }
+
+    /**
+     * Compara el texto de las páginas de dos documentos ya abiertos, deteniéndose según el modo.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @param mode    Cuántas páginas diferentes buscar antes de detenerse.
+     * @return true si los archivos son iguales en contenido de texto, false si hay diferencias o si ocurre un error.
+     */
+    public static boolean comparePDFs(PdfDocumentHandle handle1, PdfDocumentHandle handle2, ComparisonMode mode) {
+        try {
+            return comparePDFsDetailed(handle1, handle2, mode).areEqual();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, String.format("Ocurrió un error durante la comparación de archivos PDF: %s", e));
+            return false;
+        }
+    }
+
+    /**
+     * Compara dos archivos PDF de forma escalonada. Primero compara el resumen de los archivos completos; si
+     * coinciden, ninguna página se abre. Si no, compara el resumen del contenido y los recursos de cada página,
+     * y solo extrae y compara el texto de las páginas cuyos resúmenes difieren.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return El resultado de la comparación, con el nivel que decidió cada página.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static PDFComparisonResult comparePDFsDetailed(String filePath1, String filePath2) throws IOException {
+        return comparePDFsDetailed(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara dos archivos PDF, protegidos o no, de forma escalonada, como
+     * {@link #comparePDFsDetailed(String, String)}.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return El resultado de la comparación, con el nivel que decidió cada página.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static PDFComparisonResult comparePDFsDetailed(String filePath1, PdfCredentials credentials1,
+                                                          String filePath2, PdfCredentials credentials2)
+            throws IOException {
+        return comparePDFsDetailed(filePath1, credentials1, filePath2, credentials2, ComparisonMode.EXHAUSTIVE);
+    }
+
+    /**
+     * Compara dos archivos PDF, protegidos o no, de forma escalonada, y se detiene cuando encuentra el número
+     * de páginas diferentes del modo. Las páginas siguientes no se leen.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @param mode         Cuántas páginas diferentes buscar antes de detenerse.
+     * @return El resultado de la comparación, con el nivel que decidió cada página comparada.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static PDFComparisonResult comparePDFsDetailed(String filePath1, PdfCredentials credentials1,
+                                                          String filePath2, PdfCredentials credentials2,
+                                                          ComparisonMode mode)
+            throws IOException {
+        if (Arrays.equals(ContentDigests.fileDigest(filePath1), ContentDigests.fileDigest(filePath2))) {
+            return identicalFiles(PdfReaders.countPages(filePath1, credentials1));
+        }
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return compareByPage(handle1, handle2, mode);
+        }
+    }
 
-            if (numPages1 != numPages2) {
-                logger.log(Level.INFO, "Los archivos PDF tienen un número diferente de páginas.");
-                reader1.close();
-                reader2.close();
-                return false;
+    /**
+     * Compara dos documentos ya abiertos de forma escalonada, como {@link #comparePDFsDetailed(String, String)}.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return El resultado de la comparación, con el nivel que decidió cada página.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static PDFComparisonResult comparePDFsDetailed(PdfDocumentHandle handle1, PdfDocumentHandle handle2)
+            throws IOException {
+        return comparePDFsDetailed(handle1, handle2, ComparisonMode.EXHAUSTIVE);
+    }
+
+    /**
+     * Compara dos documentos ya abiertos de forma escalonada, y se detiene cuando encuentra el número de
+     * páginas diferentes del modo.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @param mode    Cuántas páginas diferentes buscar antes de detenerse.
+     * @return El resultado de la comparación, con el nivel que decidió cada página comparada.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static PDFComparisonResult comparePDFsDetailed(PdfDocumentHandle handle1, PdfDocumentHandle handle2,
+                                                          ComparisonMode mode)
+            throws IOException {
+        if (Arrays.equals(handle1.getFileDigest(), handle2.getFileDigest())) {
+            return identicalFiles(handle1.getNumberOfPages());
+        }
+        return compareByPage(handle1, handle2, mode);
+    }
+
+    private static PDFComparisonResult identicalFiles(int numPages) {
+        PDFComparisonResult result = new PDFComparisonResult(numPages, numPages);
+        for (int i = 1; i <= numPages; i++) {
+            result.addPage(i, ComparisonTier.FILE_DIGEST, true);
+        }
+        return result;
+    }
+
+    private static PDFComparisonResult compareByPage(PdfDocumentHandle handle1, PdfDocumentHandle handle2,
+                                                     ComparisonMode mode)
+            throws IOException {
+        int numPages1 = handle1.getNumberOfPages();
+        int numPages2 = handle2.getNumberOfPages();
+        PDFComparisonResult result = new PDFComparisonResult(numPages1, numPages2);
+
+        if (numPages1 != numPages2) {
+            logger.log(Level.INFO, "Los archivos PDF tienen un número diferente de páginas.");
+            return result;
+        }
+
+        int differences = 0;
+        for (int i = 1; i <= numPages1; i++) {
+            PDFComparisonResult.PageResult page = comparePage(handle1, handle2, i);
+            result.addPage(page);
+            if (!page.isEqual()) {
+                logDifferences(i, page.getDiff());
+                differences++;
             }
+            if (mode.isDone(differences) && i < numPages1) {
+                logStop(i, differences);
+                result.stop();
+                break;
+            }
+        }
 
-            boolean areEqual = true;
+        return result;
+    }
 
-            for (int i = 1; i <= numPages1; i++) {
-                String pageText1 = PdfTextExtractor.getTextFromPage(reader1, i);
-                String pageText2 = PdfTextExtractor.getTextFromPage(reader2, i);
+    /**
+     * Compara el texto de una página de dos documentos: primero el resumen de sus flujos de contenido y
+     * recursos y, si difiere, el texto extraído.
+     *
+     * @param pageNumber Número de página, empezando en 1, que existe en los dos documentos.
+     * @return El resultado de la página.
+     * @throws IOException Si ocurre un error leyendo los flujos de la página.
+     */
+    static PDFComparisonResult.PageResult comparePage(PdfDocumentHandle handle1, PdfDocumentHandle handle2,
+                                                      int pageNumber) throws IOException {
+        if (Arrays.equals(handle1.getPageDigest(pageNumber), handle2.getPageDigest(pageNumber))) {
+            return new PDFComparisonResult.PageResult(pageNumber, ComparisonTier.PAGE_DIGEST, true, null);
+        }
+
+        PageTextChunks pageText1 = handle1.getPageChunks(pageNumber);
+        PageTextChunks pageText2 = handle2.getPageChunks(pageNumber);
+        long start = Metrics.start();
+        PDFComparisonResult.PageResult page;
+        if (pageText1.contentEquals(pageText2)) {
+            page = new PDFComparisonResult.PageResult(pageNumber, ComparisonTier.TEXT, true, null);
+        } else {
+            TextDiff diff = TextDiff.diffLines(pageText1.getResultantText(), pageText2.getResultantText());
+            page = new PDFComparisonResult.PageResult(pageNumber, ComparisonTier.TEXT, false, diff);
+        }
+        Metrics.end(ComparisonMetrics.Phase.COMPARE, start);
+        return page;
+    }
+
+    /**
+     * Compara dos archivos PDF extrayendo el texto de sus páginas en paralelo. Ambos archivos se extraen a la
+     * vez y las páginas se comparan en orden a medida que terminan sus rangos.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @param extractor Extractor paralelo de páginas.
+     * @return true si los archivos son iguales en contenido de texto, false si hay diferencias o si ocurre un error.
+     */
+    public static boolean comparePDFs(String filePath1, String filePath2, ParallelPageExtractor extractor) {
+        return comparePDFs(filePath1, filePath2, extractor, ComparisonMode.EXHAUSTIVE);
+    }
 
-                if (!pageText1.equals(pageText2)) {
-                    areEqual = false;
-                    logger.log(Level.INFO, String.format("Diferencias en la página %s:", i));
-                    printTextDifferences(pageText1, pageText2);
+    /**
+     * Compara dos archivos PDF extrayendo el texto de sus páginas en paralelo, y se detiene cuando encuentra
+     * el número de páginas diferentes del modo. Al detenerse, los hilos abandonan la extracción en la
+     * siguiente página y los rangos que aún no empezaron no abren el archivo.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @param extractor Extractor paralelo de páginas.
+     * @param mode      Cuántas páginas diferentes buscar antes de detenerse.
+     * @return true si los archivos son iguales en contenido de texto, false si hay diferencias o si ocurre un error.
+     */
+    public static boolean comparePDFs(String filePath1, String filePath2, ParallelPageExtractor extractor,
+                                      ComparisonMode mode) {
+        try {
+            ParallelPageExtractor.Extraction extraction1 = extractor.start(filePath1, null);
+            try {
+                ParallelPageExtractor.Extraction extraction2 = extractor.start(filePath2, null);
+                try {
+                    return comparePages(extraction1, extraction2, mode);
+                } finally {
+                    extraction2.close();
                 }
+            } finally {
+                extraction1.close();
             }
-
-            reader1.close();
-            reader2.close();
-            return areEqual;
         } catch (Exception e) {
             logger.log(Level.WARNING, String.format("Ocurrió un error durante la comparación de archivos PDF: %s", e));
             return false;
@@ -58,21 +298,68 @@ public class PDFComparator {
     }
 
     /**
-     * Muestra las diferencias línea por línea entre dos bloques de texto.
+     * Compara página por página el texto de dos documentos.
      *
-     * @param text1 Texto del primer archivo.
-     * @param text2 Texto del segundo archivo.
+     * @param source1 Texto de las páginas del primer archivo.
+     * @param source2 Texto de las páginas del segundo archivo.
+     * @param mode    Cuántas páginas diferentes buscar antes de detenerse.
+     * @return true si todas las páginas tienen el mismo texto.
+     * @throws IOException Si ocurre un error extrayendo el texto de una página.
      */
-    private static void printTextDifferences(String text1, String text2) {
-        String[] lines1 = text1.split("\\r?\\n");
-        String[] lines2 = text2.split("\\r?\\n");
+    static boolean comparePages(PageTextSource source1, PageTextSource source2, ComparisonMode mode)
+            throws IOException {
+        int numPages1 = source1.getNumberOfPages();
+        int numPages2 = source2.getNumberOfPages();
+
+        if (numPages1 != numPages2) {
+            logger.log(Level.INFO, "Los archivos PDF tienen un número diferente de páginas.");
+            return false;
+        }
+
+        int differences = 0;
 
-        for (int i = 0; i < Math.min(lines1.length, lines2.length); i++) {
-            if (!lines1[i].equals(lines2[i])) {
-                logger.log(Level.INFO, String.format("Línea %s:", i + 1));
-                logger.log(Level.INFO, String.format("Archivo 1: %s", lines1[i]));
-                logger.log(Level.INFO, String.format("Archivo 2: %s", lines2[i]));
+        for (int i = 1; i <= numPages1; i++) {
+            PageTextChunks pageText1 = source1.getPageChunks(i);
+            PageTextChunks pageText2 = source2.getPageChunks(i);
+
+            long start = Metrics.start();
+            if (!pageText1.contentEquals(pageText2)) {
+                differences++;
+                if (logger.isLoggable(Level.INFO)) {
+                    logDifferences(i, TextDiff.diffLines(pageText1.getResultantText(), pageText2.getResultantText()));
+                }
             }
+            Metrics.end(ComparisonMetrics.Phase.COMPARE, start);
+            if (mode.isDone(differences) && i < numPages1) {
+                logStop(i, differences);
+                break;
+            }
+        }
+
+        return differences == 0;
+    }
+
+    private static void logStop(int pageNumber, int differences) {
+        logger.log(Level.FINE, "Comparación detenida en la página {0} tras {1} páginas diferentes",
+                new Object[]{pageNumber, differences});
+    }
+
+    /**
+     * Registra un resumen de las diferencias de una página. El mensaje solo se construye si el nivel INFO está
+     * activo, y el detalle de cada bloque si lo está el nivel FINE; las diferencias completas quedan en el
+     * resultado de la comparación.
+     *
+     * @param pageNumber Número de página.
+     * @param diff       Diferencias de la página.
+     */
+    private static void logDifferences(int pageNumber, TextDiff diff) {
+        if (!logger.isLoggable(Level.INFO)) {
+            return;
+        }
+        logger.log(Level.INFO, String.format("Diferencias en la página %s: %s bloques, %s líneas eliminadas, %s líneas insertadas",
+                pageNumber, diff.getHunks().size(), diff.getDeletedLines(), diff.getInsertedLines()));
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, diff.toString());
         }
     }
 }
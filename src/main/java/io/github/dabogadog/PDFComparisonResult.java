@@ -0,0 +1,160 @@
+package io.github.dabogadog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esta clase contiene el resultado de la comparación de texto de dos archivos PDF: si son iguales y, para
+ * cada página, qué nivel de la comparación escalonada decidió el resultado.
+ */
+public final class PDFComparisonResult {
+
+    private final int numPages1;
+    private final int numPages2;
+    private final List<PageResult> pages = new ArrayList<>();
+    private boolean complete = true;
+
+    PDFComparisonResult(int numPages1, int numPages2) {
+        this.numPages1 = numPages1;
+        this.numPages2 = numPages2;
+    }
+
+    void addPage(int pageNumber, ComparisonTier tier, boolean equal) {
+        pages.add(new PageResult(pageNumber, tier, equal, null));
+    }
+
+    void addPage(PageResult page) {
+        pages.add(page);
+    }
+
+    void stop() {
+        complete = false;
+    }
+
+    /**
+     * @return true si los dos archivos tienen el mismo número de páginas y el mismo texto en todas ellas.
+     */
+    public boolean areEqual() {
+        if (numPages1 != numPages2) {
+            return false;
+        }
+        for (PageResult page : pages) {
+            if (!page.isEqual()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true si los archivos tienen un número diferente de páginas. En ese caso no se compara ninguna.
+     */
+    public boolean isPageCountDifferent() {
+        return numPages1 != numPages2;
+    }
+
+    /**
+     * @return Número de páginas del primer archivo.
+     */
+    public int getNumberOfPages1() {
+        return numPages1;
+    }
+
+    /**
+     * @return Número de páginas del segundo archivo.
+     */
+    public int getNumberOfPages2() {
+        return numPages2;
+    }
+
+    /**
+     * @return false si la comparación se detuvo al alcanzar el máximo de diferencias de su
+     * {@link ComparisonMode}, antes de comparar todas las páginas.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return El resultado de cada página comparada, en orden de página.
+     */
+    public List<PageResult> getPages() {
+        return Collections.unmodifiableList(pages);
+    }
+
+    /**
+     * @param tier Nivel de la comparación.
+     * @return Número de páginas cuyo resultado decidió ese nivel.
+     */
+    public int countPages(ComparisonTier tier) {
+        int count = 0;
+        for (PageResult page : pages) {
+            if (page.getTier() == tier) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "PDFComparisonResult[iguales=" + areEqual()
+                + ", páginas=" + numPages1 + "/" + numPages2
+                + ", " + ComparisonTier.FILE_DIGEST + "=" + countPages(ComparisonTier.FILE_DIGEST)
+                + ", " + ComparisonTier.PAGE_DIGEST + "=" + countPages(ComparisonTier.PAGE_DIGEST)
+                + ", " + ComparisonTier.TEXT + "=" + countPages(ComparisonTier.TEXT)
+                + (complete ? "" : ", detenida en la página " + pages.size()) + "]";
+    }
+
+    /**
+     * Resultado de la comparación de una página.
+     */
+    public static final class PageResult {
+
+        private final int pageNumber;
+        private final ComparisonTier tier;
+        private final boolean equal;
+        private final TextDiff diff;
+
+        PageResult(int pageNumber, ComparisonTier tier, boolean equal, TextDiff diff) {
+            this.pageNumber = pageNumber;
+            this.tier = tier;
+            this.equal = equal;
+            this.diff = diff;
+        }
+
+        /**
+         * @return Número de página, empezando en 1.
+         */
+        public int getPageNumber() {
+            return pageNumber;
+        }
+
+        /**
+         * @return Nivel de la comparación que decidió el resultado.
+         */
+        public ComparisonTier getTier() {
+            return tier;
+        }
+
+        /**
+         * @return true si la página tiene el mismo texto en los dos archivos.
+         */
+        public boolean isEqual() {
+            return equal;
+        }
+
+        /**
+         * @return Las diferencias línea por línea de la página, o null si la página es igual.
+         */
+        public TextDiff getDiff() {
+            return diff;
+        }
+
+        @Override
+        public String toString() {
+            return "página " + pageNumber + ": " + (equal ? "igual" : "diferente") + " (" + tier + ")";
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package io.github.dabogadog;
 
-import com.itextpdf.text.pdf.*;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfString;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,78 +21,98 @@ public class PDFLinkChecker {
     private static final Logger logger = Logger.getLogger(PDFLinkChecker.class.getName());
 
     /**
-     * Verifica los enlaces (URLs) presentes en un archivo PDF.
+     * Verifica los enlaces (URLs) presentes en un archivo PDF y registra el resultado de cada uno.
      *
      * @param filePath Ruta al archivo PDF a verificar.
      */
     public static void checkLinksInPDF(String filePath) {
         try {
-            PdfReader reader = new PdfReader(filePath);
-            int numPages = reader.getNumberOfPages();
-
-            for (int i = 1; i <= numPages; i++) {
-                PdfDictionary pageDict = reader.getPageN(i);
-                PdfArray annotsArray = pageDict.getAsArray(PdfName.ANNOTS);
-
-                if (annotsArray != null) {
-                    for (int j = 0; j < annotsArray.size(); j++) {
-                        PdfDictionary annotDict = annotsArray.getAsDict(j);
-                        PdfName subType = annotDict.getAsName(PdfName.SUBTYPE);
-
-                        if (PdfName.LINK.equals(subType)) {
-                            PdfDictionary actionDict = annotDict.getAsDict(PdfName.A);
-                            if (actionDict != null && PdfName.URI.equals(actionDict.getAsName(PdfName.S))) {
-                                PdfString uri = actionDict.getAsString(PdfName.URI);
-                                if (uri != null) {
-                                    String urlString = uri.toUnicodeString();
-                                    validateLink(urlString);
-                                }
-                            }
-                        }
-                    }
+            LinkReport report = validateLinksInPDF(filePath);
+            for (LinkCheckResult result : report.getResults()) {
+                if (result.isValid()) {
+                    logger.log(Level.INFO, "Enlace válido: {0}", result.getUrl());
+                } else {
+                    logger.log(Level.WARNING, "Enlace no válido: {0}", result);
                 }
             }
-
-            reader.close();
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Ocurrió un error durante la verificación de enlaces:", e);
         }
     }
 
     /**
-     * Valida un enlace (URL) verificando su disponibilidad.
+     * Valida los enlaces (URLs) presentes en un archivo PDF con un {@link LinkValidator} con la configuración
+     * por defecto.
      *
-     * @param urlString URL a validar.
+     * @param filePath Ruta al archivo PDF a verificar.
+     * @return El informe con un resultado por URL distinta.
+     * @throws IOException Si ocurre un error leyendo el PDF.
      */
-    private static void validateLink(String urlString) {
-        try {
-            URL url = new URL(urlString);
+    public static LinkReport validateLinksInPDF(String filePath) throws IOException {
+        return validateLinksInPDF(filePath, new LinkValidator());
+    }
 
-            if ("http".equals(url.getProtocol()) || "https".equals(url.getProtocol())) {
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("HEAD");
-            connection.connect();
+    /**
+     * Valida los enlaces (URLs) presentes en un archivo PDF. Primero se recogen todas las URLs del documento,
+     * y después cada URL distinta se valida una sola vez, de forma concurrente.
+     *
+     * @param filePath  Ruta al archivo PDF a verificar.
+     * @param validator Validador a usar; su caché de resultados se reutiliza entre llamadas.
+     * @return El informe con un resultado por URL distinta.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    public static LinkReport validateLinksInPDF(String filePath, LinkValidator validator) throws IOException {
+        return validator.validate(collectLinks(filePath));
+    }
 
-            int responseCode = connection.getResponseCode();
-            String responseMessage = connection.getResponseMessage();
+    /**
+     * Recoge las URLs de las anotaciones de enlace del documento.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @return Las páginas donde aparece cada URL distinta, en el orden del documento.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    static Map<String, List<Integer>> collectLinks(String filePath) throws IOException {
+        Map<String, List<Integer>> links = new LinkedHashMap<>();
+        PdfDocument pdfDoc = PdfReaders.open(filePath);
+        try {
+            int numPages = pdfDoc.getNumberOfPages();
 
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                System.out.println("Enlace válido: " + urlString);
-            } else {
-                System.out.println("Enlace roto: " + urlString);
-                System.out.println("Código de respuesta: " + responseCode);
-                System.out.println("Mensaje de respuesta: " + responseMessage);
-            }
+            for (int i = 1; i <= numPages; i++) {
+                PdfDictionary pageDict = pdfDoc.getPage(i).getPdfObject();
+                PdfArray annotsArray = pageDict.getAsArray(PdfName.Annots);
+
+                if (annotsArray != null) {
+                    for (int j = 0; j < annotsArray.size(); j++) {
+                        PdfDictionary annotDict = annotsArray.getAsDictionary(j);
+                        if (annotDict == null) {
+                            continue;
+                        }
+                        PdfName subType = annotDict.getAsName(PdfName.Subtype);
 
-            connection.disconnect();
-            } else {
-                System.out.println("Enlace no válido debido al protocolo: " + urlString);
+                        if (PdfName.Link.equals(subType)) {
+                            PdfDictionary actionDict = annotDict.getAsDictionary(PdfName.A);
+                            if (actionDict != null && PdfName.URI.equals(actionDict.getAsName(PdfName.S))) {
+                                PdfString uri = actionDict.getAsString(PdfName.URI);
+                                if (uri != null) {
+                                    List<Integer> pages = links.get(uri.toUnicodeString());
+                                    if (pages == null) {
+                                        pages = new ArrayList<>();
+                                        links.put(uri.toUnicodeString(), pages);
+                                    }
+                                    if (pages.isEmpty() || pages.get(pages.size() - 1) != i) {
+                                        pages.add(i);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+                PdfReaders.releasePage(pdfDoc, i);
             }
-        } catch (UnknownHostException e) {
-            System.out.println("Nombre de host no válido en el enlace: " + urlString);
-        } catch (IOException e) {
-            e.printStackTrace();
+        } finally {
+            pdfDoc.close();
         }
+        return links;
     }
 }
-
@@ -0,0 +1,40 @@
+package io.github.dabogadog;
+
+/**
+ * Cajas de una página PDF.
+ */
+public enum PageBox {
+    /**
+     * {@code /MediaBox}: el medio físico donde se imprime la página. Se hereda del árbol de páginas.
+     */
+    MEDIA("MediaBox"),
+    /**
+     * {@code /CropBox}: la región visible. Se hereda del árbol de páginas; por defecto, la {@code /MediaBox}.
+     */
+    CROP("CropBox"),
+    /**
+     * {@code /BleedBox}: la región con el sangrado para la producción. Por defecto, la {@code /CropBox}.
+     */
+    BLEED("BleedBox"),
+    /**
+     * {@code /TrimBox}: la página terminada, después del corte. Por defecto, la {@code /CropBox}.
+     */
+    TRIM("TrimBox"),
+    /**
+     * {@code /ArtBox}: el contenido con significado de la página. Por defecto, la {@code /CropBox}.
+     */
+    ART("ArtBox");
+
+    private final String key;
+
+    PageBox(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return La clave de la caja en el diccionario de la página, por ejemplo {@code MediaBox}.
+     */
+    public String getKey() {
+        return key;
+    }
+}
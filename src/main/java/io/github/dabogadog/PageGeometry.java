@@ -0,0 +1,404 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Geometría de todas las páginas de un documento: las cinco cajas, la rotación y la unidad de usuario. Se lee
+ * recorriendo el árbol de páginas una sola vez y propagando hacia abajo los atributos heredables
+ * ({@code /MediaBox}, {@code /CropBox} y {@code /Rotate}), en lugar de resolver la herencia página a página.
+ *
+ * <p>Los valores se normalizan como los interpreta un lector: las cajas con la esquina inferior izquierda
+ * primero, la {@code /CropBox} por defecto igual a la {@code /MediaBox}, las otras tres por defecto iguales a
+ * la {@code /CropBox}, todas recortadas a la {@code /MediaBox}, y la rotación entre 0 y 359. Una página sin
+ * {@code /MediaBox} recibe el tamaño carta.</p>
+ *
+ * <p>Las geometrías distintas se guardan una sola vez en un arreglo de {@code float}, y cada página guarda
+ * solo el índice de la suya: un trabajo de impresión de 100.000 páginas iguales ocupa un {@code int} por
+ * página.</p>
+ */
+final class PageGeometry {
+
+    private static final int BOXES = PageBox.values().length;
+    private static final int ROTATION = BOXES * 4;
+    private static final int USER_UNIT = ROTATION + 1;
+    private static final int STRIDE = USER_UNIT + 1;
+    private static final float[] LETTER = {0, 0, 612, 792};
+    private static final int NO_ROTATION = Integer.MIN_VALUE;
+    private static final PageBox[] PRODUCTION_BOXES = {PageBox.BLEED, PageBox.TRIM, PageBox.ART};
+    private static final PdfName[] PRODUCTION_BOX_NAMES = {PdfName.BleedBox, PdfName.TrimBox, PdfName.ArtBox};
+
+    private final int[] pageGeometries;
+    private final float[] geometries;
+    private final int distinct;
+
+    private PageGeometry(int[] pageGeometries, float[] geometries, int distinct) {
+        this.pageGeometries = pageGeometries;
+        this.geometries = geometries;
+        this.distinct = distinct;
+    }
+
+    /**
+     * Lee la geometría de todas las páginas. Si el árbol de páginas está dañado (un ciclo, o un número de
+     * hojas distinto del que ve iText), la lee página a página con {@link PdfDocument#getPage(int)}.
+     *
+     * @param pdfDoc Documento abierto.
+     * @param release true para liberar el diccionario de cada página después de leerlo, en el modo de bajo
+     *                consumo de memoria.
+     * @return La geometría.
+     */
+    static PageGeometry read(PdfDocument pdfDoc, boolean release) {
+        int numPages = pdfDoc.getNumberOfPages();
+        Builder builder = new Builder(numPages);
+        PdfDictionary root = pdfDoc.getCatalog().getPdfObject().getAsDictionary(PdfName.Pages);
+        if (root != null && walk(root, builder, release) && builder.count == numPages) {
+            return builder.build();
+        }
+
+        builder = new Builder(numPages);
+        for (int i = 1; i <= numPages; i++) {
+            PdfDictionary page = pdfDoc.getPage(i).getPdfObject();
+            builder.add(page, inheritedBox(page, PdfName.MediaBox), inheritedBox(page, PdfName.CropBox),
+                    inheritedRotation(page));
+            PdfReaders.releasePage(pdfDoc, i);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Lee la geometría de una sola página, resolviendo la herencia por {@code /Parent}, para comparar unas
+     * pocas páginas sin recorrer el árbol completo.
+     *
+     * @param pdfDoc     Documento abierto.
+     * @param pageNumber Número de página, empezando en 1.
+     * @return La geometría, con una sola página: la de número 1.
+     */
+    static PageGeometry readPage(PdfDocument pdfDoc, int pageNumber) {
+        Builder builder = new Builder(1);
+        PdfDictionary page = pdfDoc.getPage(pageNumber).getPdfObject();
+        builder.add(page, inheritedBox(page, PdfName.MediaBox), inheritedBox(page, PdfName.CropBox),
+                inheritedRotation(page));
+        PdfReaders.releasePage(pdfDoc, pageNumber);
+        return builder.build();
+    }
+
+    /**
+     * Recorre el árbol en profundidad, en el orden de las páginas, con una pila explícita.
+     *
+     * @return false si el árbol tiene un ciclo o más hojas que páginas.
+     */
+    private static boolean walk(PdfDictionary root, Builder builder, boolean release) {
+        BitSet visited = new BitSet();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(new Node(root, null, null, NO_ROTATION));
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            PdfIndirectReference reference = node.dictionary.getIndirectReference();
+            if (reference != null) {
+                if (visited.get(reference.getObjNumber())) {
+                    return false;
+                }
+                visited.set(reference.getObjNumber());
+            }
+
+            float[] media = readBox(node.dictionary, PdfName.MediaBox);
+            float[] crop = readBox(node.dictionary, PdfName.CropBox);
+            PdfNumber rotate = node.dictionary.getAsNumber(PdfName.Rotate);
+            media = media != null ? media : node.media;
+            crop = crop != null ? crop : node.crop;
+            int rotation = rotate != null ? rotate.intValue() : node.rotation;
+
+            PdfArray kids = node.dictionary.getAsArray(PdfName.Kids);
+            PdfName type = node.dictionary.getAsName(PdfName.Type);
+            if (PdfName.Page.equals(type) || (kids == null && !PdfName.Pages.equals(type))) {
+                if (builder.count == builder.pages.length) {
+                    return false;
+                }
+                builder.add(node.dictionary, media, crop, rotation);
+                if (release) {
+                    node.dictionary.release();
+                }
+            } else if (kids != null) {
+                for (int i = kids.size() - 1; i >= 0; i--) {
+                    PdfDictionary kid = kids.getAsDictionary(i);
+                    if (kid != null) {
+                        stack.push(new Node(kid, media, crop, rotation));
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Número de páginas.
+     */
+    int getNumberOfPages() {
+        return pageGeometries.length;
+    }
+
+    /**
+     * @return Número de geometrías distintas entre todas las páginas.
+     */
+    int getDistinctGeometries() {
+        return distinct;
+    }
+
+    /**
+     * @param pageNumber Número de página, empezando en 1.
+     * @return Índice de la geometría de la página. Dos páginas con el mismo índice tienen la misma geometría.
+     */
+    int geometry(int pageNumber) {
+        return pageGeometries[pageNumber - 1];
+    }
+
+    /**
+     * @param geometry Índice de una geometría.
+     * @param box      Caja.
+     * @param corner   0 a 3: izquierda, abajo, derecha y arriba.
+     * @return La coordenada, en unidades de usuario.
+     */
+    float coordinate(int geometry, PageBox box, int corner) {
+        return geometries[geometry * STRIDE + box.ordinal() * 4 + corner];
+    }
+
+    /**
+     * @return La caja como un {@link Rectangle} nuevo.
+     */
+    Rectangle rectangle(int geometry, PageBox box) {
+        int offset = geometry * STRIDE + box.ordinal() * 4;
+        return new Rectangle(geometries[offset], geometries[offset + 1],
+                geometries[offset + 2] - geometries[offset], geometries[offset + 3] - geometries[offset + 1]);
+    }
+
+    /**
+     * @return La rotación en grados, entre 0 y 359.
+     */
+    int rotation(int geometry) {
+        return (int) geometries[geometry * STRIDE + ROTATION];
+    }
+
+    /**
+     * @return El tamaño de la unidad de usuario en múltiplos de 1/72 de pulgada; 1 si la página no lo indica.
+     */
+    float userUnit(int geometry) {
+        return geometries[geometry * STRIDE + USER_UNIT];
+    }
+
+    /**
+     * @param tolerance Diferencia máxima entre coordenadas y unidades de usuario para considerarlas iguales.
+     * @return true si dos geometrías, de este documento o de otro, tienen las mismas cajas dentro de la
+     * tolerancia, la misma rotación y la misma unidad de usuario dentro de la tolerancia.
+     */
+    static boolean equal(PageGeometry geometry1, int index1, PageGeometry geometry2, int index2, float tolerance) {
+        int offset1 = index1 * STRIDE;
+        int offset2 = index2 * STRIDE;
+        for (int i = 0; i < STRIDE; i++) {
+            float difference = Math.abs(geometry1.geometries[offset1 + i] - geometry2.geometries[offset2 + i]);
+            if (i == ROTATION ? difference != 0 : !(difference <= tolerance)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Busca un atributo heredable subiendo por {@code /Parent}, para la lectura página a página.
+     */
+    private static float[] inheritedBox(PdfDictionary page, PdfName name) {
+        BitSet visited = new BitSet();
+        for (PdfDictionary node = page; node != null; node = node.getAsDictionary(PdfName.Parent)) {
+            PdfIndirectReference reference = node.getIndirectReference();
+            if (reference != null) {
+                if (visited.get(reference.getObjNumber())) {
+                    break;
+                }
+                visited.set(reference.getObjNumber());
+            }
+            float[] box = readBox(node, name);
+            if (box != null) {
+                return box;
+            }
+        }
+        return null;
+    }
+
+    private static int inheritedRotation(PdfDictionary page) {
+        BitSet visited = new BitSet();
+        for (PdfDictionary node = page; node != null; node = node.getAsDictionary(PdfName.Parent)) {
+            PdfIndirectReference reference = node.getIndirectReference();
+            if (reference != null) {
+                if (visited.get(reference.getObjNumber())) {
+                    break;
+                }
+                visited.set(reference.getObjNumber());
+            }
+            PdfNumber rotate = node.getAsNumber(PdfName.Rotate);
+            if (rotate != null) {
+                return rotate.intValue();
+            }
+        }
+        return NO_ROTATION;
+    }
+
+    /**
+     * @return La caja normalizada (izquierda, abajo, derecha, arriba), o null si falta o no tiene cuatro
+     * números.
+     */
+    private static float[] readBox(PdfDictionary dictionary, PdfName name) {
+        PdfArray array = dictionary.getAsArray(name);
+        if (array == null || array.size() < 4) {
+            return null;
+        }
+        float[] box = new float[4];
+        for (int i = 0; i < 4; i++) {
+            PdfNumber number = array.getAsNumber(i);
+            if (number == null) {
+                return null;
+            }
+            box[i] = number.floatValue();
+        }
+        if (box[0] > box[2]) {
+            float left = box[2];
+            box[2] = box[0];
+            box[0] = left;
+        }
+        if (box[1] > box[3]) {
+            float bottom = box[3];
+            box[3] = box[1];
+            box[1] = bottom;
+        }
+        return box;
+    }
+
+    /**
+     * Nodo pendiente del recorrido, con los atributos que hereda de sus antecesores.
+     */
+    private static final class Node {
+
+        private final PdfDictionary dictionary;
+        private final float[] media;
+        private final float[] crop;
+        private final int rotation;
+
+        private Node(PdfDictionary dictionary, float[] media, float[] crop, int rotation) {
+            this.dictionary = dictionary;
+            this.media = media;
+            this.crop = crop;
+            this.rotation = rotation;
+        }
+    }
+
+    /**
+     * Acumula las geometrías de las páginas en orden, guardando cada geometría distinta una sola vez.
+     */
+    private static final class Builder {
+
+        private final int[] pages;
+        private final float[] scratch = new float[STRIDE];
+        private final Map<Key, Integer> indexes = new HashMap<>();
+        private float[] geometries = new float[STRIDE * 4];
+        private int distinct;
+        private int count;
+        private int last = -1;
+
+        private Builder(int numPages) {
+            pages = new int[numPages];
+        }
+
+        private void add(PdfDictionary page, float[] inheritedMedia, float[] inheritedCrop, int inheritedRotation) {
+            float[] media = inheritedMedia != null ? inheritedMedia : LETTER;
+            System.arraycopy(media, 0, scratch, PageBox.MEDIA.ordinal() * 4, 4);
+            float[] crop = inheritedCrop != null ? inheritedCrop : media;
+            setClipped(PageBox.CROP, crop, media);
+            for (int i = 0; i < PRODUCTION_BOXES.length; i++) {
+                float[] value = readBox(page, PRODUCTION_BOX_NAMES[i]);
+                setClipped(PRODUCTION_BOXES[i], value != null ? value : crop, media);
+            }
+            int rotation = inheritedRotation != NO_ROTATION ? inheritedRotation % 360 : 0;
+            scratch[ROTATION] = rotation < 0 ? rotation + 360 : rotation;
+            PdfNumber userUnit = page.getAsNumber(PdfName.UserUnit);
+            scratch[USER_UNIT] = userUnit != null && userUnit.floatValue() > 0 ? userUnit.floatValue() : 1;
+
+            int index;
+            if (last >= 0 && equalsScratch(last)) {
+                index = last;
+            } else {
+                Key key = new Key(scratch.clone());
+                Integer existing = indexes.get(key);
+                if (existing != null) {
+                    index = existing;
+                } else {
+                    index = distinct++;
+                    if (geometries.length < distinct * STRIDE) {
+                        geometries = Arrays.copyOf(geometries, geometries.length * 2);
+                    }
+                    System.arraycopy(scratch, 0, geometries, index * STRIDE, STRIDE);
+                    indexes.put(key, index);
+                }
+                last = index;
+            }
+            pages[count++] = index;
+        }
+
+        private void setClipped(PageBox box, float[] value, float[] media) {
+            int offset = box.ordinal() * 4;
+            float left = Math.max(value[0], media[0]);
+            float bottom = Math.max(value[1], media[1]);
+            scratch[offset] = left;
+            scratch[offset + 1] = bottom;
+            scratch[offset + 2] = Math.max(left, Math.min(value[2], media[2]));
+            scratch[offset + 3] = Math.max(bottom, Math.min(value[3], media[3]));
+        }
+
+        private boolean equalsScratch(int index) {
+            int offset = index * STRIDE;
+            for (int i = 0; i < STRIDE; i++) {
+                if (Float.compare(geometries[offset + i], scratch[i]) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private PageGeometry build() {
+            return new PageGeometry(pages, Arrays.copyOf(geometries, distinct * STRIDE), distinct);
+        }
+    }
+
+    /**
+     * Clave de una geometría en el mapa de geometrías distintas.
+     */
+    private static final class Key {
+
+        private final float[] values;
+        private final int hash;
+
+        private Key(float[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(values, ((Key) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package io.github.dabogadog;
 
-import com.itextpdf.text.Rectangle;
-import com.itextpdf.text.pdf.PdfReader;
-
+import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Esta clase compara las propiedades de las páginas de dos archivos PDF.
+ * Esta clase compara las propiedades de las páginas de dos archivos PDF: las cinco cajas ({@code /MediaBox},
+ * {@code /CropBox}, {@code /BleedBox}, {@code /TrimBox} y {@code /ArtBox}), la rotación y la unidad de usuario.
+ *
+ * <p>La geometría de cada documento se lee recorriendo el árbol de páginas una sola vez, y las páginas con la
+ * misma geometría que la anterior en los dos archivos no se vuelven a comparar, así que un trabajo de
+ * impresión de cientos de miles de páginas se compara sin resolver la herencia de cada una.</p>
  */
 public class PagePropertiesComparator {
 
+    /**
+     * Diferencia máxima por defecto entre dos coordenadas para considerarlas iguales, en unidades de usuario.
+     */
+    public static final float DEFAULT_TOLERANCE = 0.001f;
+
     private static final Logger logger = Logger.getLogger(PagePropertiesComparator.class.getName());
 
     /**
@@ -21,58 +29,234 @@ public class PagePropertiesComparator {
      * @return true si las propiedades de las páginas son iguales, false si son diferentes o si ocurre un error.
      */
     public static boolean comparePageProperties(String filePath1, String filePath2) {
-        try {
-            PdfReader reader1 = new PdfReader(filePath1);
-            PdfReader reader2 = new PdfReader(filePath2);
+        return comparePageProperties(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara las propiedades de las páginas de dos archivos PDF, protegidos o no.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return true si las propiedades de las páginas son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean comparePageProperties(String filePath1, PdfCredentials credentials1,
+                                                String filePath2, PdfCredentials credentials2) {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return comparePageProperties(handle1, handle2);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de propiedades de páginas:", e);
+            return false;
+        }
+    }
 
-            int numPages1 = reader1.getNumberOfPages();
-            int numPages2 = reader2.getNumberOfPages();
+    /**
+     * Compara las propiedades de las páginas de dos documentos ya abiertos.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return true si las propiedades de las páginas son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean comparePageProperties(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        return comparePageProperties(handle1, handle2, ComparisonMode.EXHAUSTIVE);
+    }
 
-            if (numPages1 != numPages2) {
+    /**
+     * Compara las propiedades de las páginas de dos documentos ya abiertos, deteniéndose según el modo.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @param mode    Cuántas páginas diferentes buscar antes de detenerse.
+     * @return true si las propiedades de las páginas son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean comparePageProperties(PdfDocumentHandle handle1, PdfDocumentHandle handle2,
+                                                ComparisonMode mode) {
+        try {
+            PagePropertiesComparisonResult result = comparePagePropertiesDetailed(handle1, handle2, mode);
+            if (result.isPageCountDifferent()) {
                 logger.log(Level.INFO, "Los archivos PDF tienen un número diferente de páginas.");
-                reader1.close();
-                reader2.close();
-                return false;
-            } else {
-                boolean areEqual = true;
-
-                for (int i = 1; i <= numPages1; i++) {
-                    Rectangle pageSize1 = reader1.getPageSize(i);
-                    Rectangle pageSize2 = reader2.getPageSize(i);
-
-                    if (!areRectanglesEqual(pageSize1, pageSize2)) {
-                        areEqual = false;
-                        logger.log(Level.INFO, "Las propiedades de la página " + i + " son diferentes.");
-                        logger.log(Level.INFO, "Archivo 1: " + pageSize1);
-                        logger.log(Level.INFO, "Archivo 2: " + pageSize2);
-                        logger.log(Level.INFO, "");
-                    }
-                }
-
-                reader1.close();
-                reader2.close();
-                return areEqual;
             }
+            for (PageSizeDifference difference : result.getDifferences()) {
+                logger.log(Level.INFO, "Las propiedades de la página son diferentes: {0}", difference);
+            }
+            return result.areEqual();
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de propiedades de páginas:", e);
             return false;
         }
     }
 
-    private static boolean areRectanglesEqual(Rectangle rect1, Rectangle rect2) {
-        float epsilon = 0.001f; // Valor de tolerancia para la comparación de dimensiones
-        return Math.abs(rect1.getWidth() - rect2.getWidth()) <= epsilon &&
-                Math.abs(rect1.getHeight() - rect2.getHeight()) <= epsilon;
+    /**
+     * Compara las propiedades de las páginas de dos archivos PDF y devuelve las páginas diferentes.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static PagePropertiesComparisonResult comparePagePropertiesDetailed(String filePath1, String filePath2)
+            throws IOException {
+        return comparePagePropertiesDetailed(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara las propiedades de las páginas de dos archivos PDF, protegidos o no, y devuelve las páginas
+     * diferentes.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static PagePropertiesComparisonResult comparePagePropertiesDetailed(String filePath1,
+                                                                               PdfCredentials credentials1,
+                                                                               String filePath2,
+                                                                               PdfCredentials credentials2)
+            throws IOException {
+        return comparePagePropertiesDetailed(filePath1, credentials1, filePath2, credentials2,
+                ComparisonMode.EXHAUSTIVE);
     }
-}
 
+    /**
+     * Compara las propiedades de las páginas de dos archivos PDF, protegidos o no, y se detiene cuando
+     * encuentra el número de páginas diferentes del modo.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @param mode         Cuántas páginas diferentes buscar antes de detenerse.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static PagePropertiesComparisonResult comparePagePropertiesDetailed(String filePath1,
+                                                                               PdfCredentials credentials1,
+                                                                               String filePath2,
+                                                                               PdfCredentials credentials2,
+                                                                               ComparisonMode mode)
+            throws IOException {
+        return comparePagePropertiesDetailed(filePath1, credentials1, filePath2, credentials2, mode,
+                DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Compara la geometría de las páginas de dos archivos PDF, protegidos o no, con una tolerancia, y se
+     * detiene cuando encuentra el número de páginas diferentes del modo.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @param mode         Cuántas páginas diferentes buscar antes de detenerse.
+     * @param tolerance    Diferencia máxima entre dos coordenadas, o entre dos unidades de usuario, para
+     *                     considerarlas iguales.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static PagePropertiesComparisonResult comparePagePropertiesDetailed(String filePath1,
+                                                                               PdfCredentials credentials1,
+                                                                               String filePath2,
+                                                                               PdfCredentials credentials2,
+                                                                               ComparisonMode mode,
+                                                                               float tolerance)
+            throws IOException {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return comparePagePropertiesDetailed(handle1, handle2, mode, tolerance);
+        }
+    }
 
+    /**
+     * Compara la geometría de cada página de dos documentos ya abiertos.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static PagePropertiesComparisonResult comparePagePropertiesDetailed(PdfDocumentHandle handle1,
+                                                                               PdfDocumentHandle handle2)
+            throws IOException {
+        return comparePagePropertiesDetailed(handle1, handle2, ComparisonMode.EXHAUSTIVE);
+    }
 
-/**
-*En este código, he cread un método auxiliar llamado areRectanglesEqual que compara las dimensiones de tamaño de página
-*  de dos rectángulos (en este caso, las propiedades de página). Utilizo un valor de tolerancia (epsilon) para la
-* comparación, lo que significa que las diferencias en dimensiones dentro de ese valor se consideran iguales.
+    /**
+     * Compara la geometría de cada página de dos documentos ya abiertos, y se detiene cuando encuentra el
+     * número de páginas diferentes del modo.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @param mode    Cuántas páginas diferentes buscar antes de detenerse.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static PagePropertiesComparisonResult comparePagePropertiesDetailed(PdfDocumentHandle handle1,
+                                                                               PdfDocumentHandle handle2,
+                                                                               ComparisonMode mode)
+            throws IOException {
+        return comparePagePropertiesDetailed(handle1, handle2, mode, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Compara la geometría de cada página de dos documentos ya abiertos con una tolerancia, y se detiene
+     * cuando encuentra el número de páginas diferentes del modo. Las cajas se comparan coordenada a
+     * coordenada, con los valores por defecto y el recorte que aplica un lector; la rotación, exactamente.
+     *
+     * @param handle1   Primer documento.
+     * @param handle2   Segundo documento.
+     * @param mode      Cuántas páginas diferentes buscar antes de detenerse.
+     * @param tolerance Diferencia máxima entre dos coordenadas, o entre dos unidades de usuario, para
+     *                  considerarlas iguales.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static PagePropertiesComparisonResult comparePagePropertiesDetailed(PdfDocumentHandle handle1,
+                                                                               PdfDocumentHandle handle2,
+                                                                               ComparisonMode mode,
+                                                                               float tolerance)
+            throws IOException {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("La tolerancia debe ser un número no negativo: " + tolerance);
+        }
+        int numPages1 = handle1.getNumberOfPages();
+        int numPages2 = handle2.getNumberOfPages();
+        PagePropertiesComparisonResult result = new PagePropertiesComparisonResult(numPages1, numPages2);
+
+        if (numPages1 != numPages2) {
+            return result;
+        }
+
+        PageGeometry geometry1 = handle1.getPageGeometry();
+        PageGeometry geometry2 = handle2.getPageGeometry();
 
-Si las dimensiones de tamaño de página difieren más allá del valor de tolerancia, se consideran diferentes y
-* se imprime un mensaje con las propiedades de página de ambos archivos.
-* */
\ No newline at end of file
+        long start = Metrics.start();
+        int differences = 0;
+        int previous1 = -1;
+        int previous2 = -1;
+        boolean equal = true;
+        for (int i = 1; i <= numPages1; i++) {
+            int index1 = geometry1.geometry(i);
+            int index2 = geometry2.geometry(i);
+            if (index1 != previous1 || index2 != previous2) {
+                equal = PageGeometry.equal(geometry1, index1, geometry2, index2, tolerance);
+                previous1 = index1;
+                previous2 = index2;
+            }
+            if (!equal) {
+                result.addDifference(new PageSizeDifference(i, geometry1, index1, geometry2, index2, tolerance));
+                differences++;
+            }
+            if (mode.isDone(differences) && i < numPages1) {
+                result.stop();
+                break;
+            }
+        }
+        Metrics.end(ComparisonMetrics.Phase.COMPARE, start);
+
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.dabogadog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esta clase contiene el resultado de la comparación de las propiedades de las páginas de dos archivos PDF:
+ * el número de páginas de cada uno y las páginas con distintas cajas, rotación o unidad de usuario.
+ */
+public final class PagePropertiesComparisonResult {
+
+    private final int numPages1;
+    private final int numPages2;
+    private final List<PageSizeDifference> differences = new ArrayList<>();
+    private boolean complete = true;
+
+    PagePropertiesComparisonResult(int numPages1, int numPages2) {
+        this.numPages1 = numPages1;
+        this.numPages2 = numPages2;
+    }
+
+    void addDifference(PageSizeDifference difference) {
+        differences.add(difference);
+    }
+
+    void stop() {
+        complete = false;
+    }
+
+    /**
+     * @return true si los dos archivos tienen el mismo número de páginas y todas tienen la misma geometría.
+     */
+    public boolean areEqual() {
+        return numPages1 == numPages2 && differences.isEmpty();
+    }
+
+    /**
+     * @return true si los archivos tienen un número diferente de páginas. En ese caso no se compara ninguna.
+     */
+    public boolean isPageCountDifferent() {
+        return numPages1 != numPages2;
+    }
+
+    /**
+     * @return Número de páginas del primer archivo.
+     */
+    public int getNumberOfPages1() {
+        return numPages1;
+    }
+
+    /**
+     * @return Número de páginas del segundo archivo.
+     */
+    public int getNumberOfPages2() {
+        return numPages2;
+    }
+
+    /**
+     * @return false si la comparación se detuvo al alcanzar el máximo de diferencias de su
+     * {@link ComparisonMode}, antes de comparar todas las páginas.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return Las páginas de distinta geometría, en orden de página.
+     */
+    public List<PageSizeDifference> getDifferences() {
+        return Collections.unmodifiableList(differences);
+    }
+
+    @Override
+    public String toString() {
+        return "PagePropertiesComparisonResult[iguales=" + areEqual()
+                + ", páginas=" + numPages1 + "/" + numPages2
+                + ", diferencias=" + differences
+                + (complete ? "" : ", detenida en la página "
+                        + differences.get(differences.size() - 1).getPageNumber()) + "]";
+    }
+}
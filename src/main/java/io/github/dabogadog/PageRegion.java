@@ -0,0 +1,106 @@
+package io.github.dabogadog;
+
+import java.util.Locale;
+
+/**
+ * Esta clase describe un rectángulo de una página, en puntos y en el sistema de coordenadas del PDF (origen
+ * en la esquina inferior izquierda). Se usa en {@link LayoutComparator} para ignorar zonas que cambian en
+ * cada generación, como fechas o códigos de barras, o para comparar solo algunas zonas.
+ */
+public final class PageRegion {
+
+    private final int page;
+    private final float llx;
+    private final float lly;
+    private final float urx;
+    private final float ury;
+
+    /**
+     * @param page Número de página, empezando en 1, o 0 para todas las páginas.
+     * @param llx  Coordenada x de la esquina inferior izquierda.
+     * @param lly  Coordenada y de la esquina inferior izquierda.
+     * @param urx  Coordenada x de la esquina superior derecha.
+     * @param ury  Coordenada y de la esquina superior derecha.
+     */
+    public PageRegion(int page, float llx, float lly, float urx, float ury) {
+        if (page < 0) {
+            throw new IllegalArgumentException("El número de página no puede ser negativo: " + page);
+        }
+        this.page = page;
+        this.llx = Math.min(llx, urx);
+        this.lly = Math.min(lly, ury);
+        this.urx = Math.max(llx, urx);
+        this.ury = Math.max(lly, ury);
+    }
+
+    /**
+     * Crea un rectángulo que se aplica a todas las páginas.
+     *
+     * @param llx Coordenada x de la esquina inferior izquierda.
+     * @param lly Coordenada y de la esquina inferior izquierda.
+     * @param urx Coordenada x de la esquina superior derecha.
+     * @param ury Coordenada y de la esquina superior derecha.
+     * @return El rectángulo.
+     */
+    public static PageRegion allPages(float llx, float lly, float urx, float ury) {
+        return new PageRegion(0, llx, lly, urx, ury);
+    }
+
+    /**
+     * @return Número de página, o 0 si el rectángulo se aplica a todas las páginas.
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * @return Coordenada x de la esquina inferior izquierda.
+     */
+    public float getLlx() {
+        return llx;
+    }
+
+    /**
+     * @return Coordenada y de la esquina inferior izquierda.
+     */
+    public float getLly() {
+        return lly;
+    }
+
+    /**
+     * @return Coordenada x de la esquina superior derecha.
+     */
+    public float getUrx() {
+        return urx;
+    }
+
+    /**
+     * @return Coordenada y de la esquina superior derecha.
+     */
+    public float getUry() {
+        return ury;
+    }
+
+    /**
+     * @param pageNumber Número de página, empezando en 1.
+     * @return true si el rectángulo se aplica a esa página.
+     */
+    public boolean appliesTo(int pageNumber) {
+        return page == 0 || page == pageNumber;
+    }
+
+    /**
+     * @param x Coordenada x.
+     * @param y Coordenada y.
+     * @return true si el punto está dentro del rectángulo, bordes incluidos.
+     */
+    public boolean contains(float x, float y) {
+        return x >= llx && x <= urx && y >= lly && y <= ury;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s[%.1f, %.1f, %.1f, %.1f]",
+                page == 0 ? "Todas las páginas" : "Página " + page, llx, lly, urx, ury);
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.geom.Rectangle;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Esta clase describe una página cuya geometría difiere entre dos archivos PDF: alguna de sus cajas, su
+ * rotación o su unidad de usuario.
+ */
+public final class PageSizeDifference {
+
+    private final int pageNumber;
+    private final Rectangle[] boxes1 = new Rectangle[PageBox.values().length];
+    private final Rectangle[] boxes2 = new Rectangle[PageBox.values().length];
+    private final Set<PageBox> differentBoxes = EnumSet.noneOf(PageBox.class);
+    private final int rotation1;
+    private final int rotation2;
+    private final float userUnit1;
+    private final float userUnit2;
+    private final boolean userUnitDifferent;
+
+    PageSizeDifference(int pageNumber, PageGeometry geometry1, int index1, PageGeometry geometry2, int index2,
+                       float tolerance) {
+        this.pageNumber = pageNumber;
+        for (PageBox box : PageBox.values()) {
+            boxes1[box.ordinal()] = geometry1.rectangle(index1, box);
+            boxes2[box.ordinal()] = geometry2.rectangle(index2, box);
+            for (int corner = 0; corner < 4; corner++) {
+                if (!(Math.abs(geometry1.coordinate(index1, box, corner) - geometry2.coordinate(index2, box, corner))
+                        <= tolerance)) {
+                    differentBoxes.add(box);
+                    break;
+                }
+            }
+        }
+        this.rotation1 = geometry1.rotation(index1);
+        this.rotation2 = geometry2.rotation(index2);
+        this.userUnit1 = geometry1.userUnit(index1);
+        this.userUnit2 = geometry2.userUnit(index2);
+        this.userUnitDifferent = !(Math.abs(userUnit1 - userUnit2) <= tolerance);
+    }
+
+    /**
+     * @return Número de página, empezando en 1.
+     */
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * @return Tamaño de la página (su {@code /MediaBox}) en el primer archivo.
+     */
+    public Rectangle getSize1() {
+        return getBox1(PageBox.MEDIA);
+    }
+
+    /**
+     * @return Tamaño de la página en el segundo archivo.
+     */
+    public Rectangle getSize2() {
+        return getBox2(PageBox.MEDIA);
+    }
+
+    /**
+     * @param box Caja.
+     * @return La caja en el primer archivo, con los valores por defecto y el recorte que aplica un lector.
+     */
+    public Rectangle getBox1(PageBox box) {
+        return boxes1[box.ordinal()];
+    }
+
+    /**
+     * @param box Caja.
+     * @return La caja en el segundo archivo, con los valores por defecto y el recorte que aplica un lector.
+     */
+    public Rectangle getBox2(PageBox box) {
+        return boxes2[box.ordinal()];
+    }
+
+    /**
+     * @return Las cajas que difieren más que la tolerancia de la comparación.
+     */
+    public Set<PageBox> getDifferentBoxes() {
+        return Collections.unmodifiableSet(differentBoxes);
+    }
+
+    /**
+     * @return true si el tamaño de la página (su {@code /MediaBox}) difiere.
+     */
+    public boolean isSizeDifferent() {
+        return differentBoxes.contains(PageBox.MEDIA);
+    }
+
+    /**
+     * @return Rotación de la página en el primer archivo, en grados entre 0 y 359.
+     */
+    public int getRotation1() {
+        return rotation1;
+    }
+
+    /**
+     * @return Rotación de la página en el segundo archivo, en grados entre 0 y 359.
+     */
+    public int getRotation2() {
+        return rotation2;
+    }
+
+    /**
+     * @return true si la rotación difiere.
+     */
+    public boolean isRotationDifferent() {
+        return rotation1 != rotation2;
+    }
+
+    /**
+     * @return Unidad de usuario de la página en el primer archivo, en múltiplos de 1/72 de pulgada.
+     */
+    public float getUserUnit1() {
+        return userUnit1;
+    }
+
+    /**
+     * @return Unidad de usuario de la página en el segundo archivo, en múltiplos de 1/72 de pulgada.
+     */
+    public float getUserUnit2() {
+        return userUnit2;
+    }
+
+    /**
+     * @return true si la unidad de usuario difiere más que la tolerancia de la comparación.
+     */
+    public boolean isUserUnitDifferent() {
+        return userUnitDifferent;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("página ").append(pageNumber).append(':');
+        String separator = " ";
+        for (PageBox box : differentBoxes) {
+            Rectangle box1 = getBox1(box);
+            Rectangle box2 = getBox2(box);
+            sb.append(separator).append(box.getKey())
+                    .append(" Archivo 1: ").append(format(box1))
+                    .append(", Archivo 2: ").append(format(box2));
+            separator = "; ";
+        }
+        if (isRotationDifferent()) {
+            sb.append(separator).append("Rotate Archivo 1: ").append(rotation1)
+                    .append(", Archivo 2: ").append(rotation2);
+            separator = "; ";
+        }
+        if (userUnitDifferent) {
+            sb.append(separator).append("UserUnit Archivo 1: ").append(userUnit1)
+                    .append(", Archivo 2: ").append(userUnit2);
+        }
+        return sb.toString();
+    }
+
+    private static String format(Rectangle box) {
+        return box.getWidth() + "x" + box.getHeight() + " en (" + box.getLeft() + ", " + box.getBottom() + ")";
+    }
+}
@@ -0,0 +1,471 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.geom.LineSegment;
+import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.geom.Vector;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfCanvasProcessor;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Texto de una página como lista de fragmentos ordenados, sin construir la cadena completa. Los fragmentos
+ * se recogen y se ordenan como en el {@code LocationTextExtractionStrategy} de iText 7, incluidas las marcas
+ * diacríticas sin ancho, y los separadores (espacio entre palabras, salto de línea) se insertan al
+ * recorrerlos, de modo que los caracteres recorridos son exactamente los de
+ * {@code PdfTextExtractor.getTextFromPage}.
+ *
+ * <p>Así, la búsqueda de frases pasa los caracteres directamente al autómata (también a través de los
+ * límites entre fragmentos) y la comparación de dos páginas se detiene en el primer carácter distinto.</p>
+ */
+final class PageTextChunks {
+
+    private static final char NO_SEPARATOR = 0;
+
+    /**
+     * Orden de lectura de iText: orientación, distancia perpendicular (línea) y posición en la línea.
+     */
+    private static final Comparator<Chunk> READING_ORDER = (chunk1, chunk2) -> {
+        if (chunk1 == chunk2) {
+            return 0;
+        }
+        int result = Integer.compare(chunk1.orientationMagnitude, chunk2.orientationMagnitude);
+        if (result != 0) {
+            return result;
+        }
+        int distPerpendicularDiff = chunk1.distPerpendicular - chunk2.distPerpendicular;
+        if (distPerpendicularDiff != 0) {
+            return distPerpendicularDiff;
+        }
+        return Float.compare(chunk1.distParallelStart, chunk2.distParallelStart);
+    };
+
+    private List<Chunk> chunks = new ArrayList<>();
+    private final PointFilter filter;
+    private String text;
+    private boolean sorted;
+
+    private PageTextChunks(PointFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Crea un extractor de fragmentos para las páginas de un documento.
+     *
+     * @param pdfDoc Documento abierto.
+     * @return Un extractor que reutiliza el procesador de contenido, y con él las fuentes ya leídas, en todas
+     * las páginas del documento.
+     */
+    static Extractor extractor(PdfDocument pdfDoc) {
+        return new Extractor(pdfDoc);
+    }
+
+    /**
+     * Envuelve un texto ya extraído, por ejemplo el guardado en una caché.
+     *
+     * @param text Texto de la página.
+     * @return El texto como un único fragmento.
+     */
+    static PageTextChunks of(String text) {
+        PageTextChunks chunks = new PageTextChunks(null);
+        chunks.text = text;
+        return chunks;
+    }
+
+    private void renderText(TextRenderInfo renderInfo) {
+        LineSegment segment = renderInfo.getBaseline();
+        if (renderInfo.getRise() != 0) {
+            // Igual que iText: el texto elevado o rebajado se considera parte de la línea base.
+            segment = segment.transformBy(new Matrix(0, -renderInfo.getRise()));
+        }
+        Vector start = segment.getStartPoint();
+        Vector end = segment.getEndPoint();
+        if (filter != null && !filter.accept((start.get(Vector.I1) + end.get(Vector.I1)) / 2,
+                (start.get(Vector.I2) + end.get(Vector.I2)) / 2)) {
+            return;
+        }
+        chunks.add(new Chunk(renderInfo.getText(), start, end, renderInfo.getSingleSpaceWidth()));
+    }
+
+    /**
+     * Ordena los trozos como {@code LocationTextExtractionStrategy.sortWithMarks}: las marcas sin ancho
+     * (acentos dibujados aparte) se sacan del orden y se vuelven a colocar junto al trozo que las contiene,
+     * antes o después según su posición original en el flujo de contenido.
+     */
+    private PageTextChunks sort() {
+        Map<Chunk, Marks> marksByBase = new IdentityHashMap<>();
+        List<Chunk> unmarked = new ArrayList<>(chunks.size());
+        for (int markIndex = 0; markIndex < chunks.size(); markIndex++) {
+            Chunk mark = chunks.get(markIndex);
+            boolean attached = false;
+            if (mark.isZeroLength()) {
+                for (int baseIndex = 0; baseIndex < chunks.size(); baseIndex++) {
+                    Chunk base = chunks.get(baseIndex);
+                    if (baseIndex != markIndex && !base.isZeroLength() && base.containsMark(mark)) {
+                        Marks marks = marksByBase.get(base);
+                        if (marks == null) {
+                            marks = new Marks();
+                            marksByBase.put(base, marks);
+                        }
+                        (markIndex < baseIndex ? marks.preceding : marks.succeeding).add(mark);
+                        attached = true;
+                        break;
+                    }
+                }
+            }
+            if (!attached) {
+                unmarked.add(mark);
+            }
+        }
+        Collections.sort(unmarked, READING_ORDER);
+        if (marksByBase.isEmpty()) {
+            chunks = unmarked;
+        } else {
+            chunks.clear();
+            for (Chunk chunk : unmarked) {
+                Marks marks = marksByBase.get(chunk);
+                if (marks != null) {
+                    chunks.addAll(marks.preceding);
+                }
+                chunks.add(chunk);
+                if (marks != null) {
+                    chunks.addAll(marks.succeeding);
+                }
+            }
+        }
+        sorted = true;
+        return this;
+    }
+
+    /**
+     * Pasa el texto de la página al autómata, sin llamar a {@link PhraseMatcher.Session#beginSegment()}, y se
+     * detiene en cuanto la sesión ha encontrado todas las frases.
+     *
+     * @param session Sesión de búsqueda.
+     */
+    void feed(PhraseMatcher.Session session) {
+        if (text != null) {
+            session.feed(text);
+            return;
+        }
+        for (int i = 0; i < chunks.size() && !session.isComplete(); i++) {
+            char separator = separator(i);
+            if (separator != NO_SEPARATOR) {
+                session.feed(separator);
+            }
+            session.feed(chunks.get(i).text);
+        }
+    }
+
+    /**
+     * Compara carácter a carácter el texto de dos páginas y se detiene en la primera diferencia.
+     *
+     * @param other Texto de la otra página.
+     * @return true si los dos textos son iguales.
+     */
+    boolean contentEquals(PageTextChunks other) {
+        if (text != null && other.text != null) {
+            return text.equals(other.text);
+        }
+        Cursor cursor1 = new Cursor(this);
+        Cursor cursor2 = new Cursor(other);
+        int c;
+        do {
+            c = cursor1.next();
+            if (c != cursor2.next()) {
+                return false;
+            }
+        } while (c >= 0);
+        return true;
+    }
+
+    /**
+     * @return El texto completo de la página, igual al de {@code PdfTextExtractor.getTextFromPage}.
+     */
+    String getResultantText() {
+        if (text == null) {
+            if (!sorted) {
+                sort();
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < chunks.size(); i++) {
+                char separator = separator(i);
+                if (separator != NO_SEPARATOR) {
+                    sb.append(separator);
+                }
+                sb.append(chunks.get(i).text);
+            }
+            text = sb.toString();
+        }
+        return text;
+    }
+
+    /**
+     * Agrupa los trozos en fragmentos con posición: cada separador (espacio o salto de línea) termina un
+     * fragmento. Los espacios de los extremos se quitan y los fragmentos vacíos se descartan.
+     *
+     * @return Los fragmentos de la página en orden de lectura, o una lista vacía si la página solo tiene el
+     * texto y no los trozos.
+     */
+    List<LayoutGrid.Run> runs() {
+        List<LayoutGrid.Run> runs = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        Vector start = null;
+        for (int i = 0; i < chunks.size(); i++) {
+            if (separator(i) != NO_SEPARATOR) {
+                addRun(runs, sb, start);
+                sb.setLength(0);
+                start = null;
+            }
+            Chunk chunk = chunks.get(i);
+            if (start == null) {
+                start = chunk.start;
+            }
+            sb.append(chunk.text);
+        }
+        addRun(runs, sb, start);
+        return runs;
+    }
+
+    private static void addRun(List<LayoutGrid.Run> runs, StringBuilder sb, Vector start) {
+        String runText = sb.toString().trim();
+        if (!runText.isEmpty()) {
+            runs.add(new LayoutGrid.Run(runText, start.get(Vector.I1), start.get(Vector.I2)));
+        }
+    }
+
+    /**
+     * Separador que precede al fragmento {@code i}, con las mismas reglas que iText: salto de línea si cambia
+     * de línea, y espacio si hay hueco entre palabras y ninguno de los dos fragmentos lo tiene ya.
+     */
+    private char separator(int i) {
+        if (i == 0) {
+            return NO_SEPARATOR;
+        }
+        Chunk chunk = chunks.get(i);
+        Chunk previous = chunks.get(i - 1);
+        if (!chunk.sameLine(previous)) {
+            return '\n';
+        }
+        if (chunk.isAtWordBoundary(previous) && !startsWithSpace(chunk.text) && !endsWithSpace(previous.text)) {
+            return ' ';
+        }
+        return NO_SEPARATOR;
+    }
+
+    private static boolean startsWithSpace(String s) {
+        return !s.isEmpty() && s.charAt(0) == ' ';
+    }
+
+    private static boolean endsWithSpace(String s) {
+        return !s.isEmpty() && s.charAt(s.length() - 1) == ' ';
+    }
+
+    /**
+     * Filtro de los trozos de texto por su posición en la página.
+     */
+    interface PointFilter {
+
+        /**
+         * @param x Coordenada x.
+         * @param y Coordenada y.
+         * @return true si el trozo se conserva.
+         */
+        boolean accept(float x, float y);
+    }
+
+    /**
+     * Extractor de fragmentos de las páginas de un documento. {@code PdfTextExtractor} crea un procesador de
+     * contenido por página, que vuelve a cargar las fuentes de cada página; este extractor usa el mismo
+     * procesador en todas las páginas, y lo reinicia entre una y otra. No es seguro entre hilos.
+     */
+    static final class Extractor implements IEventListener {
+
+        private final PdfDocument pdfDoc;
+        private final PdfCanvasProcessor processor;
+        private PageTextChunks target;
+
+        private Extractor(PdfDocument pdfDoc) {
+            this.pdfDoc = pdfDoc;
+            this.processor = new PdfCanvasProcessor(this);
+        }
+
+        /**
+         * Extrae los fragmentos de texto de una página.
+         *
+         * @param pageNumber Número de página, empezando en 1.
+         * @return Los fragmentos de la página, ordenados.
+         */
+        PageTextChunks extract(int pageNumber) {
+            return extract(pageNumber, null);
+        }
+
+        /**
+         * Extrae los fragmentos de texto de una página que acepta un filtro. Los rechazados no se guardan ni
+         * se ordenan.
+         *
+         * @param pageNumber Número de página, empezando en 1.
+         * @param filter     Filtro aplicado al punto medio de la línea base de cada trozo, o null para
+         *                   aceptarlos todos.
+         * @return Los fragmentos de la página, ordenados.
+         */
+        PageTextChunks extract(int pageNumber, PointFilter filter) {
+            long start = Metrics.start();
+            PageTextChunks chunks = new PageTextChunks(filter);
+            target = chunks;
+            try {
+                processor.reset();
+                processor.processPageContent(pdfDoc.getPage(pageNumber));
+            } finally {
+                target = null;
+            }
+            chunks.sort();
+            Metrics.end(ComparisonMetrics.Phase.EXTRACT, start);
+            Metrics.pages(1);
+            return chunks;
+        }
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            if (type == EventType.RENDER_TEXT) {
+                target.renderText((TextRenderInfo) data);
+            }
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            // Sin los demás eventos el procesador no construye la información de trazados ni imágenes.
+            return Collections.singleton(EventType.RENDER_TEXT);
+        }
+    }
+
+    /**
+     * Trozo de texto con su posición, con los mismos cálculos que {@code TextChunkLocationDefaultImp} de
+     * iText 7: la orientación de la línea base, la distancia perpendicular (que identifica la línea) y las
+     * distancias paralelas de los extremos.
+     */
+    private static final class Chunk {
+
+        /**
+         * Desviación vertical permitida entre una marca diacrítica y el trozo que la contiene.
+         */
+        private static final float MARK_DEVIATION = 2;
+
+        private final String text;
+        private final Vector start;
+        private final Vector end;
+        private final int orientationMagnitude;
+        private final int distPerpendicular;
+        private final float distParallelStart;
+        private final float distParallelEnd;
+        private final float charSpaceWidth;
+
+        private Chunk(String text, Vector start, Vector end, float charSpaceWidth) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.charSpaceWidth = charSpaceWidth;
+            Vector orientation = end.subtract(start);
+            if (orientation.length() == 0) {
+                orientation = new Vector(1, 0, 0);
+            }
+            orientation = orientation.normalize();
+            this.orientationMagnitude = (int) (Math.atan2(orientation.get(Vector.I2), orientation.get(Vector.I1)) * 1000);
+            this.distPerpendicular = (int) start.subtract(new Vector(0, 0, 1)).cross(orientation).get(Vector.I3);
+            this.distParallelStart = orientation.dot(start);
+            this.distParallelEnd = orientation.dot(end);
+        }
+
+        private boolean isZeroLength() {
+            return start.equals(end);
+        }
+
+        private boolean sameLine(Chunk other) {
+            if (orientationMagnitude != other.orientationMagnitude) {
+                return false;
+            }
+            int distPerpendicularDiff = distPerpendicular - other.distPerpendicular;
+            if (distPerpendicularDiff == 0) {
+                return true;
+            }
+            return Math.abs(distPerpendicularDiff) <= MARK_DEVIATION
+                    && (end.subtract(start).length() == 0 || other.end.subtract(other.start).length() == 0);
+        }
+
+        private boolean isAtWordBoundary(Chunk previous) {
+            if (isZeroLength() || previous.isZeroLength()) {
+                return false;
+            }
+            float distance = distParallelStart - previous.distParallelEnd;
+            if (distance < 0) {
+                distance = previous.distParallelStart - distParallelEnd;
+                if (distance < 0) {
+                    return false;
+                }
+            }
+            return distance > charSpaceWidth / 2;
+        }
+
+        private boolean containsMark(Chunk mark) {
+            return start.get(Vector.I1) <= mark.start.get(Vector.I1)
+                    && end.get(Vector.I1) >= mark.end.get(Vector.I1)
+                    && Math.abs(distPerpendicular - mark.distPerpendicular) <= MARK_DEVIATION;
+        }
+    }
+
+    /**
+     * Marcas sin ancho de un trozo, según aparecían antes o después de él en el flujo de contenido.
+     */
+    private static final class Marks {
+
+        private final List<Chunk> preceding = new ArrayList<>();
+        private final List<Chunk> succeeding = new ArrayList<>();
+    }
+
+    /**
+     * Recorrido carácter a carácter del texto, incluidos los separadores.
+     */
+    private static final class Cursor {
+
+        private final PageTextChunks page;
+        private int chunk;
+        private String current;
+        private int position;
+
+        private Cursor(PageTextChunks page) {
+            this.page = page;
+            // Si el texto ya está construido se recorre directamente, sin pasar por los fragmentos.
+            this.current = page.text != null ? page.text : "";
+            this.chunk = page.text != null ? page.chunks.size() : -1;
+        }
+
+        /**
+         * @return El siguiente carácter, o -1 al final del texto.
+         */
+        private int next() {
+            while (position >= current.length()) {
+                if (chunk + 1 >= page.chunks.size()) {
+                    return -1;
+                }
+                chunk++;
+                current = page.chunks.get(chunk).text;
+                position = 0;
+                char separator = page.separator(chunk);
+                if (separator != NO_SEPARATOR) {
+                    return separator;
+                }
+            }
+            return current.charAt(position++);
+        }
+    }
+}
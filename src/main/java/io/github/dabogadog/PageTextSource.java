@@ -0,0 +1,70 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+
+import java.io.IOException;
+
+/**
+ * Fuente del texto de las páginas de un documento PDF, extraído directamente, en paralelo o desde la caché.
+ */
+interface PageTextSource {
+
+    /**
+     * @return Número de páginas del documento.
+     */
+    int getNumberOfPages();
+
+    /**
+     * Extrae el texto de una página.
+     *
+     * @param pageNumber Número de página, empezando en 1.
+     * @return El texto de la página.
+     * @throws IOException Si ocurre un error al leer la página.
+     */
+    String getPageText(int pageNumber) throws IOException;
+
+    /**
+     * Extrae el texto de una página como fragmentos que se recorren sin construir la cadena completa. Por
+     * defecto envuelve el resultado de {@link #getPageText(int)}.
+     *
+     * @param pageNumber Número de página, empezando en 1.
+     * @return El texto de la página.
+     * @throws IOException Si ocurre un error al leer la página.
+     */
+    default PageTextChunks getPageChunks(int pageNumber) throws IOException {
+        return PageTextChunks.of(getPageText(pageNumber));
+    }
+
+    /**
+     * Crea una fuente sobre un documento de iText 7. En el modo de bajo consumo de memoria de
+     * {@link PdfReaders}, cada página se libera después de extraerla.
+     *
+     * @param pdfDoc Documento abierto; quien lo abrió es responsable de cerrarlo.
+     * @return La fuente de texto.
+     */
+    static PageTextSource forDocument(final PdfDocument pdfDoc) {
+        return new PageTextSource() {
+            private PageTextChunks.Extractor extractor;
+
+            @Override
+            public int getNumberOfPages() {
+                return pdfDoc.getNumberOfPages();
+            }
+
+            @Override
+            public String getPageText(int pageNumber) {
+                return getPageChunks(pageNumber).getResultantText();
+            }
+
+            @Override
+            public PageTextChunks getPageChunks(int pageNumber) {
+                if (extractor == null) {
+                    extractor = PageTextChunks.extractor(pdfDoc);
+                }
+                PageTextChunks chunks = extractor.extract(pageNumber);
+                PdfReaders.releasePage(pdfDoc, pageNumber);
+                return chunks;
+            }
+        };
+    }
+}
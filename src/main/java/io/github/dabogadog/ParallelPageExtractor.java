@@ -0,0 +1,262 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Esta clase extrae el texto de las páginas de un archivo PDF en paralelo, repartiendo rangos de páginas
+ * entre los hilos de un {@link Executor}. Cada rango abre su propio documento, porque el {@code PdfDocument}
+ * de iText no es seguro entre hilos. Los resultados siempre se devuelven en orden de página.
+ */
+public final class ParallelPageExtractor {
+
+    /**
+     * Número de rangos por hilo cuando no se indica un tamaño de rango fijo. Algunos rangos más que hilos
+     * reparten mejor las páginas de distinto coste sin multiplicar la apertura de lectores.
+     */
+    private static final int RANGES_PER_THREAD = 2;
+
+    private final Executor executor;
+    private final int parallelism;
+    private final int pagesPerTask;
+
+    /**
+     * Crea un extractor que usa el {@link ForkJoinPool#commonPool()} y calcula el tamaño de los rangos
+     * automáticamente.
+     */
+    public ParallelPageExtractor() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea un extractor sobre un {@link ForkJoinPool} propio, con el tamaño de rango automático.
+     *
+     * @param pool Pool donde se ejecutan las extracciones.
+     */
+    public ParallelPageExtractor(ForkJoinPool pool) {
+        this(pool, pool.getParallelism(), 0);
+    }
+
+    /**
+     * Crea un extractor sobre un ejecutor cualquiera.
+     *
+     * @param executor     Ejecutor donde se ejecutan las extracciones.
+     * @param parallelism  Número de hilos del ejecutor, usado para calcular el tamaño de los rangos.
+     * @param pagesPerTask Páginas por rango, o 0 para calcularlo a partir del paralelismo.
+     */
+    public ParallelPageExtractor(Executor executor, int parallelism, int pagesPerTask) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("El paralelismo debe ser al menos 1: " + parallelism);
+        }
+        if (pagesPerTask < 0) {
+            throw new IllegalArgumentException("El número de páginas por rango no puede ser negativo: " + pagesPerTask);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.pagesPerTask = pagesPerTask;
+    }
+
+    /**
+     * Extrae el texto de todas las páginas de un PDF y espera a que termine.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @return El texto de cada página, en orden de página.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    public List<String> extractPages(String filePath) throws IOException {
+        return await(extractPagesAsync(filePath));
+    }
+
+    /**
+     * Extrae el texto de todas las páginas de un PDF protegido con contraseña y espera a que termine.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @param password Contraseña del archivo PDF.
+     * @return El texto de cada página, en orden de página.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    public List<String> extractPages(String filePath, String password) throws IOException {
+        return await(extractPagesAsync(filePath, password));
+    }
+
+    /**
+     * Extrae el texto de todas las páginas de un PDF de forma asíncrona.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @return Un futuro con el texto de cada página, en orden de página.
+     */
+    public CompletableFuture<List<String>> extractPagesAsync(String filePath) {
+        return extractPagesAsync(filePath, null);
+    }
+
+    /**
+     * Extrae el texto de todas las páginas de un PDF protegido con contraseña de forma asíncrona.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @param password Contraseña del archivo PDF, o null si no está protegido.
+     * @return Un futuro con el texto de cada página, en orden de página.
+     */
+    public CompletableFuture<List<String>> extractPagesAsync(final String filePath, final String password) {
+        CompletableFuture<Extraction> started = CompletableFuture.supplyAsync(() -> {
+            try {
+                return start(filePath, password);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+        return started.thenCompose(extraction -> {
+            CompletableFuture<?>[] ranges = extraction.ranges.toArray(new CompletableFuture<?>[0]);
+            return CompletableFuture.allOf(ranges).thenApply(ignored -> extraction.texts());
+        });
+    }
+
+    /**
+     * Empieza a extraer las páginas de un PDF y devuelve una fuente cuyas páginas quedan disponibles a
+     * medida que se extraen, sin esperar al resto de su rango. Permite recorrer las páginas en orden mientras
+     * el resto se extrae, y abandonar la extracción en cuanto se encuentra una diferencia.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @param password Contraseña del archivo PDF, o null si no está protegido.
+     * @return La extracción en curso.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    Extraction start(String filePath, String password) throws IOException {
+        int numPages = PdfReaders.countPages(filePath, password);
+        int rangeSize = pagesPerTask > 0
+                ? pagesPerTask
+                : Math.max(1, (numPages + parallelism * RANGES_PER_THREAD - 1) / (parallelism * RANGES_PER_THREAD));
+        Extraction extraction = new Extraction(numPages);
+        for (int first = 1; first <= numPages; first += rangeSize) {
+            final int from = first;
+            final int to = Math.min(numPages, first + rangeSize - 1);
+            CompletableFuture<Void> range = CompletableFuture.runAsync(() -> {
+                try {
+                    extractRange(filePath, password, from, to, extraction);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+            range.whenComplete((ignored, error) -> extraction.abandon(from, to, error));
+            extraction.ranges.add(range);
+        }
+        return extraction;
+    }
+
+    private static void extractRange(String filePath, String password, int from, int to, Extraction extraction)
+            throws IOException {
+        if (extraction.cancelled.get()) {
+            return;
+        }
+        PdfDocument pdfDoc = PdfReaders.open(filePath, password);
+        try {
+            PageTextSource source = PageTextSource.forDocument(pdfDoc);
+            for (int i = from; i <= to && !extraction.cancelled.get(); i++) {
+                extraction.pages.get(i - 1).complete(source.getPageText(i));
+            }
+        } finally {
+            pdfDoc.close();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("La extracción de páginas fue interrumpida", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static IOException unwrap(Throwable cause) {
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new IOException(cause);
+    }
+
+    /**
+     * Extracción en curso. Cada página se publica en su futuro en cuanto se extrae; las páginas que un rango
+     * no llega a extraer, por un error o porque la extracción se cerró, se completan con ese error o con una
+     * cancelación cuando termina el rango.
+     */
+    static final class Extraction implements PageTextSource, AutoCloseable {
+
+        private final int numPages;
+        private final List<CompletableFuture<String>> pages;
+        private final List<CompletableFuture<Void>> ranges = new ArrayList<>();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private Extraction(int numPages) {
+            this.numPages = numPages;
+            this.pages = new ArrayList<>(numPages);
+            for (int i = 0; i < numPages; i++) {
+                pages.add(new CompletableFuture<>());
+            }
+        }
+
+        private void abandon(int from, int to, Throwable error) {
+            Throwable cause = error != null ? error
+                    : new CancellationException("La extracción de páginas fue cancelada");
+            for (int i = from; i <= to; i++) {
+                pages.get(i - 1).completeExceptionally(cause);
+            }
+        }
+
+        /**
+         * @return El texto de todas las páginas; solo se llama cuando han terminado todos los rangos.
+         */
+        private List<String> texts() {
+            List<String> texts = new ArrayList<>(numPages);
+            for (CompletableFuture<String> page : pages) {
+                texts.add(page.join());
+            }
+            return texts;
+        }
+
+        @Override
+        public int getNumberOfPages() {
+            return numPages;
+        }
+
+        @Override
+        public String getPageText(int pageNumber) throws IOException {
+            try {
+                return pages.get(pageNumber - 1).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("La extracción de páginas fue interrumpida", e);
+            } catch (CancellationException e) {
+                throw new IOException("La extracción de páginas fue cancelada", e);
+            } catch (ExecutionException e) {
+                throw unwrap(e.getCause());
+            }
+        }
+
+        /**
+         * Detiene la extracción: los rangos en curso terminan en la siguiente página y los que aún no han
+         * empezado no abren el archivo.
+         */
+        @Override
+        public void close() {
+            cancelled.set(true);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.pdf.ReaderProperties;
+
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+
+/**
+ * Credenciales para abrir un archivo PDF protegido: una contraseña (de usuario o de propietario) o, para los
+ * archivos cifrados con clave pública, el certificado del destinatario y su clave privada.
+ *
+ * <p>Los comparadores aceptan unas credenciales para cada archivo; null indica que el archivo no está
+ * protegido.</p>
+ */
+public final class PdfCredentials {
+
+    private final String password;
+    private final Certificate certificate;
+    private final PrivateKey privateKey;
+    private final String provider;
+
+    private PdfCredentials(String password, Certificate certificate, PrivateKey privateKey, String provider) {
+        this.password = password;
+        this.certificate = certificate;
+        this.privateKey = privateKey;
+        this.provider = provider;
+    }
+
+    /**
+     * @param password Contraseña de usuario o de propietario del archivo.
+     * @return Las credenciales de un archivo protegido con contraseña.
+     */
+    public static PdfCredentials password(String password) {
+        if (password == null) {
+            throw new IllegalArgumentException("La contraseña no puede ser null");
+        }
+        return new PdfCredentials(password, null, null, null);
+    }
+
+    /**
+     * @param certificate Certificado del destinatario.
+     * @param privateKey  Clave privada del certificado.
+     * @return Las credenciales de un archivo cifrado con clave pública.
+     */
+    public static PdfCredentials certificate(Certificate certificate, PrivateKey privateKey) {
+        return certificate(certificate, privateKey, null);
+    }
+
+    /**
+     * @param certificate Certificado del destinatario.
+     * @param privateKey  Clave privada del certificado.
+     * @param provider    Nombre del proveedor de seguridad de la clave privada, por ejemplo el de un módulo de
+     *                    hardware, o null para el que ofrece el algoritmo de la clave.
+     * @return Las credenciales de un archivo cifrado con clave pública.
+     */
+    public static PdfCredentials certificate(Certificate certificate, PrivateKey privateKey, String provider) {
+        if (certificate == null || privateKey == null) {
+            throw new IllegalArgumentException("El certificado y la clave privada no pueden ser null");
+        }
+        return new PdfCredentials(null, certificate, privateKey, provider);
+    }
+
+    /**
+     * Convierte una contraseña opcional en credenciales.
+     *
+     * @param password Contraseña, o null si el archivo no está protegido.
+     * @return Las credenciales, o null si la contraseña es null.
+     */
+    static PdfCredentials ofPassword(String password) {
+        return password == null ? null : password(password);
+    }
+
+    /**
+     * @return La contraseña, o null si son credenciales de certificado.
+     */
+    String getPassword() {
+        return password;
+    }
+
+    Certificate getCertificate() {
+        return certificate;
+    }
+
+    PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    /**
+     * Configura las propiedades de lectura de iText con estas credenciales.
+     */
+    void apply(ReaderProperties properties) {
+        if (password != null) {
+            properties.setPassword(password.getBytes());
+        } else {
+            properties.setPublicKeySecurityParams(certificate, privateKey,
+                    provider != null ? provider : defaultProvider(privateKey), null);
+        }
+    }
+
+    /**
+     * iText descifra la clave del documento con BouncyCastle, que necesita el nombre de un proveedor
+     * registrado: por defecto, el que ofrece el algoritmo de la clave privada.
+     */
+    private static String defaultProvider(PrivateKey privateKey) {
+        try {
+            return Cipher.getInstance(privateKey.getAlgorithm()).getProvider().getName();
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calcula un resumen de la parte secreta de las credenciales, para que la {@link DecryptionKeyCache} solo
+     * devuelva una clave a quien podría calcularla.
+     *
+     * @return El resumen SHA-256, o null si la clave privada no se puede exportar (por ejemplo, la de un
+     * módulo de hardware) y las claves de sus documentos no se pueden guardar.
+     */
+    byte[] secretDigest() {
+        byte[] secret;
+        if (password != null) {
+            secret = password.getBytes();
+        } else {
+            secret = privateKey.getEncoded();
+            if (secret == null) {
+                return null;
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(password != null ? (byte) 'P' : (byte) 'K');
+            return digest.digest(secret);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return password != null ? "PdfCredentials[contraseña]" : "PdfCredentials[certificado]";
+    }
+}
@@ -0,0 +1,711 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfString;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Esta clase representa un archivo PDF abierto una sola vez y compartido entre comparadores. El texto, la
+ * geometría y las anotaciones de cada página, los metadatos y los marcadores se calculan la primera vez que se
+ * piden y se reutilizan después.
+ *
+ * <p>En el modo de bajo consumo de memoria de {@link PdfReaders} el texto de las páginas no se guarda: se
+ * vuelve a extraer cada vez que se pide y la página se libera después.</p>
+ *
+ * <p>Si hay una {@link ExtractionCache} configurada, el texto y el tamaño de las páginas, los metadatos y los
+ * marcadores se buscan primero en ella, salvo en los documentos protegidos.</p>
+ *
+ * <p>Los métodos están sincronizados, porque el {@code PdfDocument} de iText no es seguro entre hilos. Los
+ * objetos de iText que devuelven {@link #getOutlines()} y {@link #getAnnotations(int)} son los del documento:
+ * para recorrerlos mientras otros hilos usan el mismo documento, hay que hacerlo con su monitor
+ * ({@code synchronized (handle)}).</p>
+ */
+public class PdfDocumentHandle implements PageTextSource, Closeable {
+
+    private static final Logger logger = Logger.getLogger(PdfDocumentHandle.class.getName());
+
+    private static final AtomicLong LOCK_ORDER = new AtomicLong();
+
+    private final String filePath;
+    private final PdfDocument pdfDoc;
+    private final int numberOfPages;
+    private final boolean lowMemory;
+    private final boolean cacheable;
+    /**
+     * Orden en que se adquiere el monitor de este documento junto con el de otro en {@link #withLocks}.
+     */
+    private final long lockOrder = LOCK_ORDER.incrementAndGet();
+    /**
+     * true si la lectura de páginas se detiene cuando se interrumpe el hilo. Lo activa el
+     * {@link DocumentHandlePool} del {@link ComparisonService}, que interrumpe los trabajos que superan su tiempo.
+     */
+    private volatile boolean interruptible;
+
+    private final String[] pageTexts;
+    private final Rectangle[] pageSizes;
+    private final PdfArray[] annotations;
+    private final boolean[] annotationsLoaded;
+    private Map<String, String> info;
+    private Map<String, String> xmpMetadata;
+    private List<HashMap<String, Object>> bookmarks;
+    private PdfDictionary outlines;
+    private boolean outlinesLoaded;
+    private Map<Integer, Integer> pageNumbersByObject;
+    private Map<String, PdfObject> namedDestinations;
+    private byte[] fileDigest;
+    private String fingerprint;
+    private ContentDigests contentDigests;
+    private ResourceDigests resourceDigests;
+    private PageGeometry pageGeometry;
+    private PageTextChunks.Extractor extractor;
+
+    private PdfDocumentHandle(String filePath, PdfDocument pdfDoc, boolean lowMemory, boolean cacheable) {
+        this.filePath = filePath;
+        this.pdfDoc = pdfDoc;
+        this.lowMemory = lowMemory;
+        this.cacheable = cacheable;
+        this.numberOfPages = pdfDoc.getNumberOfPages();
+        this.pageTexts = new String[numberOfPages];
+        this.pageSizes = new Rectangle[numberOfPages];
+        this.annotations = new PdfArray[numberOfPages];
+        this.annotationsLoaded = new boolean[numberOfPages];
+    }
+
+    /**
+     * Abre un archivo PDF.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @return El documento abierto.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    public static PdfDocumentHandle open(String filePath) throws IOException {
+        return open(filePath, (PdfCredentials) null);
+    }
+
+    /**
+     * Abre un archivo PDF protegido con contraseña. Todos los comparadores que reciben documentos abiertos
+     * aceptan el resultado. Su contenido no se guarda en la {@link ExtractionCache}.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @param password Contraseña del archivo PDF, o null si no está protegido.
+     * @return El documento abierto.
+     * @throws IOException Si ocurre un error leyendo el PDF o la contraseña no es válida.
+     */
+    public static PdfDocumentHandle open(String filePath, String password) throws IOException {
+        return open(filePath, PdfCredentials.ofPassword(password));
+    }
+
+    /**
+     * Abre un archivo PDF protegido con contraseña o cifrado con clave pública. Su contenido no se guarda en
+     * la {@link ExtractionCache}.
+     *
+     * @param filePath    Ruta al archivo PDF.
+     * @param credentials Credenciales del archivo PDF, o null si no está protegido.
+     * @return El documento abierto.
+     * @throws IOException Si ocurre un error leyendo el PDF o las credenciales no son válidas.
+     */
+    public static PdfDocumentHandle open(String filePath, PdfCredentials credentials) throws IOException {
+        PdfDocument pdfDoc = PdfReaders.open(filePath, credentials);
+        return new PdfDocumentHandle(filePath, pdfDoc, PdfReaders.isLowMemory(pdfDoc), credentials == null);
+    }
+
+    /**
+     * Hace que la lectura de páginas lance {@link InterruptedIOException} si el hilo está interrumpido, para
+     * que un trabajo cancelado termine en la página siguiente.
+     */
+    void setInterruptible(boolean interruptible) {
+        this.interruptible = interruptible;
+    }
+
+    /**
+     * @return true si la lectura de páginas se detiene con las interrupciones y el hilo actual está interrumpido.
+     */
+    boolean isCancelled() {
+        return interruptible && Thread.currentThread().isInterrupted();
+    }
+
+    private void checkCancelled(int pageNumber) throws InterruptedIOException {
+        if (isCancelled()) {
+            throw new InterruptedIOException("Lectura cancelada en la página " + pageNumber + " de " + filePath);
+        }
+    }
+
+    /**
+     * Ejecuta una tarea con los monitores de dos documentos, para recorrer sus objetos de iText sin que otro
+     * hilo use los mismos documentos a la vez. Los monitores se adquieren siempre en el mismo orden, así que
+     * dos tareas con los mismos documentos en orden inverso no se bloquean entre sí.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento; puede ser el mismo que el primero.
+     * @param task    Tarea que recorre los documentos.
+     * @return El resultado de la tarea.
+     */
+    static <T> T withLocks(PdfDocumentHandle handle1, PdfDocumentHandle handle2, Supplier<T> task) {
+        PdfDocumentHandle first = handle1.lockOrder <= handle2.lockOrder ? handle1 : handle2;
+        PdfDocumentHandle second = first == handle1 ? handle2 : handle1;
+        synchronized (first) {
+            synchronized (second) {
+                return task.get();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta todas las comparaciones (texto, metadatos, propiedades de página, recursos, marcadores y
+     * enlaces) sobre dos archivos abiertos una sola vez.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return true si todas las comparaciones son iguales, false si alguna es diferente o si ocurre un error.
+     */
+    public static boolean compareAll(String filePath1, String filePath2) {
+        return compareAll(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Ejecuta todas las comparaciones sobre dos archivos, protegidos o no, abiertos una sola vez.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return true si todas las comparaciones son iguales, false si alguna es diferente o si ocurre un error.
+     */
+    public static boolean compareAll(String filePath1, PdfCredentials credentials1,
+                                     String filePath2, PdfCredentials credentials2) {
+        try (PdfDocumentHandle handle1 = open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = open(filePath2, credentials2)) {
+            return compareAll(handle1, handle2);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Ocurrió un error abriendo los archivos PDF:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Ejecuta todas las comparaciones sobre dos documentos ya abiertos. Se ejecutan todas aunque alguna
+     * falle, para que el registro muestre todas las diferencias.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return true si todas las comparaciones son iguales.
+     */
+    public static boolean compareAll(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        return compareAll(handle1, handle2, ComparisonMode.EXHAUSTIVE);
+    }
+
+    /**
+     * Ejecuta las comparaciones sobre dos documentos ya abiertos, deteniéndose según el modo: las
+     * comparaciones de texto, de propiedades de página y de recursos se detienen en su página, y cada
+     * comparación que falla cuenta como una diferencia para decidir si se ejecutan las siguientes. Con
+     * {@link ComparisonMode#FAIL_FAST} no se ejecuta ninguna comparación después de la primera que falla.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @param mode    Cuántas diferencias buscar antes de detenerse.
+     * @return true si todas las comparaciones son iguales.
+     */
+    public static boolean compareAll(PdfDocumentHandle handle1, PdfDocumentHandle handle2, ComparisonMode mode) {
+        return compareStructure(handle1, handle2, mode, PDFComparator.comparePDFs(handle1, handle2, mode));
+    }
+
+    /**
+     * Ejecuta las comparaciones que siguen a la de texto (metadatos, propiedades de página, recursos,
+     * marcadores y enlaces), deteniéndose según el modo como {@link #compareAll(PdfDocumentHandle, PdfDocumentHandle,
+     * ComparisonMode)}. Si el trabajo se cancela (ver {@link #setInterruptible(boolean)}), no empieza más
+     * comparaciones y devuelve false.
+     *
+     * @param textEqual Resultado de la comparación de texto, ya ejecutada.
+     * @return true si todas las comparaciones, incluida la de texto, son iguales.
+     */
+    static boolean compareStructure(PdfDocumentHandle handle1, PdfDocumentHandle handle2, ComparisonMode mode,
+                                    boolean textEqual) {
+        int failed = textEqual ? 0 : 1;
+        if (!mode.isDone(failed) && !handle1.isCancelled()
+                && !MetadataComparator.compareMetadata(handle1, handle2)) {
+            failed++;
+        }
+        if (!mode.isDone(failed) && !handle1.isCancelled()
+                && !PagePropertiesComparator.comparePageProperties(handle1, handle2, mode)) {
+            failed++;
+        }
+        if (!mode.isDone(failed) && !handle1.isCancelled()
+                && !ResourceComparator.compareResources(handle1, handle2, mode)) {
+            failed++;
+        }
+        if (!mode.isDone(failed) && !handle1.isCancelled()
+                && !BookmarksAndLinksComparator.compareBookmarksAndLinks(handle1, handle2)) {
+            failed++;
+        }
+        return failed == 0 && !handle1.isCancelled();
+    }
+
+    /**
+     * @return Ruta del archivo abierto.
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    @Override
+    public int getNumberOfPages() {
+        return numberOfPages;
+    }
+
+    @Override
+    public synchronized String getPageText(int pageNumber) throws IOException {
+        checkCancelled(pageNumber);
+        String text = pageTexts[pageNumber - 1];
+        if (text == null) {
+            ExtractionCache cache = cache();
+            String key = cache != null ? ExtractionCache.pageKey(getFingerprint(), "text", pageNumber) : null;
+            text = cache != null ? (String) cache.get(key) : null;
+            if (text == null) {
+                text = getPageChunks(pageNumber, null).getResultantText();
+                if (cache != null) {
+                    cache.put(key, text);
+                }
+            }
+            if (!lowMemory) {
+                pageTexts[pageNumber - 1] = text;
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Si el texto de la página ya está guardado, o hay una caché configurada, lo devuelve como en
+     * {@link #getPageText(int)}. Si no, extrae los fragmentos de la página y guarda su texto para las llamadas
+     * siguientes; en el modo de bajo consumo de memoria no lo construye ni lo guarda.
+     */
+    @Override
+    public synchronized PageTextChunks getPageChunks(int pageNumber) throws IOException {
+        checkCancelled(pageNumber);
+        if (pageTexts[pageNumber - 1] != null || cache() != null) {
+            return PageTextChunks.of(getPageText(pageNumber));
+        }
+        PageTextChunks chunks = getPageChunks(pageNumber, null);
+        if (!lowMemory) {
+            pageTexts[pageNumber - 1] = chunks.getResultantText();
+        }
+        return chunks;
+    }
+
+    /**
+     * Extrae los fragmentos de una página que acepta un filtro de posición. El resultado no se guarda.
+     *
+     * @param pageNumber Número de página, empezando en 1.
+     * @param filter     Filtro aplicado al punto medio de la línea base de cada trozo, o null para aceptarlos
+     *                   todos.
+     * @return Los fragmentos aceptados, ordenados.
+     * @throws IOException Si ocurre un error al leer la página.
+     */
+    synchronized PageTextChunks getPageChunks(int pageNumber, PageTextChunks.PointFilter filter) throws IOException {
+        checkCancelled(pageNumber);
+        if (extractor == null) {
+            extractor = PageTextChunks.extractor(pdfDoc);
+        }
+        PageTextChunks chunks = extractor.extract(pageNumber, filter);
+        PdfReaders.releasePage(pdfDoc, pageNumber);
+        return chunks;
+    }
+
+    /**
+     * @param pageNumber Número de página, empezando en 1.
+     * @return Tamaño de la página (su {@code /MediaBox}).
+     * @throws IOException Si ocurre un error calculando la huella del documento para la caché.
+     */
+    public synchronized Rectangle getPageSize(int pageNumber) throws IOException {
+        Rectangle size = pageSizes[pageNumber - 1];
+        if (size == null) {
+            ExtractionCache cache = cache();
+            String key = cache != null ? ExtractionCache.pageKey(getFingerprint(), "size", pageNumber) : null;
+            float[] cached = cache != null ? (float[]) cache.get(key) : null;
+            if (cached != null) {
+                size = new Rectangle(cached[0], cached[1], cached[2] - cached[0], cached[3] - cached[1]);
+            } else {
+                long start = Metrics.start();
+                size = pdfDoc.getPage(pageNumber).getMediaBox();
+                PdfReaders.releasePage(pdfDoc, pageNumber);
+                Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+                if (cache != null) {
+                    cache.put(key, new float[]{size.getLeft(), size.getBottom(), size.getRight(), size.getTop()});
+                }
+            }
+            pageSizes[pageNumber - 1] = size;
+        }
+        return size;
+    }
+
+    /**
+     * @return Las cajas, la rotación y la unidad de usuario de todas las páginas, leídas recorriendo el árbol de
+     * páginas una sola vez la primera vez que se piden.
+     */
+    synchronized PageGeometry getPageGeometry() {
+        if (pageGeometry == null) {
+            long start = Metrics.start();
+            pageGeometry = PageGeometry.read(pdfDoc, lowMemory);
+            Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+        }
+        return pageGeometry;
+    }
+
+    /**
+     * @param pageNumber Número de página, empezando en 1.
+     * @return La geometría de una sola página, leída sin recorrer el árbol completo y sin guardarla: la página
+     * es la de número 1 de la geometría devuelta.
+     */
+    synchronized PageGeometry getPageGeometry(int pageNumber) {
+        long start = Metrics.start();
+        PageGeometry geometry = PageGeometry.readPage(pdfDoc, pageNumber);
+        Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+        return geometry;
+    }
+
+    /**
+     * @param pageNumber Número de página, empezando en 1.
+     * @return Las anotaciones de la página, o null si no tiene.
+     */
+    public synchronized PdfArray getAnnotations(int pageNumber) {
+        if (!annotationsLoaded[pageNumber - 1]) {
+            annotations[pageNumber - 1] = pdfDoc.getPage(pageNumber).getPdfObject().getAsArray(PdfName.Annots);
+            PdfReaders.releasePage(pdfDoc, pageNumber);
+            annotationsLoaded[pageNumber - 1] = true;
+        }
+        return annotations[pageNumber - 1];
+    }
+
+    /**
+     * @return Los metadatos del diccionario Info.
+     * @throws IOException Si ocurre un error calculando la huella del documento para la caché.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Map<String, String> getInfo() throws IOException {
+        if (info == null) {
+            ExtractionCache cache = cache();
+            String key = cache != null ? ExtractionCache.documentKey(getFingerprint(), "info") : null;
+            HashMap<String, String> values = cache != null ? (HashMap<String, String>) cache.get(key) : null;
+            if (values == null) {
+                long start = Metrics.start();
+                values = readInfo();
+                Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+                if (cache != null) {
+                    cache.put(key, values);
+                }
+            }
+            info = Collections.unmodifiableMap(values);
+        }
+        return info;
+    }
+
+    /**
+     * Devuelve las propiedades de los metadatos XMP del catálogo, con las claves de {@link XmpProperties}:
+     * {@code xmp:ModifyDate}, {@code dc:title[x-default]}, {@code dc:creator[1]}...
+     *
+     * @return Las propiedades ordenadas por clave, o un mapa vacío si el documento no tiene metadatos XMP.
+     * @throws IOException Si los metadatos no son XML válido, o si ocurre un error calculando la huella del
+     *                     documento para la caché.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Map<String, String> getXmpMetadata() throws IOException {
+        if (xmpMetadata == null) {
+            ExtractionCache cache = cache();
+            String key = cache != null ? ExtractionCache.documentKey(getFingerprint(), "xmp") : null;
+            TreeMap<String, String> values = cache != null ? (TreeMap<String, String>) cache.get(key) : null;
+            if (values == null) {
+                long start = Metrics.start();
+                // iText ya lee el flujo completo al abrir el documento; el analizador recorre esos bytes sin
+                // construir el árbol XML.
+                byte[] packet = pdfDoc.getXmpMetadata();
+                values = packet != null ? XmpProperties.parse(new ByteArrayInputStream(packet)) : new TreeMap<>();
+                Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+                if (cache != null) {
+                    cache.put(key, values);
+                }
+            }
+            xmpMetadata = Collections.unmodifiableMap(values);
+        }
+        return xmpMetadata;
+    }
+
+    /**
+     * Devuelve los marcadores con el formato de {@code SimpleBookmark} de iText 5: una lista de mapas con el
+     * título ("Title"), la acción ("Action": "GoTo", "URI"...), el destino ("Page", como "3 XYZ 0 792 0", o
+     * "Named") o la dirección ("URI") de cada marcador, y sus hijos en "Kids".
+     *
+     * @return Los marcadores del documento, o null si no tiene.
+     * @throws IOException Si ocurre un error calculando la huella del documento para la caché.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<HashMap<String, Object>> getBookmarks() throws IOException {
+        if (bookmarks == null) {
+            ExtractionCache cache = cache();
+            String key = cache != null ? ExtractionCache.documentKey(getFingerprint(), "outlines") : null;
+            ArrayList<HashMap<String, Object>> values = cache != null ? (ArrayList<HashMap<String, Object>>) cache.get(key) : null;
+            if (values == null) {
+                long start = Metrics.start();
+                values = readBookmarks(getOutlines(), new HashSet<Integer>());
+                Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+                if (cache != null) {
+                    cache.put(key, values);
+                }
+            }
+            bookmarks = values;
+        }
+        return bookmarks.isEmpty() ? null : Collections.unmodifiableList(bookmarks);
+    }
+
+    /**
+     * @return El diccionario de marcadores del catálogo, o null si el documento no tiene.
+     */
+    public synchronized PdfDictionary getOutlines() {
+        if (!outlinesLoaded) {
+            outlines = pdfDoc.getCatalog().getPdfObject().getAsDictionary(PdfName.Outlines);
+            outlinesLoaded = true;
+        }
+        return outlines;
+    }
+
+    /**
+     * Busca el número de página de una referencia a un diccionario de página.
+     *
+     * @param pageReference Referencia indirecta a la página.
+     * @return El número de página, empezando en 1, o -1 si la referencia no es una página del documento.
+     */
+    synchronized int getPageNumber(PdfObject pageReference) {
+        if (!(pageReference instanceof PdfIndirectReference)) {
+            return -1;
+        }
+        if (pageNumbersByObject == null) {
+            pageNumbersByObject = new HashMap<>(numberOfPages * 2);
+            for (int i = 1; i <= numberOfPages; i++) {
+                pageNumbersByObject.put(pdfDoc.getPage(i).getPdfObject().getIndirectReference().getObjNumber(), i);
+                PdfReaders.releasePage(pdfDoc, i);
+            }
+        }
+        Integer page = pageNumbersByObject.get(((PdfIndirectReference) pageReference).getObjNumber());
+        return page != null ? page : -1;
+    }
+
+    /**
+     * @return Los destinos con nombre del documento, tanto del diccionario /Dests como del árbol de nombres.
+     */
+    synchronized Map<String, PdfObject> getNamedDestinations() {
+        if (namedDestinations == null) {
+            namedDestinations = pdfDoc.getCatalog().getNameTree(PdfName.Dests).getNames();
+        }
+        return namedDestinations;
+    }
+
+    /**
+     * @return Los enlaces del catálogo que se guardan con un {@link RevisionComparisonResult} para saber si
+     * una actualización incremental los cambió.
+     */
+    synchronized int[] getCatalogLinks() {
+        return RevisionChanges.catalogLinks(pdfDoc);
+    }
+
+    /**
+     * Clasifica los objetos que cambiaron las actualizaciones incrementales del archivo.
+     *
+     * @param changed      Objetos que definen o liberan las actualizaciones.
+     * @param existing     Objetos en uso en la revisión anterior a las actualizaciones.
+     * @param catalogLinks Los enlaces del catálogo en la revisión anterior.
+     * @return Las páginas y estructuras a las que afectan.
+     */
+    synchronized RevisionChanges getRevisionChanges(BitSet changed, BitSet existing, int[] catalogLinks) {
+        return RevisionChanges.analyze(pdfDoc, changed, existing, catalogLinks);
+    }
+
+    /**
+     * @return El resumen SHA-256 del archivo completo, calculado la primera vez que se pide.
+     * @throws IOException Si ocurre un error leyendo el archivo.
+     */
+    synchronized byte[] getFileDigest() throws IOException {
+        if (fileDigest == null) {
+            fileDigest = ContentDigests.fileDigest(filePath);
+        }
+        return fileDigest;
+    }
+
+    /**
+     * @param pageNumber Número de página, empezando en 1.
+     * @return El resumen de los flujos de contenido y los recursos de la página.
+     * @throws IOException Si ocurre un error leyendo los flujos de la página.
+     */
+    synchronized byte[] getPageDigest(int pageNumber) throws IOException {
+        checkCancelled(pageNumber);
+        if (contentDigests == null) {
+            contentDigests = new ContentDigests(pdfDoc);
+        }
+        return contentDigests.pageDigest(pageNumber);
+    }
+
+    /**
+     * @param pageNumber Número de página, empezando en 1.
+     * @return Las imágenes, formularios y fuentes de la página con el resumen de su contenido decodificado.
+     * Las páginas que comparten el diccionario {@code /Resources} reciben la misma instancia.
+     */
+    synchronized Map<String, ResourceDigests.Resource> getPageResources(int pageNumber) {
+        return resourceDigests().pageResources(pageNumber);
+    }
+
+    /**
+     * @return Número de recursos cuyo contenido se ha resumido hasta ahora en este documento.
+     */
+    synchronized int getHashedResources() {
+        return resourceDigests().getHashedObjects();
+    }
+
+    private ResourceDigests resourceDigests() {
+        if (resourceDigests == null) {
+            resourceDigests = new ResourceDigests(pdfDoc);
+        }
+        return resourceDigests;
+    }
+
+    private String getFingerprint() throws IOException {
+        if (fingerprint == null) {
+            fingerprint = ExtractionCache.fingerprint(pdfDoc, getFileDigest());
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return La caché configurada, o null si no hay ninguna o el documento está protegido con contraseña.
+     */
+    private ExtractionCache cache() {
+        return cacheable ? ExtractionCache.getDefault() : null;
+    }
+
+    /**
+     * Lee el diccionario Info del tráiler: las cadenas se decodifican y los demás valores se convierten a texto.
+     */
+    private HashMap<String, String> readInfo() {
+        HashMap<String, String> values = new HashMap<>();
+        PdfDictionary infoDictionary = pdfDoc.getTrailer().getAsDictionary(PdfName.Info);
+        if (infoDictionary == null) {
+            return values;
+        }
+        for (PdfName name : infoDictionary.keySet()) {
+            PdfObject value = infoDictionary.get(name);
+            if (value == null || value.isNull()) {
+                continue;
+            }
+            String text;
+            if (value.isString()) {
+                text = ((PdfString) value).toUnicodeString();
+            } else if (value.isName()) {
+                text = ((PdfName) value).getValue();
+            } else {
+                text = value.toString();
+            }
+            values.put(name.getValue(), text);
+        }
+        return values;
+    }
+
+    /**
+     * Convierte los hijos de un nodo de marcadores al formato de {@link #getBookmarks()}. Los marcadores ya
+     * visitados (un ciclo en el archivo) se omiten.
+     */
+    private ArrayList<HashMap<String, Object>> readBookmarks(PdfDictionary parent, Set<Integer> visited) {
+        ArrayList<HashMap<String, Object>> list = new ArrayList<>();
+        PdfObject current = parent == null ? null : parent.get(PdfName.First, false);
+        while (current != null) {
+            if (current instanceof PdfIndirectReference
+                    && !visited.add(((PdfIndirectReference) current).getObjNumber())) {
+                break;
+            }
+            PdfObject resolved = current instanceof PdfIndirectReference
+                    ? ((PdfIndirectReference) current).getRefersTo() : current;
+            if (!(resolved instanceof PdfDictionary)) {
+                break;
+            }
+            PdfDictionary item = (PdfDictionary) resolved;
+            HashMap<String, Object> bookmark = new HashMap<>();
+            PdfString title = item.getAsString(PdfName.Title);
+            bookmark.put("Title", title == null ? "" : title.toUnicodeString());
+            PdfNumber count = item.getAsNumber(PdfName.Count);
+            if (count != null && count.intValue() < 0) {
+                bookmark.put("Open", "false");
+            }
+            readBookmarkTarget(item, bookmark);
+            ArrayList<HashMap<String, Object>> kids = readBookmarks(item, visited);
+            if (!kids.isEmpty()) {
+                bookmark.put("Kids", kids);
+            }
+            list.add(bookmark);
+            current = item.get(PdfName.Next, false);
+        }
+        return list;
+    }
+
+    private void readBookmarkTarget(PdfDictionary item, HashMap<String, Object> bookmark) {
+        PdfObject dest = item.get(PdfName.Dest);
+        PdfDictionary action = item.getAsDictionary(PdfName.A);
+        if (dest == null && action != null) {
+            PdfName type = action.getAsName(PdfName.S);
+            if (!PdfName.GoTo.equals(type)) {
+                if (type != null) {
+                    bookmark.put("Action", type.getValue());
+                }
+                PdfString uri = action.getAsString(PdfName.URI);
+                if (PdfName.URI.equals(type) && uri != null) {
+                    bookmark.put("URI", uri.toUnicodeString());
+                }
+                return;
+            }
+            dest = action.get(PdfName.D);
+        }
+        if (dest == null) {
+            return;
+        }
+        bookmark.put("Action", "GoTo");
+        if (dest.isName()) {
+            bookmark.put("Named", ((PdfName) dest).getValue());
+        } else if (dest.isString()) {
+            bookmark.put("Named", ((PdfString) dest).toUnicodeString());
+        } else if (dest.isArray() && !((PdfArray) dest).isEmpty()) {
+            PdfArray array = (PdfArray) dest;
+            StringBuilder page = new StringBuilder();
+            PdfObject target = array.get(0, false);
+            page.append(target instanceof PdfIndirectReference ? getPageNumber(target)
+                    : target.isNumber() ? target.toString() : "-1");
+            for (int i = 1; i < array.size(); i++) {
+                PdfObject parameter = array.get(i);
+                page.append(' ').append(parameter.isName() ? ((PdfName) parameter).getValue() : parameter.toString());
+            }
+            bookmark.put("Page", page.toString());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        pdfDoc.close();
+    }
+}
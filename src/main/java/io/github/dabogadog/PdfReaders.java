@@ -0,0 +1,194 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.pdf.PageFlushingHelper;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+
+import java.io.IOException;
+
+/**
+ * Esta clase abre los documentos de iText 7 de todas las comprobaciones, protegidos o no con contraseña o
+ * certificado, y permite activar un modo de bajo consumo de memoria para archivos muy grandes.
+ *
+ * <p>iText 7 proyecta el archivo en memoria y lee los objetos cuando se piden. En el modo de bajo consumo el
+ * lector se abre además en modo de ahorro de memoria, y cada página se libera con sus recursos después de
+ * procesarla, de modo que el heap usado no crece con el tamaño del archivo. Cada documento conserva el modo con
+ * el que se abrió, aunque el modo cambie después.</p>
+ */
+public final class PdfReaders {
+
+    private static volatile boolean lowMemoryMode;
+
+    private static final DecryptionKeyCache decryptionKeys =
+            new DecryptionKeyCache(DecryptionKeyCache.DEFAULT_MAX_ENTRIES);
+
+    private PdfReaders() {
+        // Constructor privado vacío para evitar instanciación
+    }
+
+    /**
+     * Activa o desactiva el modo de bajo consumo de memoria para todos los lectores que se abran después.
+     *
+     * @param enabled true para leer los archivos en modo de ahorro de memoria y liberar cada página después
+     *                de procesarla.
+     */
+    public static void setLowMemoryMode(boolean enabled) {
+        lowMemoryMode = enabled;
+    }
+
+    /**
+     * @return true si el modo de bajo consumo de memoria está activo.
+     */
+    public static boolean isLowMemoryMode() {
+        return lowMemoryMode;
+    }
+
+    /**
+     * Cambia el número máximo de claves de descifrado guardadas, 64 por defecto. Volver a abrir un documento
+     * cifrado con AES-256 con las mismas credenciales reutiliza su clave en lugar de derivarla otra vez. Las
+     * claves que sobran se desalojan y se borran.
+     *
+     * @param maxEntries Número máximo de claves guardadas; 0 para no guardar ninguna.
+     */
+    public static void setDecryptionKeyCacheSize(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("El tamaño de la caché no puede ser negativo: " + maxEntries);
+        }
+        decryptionKeys.setMaxEntries(maxEntries);
+    }
+
+    /**
+     * Desaloja y borra todas las claves de descifrado guardadas. Las claves de los documentos que siguen
+     * abiertos se borran cuando se cierran.
+     */
+    public static void clearDecryptionKeyCache() {
+        decryptionKeys.clear();
+    }
+
+    /**
+     * Abre un archivo PDF según el modo configurado.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @return El documento abierto en modo de lectura.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    static PdfDocument open(String filePath) throws IOException {
+        return open(filePath, (PdfCredentials) null);
+    }
+
+    /**
+     * Abre un archivo PDF, protegido o no con contraseña, según el modo configurado.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @param password Contraseña del archivo PDF, o null si no está protegido.
+     * @return El documento abierto en modo de lectura.
+     * @throws IOException Si ocurre un error leyendo el PDF o la contraseña no es válida.
+     */
+    static PdfDocument open(String filePath, String password) throws IOException {
+        return open(filePath, PdfCredentials.ofPassword(password));
+    }
+
+    /**
+     * Abre un archivo PDF, protegido o no, según el modo configurado. Si el archivo está cifrado con AES-256,
+     * su clave de descifrado se guarda para las siguientes aperturas (ver
+     * {@link #setDecryptionKeyCacheSize(int)}).
+     *
+     * @param filePath    Ruta al archivo PDF.
+     * @param credentials Credenciales del archivo PDF, o null si no está protegido.
+     * @return El documento abierto en modo de lectura.
+     * @throws IOException Si ocurre un error leyendo el PDF o las credenciales no son válidas.
+     */
+    static PdfDocument open(String filePath, PdfCredentials credentials) throws IOException {
+        long start = Metrics.start();
+        ReaderProperties properties = new ReaderProperties();
+        if (credentials != null) {
+            credentials.apply(properties);
+        }
+        boolean lowMemory = lowMemoryMode;
+        PdfReader reader = decryptionKeys.newReader(filePath, properties, credentials);
+        reader.setMemorySavingMode(lowMemory);
+        PdfDocument pdfDoc;
+        try {
+            pdfDoc = lowMemory ? new LowMemoryDocument(reader) : new PdfDocument(reader);
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        Metrics.end(ComparisonMetrics.Phase.OPEN, start);
+        Metrics.bytesRead(reader.getFileLength());
+        return pdfDoc;
+    }
+
+    /**
+     * Cuenta las páginas de un archivo PDF leyendo solo su árbol de páginas.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @return Número de páginas.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    static int countPages(String filePath) throws IOException {
+        return countPages(filePath, (PdfCredentials) null);
+    }
+
+    /**
+     * Cuenta las páginas de un archivo PDF, protegido o no con contraseña.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @param password Contraseña del archivo PDF, o null si no está protegido.
+     * @return Número de páginas.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    static int countPages(String filePath, String password) throws IOException {
+        return countPages(filePath, PdfCredentials.ofPassword(password));
+    }
+
+    /**
+     * Cuenta las páginas de un archivo PDF, protegido o no.
+     *
+     * @param filePath    Ruta al archivo PDF.
+     * @param credentials Credenciales del archivo PDF, o null si no está protegido.
+     * @return Número de páginas.
+     * @throws IOException Si ocurre un error leyendo el PDF.
+     */
+    static int countPages(String filePath, PdfCredentials credentials) throws IOException {
+        PdfDocument pdfDoc = open(filePath, credentials);
+        try {
+            return pdfDoc.getNumberOfPages();
+        } finally {
+            pdfDoc.close();
+        }
+    }
+
+    /**
+     * @param pdfDoc Documento abierto con {@link #open(String, PdfCredentials)}.
+     * @return true si se abrió en el modo de bajo consumo de memoria, esté activo o no ahora.
+     */
+    static boolean isLowMemory(PdfDocument pdfDoc) {
+        return pdfDoc instanceof LowMemoryDocument;
+    }
+
+    /**
+     * Si el documento se abrió en el modo de bajo consumo de memoria, libera una página ya procesada y sus
+     * recursos; se vuelven a leer del archivo si se piden otra vez. Si no, no hace nada.
+     *
+     * @param pdfDoc     Documento abierto en modo de lectura.
+     * @param pageNumber Número de página, empezando en 1.
+     */
+    static void releasePage(PdfDocument pdfDoc, int pageNumber) {
+        if (isLowMemory(pdfDoc)) {
+            new PageFlushingHelper(pdfDoc).releaseDeep(pageNumber);
+        }
+    }
+
+    /**
+     * Documento abierto en el modo de bajo consumo de memoria. iText no expone el modo de ahorro de memoria del
+     * lector, así que el tipo del documento lo recuerda.
+     */
+    private static final class LowMemoryDocument extends PdfDocument {
+
+        private LowMemoryDocument(PdfReader reader) {
+            super(reader);
+        }
+    }
+}
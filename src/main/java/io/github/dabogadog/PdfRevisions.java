@@ -0,0 +1,366 @@
+package io.github.dabogadog;
+
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.io.source.WindowRandomAccessSource;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cadena de secciones de referencias cruzadas de un archivo PDF. Cada actualización incremental añade al final
+ * del archivo los objetos que cambia y una sección nueva, que apunta a la anterior con {@code /Prev}; siguiendo
+ * la cadena desde el último {@code startxref} se sabe qué objetos definió cada actualización.
+ *
+ * <p>Solo se leen las secciones: las tablas clásicas ({@code xref}), los flujos de referencias cruzadas de
+ * PDF 1.5 y las secciones híbridas con {@code /XRefStm}. Los objetos no se leen, así que la cadena se puede leer
+ * también en los archivos cifrados, cuyas secciones no lo están.</p>
+ */
+final class PdfRevisions {
+
+    private static final byte[] XREF = "xref".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRAILER = "trailer".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STREAM = "stream".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Máximo de secciones que se siguen, para no recorrer sin fin una cadena con un ciclo.
+     */
+    private static final int MAX_SECTIONS = 10_000;
+
+    private final long length;
+    private final List<Section> sections;
+
+    private PdfRevisions(long length, List<Section> sections) {
+        this.length = length;
+        this.sections = sections;
+    }
+
+    /**
+     * Lee la cadena de secciones de un archivo.
+     *
+     * @param filePath Ruta al archivo PDF.
+     * @return La cadena, de la sección más reciente a la más antigua.
+     * @throws IOException Si ocurre un error leyendo el archivo o alguna sección está dañada.
+     */
+    static PdfRevisions read(String filePath) throws IOException {
+        long start = Metrics.start();
+        IRandomAccessSource source = new RandomAccessSourceFactory().createBestSource(filePath);
+        PdfTokenizer tokens = new PdfTokenizer(new RandomAccessFileOrArray(source));
+        try {
+            long length = tokens.length();
+            // Las posiciones de las secciones se cuentan desde la cabecera %PDF, que puede no estar al principio.
+            long headerOffset = tokens.getHeaderOffset();
+            if (headerOffset > 0) {
+                tokens = new PdfTokenizer(new RandomAccessFileOrArray(new WindowRandomAccessSource(source, headerOffset)));
+            }
+            tokens.seek(tokens.getStartxref());
+            tokens.nextValidToken();
+            tokens.nextValidToken();
+            if (tokens.getTokenType() != PdfTokenizer.TokenType.Number) {
+                throw new IOException("No se encontró la posición de las referencias cruzadas: " + filePath);
+            }
+
+            List<Section> sections = new ArrayList<>();
+            Set<Long> visited = new HashSet<>();
+            long offset = tokens.getLongValue();
+            while (offset >= 0) {
+                if (sections.size() == MAX_SECTIONS || !visited.add(offset)) {
+                    throw new IOException("La cadena de referencias cruzadas tiene un ciclo: " + filePath);
+                }
+                Section section = new Section(headerOffset + offset);
+                offset = readSection(tokens, offset, section, filePath);
+                sections.add(section);
+            }
+            return new PdfRevisions(length, sections);
+        } finally {
+            tokens.close();
+            Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+        }
+    }
+
+    /**
+     * @return Tamaño del archivo en bytes.
+     */
+    long getLength() {
+        return length;
+    }
+
+    /**
+     * @return Posición de la sección más reciente, la que indica el último {@code startxref}.
+     */
+    long getLastXref() {
+        return sections.get(0).offset;
+    }
+
+    /**
+     * @param baseLength Tamaño de una revisión anterior del archivo.
+     * @return Número de actualizaciones añadidas después de esa revisión.
+     */
+    int getUpdateCount(long baseLength) {
+        int count = 0;
+        while (count < sections.size() && sections.get(count).offset >= baseLength) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Comprueba que las actualizaciones posteriores a una revisión anterior continúan su cadena: la primera
+     * sección anterior a la revisión es la que indicaba su {@code startxref}.
+     *
+     * @param baseLength Tamaño de la revisión anterior.
+     * @param baseXref   Posición de su sección más reciente.
+     * @return true si el archivo es la revisión anterior con actualizaciones incrementales añadidas.
+     */
+    boolean continues(long baseLength, long baseXref) {
+        int updates = getUpdateCount(baseLength);
+        return updates < sections.size() && sections.get(updates).offset == baseXref;
+    }
+
+    /**
+     * @param baseLength Tamaño de una revisión anterior del archivo.
+     * @return Los objetos que definen o liberan las actualizaciones posteriores a esa revisión.
+     */
+    BitSet getObjectsAfter(long baseLength) {
+        BitSet objects = new BitSet();
+        for (int i = 0, updates = getUpdateCount(baseLength); i < updates; i++) {
+            objects.or(sections.get(i).used);
+            objects.or(sections.get(i).freed);
+        }
+        return objects;
+    }
+
+    /**
+     * @param baseLength Tamaño de una revisión anterior del archivo.
+     * @return Los objetos en uso en esa revisión, según la sección más reciente que los menciona.
+     */
+    BitSet getObjectsBefore(long baseLength) {
+        BitSet objects = new BitSet();
+        BitSet decided = new BitSet();
+        for (int i = getUpdateCount(baseLength); i < sections.size(); i++) {
+            Section section = sections.get(i);
+            BitSet used = (BitSet) section.used.clone();
+            used.andNot(decided);
+            objects.or(used);
+            decided.or(section.used);
+            decided.or(section.freed);
+        }
+        return objects;
+    }
+
+    /**
+     * Lee la sección que empieza en una posición y la de su {@code /XRefStm}, si es híbrida.
+     *
+     * @return La posición de la sección anterior, o -1 si es la primera.
+     */
+    private static long readSection(PdfTokenizer tokens, long offset, Section section, String filePath)
+            throws IOException {
+        tokens.seek(offset);
+        tokens.nextValidToken();
+        PdfDictionary trailer;
+        if (tokens.getTokenType() == PdfTokenizer.TokenType.Other && tokens.tokenValueEqualsTo(XREF)) {
+            trailer = readTable(tokens, section, filePath);
+            PdfNumber xrefStream = trailer.getAsNumber(PdfName.XRefStm);
+            if (xrefStream != null) {
+                tokens.seek(xrefStream.longValue());
+                tokens.nextValidToken();
+                readStream(tokens, section, filePath);
+            }
+        } else if (tokens.getTokenType() == PdfTokenizer.TokenType.Obj) {
+            trailer = readStream(tokens, section, filePath);
+        } else {
+            throw new IOException("No hay una sección de referencias cruzadas en la posición " + offset + ": "
+                    + filePath);
+        }
+        PdfNumber prev = trailer.getAsNumber(PdfName.Prev);
+        return prev != null ? prev.longValue() : -1;
+    }
+
+    /**
+     * Lee una tabla clásica, después de la palabra {@code xref}.
+     *
+     * @return El diccionario {@code trailer}.
+     */
+    private static PdfDictionary readTable(PdfTokenizer tokens, Section section, String filePath)
+            throws IOException {
+        while (true) {
+            tokens.nextValidToken();
+            if (tokens.tokenValueEqualsTo(TRAILER)) {
+                break;
+            }
+            if (tokens.getTokenType() != PdfTokenizer.TokenType.Number) {
+                throw new IOException("Tabla de referencias cruzadas dañada: " + filePath);
+            }
+            int first = tokens.getIntValue();
+            tokens.nextValidToken();
+            int count = tokens.getIntValue();
+            for (int i = 0; i < count; i++) {
+                tokens.nextValidToken();
+                tokens.nextValidToken();
+                tokens.nextValidToken();
+                String kind = tokens.getStringValue();
+                if ("n".equals(kind)) {
+                    section.used.set(first + i);
+                } else if ("f".equals(kind)) {
+                    section.freed.set(first + i);
+                } else {
+                    throw new IOException("Tabla de referencias cruzadas dañada: " + filePath);
+                }
+            }
+        }
+        tokens.nextValidToken();
+        if (tokens.getTokenType() != PdfTokenizer.TokenType.StartDic) {
+            throw new IOException("Diccionario trailer dañado: " + filePath);
+        }
+        return readDictionary(tokens, filePath);
+    }
+
+    /**
+     * Lee un flujo de referencias cruzadas, después de {@code n g obj}.
+     *
+     * @return El diccionario del flujo, que hace de {@code trailer}.
+     */
+    private static PdfDictionary readStream(PdfTokenizer tokens, Section section, String filePath)
+            throws IOException {
+        if (tokens.getTokenType() != PdfTokenizer.TokenType.Obj) {
+            throw new IOException("Flujo de referencias cruzadas dañado: " + filePath);
+        }
+        tokens.nextValidToken();
+        if (tokens.getTokenType() != PdfTokenizer.TokenType.StartDic) {
+            throw new IOException("Flujo de referencias cruzadas dañado: " + filePath);
+        }
+        PdfDictionary dictionary = readDictionary(tokens, filePath);
+        tokens.nextValidToken();
+        PdfNumber length = dictionary.getAsNumber(PdfName.Length);
+        PdfArray widths = dictionary.getAsArray(PdfName.W);
+        if (!tokens.tokenValueEqualsTo(STREAM) || length == null || widths == null || widths.size() < 3) {
+            throw new IOException("Flujo de referencias cruzadas dañado: " + filePath);
+        }
+        // Después de "stream" viene CRLF o LF.
+        int ch = tokens.read();
+        if (ch == '\r') {
+            ch = tokens.read();
+        }
+        if (ch != '\n') {
+            tokens.seek(tokens.getPosition() - 1);
+        }
+        byte[] data = new byte[length.intValue()];
+        tokens.readFully(data);
+        data = PdfReader.decodeBytes(data, dictionary);
+
+        int[] w = {widths.getAsNumber(0).intValue(), widths.getAsNumber(1).intValue(),
+                widths.getAsNumber(2).intValue()};
+        int entrySize = w[0] + w[1] + w[2];
+        PdfArray index = dictionary.getAsArray(PdfName.Index);
+        if (index == null) {
+            PdfNumber size = dictionary.getAsNumber(PdfName.Size);
+            index = new PdfArray(new int[]{0, size != null ? size.intValue() : 0});
+        }
+        int position = 0;
+        for (int i = 0; i + 1 < index.size(); i += 2) {
+            int first = index.getAsNumber(i).intValue();
+            int count = index.getAsNumber(i + 1).intValue();
+            for (int j = 0; j < count; j++) {
+                if (position + entrySize > data.length) {
+                    throw new IOException("Flujo de referencias cruzadas dañado: " + filePath);
+                }
+                // Sin ancho para el tipo, todas las entradas son de tipo 1.
+                int type = w[0] == 0 ? 1 : field(data, position, w[0]);
+                if (type == 1 || type == 2) {
+                    section.used.set(first + j);
+                } else if (type == 0) {
+                    section.freed.set(first + j);
+                }
+                position += entrySize;
+            }
+        }
+        return dictionary;
+    }
+
+    private static int field(byte[] data, int position, int width) {
+        int value = 0;
+        for (int i = 0; i < width; i++) {
+            value = (value << 8) | (data[position + i] & 0xff);
+        }
+        return value;
+    }
+
+    /**
+     * Lee un diccionario, después de {@code <<}. Los números, nombres, arreglos y diccionarios se conservan;
+     * las cadenas y las referencias, que las secciones no necesitan, se descartan.
+     */
+    private static PdfDictionary readDictionary(PdfTokenizer tokens, String filePath) throws IOException {
+        PdfDictionary dictionary = new PdfDictionary();
+        while (true) {
+            tokens.nextValidToken();
+            if (tokens.getTokenType() == PdfTokenizer.TokenType.EndDic) {
+                return dictionary;
+            }
+            if (tokens.getTokenType() != PdfTokenizer.TokenType.Name) {
+                throw new IOException("Diccionario de referencias cruzadas dañado: " + filePath);
+            }
+            PdfName key = new PdfName(tokens.getStringValue());
+            tokens.nextValidToken();
+            PdfObject value = readValue(tokens, filePath);
+            if (value != null) {
+                dictionary.put(key, value);
+            }
+        }
+    }
+
+    private static PdfObject readValue(PdfTokenizer tokens, String filePath) throws IOException {
+        switch (tokens.getTokenType()) {
+            case Number:
+                return new PdfNumber(Double.parseDouble(tokens.getStringValue()));
+            case Name:
+                return new PdfName(tokens.getStringValue());
+            case StartDic:
+                return readDictionary(tokens, filePath);
+            case StartArray:
+                PdfArray array = new PdfArray();
+                while (true) {
+                    tokens.nextValidToken();
+                    if (tokens.getTokenType() == PdfTokenizer.TokenType.EndArray) {
+                        return array;
+                    }
+                    PdfObject element = readValue(tokens, filePath);
+                    if (element != null) {
+                        array.add(element);
+                    }
+                }
+            case String:
+            case Ref:
+            case Other:
+                return null;
+            default:
+                throw new IOException("Diccionario de referencias cruzadas dañado: " + filePath);
+        }
+    }
+
+    /**
+     * Sección de referencias cruzadas, con los objetos que pone en uso y los que libera.
+     */
+    private static final class Section {
+
+        private final long offset;
+        private final BitSet used = new BitSet();
+        private final BitSet freed = new BitSet();
+
+        private Section(long offset) {
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package io.github.dabogadog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Esta clase construye un autómata Aho-Corasick a partir de una lista de frases y permite buscarlas todas
+ * en una sola pasada sobre el texto.
+ */
+public final class PhraseMatcher {
+
+    private final List<String> phrases;
+
+    /**
+     * Transiciones de cada estado: caracteres ordenados y estados destino en la misma posición.
+     */
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    /**
+     * Siguiente estado en la cadena de fallos que reconoce alguna frase, o -1 si no hay ninguno.
+     */
+    private final int[] dictionaryLink;
+    private final int[][] outputs;
+
+    /**
+     * Construye el autómata para las frases indicadas.
+     *
+     * @param phrases Frases a buscar. Se respeta el orden y se admiten frases repetidas o vacías.
+     */
+    public PhraseMatcher(List<String> phrases) {
+        this.phrases = Collections.unmodifiableList(new ArrayList<>(phrases));
+
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> terminal = new ArrayList<>();
+        trie.add(new TreeMap<Character, Integer>());
+        terminal.add(new ArrayList<Integer>());
+
+        for (int p = 0; p < this.phrases.size(); p++) {
+            String phrase = this.phrases.get(p);
+            int state = 0;
+            for (int i = 0; i < phrase.length(); i++) {
+                Character c = phrase.charAt(i);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<Character, Integer>());
+                    terminal.add(new ArrayList<Integer>());
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            terminal.get(state).add(p);
+        }
+
+        int size = trie.size();
+        transitionChars = new char[size][];
+        transitionTargets = new int[size][];
+        outputs = new int[size][];
+        failure = new int[size];
+        dictionaryLink = new int[size];
+
+        for (int s = 0; s < size; s++) {
+            TreeMap<Character, Integer> edges = trie.get(s);
+            transitionChars[s] = new char[edges.size()];
+            transitionTargets[s] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                transitionChars[s][i] = edge.getKey();
+                transitionTargets[s][i] = edge.getValue();
+                i++;
+            }
+            List<Integer> ids = terminal.get(s);
+            outputs[s] = new int[ids.size()];
+            for (int j = 0; j < ids.size(); j++) {
+                outputs[s][j] = ids.get(j);
+            }
+        }
+
+        // Recorrido en anchura para calcular los enlaces de fallo y de diccionario.
+        Arrays.fill(dictionaryLink, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int target : transitionTargets[0]) {
+            failure[target] = 0;
+            queue.add(target);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                char c = transitionChars[state][i];
+                int child = transitionTargets[state][i];
+                int fallback = failure[state];
+                while (fallback != 0 && next(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int candidate = next(fallback, c);
+                failure[child] = candidate >= 0 ? candidate : 0;
+                int link = failure[child];
+                dictionaryLink[child] = link != 0 && outputs[link].length > 0 ? link : dictionaryLink[link];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Construye el autómata a partir de una cadena de frases separadas por comas, sin recortar espacios,
+     * igual que {@link PDFAnalyzer#checkPhrasesInPDF(String, String)}.
+     *
+     * @param phrasesString Frases separadas por comas.
+     * @return El autómata construido.
+     */
+    public static PhraseMatcher fromCommaSeparated(String phrasesString) {
+        return new PhraseMatcher(Arrays.asList(phrasesString.split(",")));
+    }
+
+    /**
+     * @return Las frases del autómata, en el orden original.
+     */
+    public List<String> getPhrases() {
+        return phrases;
+    }
+
+    /**
+     * @return Número de frases del autómata.
+     */
+    public int size() {
+        return phrases.size();
+    }
+
+    /**
+     * Crea una sesión de búsqueda independiente. El autómata es inmutable y puede compartirse entre hilos;
+     * cada sesión, en cambio, solo debe usarse desde un hilo.
+     *
+     * @param listener Receptor que se notifica la primera vez que se encuentra cada frase.
+     * @return Una nueva sesión.
+     */
+    public Session newSession(MatchListener listener) {
+        return new Session(listener);
+    }
+
+    private int next(int state, char c) {
+        int index = Arrays.binarySearch(transitionChars[state], c);
+        return index >= 0 ? transitionTargets[state][index] : -1;
+    }
+
+    /**
+     * Receptor de coincidencias de una sesión de búsqueda.
+     */
+    public interface MatchListener {
+
+        /**
+         * Se invoca una única vez por frase, la primera vez que aparece.
+         *
+         * @param phraseIndex Índice de la frase dentro de {@link #getPhrases()}.
+         */
+        void phraseFound(int phraseIndex);
+    }
+
+    /**
+     * Estado de una búsqueda en curso. Las frases no se buscan a través de segmentos distintos
+     * (por ejemplo, páginas o celdas): cada segmento empieza con {@link #beginSegment()}.
+     */
+    public final class Session {
+
+        private final MatchListener listener;
+        private final boolean[] found;
+        private int foundCount;
+        private int state;
+
+        private Session(MatchListener listener) {
+            this.listener = listener;
+            this.found = new boolean[phrases.size()];
+        }
+
+        /**
+         * Empieza un segmento de texto nuevo. Las frases vacías se consideran encontradas en cualquier segmento.
+         */
+        public void beginSegment() {
+            state = 0;
+            report(0);
+        }
+
+        /**
+         * Procesa un carácter del segmento actual.
+         *
+         * @param c Carácter a procesar.
+         */
+        public void feed(char c) {
+            int s = state;
+            int target = next(s, c);
+            while (target < 0 && s != 0) {
+                s = failure[s];
+                target = next(s, c);
+            }
+            state = target >= 0 ? target : 0;
+            for (int out = state; out > 0; out = dictionaryLink[out]) {
+                report(out);
+            }
+        }
+
+        /**
+         * Procesa una secuencia de caracteres del segmento actual y se detiene en cuanto todas las frases
+         * han sido encontradas.
+         *
+         * @param text Texto a procesar.
+         */
+        public void feed(CharSequence text) {
+            for (int i = 0, n = text.length(); i < n && !isComplete(); i++) {
+                feed(text.charAt(i));
+            }
+        }
+
+        /**
+         * @return true si ya se encontraron todas las frases.
+         */
+        public boolean isComplete() {
+            return foundCount == found.length;
+        }
+
+        /**
+         * @param phraseIndex Índice de la frase.
+         * @return true si la frase ya fue encontrada.
+         */
+        public boolean isFound(int phraseIndex) {
+            return found[phraseIndex];
+        }
+
+        private void report(int node) {
+            for (int phraseIndex : outputs[node]) {
+                if (!found[phraseIndex]) {
+                    found[phraseIndex] = true;
+                    foundCount++;
+                    listener.phraseFound(phraseIndex);
+                }
+            }
+        }
+    }
+}
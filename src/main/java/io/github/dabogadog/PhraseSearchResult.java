@@ -0,0 +1,86 @@
+package io.github.dabogadog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esta clase contiene el resultado de buscar varias frases en un documento: para cada frase indica si se
+ * encontró y en qué página apareció por primera vez.
+ */
+public final class PhraseSearchResult {
+
+    /**
+     * Valor de página para las frases que no se encontraron.
+     */
+    public static final int NOT_FOUND = -1;
+
+    private final List<String> phrases;
+    private final int[] firstPages;
+
+    PhraseSearchResult(List<String> phrases, int[] firstPages) {
+        this.phrases = phrases;
+        this.firstPages = firstPages.clone();
+    }
+
+    /**
+     * @return Las frases buscadas, en el orden original.
+     */
+    public List<String> getPhrases() {
+        return phrases;
+    }
+
+    /**
+     * @param index Índice de la frase.
+     * @return true si la frase se encontró en el documento.
+     */
+    public boolean isFound(int index) {
+        return firstPages[index] != NOT_FOUND;
+    }
+
+    /**
+     * @param index Índice de la frase.
+     * @return Primera página (empezando en 1) donde aparece la frase, o {@link #NOT_FOUND}.
+     */
+    public int getFirstPage(int index) {
+        return firstPages[index];
+    }
+
+    /**
+     * @return true si todas las frases se encontraron.
+     */
+    public boolean allFound() {
+        for (int page : firstPages) {
+            if (page == NOT_FOUND) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Las frases que no se encontraron, en el orden original.
+     */
+    public List<String> getNotFoundPhrases() {
+        List<String> notFound = new ArrayList<>();
+        for (int i = 0; i < firstPages.length; i++) {
+            if (firstPages[i] == NOT_FOUND) {
+                notFound.add(phrases.get(i));
+            }
+        }
+        return Collections.unmodifiableList(notFound);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PhraseSearchResult[");
+        for (int i = 0; i < firstPages.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('"').append(phrases.get(i)).append("\"=");
+            sb.append(isFound(i) ? "página " + firstPages[i] : "no encontrada");
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,253 @@
+package io.github.dabogadog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Esta clase compara los recursos de las páginas de dos archivos PDF: las imágenes, los formularios XObject y
+ * las fuentes de cada {@code /Resources}. Detecta lo que la comparación de texto no ve, como una imagen
+ * sustituida o una fuente incrustada distinta.
+ *
+ * <p>Cada recurso se compara por el resumen SHA-256 de su contenido decodificado, calculado una sola vez por
+ * objeto indirecto. Las páginas que comparten el mismo diccionario de recursos en los dos archivos no se
+ * vuelven a comparar, así que el tiempo depende del número de objetos distintos y no del número de
+ * páginas.</p>
+ */
+public class ResourceComparator {
+
+    private static final Logger logger = Logger.getLogger(ResourceComparator.class.getName());
+
+    /**
+     * Compara los recursos de las páginas de dos archivos PDF.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return true si los recursos de las páginas son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean compareResources(String filePath1, String filePath2) {
+        return compareResources(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara los recursos de las páginas de dos archivos PDF, protegidos o no.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return true si los recursos de las páginas son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean compareResources(String filePath1, PdfCredentials credentials1,
+                                           String filePath2, PdfCredentials credentials2) {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return compareResources(handle1, handle2);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de recursos:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Compara los recursos de las páginas de dos documentos ya abiertos.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return true si los recursos de las páginas son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean compareResources(PdfDocumentHandle handle1, PdfDocumentHandle handle2) {
+        return compareResources(handle1, handle2, ComparisonMode.EXHAUSTIVE);
+    }
+
+    /**
+     * Compara los recursos de las páginas de dos documentos ya abiertos, deteniéndose según el modo.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @param mode    Cuántas páginas diferentes buscar antes de detenerse.
+     * @return true si los recursos de las páginas son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean compareResources(PdfDocumentHandle handle1, PdfDocumentHandle handle2,
+                                           ComparisonMode mode) {
+        try {
+            ResourceComparisonResult result = compareResourcesDetailed(handle1, handle2, mode);
+            if (result.isPageCountDifferent()) {
+                logger.log(Level.INFO, "Los archivos PDF tienen un número diferente de páginas.");
+            }
+            for (ResourceDifference difference : result.getDifferences()) {
+                logger.log(Level.INFO, "Los recursos de la página son diferentes: {0}", difference);
+            }
+            return result.areEqual();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación de recursos:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Compara los recursos de las páginas de dos archivos PDF y devuelve los que cambiaron.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static ResourceComparisonResult compareResourcesDetailed(String filePath1, String filePath2)
+            throws IOException {
+        return compareResourcesDetailed(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara los recursos de las páginas de dos archivos PDF, protegidos o no, y devuelve los que cambiaron.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static ResourceComparisonResult compareResourcesDetailed(String filePath1, PdfCredentials credentials1,
+                                                                    String filePath2, PdfCredentials credentials2)
+            throws IOException {
+        return compareResourcesDetailed(filePath1, credentials1, filePath2, credentials2, ComparisonMode.EXHAUSTIVE);
+    }
+
+    /**
+     * Compara los recursos de las páginas de dos archivos PDF, protegidos o no, y se detiene cuando encuentra
+     * el número de páginas diferentes del modo.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @param mode         Cuántas páginas diferentes buscar antes de detenerse.
+     * @return El resultado de la comparación.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static ResourceComparisonResult compareResourcesDetailed(String filePath1, PdfCredentials credentials1,
+                                                                    String filePath2, PdfCredentials credentials2,
+                                                                    ComparisonMode mode) throws IOException {
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(filePath1, credentials1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(filePath2, credentials2)) {
+            return compareResourcesDetailed(handle1, handle2, mode);
+        }
+    }
+
+    /**
+     * Compara los recursos de cada página de dos documentos ya abiertos.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @return El resultado de la comparación.
+     */
+    public static ResourceComparisonResult compareResourcesDetailed(PdfDocumentHandle handle1,
+                                                                    PdfDocumentHandle handle2) {
+        return compareResourcesDetailed(handle1, handle2, ComparisonMode.EXHAUSTIVE);
+    }
+
+    /**
+     * Compara los recursos de cada página de dos documentos ya abiertos, y se detiene cuando encuentra el
+     * número de páginas diferentes del modo. Los recursos se emparejan por su nombre en la página.
+     *
+     * @param handle1 Primer documento.
+     * @param handle2 Segundo documento.
+     * @param mode    Cuántas páginas diferentes buscar antes de detenerse.
+     * @return El resultado de la comparación.
+     */
+    public static ResourceComparisonResult compareResourcesDetailed(PdfDocumentHandle handle1,
+                                                                    PdfDocumentHandle handle2,
+                                                                    ComparisonMode mode) {
+        int numPages1 = handle1.getNumberOfPages();
+        int numPages2 = handle2.getNumberOfPages();
+        ResourceComparisonResult result = new ResourceComparisonResult(numPages1, numPages2);
+        if (numPages1 != numPages2) {
+            return result;
+        }
+
+        int hashed = handle1.getHashedResources() + handle2.getHashedResources();
+        Map<String, ResourceDigests.Resource> previous1 = null;
+        Map<String, ResourceDigests.Resource> previous2 = null;
+        List<ResourceDifference> previousDifferences = null;
+        int differences = 0;
+        int pageNumber = 1;
+        for (; pageNumber <= numPages1; pageNumber++) {
+            Map<String, ResourceDigests.Resource> resources1 = handle1.getPageResources(pageNumber);
+            Map<String, ResourceDigests.Resource> resources2 = handle2.getPageResources(pageNumber);
+
+            long start = Metrics.start();
+            List<ResourceDifference> pageDifferences;
+            if (resources1 == previous1 && resources2 == previous2) {
+                // Mismos diccionarios de recursos que la página anterior: mismo resultado.
+                pageDifferences = previousDifferences;
+            } else {
+                pageDifferences = compare(resources1, resources2);
+                previous1 = resources1;
+                previous2 = resources2;
+                previousDifferences = pageDifferences;
+            }
+            for (ResourceDifference difference : pageDifferences) {
+                result.addDifference(difference.atPage(pageNumber));
+            }
+            Metrics.end(ComparisonMetrics.Phase.COMPARE, start);
+
+            if (!pageDifferences.isEmpty()) {
+                differences++;
+            }
+            if ((mode.isDone(differences) || handle1.isCancelled()) && pageNumber < numPages1) {
+                result.stop();
+                break;
+            }
+        }
+        result.finish(Math.min(pageNumber, numPages1),
+                handle1.getHashedResources() + handle2.getHashedResources() - hashed);
+        return result;
+    }
+
+    /**
+     * Recorre a la vez los recursos de las dos páginas, ordenados por clave.
+     *
+     * @return Las diferencias, con número de página 0.
+     */
+    static List<ResourceDifference> compare(Map<String, ResourceDigests.Resource> resources1,
+                                                    Map<String, ResourceDigests.Resource> resources2) {
+        List<ResourceDifference> differences = new ArrayList<>();
+        Iterator<Map.Entry<String, ResourceDigests.Resource>> it1 = resources1.entrySet().iterator();
+        Iterator<Map.Entry<String, ResourceDigests.Resource>> it2 = resources2.entrySet().iterator();
+        Map.Entry<String, ResourceDigests.Resource> entry1 = it1.hasNext() ? it1.next() : null;
+        Map.Entry<String, ResourceDigests.Resource> entry2 = it2.hasNext() ? it2.next() : null;
+        while (entry1 != null || entry2 != null) {
+            int cmp = entry1 == null ? 1 : entry2 == null ? -1 : entry1.getKey().compareTo(entry2.getKey());
+            if (cmp < 0) {
+                differences.add(difference(entry1, ResourceDifference.Change.REMOVED, entry1.getValue(), null));
+                entry1 = it1.hasNext() ? it1.next() : null;
+            } else if (cmp > 0) {
+                differences.add(difference(entry2, ResourceDifference.Change.ADDED, null, entry2.getValue()));
+                entry2 = it2.hasNext() ? it2.next() : null;
+            } else {
+                ResourceDigests.Resource resource1 = entry1.getValue();
+                ResourceDigests.Resource resource2 = entry2.getValue();
+                if (resource1.kind != resource2.kind || !resource1.digest.equals(resource2.digest)) {
+                    differences.add(difference(entry2, ResourceDifference.Change.CHANGED, resource1, resource2));
+                }
+                entry1 = it1.hasNext() ? it1.next() : null;
+                entry2 = it2.hasNext() ? it2.next() : null;
+            }
+        }
+        return differences;
+    }
+
+    private static ResourceDifference difference(Map.Entry<String, ResourceDigests.Resource> entry,
+                                                 ResourceDifference.Change change,
+                                                 ResourceDigests.Resource resource1,
+                                                 ResourceDigests.Resource resource2) {
+        // Las claves llevan delante el tipo de diccionario ("X:" o "F:").
+        return new ResourceDifference(0, entry.getValue().kind, entry.getKey().substring(2), change,
+                resource1 != null ? resource1.digest : null, resource2 != null ? resource2.digest : null);
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.dabogadog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esta clase contiene el resultado de la comparación de los recursos de las páginas de dos archivos PDF: las
+ * imágenes, formularios XObject y fuentes que se añadieron, se quitaron o cambiaron en cada página.
+ */
+public final class ResourceComparisonResult {
+
+    private final int numPages1;
+    private final int numPages2;
+    private final List<ResourceDifference> differences = new ArrayList<>();
+    private int comparedPages;
+    private int hashedObjects;
+    private boolean complete = true;
+
+    ResourceComparisonResult(int numPages1, int numPages2) {
+        this.numPages1 = numPages1;
+        this.numPages2 = numPages2;
+    }
+
+    void addDifference(ResourceDifference difference) {
+        differences.add(difference);
+    }
+
+    void finish(int comparedPages, int hashedObjects) {
+        this.comparedPages = comparedPages;
+        this.hashedObjects = hashedObjects;
+    }
+
+    void stop() {
+        complete = false;
+    }
+
+    /**
+     * @return true si los dos archivos tienen el mismo número de páginas y los mismos recursos en todas ellas.
+     */
+    public boolean areEqual() {
+        return numPages1 == numPages2 && differences.isEmpty();
+    }
+
+    /**
+     * @return true si los archivos tienen un número diferente de páginas. En ese caso no se compara ninguna.
+     */
+    public boolean isPageCountDifferent() {
+        return numPages1 != numPages2;
+    }
+
+    /**
+     * @return Número de páginas del primer archivo.
+     */
+    public int getNumberOfPages1() {
+        return numPages1;
+    }
+
+    /**
+     * @return Número de páginas del segundo archivo.
+     */
+    public int getNumberOfPages2() {
+        return numPages2;
+    }
+
+    /**
+     * @return false si la comparación se detuvo al alcanzar el máximo de diferencias de su
+     * {@link ComparisonMode}, antes de comparar todas las páginas.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return Los recursos añadidos, quitados o cambiados, en orden de página y de nombre.
+     */
+    public List<ResourceDifference> getDifferences() {
+        return Collections.unmodifiableList(differences);
+    }
+
+    /**
+     * @return Número de objetos (imágenes, formularios, fuentes y sus programas) cuyo contenido se resumió
+     * entre los dos archivos. Cada objeto compartido entre páginas se resume una sola vez, así que este número
+     * depende de los objetos distintos y no del número de páginas.
+     */
+    public int getHashedObjects() {
+        return hashedObjects;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceComparisonResult[iguales=" + areEqual()
+                + ", páginas=" + numPages1 + "/" + numPages2
+                + ", objetos resumidos=" + hashedObjects
+                + ", diferencias=" + differences
+                + (complete ? "" : ", detenida en la página " + comparedPages) + "]";
+    }
+}
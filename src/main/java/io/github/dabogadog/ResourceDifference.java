@@ -0,0 +1,115 @@
+package io.github.dabogadog;
+
+/**
+ * Esta clase describe un recurso de una página (una imagen, un formulario XObject o una fuente) que se añadió,
+ * se quitó o cambió entre dos archivos PDF.
+ */
+public final class ResourceDifference {
+
+    /**
+     * Tipo de recurso.
+     */
+    public enum Kind {
+        /**
+         * XObject de imagen.
+         */
+        IMAGE,
+        /**
+         * Formulario XObject: contenido reutilizable con sus propios recursos.
+         */
+        FORM,
+        /**
+         * Fuente, incrustada o no.
+         */
+        FONT
+    }
+
+    /**
+     * Tipo de cambio.
+     */
+    public enum Change {
+        /**
+         * El recurso solo existe en el segundo archivo.
+         */
+        ADDED,
+        /**
+         * El recurso solo existe en el primer archivo.
+         */
+        REMOVED,
+        /**
+         * El recurso existe en los dos archivos con distinto contenido.
+         */
+        CHANGED
+    }
+
+    private final int pageNumber;
+    private final Kind kind;
+    private final String name;
+    private final Change change;
+    private final String digest1;
+    private final String digest2;
+
+    ResourceDifference(int pageNumber, Kind kind, String name, Change change, String digest1, String digest2) {
+        this.pageNumber = pageNumber;
+        this.kind = kind;
+        this.name = name;
+        this.change = change;
+        this.digest1 = digest1;
+        this.digest2 = digest2;
+    }
+
+    /**
+     * @return Número de página, empezando en 1.
+     */
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * @return Tipo del recurso; si cambió de tipo, el del segundo archivo.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return Nombre del recurso en la página, por ejemplo {@code Im1} o {@code F2}. Los recursos de un
+     * formulario llevan delante el nombre del formulario: {@code Fm1/Im3}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Tipo de cambio.
+     */
+    public Change getChange() {
+        return change;
+    }
+
+    /**
+     * @return Resumen SHA-256 del contenido decodificado en el primer archivo, en hexadecimal, o null si el
+     * recurso no existe en él.
+     */
+    public String getDigest1() {
+        return digest1;
+    }
+
+    /**
+     * @return Resumen SHA-256 del contenido decodificado en el segundo archivo, en hexadecimal, o null si el
+     * recurso no existe en él.
+     */
+    public String getDigest2() {
+        return digest2;
+    }
+
+    ResourceDifference atPage(int pageNumber) {
+        return new ResourceDifference(pageNumber, kind, name, change, digest1, digest2);
+    }
+
+    @Override
+    public String toString() {
+        return "página " + pageNumber + ": " + kind + " " + name + " " + change
+                + (change == Change.CHANGED ? " (" + digest1.substring(0, 12) + " -> " + digest2.substring(0, 12) + ")" : "");
+    }
+}
@@ -0,0 +1,357 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Esta clase resume el contenido decodificado de los recursos de las páginas de un documento: imágenes,
+ * formularios XObject y fuentes. Un filtro de compresión distinto no cambia el resumen; una imagen o un
+ * programa de fuente distinto sí.
+ *
+ * <p>Los resúmenes se guardan por referencia indirecta, así que un logotipo compartido por miles de páginas se
+ * decodifica una sola vez. Los diccionarios {@code /Resources} compartidos también se recorren una sola vez:
+ * todas las páginas que los usan reciben el mismo mapa, lo que permite a {@link ResourceComparator} no volver
+ * a compararlos.</p>
+ */
+final class ResourceDigests {
+
+    /**
+     * Profundidad máxima al heredar {@code /Resources} del árbol de páginas.
+     */
+    private static final int MAX_INHERITANCE_DEPTH = 64;
+
+    /**
+     * Tipos de resumen. Forman parte de la clave de cada objeto, porque el mismo flujo puede resumirse, por
+     * ejemplo, como imagen y como programa de fuente.
+     */
+    private static final int IMAGE = 0;
+    private static final int FORM = 1;
+    private static final int FONT = 2;
+    private static final int STREAM = 3;
+    private static final int TYPES = 4;
+
+    private static final PdfName[] FONT_FILES = {PdfName.FontFile, PdfName.FontFile2, PdfName.FontFile3};
+
+    private final PdfDocument pdfDoc;
+    private final Map<Long, String> objectDigests = new HashMap<>();
+    private final Map<Long, Map<String, Resource>> resourceMaps = new HashMap<>();
+    private final Set<Long> inProgress = new HashSet<>();
+    private int hashedObjects;
+
+    ResourceDigests(PdfDocument pdfDoc) {
+        this.pdfDoc = pdfDoc;
+    }
+
+    /**
+     * Devuelve los recursos de una página, incluidos los de sus formularios, con el resumen de cada uno.
+     *
+     * @param pageNumber Número de página, empezando en 1.
+     * @return Los recursos por clave ({@code X:Im1}, {@code X:Fm1/Im3}, {@code F:F1}), ordenados. Las páginas
+     * que comparten el diccionario {@code /Resources} reciben la misma instancia.
+     */
+    Map<String, Resource> pageResources(int pageNumber) {
+        long start = Metrics.start();
+        PdfObject resources = inheritedResources(pdfDoc.getPage(pageNumber).getPdfObject());
+        Map<String, Resource> result = resources != null ? resourceMap(resources) : Collections.<String, Resource>emptyMap();
+        PdfReaders.releasePage(pdfDoc, pageNumber);
+        Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+        return result;
+    }
+
+    /**
+     * Devuelve el diccionario {@code /Resources} de una página, heredado de sus antepasados en el árbol de
+     * páginas si la página no tiene uno propio.
+     *
+     * @param page Diccionario de la página.
+     * @return El objeto {@code /Resources} sin resolver, o null si ni la página ni sus antepasados lo tienen.
+     */
+    static PdfObject inheritedResources(PdfDictionary page) {
+        PdfDictionary node = page;
+        PdfObject resources = null;
+        for (int depth = 0; node != null && resources == null && depth < MAX_INHERITANCE_DEPTH; depth++) {
+            resources = node.get(PdfName.Resources, false);
+            node = node.getAsDictionary(PdfName.Parent);
+        }
+        return resources;
+    }
+
+    /**
+     * @return Número de objetos cuyo contenido se ha resumido hasta ahora.
+     */
+    int getHashedObjects() {
+        return hashedObjects;
+    }
+
+    private Map<String, Resource> resourceMap(PdfObject resources) {
+        Long key = key(resources);
+        Map<String, Resource> cached = key != null ? resourceMaps.get(key) : null;
+        if (cached != null) {
+            return cached;
+        }
+        TreeMap<String, Resource> map = new TreeMap<>();
+        collect(resolve(resources), "", map, new HashSet<Long>());
+        Map<String, Resource> result = Collections.unmodifiableMap(map);
+        if (key != null) {
+            resourceMaps.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Añade los recursos de un diccionario {@code /Resources}. Los de cada formulario se añaden con su nombre
+     * delante; un formulario que se contiene a sí mismo no se vuelve a recorrer.
+     */
+    private void collect(PdfObject resourcesObject, String prefix, Map<String, Resource> map, Set<Long> forms) {
+        if (!(resourcesObject instanceof PdfDictionary)) {
+            return;
+        }
+        PdfDictionary resources = (PdfDictionary) resourcesObject;
+        PdfDictionary xObjects = resources.getAsDictionary(PdfName.XObject);
+        if (xObjects != null) {
+            for (PdfName name : xObjects.keySet()) {
+                PdfObject reference = xObjects.get(name, false);
+                PdfObject xObject = resolve(reference);
+                if (!(xObject instanceof PdfStream)) {
+                    continue;
+                }
+                String path = prefix + name.getValue();
+                if (PdfName.Form.equals(((PdfStream) xObject).getAsName(PdfName.Subtype))) {
+                    map.put("X:" + path, new Resource(ResourceDifference.Kind.FORM, formDigest(reference)));
+                    Long formKey = key(reference);
+                    if (formKey == null || forms.add(formKey)) {
+                        collect(resolve(((PdfStream) xObject).get(PdfName.Resources, false)), path + "/", map, forms);
+                        forms.remove(formKey);
+                    }
+                } else {
+                    map.put("X:" + path, new Resource(ResourceDifference.Kind.IMAGE, imageDigest(reference)));
+                }
+            }
+        }
+        PdfDictionary fonts = resources.getAsDictionary(PdfName.Font);
+        if (fonts != null) {
+            for (PdfName name : fonts.keySet()) {
+                PdfObject reference = fonts.get(name, false);
+                if (resolve(reference) instanceof PdfDictionary) {
+                    map.put("F:" + prefix + name.getValue(), new Resource(ResourceDifference.Kind.FONT, fontDigest(reference)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Resumen de una imagen: sus dimensiones, sus bytes decodificados y los de su máscara.
+     */
+    private String imageDigest(final PdfObject reference) {
+        return memoize(reference, IMAGE, new Digester() {
+            @Override
+            public void update(MessageDigest digest, PdfObject object) {
+                PdfStream image = (PdfStream) object;
+                updateText(digest, String.valueOf(image.get(PdfName.Width)));
+                updateText(digest, String.valueOf(image.get(PdfName.Height)));
+                updateText(digest, String.valueOf(image.get(PdfName.BitsPerComponent)));
+                updateStream(digest, image);
+                PdfObject mask = image.get(PdfName.SMask, false);
+                if (mask != null && resolve(mask) instanceof PdfStream) {
+                    updateText(digest, imageDigest(mask));
+                }
+            }
+        });
+    }
+
+    /**
+     * Resumen de un formulario: su contenido decodificado, su caja y su matriz. Sus recursos se comparan por
+     * separado.
+     */
+    private String formDigest(PdfObject reference) {
+        return memoize(reference, FORM, new Digester() {
+            @Override
+            public void update(MessageDigest digest, PdfObject object) {
+                PdfStream form = (PdfStream) object;
+                updateText(digest, String.valueOf(form.get(PdfName.BBox)));
+                updateText(digest, String.valueOf(form.get(PdfName.Matrix)));
+                updateStream(digest, form);
+            }
+        });
+    }
+
+    /**
+     * Resumen de una fuente: su tipo, su nombre y su programa incrustado (el de la fuente descendiente en las
+     * fuentes compuestas, o los procedimientos de cada carácter en las de tipo 3). Una fuente no incrustada se
+     * resume solo por su nombre.
+     */
+    private String fontDigest(PdfObject reference) {
+        return memoize(reference, FONT, new Digester() {
+            @Override
+            public void update(MessageDigest digest, PdfObject object) {
+                PdfDictionary font = (PdfDictionary) object;
+                updateText(digest, String.valueOf(font.getAsName(PdfName.Subtype)));
+                updateText(digest, String.valueOf(font.getAsName(PdfName.BaseFont)));
+                PdfDictionary descriptor = font.getAsDictionary(PdfName.FontDescriptor);
+                PdfArray descendants = font.getAsArray(PdfName.DescendantFonts);
+                if (descriptor == null && descendants != null && descendants.size() > 0
+                        && descendants.getAsDictionary(0) != null) {
+                    descriptor = descendants.getAsDictionary(0).getAsDictionary(PdfName.FontDescriptor);
+                }
+                if (descriptor != null) {
+                    for (PdfName fontFile : FONT_FILES) {
+                        PdfObject program = descriptor.get(fontFile, false);
+                        if (resolve(program) instanceof PdfStream) {
+                            updateText(digest, fontFile.getValue() + ":" + streamDigest(program));
+                        }
+                    }
+                }
+                PdfDictionary charProcs = font.getAsDictionary(PdfName.CharProcs);
+                if (charProcs != null) {
+                    List<PdfName> glyphs = new ArrayList<>(charProcs.keySet());
+                    Collections.sort(glyphs);
+                    for (PdfName glyph : glyphs) {
+                        PdfObject procedure = charProcs.get(glyph, false);
+                        if (resolve(procedure) instanceof PdfStream) {
+                            updateText(digest, glyph.getValue() + ":" + streamDigest(procedure));
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Resumen de los bytes decodificados de un flujo, como un programa de fuente compartido por varias fuentes.
+     */
+    private String streamDigest(PdfObject reference) {
+        return memoize(reference, STREAM, new Digester() {
+            @Override
+            public void update(MessageDigest digest, PdfObject object) {
+                updateStream(digest, (PdfStream) object);
+            }
+        });
+    }
+
+    /**
+     * Calcula un resumen, o lo devuelve si el objeto indirecto ya se resumió con el mismo tipo.
+     */
+    private String memoize(PdfObject reference, int type, Digester digester) {
+        Long key = key(reference);
+        Long typedKey = key != null ? key * TYPES + type : null;
+        if (typedKey != null) {
+            String cached = objectDigests.get(typedKey);
+            if (cached != null) {
+                return cached;
+            }
+            if (!inProgress.add(typedKey)) {
+                // Referencia circular, por ejemplo una máscara que se refiere a su imagen.
+                return "ciclo";
+            }
+        }
+        try {
+            MessageDigest digest = newDigest();
+            digester.update(digest, resolve(reference));
+            hashedObjects++;
+            String result = toHex(digest.digest());
+            if (typedKey != null) {
+                objectDigests.put(typedKey, result);
+            }
+            return result;
+        } finally {
+            if (typedKey != null) {
+                inProgress.remove(typedKey);
+            }
+        }
+    }
+
+    /**
+     * Añade los bytes decodificados de un flujo. Si un filtro no está soportado (JBIG2, por ejemplo), se usan
+     * los bytes tal como están en el archivo.
+     */
+    private static void updateStream(MessageDigest digest, PdfStream stream) {
+        byte[] bytes;
+        try {
+            bytes = stream.getBytes(true);
+            digest.update((byte) 'd');
+        } catch (PdfException e) {
+            bytes = stream.getBytes(false);
+            digest.update((byte) 'r');
+        }
+        updateLength(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void updateText(MessageDigest digest, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        updateLength(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void updateLength(MessageDigest digest, int length) {
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+    }
+
+    private static PdfObject resolve(PdfObject object) {
+        return object instanceof PdfIndirectReference ? ((PdfIndirectReference) object).getRefersTo() : object;
+    }
+
+    /**
+     * @return La clave de un objeto indirecto (número y generación), o null si el objeto es directo.
+     */
+    private static Long key(PdfObject object) {
+        PdfIndirectReference reference = object instanceof PdfIndirectReference ? (PdfIndirectReference) object
+                : object != null ? object.getIndirectReference() : null;
+        return reference != null ? ((long) reference.getObjNumber() << 16) | reference.getGenNumber() : null;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+
+    private interface Digester {
+
+        void update(MessageDigest digest, PdfObject object);
+    }
+
+    /**
+     * Recurso de una página: su tipo y el resumen de su contenido.
+     */
+    static final class Resource {
+
+        final ResourceDifference.Kind kind;
+        final String digest;
+
+        Resource(ResourceDifference.Kind kind, String digest) {
+            this.kind = kind;
+            this.digest = digest;
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lo que cambiaron las actualizaciones incrementales de un documento para las comparaciones: qué páginas,
+ * si cambiaron los marcadores o los destinos con nombre, y si cambió el árbol de páginas, en cuyo caso los
+ * números de página dejan de corresponder y hay que comparar todo.
+ *
+ * <p>Los objetos nuevos no se miran: solo se llega a ellos desde un objeto que ya existía y que la
+ * actualización tuvo que modificar para apuntarles. Cada objeto modificado se clasifica por su tipo: una
+ * página se encuentra subiendo por {@code /Parent}, una anotación por su {@code /P}, y las firmas, los campos
+ * de formulario y los metadatos XMP no afectan a ninguna comparación. Solo si queda algún objeto sin clasificar
+ * (un flujo de contenido, una fuente o un diccionario de recursos compartido modificados en su sitio) se
+ * recorren las dependencias de todas las páginas para saber cuáles llegan a él.</p>
+ */
+final class RevisionChanges {
+
+    /**
+     * Valor de un enlace del catálogo que no está o que no es una referencia indirecta.
+     */
+    private static final int ABSENT = 0;
+    private static final int DIRECT = -1;
+
+    /**
+     * Enlaces del catálogo que se guardan con el resultado: el árbol de páginas, los marcadores y los dos
+     * sitios de los destinos con nombre.
+     */
+    private static final PdfName[] CATALOG_LINKS = {PdfName.Pages, PdfName.Outlines, PdfName.Names, PdfName.Dests};
+
+    private static final int MAX_DEPTH = 64;
+
+    private final PdfDocument pdfDoc;
+    private final BitSet pages = new BitSet();
+    private boolean pageTreeChanged;
+    private boolean outlinesChanged;
+    private boolean destinationsChanged;
+    private BitSet outlineObjects;
+    private BitSet destinationObjects;
+
+    private RevisionChanges(PdfDocument pdfDoc) {
+        this.pdfDoc = pdfDoc;
+    }
+
+    /**
+     * @return Los números de objeto de los enlaces del catálogo, en el orden de {@link #CATALOG_LINKS}: 0 si
+     * el enlace no está y -1 si el valor no es una referencia indirecta.
+     */
+    static int[] catalogLinks(PdfDocument pdfDoc) {
+        PdfDictionary catalog = pdfDoc.getCatalog().getPdfObject();
+        int[] links = new int[CATALOG_LINKS.length];
+        for (int i = 0; i < links.length; i++) {
+            PdfObject value = catalog.get(CATALOG_LINKS[i], false);
+            links[i] = value == null ? ABSENT
+                    : value instanceof PdfIndirectReference ? ((PdfIndirectReference) value).getObjNumber() : DIRECT;
+        }
+        return links;
+    }
+
+    /**
+     * Clasifica los objetos que cambiaron las actualizaciones.
+     *
+     * @param pdfDoc       Documento abierto en su revisión más reciente.
+     * @param changed      Objetos que definen o liberan las actualizaciones.
+     * @param existing     Objetos en uso en la revisión anterior a las actualizaciones.
+     * @param catalogLinks Los enlaces del catálogo en la revisión anterior, de {@link #catalogLinks}.
+     * @return Los cambios.
+     */
+    static RevisionChanges analyze(PdfDocument pdfDoc, BitSet changed, BitSet existing, int[] catalogLinks) {
+        long start = Metrics.start();
+        RevisionChanges changes = new RevisionChanges(pdfDoc);
+        changes.classify(changed, existing, catalogLinks);
+        Metrics.end(ComparisonMetrics.Phase.PARSE, start);
+        return changes;
+    }
+
+    /**
+     * @return Las páginas, empezando en 1, a las que llega algún objeto modificado.
+     */
+    BitSet getPages() {
+        return pages;
+    }
+
+    /**
+     * @return true si cambió el árbol de páginas: los números de página de las dos revisiones pueden no
+     * corresponder.
+     */
+    boolean isPageTreeChanged() {
+        return pageTreeChanged;
+    }
+
+    /**
+     * @return true si cambiaron los marcadores.
+     */
+    boolean isOutlinesChanged() {
+        return outlinesChanged;
+    }
+
+    /**
+     * @return true si cambiaron los destinos con nombre, que usan los marcadores y los enlaces de todas las
+     * páginas.
+     */
+    boolean isDestinationsChanged() {
+        return destinationsChanged;
+    }
+
+    private void classify(BitSet changed, BitSet existing, int[] catalogLinks) {
+        PdfDictionary catalog = pdfDoc.getCatalog().getPdfObject();
+        int catalogNumber = objectNumber(catalog);
+        int infoNumber = objectNumber(pdfDoc.getTrailer().get(PdfName.Info, false));
+        BitSet unresolved = new BitSet();
+
+        for (int n = changed.nextSetBit(0); n >= 0 && !pageTreeChanged; n = changed.nextSetBit(n + 1)) {
+            if (!existing.get(n) || n == infoNumber) {
+                // Los metadatos del diccionario Info se comparan siempre: es un solo diccionario.
+                continue;
+            }
+            if (n == catalogNumber) {
+                classifyCatalog(catalogLinks);
+                continue;
+            }
+            PdfObject object = pdfDoc.getPdfObject(n);
+            if (!(object instanceof PdfDictionary)) {
+                // Un objeto liberado, o un arreglo como /Annots o /Contents modificado en su sitio.
+                unresolved.set(n);
+                continue;
+            }
+            PdfDictionary dictionary = (PdfDictionary) object;
+            PdfName type = dictionary.getAsName(PdfName.Type);
+            if (PdfName.Pages.equals(type)) {
+                pageTreeChanged = true;
+            } else if (PdfName.Page.equals(type)) {
+                int pageNumber = pageNumber(dictionary);
+                if (pageNumber < 0) {
+                    pageTreeChanged = true;
+                } else {
+                    pages.set(pageNumber);
+                }
+            } else if (isIgnored(dictionary, type) || classifyAnnotation(dictionary)) {
+                continue;
+            } else if (outlineObjects().get(n)) {
+                outlinesChanged = true;
+            } else if (destinationObjects().get(n)) {
+                destinationsChanged = true;
+            } else {
+                unresolved.set(n);
+            }
+        }
+
+        if (!unresolved.isEmpty() && !pageTreeChanged) {
+            findDependentPages(unresolved);
+        }
+    }
+
+    /**
+     * El catálogo se reescribe en casi todas las actualizaciones (por ejemplo, para añadir /AcroForm al
+     * firmar); solo importa si cambió alguno de sus enlaces.
+     */
+    private void classifyCatalog(int[] previous) {
+        int[] current = catalogLinks(pdfDoc);
+        if (current[0] != previous[0] || current[0] == DIRECT) {
+            pageTreeChanged = true;
+        }
+        if (current[1] != previous[1] || current[1] == DIRECT) {
+            outlinesChanged = true;
+        }
+        for (int i = 2; i < current.length; i++) {
+            if (current[i] != previous[i] || current[i] == DIRECT) {
+                destinationsChanged = true;
+            }
+        }
+    }
+
+    /**
+     * @return true si el objeto no interviene en ninguna comparación: firmas, sellos de tiempo, el
+     * diccionario /AcroForm, campos de formulario que no son anotaciones, metadatos XMP y datos de validación.
+     */
+    private static boolean isIgnored(PdfDictionary dictionary, PdfName type) {
+        if (PdfName.Sig.equals(type) || PdfName.DocTimeStamp.equals(type) || PdfName.Metadata.equals(type)
+                || PdfName.DSS.equals(type) || PdfName.XRef.equals(type) || PdfName.ObjStm.equals(type)) {
+            return true;
+        }
+        if (dictionary.containsKey(PdfName.ByteRange) || dictionary.containsKey(PdfName.Fields)) {
+            return true;
+        }
+        return !dictionary.containsKey(PdfName.Subtype)
+                && (dictionary.containsKey(PdfName.FT) || dictionary.containsKey(PdfName.T));
+    }
+
+    /**
+     * Busca la página de una anotación por su {@code /P}, comprobando que está en el {@code /Annots} de esa
+     * página.
+     *
+     * @return true si se encontró la página.
+     */
+    private boolean classifyAnnotation(PdfDictionary annotation) {
+        if (!annotation.containsKey(PdfName.Subtype) || !annotation.containsKey(PdfName.Rect)) {
+            return false;
+        }
+        PdfDictionary page = annotation.getAsDictionary(PdfName.P);
+        PdfArray annots = page != null ? page.getAsArray(PdfName.Annots) : null;
+        if (annots == null || !PdfName.Page.equals(page.getAsName(PdfName.Type))) {
+            return false;
+        }
+        int annotationNumber = objectNumber(annotation);
+        for (int i = 0; i < annots.size(); i++) {
+            if (objectNumber(annots.get(i, false)) == annotationNumber) {
+                int pageNumber = pageNumber(page);
+                if (pageNumber > 0) {
+                    pages.set(pageNumber);
+                    return true;
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calcula el número de una página subiendo por {@code /Parent} y sumando las páginas de los hermanos
+     * anteriores en cada nivel, sin cargar el resto del árbol. El resultado se comprueba con iText.
+     *
+     * @return El número de página, o -1 si la página no está en el árbol.
+     */
+    private int pageNumber(PdfDictionary page) {
+        int number = 1;
+        int pageNumber = objectNumber(page);
+        PdfDictionary node = page;
+        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+            PdfDictionary parent = node.getAsDictionary(PdfName.Parent);
+            if (parent == null) {
+                break;
+            }
+            PdfArray kids = parent.getAsArray(PdfName.Kids);
+            int nodeNumber = objectNumber(node);
+            boolean found = false;
+            for (int i = 0; kids != null && i < kids.size() && !found; i++) {
+                if (objectNumber(kids.get(i, false)) == nodeNumber) {
+                    found = true;
+                } else {
+                    PdfDictionary kid = kids.getAsDictionary(i);
+                    PdfNumber count = kid != null && PdfName.Pages.equals(kid.getAsName(PdfName.Type))
+                            ? kid.getAsNumber(PdfName.Count) : null;
+                    number += count != null ? count.intValue() : 1;
+                }
+            }
+            if (!found) {
+                return -1;
+            }
+            node = parent;
+        }
+        if (number < 1 || number > pdfDoc.getNumberOfPages()
+                || objectNumber(pdfDoc.getPage(number).getPdfObject()) != pageNumber) {
+            return -1;
+        }
+        PdfReaders.releasePage(pdfDoc, number);
+        return number;
+    }
+
+    /**
+     * Recorre una vez las dependencias de todas las páginas (contenido, recursos y anotaciones, sin subir por
+     * {@code /Parent} ni entrar en otras páginas), guardando de qué objetos se llega a cada uno, y después sube
+     * desde los objetos sin clasificar hasta las páginas.
+     */
+    private void findDependentPages(BitSet unresolved) {
+        Map<Integer, List<Integer>> referrers = new HashMap<>();
+        Map<Integer, Integer> pageNumbers = new HashMap<>();
+        BitSet visited = new BitSet();
+        Deque<Object[]> pending = new ArrayDeque<>();
+
+        for (int i = 1; i <= pdfDoc.getNumberOfPages(); i++) {
+            PdfDictionary page = pdfDoc.getPage(i).getPdfObject();
+            int pageNumber = objectNumber(page);
+            pageNumbers.put(pageNumber, i);
+            pending.push(new Object[]{pageNumber, page});
+            if (!page.containsKey(PdfName.Resources)) {
+                pending.push(new Object[]{pageNumber, inheritedResources(page)});
+            }
+            while (!pending.isEmpty()) {
+                Object[] item = pending.pop();
+                int owner = (Integer) item[0];
+                PdfObject object = (PdfObject) item[1];
+                if (object == null) {
+                    continue;
+                }
+                if (object.isIndirectReference()) {
+                    int n = ((PdfIndirectReference) object).getObjNumber();
+                    referrers.computeIfAbsent(n, k -> new ArrayList<>()).add(owner);
+                    if (visited.get(n)) {
+                        continue;
+                    }
+                    visited.set(n);
+                    PdfObject target = ((PdfIndirectReference) object).getRefersTo();
+                    if (target instanceof PdfDictionary && isPageTreeNode((PdfDictionary) target)) {
+                        continue;
+                    }
+                    pending.push(new Object[]{n, target});
+                } else if (object.isDictionary() || object.isStream()) {
+                    PdfDictionary dictionary = (PdfDictionary) object;
+                    for (PdfName key : dictionary.keySet()) {
+                        if (!PdfName.Parent.equals(key) && !PdfName.P.equals(key)) {
+                            pending.push(new Object[]{owner, dictionary.get(key, false)});
+                        }
+                    }
+                } else if (object.isArray()) {
+                    PdfArray array = (PdfArray) object;
+                    for (int j = 0; j < array.size(); j++) {
+                        pending.push(new Object[]{owner, array.get(j, false)});
+                    }
+                }
+            }
+            PdfReaders.releasePage(pdfDoc, i);
+        }
+
+        BitSet reached = new BitSet();
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int n = unresolved.nextSetBit(0); n >= 0; n = unresolved.nextSetBit(n + 1)) {
+            reached.set(n);
+            queue.add(n);
+        }
+        while (!queue.isEmpty()) {
+            int n = queue.poll();
+            Integer pageNumber = pageNumbers.get(n);
+            if (pageNumber != null) {
+                pages.set(pageNumber);
+                continue;
+            }
+            List<Integer> owners = referrers.get(n);
+            if (owners != null) {
+                for (int owner : owners) {
+                    if (!reached.get(owner)) {
+                        reached.set(owner);
+                        queue.add(owner);
+                    }
+                }
+            }
+        }
+    }
+
+    private static PdfObject inheritedResources(PdfDictionary page) {
+        PdfDictionary node = page.getAsDictionary(PdfName.Parent);
+        for (int depth = 0; node != null && depth < MAX_DEPTH; depth++) {
+            PdfObject resources = node.get(PdfName.Resources, false);
+            if (resources != null) {
+                return resources;
+            }
+            node = node.getAsDictionary(PdfName.Parent);
+        }
+        return null;
+    }
+
+    private static boolean isPageTreeNode(PdfDictionary dictionary) {
+        PdfName type = dictionary.getAsName(PdfName.Type);
+        return PdfName.Page.equals(type) || PdfName.Pages.equals(type);
+    }
+
+    /**
+     * @return Los elementos de los marcadores, con los destinos y acciones que son objetos indirectos.
+     */
+    private BitSet outlineObjects() {
+        if (outlineObjects == null) {
+            outlineObjects = new BitSet();
+            PdfObject root = pdfDoc.getCatalog().getPdfObject().get(PdfName.Outlines, false);
+            Deque<PdfObject> pending = new ArrayDeque<>();
+            push(pending, root);
+            BitSet visited = new BitSet();
+            while (!pending.isEmpty()) {
+                PdfObject object = pending.pop();
+                int n = objectNumber(object);
+                if (n > 0) {
+                    if (visited.get(n)) {
+                        continue;
+                    }
+                    visited.set(n);
+                    outlineObjects.set(n);
+                }
+                PdfObject resolved = object.isIndirectReference() ? ((PdfIndirectReference) object).getRefersTo() : object;
+                if (!(resolved instanceof PdfDictionary)) {
+                    continue;
+                }
+                PdfDictionary item = (PdfDictionary) resolved;
+                mark(outlineObjects, item.get(PdfName.Dest, false));
+                PdfObject action = item.get(PdfName.A, false);
+                mark(outlineObjects, action);
+                PdfDictionary actionDictionary = item.getAsDictionary(PdfName.A);
+                if (actionDictionary != null) {
+                    mark(outlineObjects, actionDictionary.get(PdfName.D, false));
+                }
+                push(pending, item.get(PdfName.Next, false));
+                push(pending, item.get(PdfName.First, false));
+            }
+        }
+        return outlineObjects;
+    }
+
+    /**
+     * @return Los nodos del diccionario /Dests y del árbol de nombres /Dests, con los destinos que son
+     * objetos indirectos.
+     */
+    private BitSet destinationObjects() {
+        if (destinationObjects == null) {
+            destinationObjects = new BitSet();
+            PdfDictionary catalog = pdfDoc.getCatalog().getPdfObject();
+            mark(destinationObjects, catalog.get(PdfName.Names, false));
+            PdfDictionary dests = catalog.getAsDictionary(PdfName.Dests);
+            if (dests != null) {
+                for (PdfName key : dests.keySet()) {
+                    mark(destinationObjects, dests.get(key, false));
+                }
+            }
+            PdfDictionary names = catalog.getAsDictionary(PdfName.Names);
+            PdfObject tree = names != null ? names.get(PdfName.Dests, false) : null;
+            Deque<PdfObject> pending = new ArrayDeque<>();
+            push(pending, tree);
+            BitSet visited = new BitSet();
+            while (!pending.isEmpty()) {
+                PdfObject object = pending.pop();
+                int n = objectNumber(object);
+                if (n > 0) {
+                    if (visited.get(n)) {
+                        continue;
+                    }
+                    visited.set(n);
+                    destinationObjects.set(n);
+                }
+                PdfObject resolved = object.isIndirectReference() ? ((PdfIndirectReference) object).getRefersTo() : object;
+                if (!(resolved instanceof PdfDictionary)) {
+                    continue;
+                }
+                PdfDictionary node = (PdfDictionary) resolved;
+                PdfArray values = node.getAsArray(PdfName.Names);
+                for (int i = 1; values != null && i < values.size(); i += 2) {
+                    mark(destinationObjects, values.get(i, false));
+                }
+                PdfArray kids = node.getAsArray(PdfName.Kids);
+                for (int i = 0; kids != null && i < kids.size(); i++) {
+                    push(pending, kids.get(i, false));
+                }
+            }
+        }
+        return destinationObjects;
+    }
+
+    private static void mark(BitSet objects, PdfObject object) {
+        int n = objectNumber(object);
+        if (n > 0) {
+            objects.set(n);
+        }
+    }
+
+    private static void push(Deque<PdfObject> pending, PdfObject object) {
+        if (object != null) {
+            pending.push(object);
+        }
+    }
+
+    /**
+     * @return El número de objeto de una referencia o de un objeto indirecto, o 0 si es un objeto directo.
+     */
+    private static int objectNumber(PdfObject object) {
+        if (object == null) {
+            return ABSENT;
+        }
+        if (object.isIndirectReference()) {
+            return ((PdfIndirectReference) object).getObjNumber();
+        }
+        PdfIndirectReference reference = object.getIndirectReference();
+        return reference != null ? reference.getObjNumber() : ABSENT;
+    }
+}
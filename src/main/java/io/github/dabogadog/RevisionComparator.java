@@ -0,0 +1,236 @@
+package io.github.dabogadog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Esta clase compara un archivo PDF con un archivo de referencia reutilizando el resultado de una revisión
+ * anterior del mismo archivo. Muchos archivos se firman, se sellan o se anotan con actualizaciones
+ * incrementales, que añaden al final del archivo los objetos que cambian sin tocar los anteriores: leyendo la
+ * cadena de secciones de referencias cruzadas se sabe qué objetos cambió cada actualización, y a qué páginas y
+ * estructuras afectan. Solo esas se vuelven a comparar; el resto se toma del resultado anterior, así que
+ * comprobar un sello de una página en un archivo de 3.000 cuesta poco más que comparar esa página.
+ *
+ * <p>Las comprobaciones son las de {@link PdfDocumentHandle#compareAll(PdfDocumentHandle, PdfDocumentHandle)}:
+ * texto, geometría, recursos y anotaciones de cada página, metadatos y marcadores (ver {@link ComparisonCheck}).
+ * Los metadatos del diccionario Info se comparan siempre, porque casi todas las actualizaciones los cambian y
+ * son un solo diccionario. Las anotaciones de todas las páginas y los marcadores se vuelven a comparar si
+ * cambiaron los destinos con nombre.</p>
+ *
+ * <p>Se comparan todas las páginas si no hay resultado anterior, si no corresponde a una revisión anterior del
+ * archivo (el archivo no empieza con los mismos bytes, o su cadena de referencias cruzadas no continúa la de
+ * esa revisión), si cambió el archivo de referencia, o si las actualizaciones cambiaron el árbol de páginas y
+ * los números de página pueden no corresponder. La comparación es siempre exhaustiva, para que el resultado
+ * se pueda reutilizar a su vez.</p>
+ */
+public class RevisionComparator {
+
+    private static final Logger logger = Logger.getLogger(RevisionComparator.class.getName());
+
+    /**
+     * Compara un archivo PDF con un archivo de referencia, reutilizando el resultado de una revisión anterior.
+     *
+     * @param filePath      Ruta al archivo PDF, quizá con actualizaciones incrementales.
+     * @param referencePath Ruta al archivo de referencia.
+     * @param previous      Resultado de una revisión anterior del archivo con el mismo archivo de referencia, o
+     *                      null para compararlo todo.
+     * @return true si los archivos son iguales, false si son diferentes o si ocurre un error.
+     */
+    public static boolean compareRevision(String filePath, String referencePath, RevisionComparisonResult previous) {
+        try {
+            RevisionComparisonResult result = compareRevisionDetailed(filePath, referencePath, previous);
+            if (!result.areEqual()) {
+                logger.log(Level.INFO, "Los archivos PDF son diferentes: {0}", result);
+            }
+            return result.areEqual();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación por revisiones:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Compara un archivo PDF con un archivo de referencia, reutilizando el resultado de una revisión anterior.
+     *
+     * @param filePath      Ruta al archivo PDF, quizá con actualizaciones incrementales.
+     * @param referencePath Ruta al archivo de referencia.
+     * @param previous      Resultado de una revisión anterior del archivo, o null para compararlo todo.
+     * @return El resultado, que se puede reutilizar al comparar la siguiente revisión.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static RevisionComparisonResult compareRevisionDetailed(String filePath, String referencePath,
+                                                                   RevisionComparisonResult previous)
+            throws IOException {
+        return compareRevisionDetailed(filePath, null, referencePath, null, previous);
+    }
+
+    /**
+     * Compara un archivo PDF con un archivo de referencia, protegidos o no, reutilizando el resultado de una
+     * revisión anterior.
+     *
+     * @param filePath             Ruta al archivo PDF, quizá con actualizaciones incrementales.
+     * @param credentials          Credenciales del archivo, o null si no está protegido.
+     * @param referencePath        Ruta al archivo de referencia.
+     * @param referenceCredentials Credenciales del archivo de referencia, o null si no está protegido.
+     * @param previous             Resultado de una revisión anterior del archivo, o null para compararlo todo.
+     * @return El resultado, que se puede reutilizar al comparar la siguiente revisión.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos o las credenciales no son válidas.
+     */
+    public static RevisionComparisonResult compareRevisionDetailed(String filePath, PdfCredentials credentials,
+                                                                   String referencePath,
+                                                                   PdfCredentials referenceCredentials,
+                                                                   RevisionComparisonResult previous)
+            throws IOException {
+        try (PdfDocumentHandle handle = PdfDocumentHandle.open(filePath, credentials);
+             PdfDocumentHandle reference = PdfDocumentHandle.open(referencePath, referenceCredentials)) {
+            return compareRevisionDetailed(handle, reference, previous);
+        }
+    }
+
+    /**
+     * Compara un documento ya abierto con un documento de referencia, reutilizando el resultado de una
+     * revisión anterior del primero.
+     *
+     * @param handle    Documento, quizá con actualizaciones incrementales.
+     * @param reference Documento de referencia.
+     * @param previous  Resultado de una revisión anterior del documento, o null para compararlo todo.
+     * @return El resultado, que se puede reutilizar al comparar la siguiente revisión.
+     * @throws IOException Si ocurre un error leyendo alguno de los archivos.
+     */
+    public static RevisionComparisonResult compareRevisionDetailed(PdfDocumentHandle handle,
+                                                                   PdfDocumentHandle reference,
+                                                                   RevisionComparisonResult previous)
+            throws IOException {
+        Path referenceFile = Paths.get(reference.getFilePath()).toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(referenceFile, BasicFileAttributes.class);
+        long referenceModified = attributes.lastModifiedTime().toMillis();
+        PdfRevisions revisions = PdfRevisions.read(handle.getFilePath());
+        long baseLength = previous != null ? previous.getFileLength() : 0;
+        byte[][] digests = ContentDigests.fileDigests(handle.getFilePath(), baseLength);
+        int numPages1 = handle.getNumberOfPages();
+        int numPages2 = reference.getNumberOfPages();
+
+        String reason = null;
+        RevisionChanges changes = null;
+        if (previous == null) {
+            reason = "no hay un resultado anterior";
+        } else if (!previous.matchesReference(referenceFile.toString(), attributes.size(), referenceModified)) {
+            reason = "cambió el archivo de referencia";
+        } else if (digests[1] == null || !Arrays.equals(digests[1], previous.getFileDigest())) {
+            reason = "el archivo no empieza con la revisión comparada";
+        } else if (!revisions.continues(baseLength, previous.getLastXref())) {
+            reason = "las referencias cruzadas no continúan las de la revisión comparada";
+        } else if (previous.getNumberOfPages1() != numPages1) {
+            reason = "cambió el número de páginas";
+        } else {
+            changes = handle.getRevisionChanges(revisions.getObjectsAfter(baseLength),
+                    revisions.getObjectsBefore(baseLength), previous.getCatalogLinks());
+            if (changes.isPageTreeChanged()) {
+                reason = "las actualizaciones cambiaron el árbol de páginas";
+            }
+        }
+
+        boolean incremental = reason == null;
+        RevisionComparisonResult result = new RevisionComparisonResult(referenceFile.toString(), attributes.size(),
+                referenceModified, revisions.getLength(), revisions.getLastXref(), digests[0],
+                handle.getCatalogLinks(), numPages1, numPages2, incremental, reason,
+                incremental ? revisions.getUpdateCount(baseLength) : 0,
+                incremental ? changes.getPages() : new BitSet());
+        if (!incremental) {
+            logger.log(Level.INFO, "Se comparan todas las páginas de {0}: {1}",
+                    new Object[]{handle.getFilePath(), reason});
+        }
+
+        if (numPages1 == numPages2) {
+            if (incremental) {
+                compareRevisedPages(handle, reference, previous, changes, result);
+            } else {
+                PageGeometry geometry1 = handle.getPageGeometry();
+                PageGeometry geometry2 = reference.getPageGeometry();
+                for (int i = 1; i <= numPages1; i++) {
+                    result.setPageFailures(i, comparePage(handle, reference, i, geometry1, geometry2));
+                    result.addComparedPage();
+                }
+            }
+        } else {
+            logger.log(Level.INFO, "Los archivos PDF tienen un número diferente de páginas.");
+        }
+
+        result.setDocumentCheck(ComparisonCheck.METADATA,
+                MetadataComparator.compareMetadataDetailed(handle, reference).areEqual());
+        if (incremental && !changes.isOutlinesChanged() && !changes.isDestinationsChanged()) {
+            result.setDocumentCheck(ComparisonCheck.BOOKMARKS,
+                    !previous.getFailedDocumentChecks().contains(ComparisonCheck.BOOKMARKS));
+        } else {
+            result.setDocumentCheck(ComparisonCheck.BOOKMARKS,
+                    BookmarksAndLinksComparator.findBookmarkDifference(handle, reference) == null);
+        }
+        return result;
+    }
+
+    /**
+     * Toma del resultado anterior las comprobaciones de las páginas que no cambiaron y compara de nuevo las que
+     * sí. Si cambiaron los destinos con nombre, también las anotaciones de las demás páginas.
+     */
+    private static void compareRevisedPages(PdfDocumentHandle handle, PdfDocumentHandle reference,
+                                            RevisionComparisonResult previous, RevisionChanges changes,
+                                            RevisionComparisonResult result) throws IOException {
+        BitSet revised = changes.getPages();
+        for (int i = 1; i <= result.getNumberOfPages1(); i++) {
+            if (revised.get(i)) {
+                result.setPageFailures(i, comparePage(handle, reference, i, null, null));
+                result.addComparedPage();
+            } else if (changes.isDestinationsChanged()) {
+                int failures = previous.getPageFailures(i) & ~ComparisonCheck.LINKS.mask();
+                if (BookmarksAndLinksComparator.pageLinkDifference(handle, reference, i) != null) {
+                    failures |= ComparisonCheck.LINKS.mask();
+                }
+                result.setPageFailures(i, failures);
+            } else {
+                result.setPageFailures(i, previous.getPageFailures(i));
+            }
+        }
+    }
+
+    /**
+     * Hace las comprobaciones de una página.
+     *
+     * @param geometry1 Geometría de todas las páginas del primer documento, o null para leer solo la de esta.
+     * @param geometry2 Geometría de todas las páginas del segundo documento, o null para leer solo la de esta.
+     * @return Las comprobaciones que fallaron, como máscara de {@link ComparisonCheck}.
+     */
+    private static int comparePage(PdfDocumentHandle handle1, PdfDocumentHandle handle2, int pageNumber,
+                                   PageGeometry geometry1, PageGeometry geometry2) throws IOException {
+        int failures = 0;
+        if (!PDFComparator.comparePage(handle1, handle2, pageNumber).isEqual()) {
+            failures |= ComparisonCheck.TEXT.mask();
+        }
+
+        PageGeometry page1 = geometry1 != null ? geometry1 : handle1.getPageGeometry(pageNumber);
+        PageGeometry page2 = geometry2 != null ? geometry2 : handle2.getPageGeometry(pageNumber);
+        int index1 = page1.geometry(geometry1 != null ? pageNumber : 1);
+        int index2 = page2.geometry(geometry2 != null ? pageNumber : 1);
+        Map<String, ResourceDigests.Resource> resources1 = handle1.getPageResources(pageNumber);
+        Map<String, ResourceDigests.Resource> resources2 = handle2.getPageResources(pageNumber);
+        long start = Metrics.start();
+        if (!PageGeometry.equal(page1, index1, page2, index2, PagePropertiesComparator.DEFAULT_TOLERANCE)) {
+            failures |= ComparisonCheck.PAGE_GEOMETRY.mask();
+        }
+        if (!ResourceComparator.compare(resources1, resources2).isEmpty()) {
+            failures |= ComparisonCheck.RESOURCES.mask();
+        }
+        if (BookmarksAndLinksComparator.pageLinkDifference(handle1, handle2, pageNumber) != null) {
+            failures |= ComparisonCheck.LINKS.mask();
+        }
+        Metrics.end(ComparisonMetrics.Phase.COMPARE, start);
+        return failures;
+    }
+}
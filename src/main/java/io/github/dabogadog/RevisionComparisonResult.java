@@ -0,0 +1,305 @@
+package io.github.dabogadog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Esta clase contiene el resultado de la comparación por revisiones de {@link RevisionComparator}: qué
+ * comprobaciones fallaron en cada página y en el documento, y de qué revisión del archivo son.
+ *
+ * <p>El resultado se puede guardar con {@link #save(Path)} y leer con {@link #load(Path)}, para pasarlo a la
+ * comparación de la siguiente revisión del archivo. Se guardan el tamaño, la posición de la última sección
+ * de referencias cruzadas y el resumen SHA-256 de la revisión comparada, y el tamaño y la fecha de
+ * modificación del archivo de referencia, para no reutilizar un resultado que ya no corresponde.</p>
+ */
+public final class RevisionComparisonResult {
+
+    static final byte[] MAGIC = "CLIOREV1".getBytes(StandardCharsets.US_ASCII);
+
+    private final String referencePath;
+    private final long referenceSize;
+    private final long referenceModified;
+    private final long fileLength;
+    private final long lastXref;
+    private final byte[] fileDigest;
+    private final int[] catalogLinks;
+    private final int numPages1;
+    private final int numPages2;
+    private final byte[] pageFailures;
+    private int documentFailures;
+
+    // Lo siguiente describe la comparación que produjo el resultado y no se guarda.
+    private final boolean incremental;
+    private final String fallbackReason;
+    private final int updateCount;
+    private final BitSet revisedPages;
+    private int comparedPages;
+
+    RevisionComparisonResult(String referencePath, long referenceSize, long referenceModified, long fileLength,
+                             long lastXref, byte[] fileDigest, int[] catalogLinks, int numPages1, int numPages2,
+                             boolean incremental, String fallbackReason, int updateCount, BitSet revisedPages) {
+        this.referencePath = referencePath;
+        this.referenceSize = referenceSize;
+        this.referenceModified = referenceModified;
+        this.fileLength = fileLength;
+        this.lastXref = lastXref;
+        this.fileDigest = fileDigest;
+        this.catalogLinks = catalogLinks;
+        this.numPages1 = numPages1;
+        this.numPages2 = numPages2;
+        this.pageFailures = new byte[numPages1 == numPages2 ? numPages1 : 0];
+        this.incremental = incremental;
+        this.fallbackReason = fallbackReason;
+        this.updateCount = updateCount;
+        this.revisedPages = revisedPages;
+    }
+
+    void setPageFailures(int pageNumber, int failures) {
+        pageFailures[pageNumber - 1] = (byte) failures;
+    }
+
+    int getPageFailures(int pageNumber) {
+        return pageFailures[pageNumber - 1];
+    }
+
+    void setDocumentCheck(ComparisonCheck check, boolean equal) {
+        documentFailures = equal ? documentFailures & ~check.mask() : documentFailures | check.mask();
+    }
+
+    void addComparedPage() {
+        comparedPages++;
+    }
+
+    String getReferencePath() {
+        return referencePath;
+    }
+
+    /**
+     * @return true si el archivo de referencia tiene el tamaño y la fecha de modificación del comparado.
+     */
+    boolean matchesReference(String path, long size, long modified) {
+        return referencePath.equals(path) && referenceSize == size && referenceModified == modified;
+    }
+
+    long getFileLength() {
+        return fileLength;
+    }
+
+    long getLastXref() {
+        return lastXref;
+    }
+
+    byte[] getFileDigest() {
+        return fileDigest;
+    }
+
+    int[] getCatalogLinks() {
+        return catalogLinks;
+    }
+
+    /**
+     * @return true si el archivo comparado tiene el mismo número de páginas que el de referencia y ninguna
+     * comprobación falló.
+     */
+    public boolean areEqual() {
+        if (numPages1 != numPages2 || documentFailures != 0) {
+            return false;
+        }
+        for (byte failures : pageFailures) {
+            if (failures != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true si los archivos tienen un número diferente de páginas. En ese caso no se compara ninguna.
+     */
+    public boolean isPageCountDifferent() {
+        return numPages1 != numPages2;
+    }
+
+    /**
+     * @return Número de páginas del archivo comparado.
+     */
+    public int getNumberOfPages1() {
+        return numPages1;
+    }
+
+    /**
+     * @return Número de páginas del archivo de referencia.
+     */
+    public int getNumberOfPages2() {
+        return numPages2;
+    }
+
+    /**
+     * @param pageNumber Número de página, empezando en 1.
+     * @return Las comprobaciones que fallaron en la página.
+     */
+    public Set<ComparisonCheck> getFailedChecks(int pageNumber) {
+        if (pageNumber < 1 || pageNumber > pageFailures.length) {
+            throw new IllegalArgumentException("Número de página fuera de rango: " + pageNumber);
+        }
+        return checks(pageFailures[pageNumber - 1]);
+    }
+
+    /**
+     * @return Las páginas, empezando en 1, en las que falló alguna comprobación.
+     */
+    public List<Integer> getDifferentPages() {
+        List<Integer> pages = new ArrayList<>();
+        for (int i = 0; i < pageFailures.length; i++) {
+            if (pageFailures[i] != 0) {
+                pages.add(i + 1);
+            }
+        }
+        return Collections.unmodifiableList(pages);
+    }
+
+    /**
+     * @return Las comprobaciones del documento (metadatos y marcadores) que fallaron.
+     */
+    public Set<ComparisonCheck> getFailedDocumentChecks() {
+        return checks(documentFailures);
+    }
+
+    /**
+     * @return true si se reutilizó el resultado de una revisión anterior y solo se compararon las páginas y
+     * estructuras que cambiaron las actualizaciones incrementales.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @return El motivo por el que no se reutilizó el resultado anterior y se compararon todas las páginas, o
+     * null si se reutilizó o si el resultado se leyó de un archivo.
+     */
+    public String getFallbackReason() {
+        return fallbackReason;
+    }
+
+    /**
+     * @return Número de actualizaciones incrementales posteriores a la revisión del resultado reutilizado.
+     */
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * @return Las páginas, empezando en 1, que cambiaron las actualizaciones incrementales.
+     */
+    public List<Integer> getRevisedPages() {
+        List<Integer> pages = new ArrayList<>();
+        for (int i = revisedPages.nextSetBit(0); i >= 0; i = revisedPages.nextSetBit(i + 1)) {
+            pages.add(i);
+        }
+        return Collections.unmodifiableList(pages);
+    }
+
+    /**
+     * @return Número de páginas que se compararon; el resto se tomó del resultado anterior.
+     */
+    public int getComparedPages() {
+        return comparedPages;
+    }
+
+    /**
+     * Guarda el resultado para reutilizarlo al comparar la siguiente revisión del archivo.
+     *
+     * @param file Archivo de destino. Si existe, se sustituye.
+     * @throws IOException Si ocurre un error escribiendo el archivo.
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.write(MAGIC);
+            out.writeUTF(referencePath);
+            out.writeLong(referenceSize);
+            out.writeLong(referenceModified);
+            out.writeLong(fileLength);
+            out.writeLong(lastXref);
+            out.writeInt(fileDigest.length);
+            out.write(fileDigest);
+            out.writeInt(catalogLinks.length);
+            for (int link : catalogLinks) {
+                out.writeInt(link);
+            }
+            out.writeInt(numPages1);
+            out.writeInt(numPages2);
+            out.writeInt(documentFailures);
+            out.write(pageFailures);
+        }
+    }
+
+    /**
+     * Lee un resultado guardado con {@link #save(Path)}.
+     *
+     * @param file Archivo del resultado.
+     * @return El resultado.
+     * @throws IOException Si ocurre un error leyendo el archivo o no es un resultado guardado.
+     */
+    public static RevisionComparisonResult load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("El archivo no es un resultado de comparación por revisiones: " + file);
+            }
+            String referencePath = in.readUTF();
+            long referenceSize = in.readLong();
+            long referenceModified = in.readLong();
+            long fileLength = in.readLong();
+            long lastXref = in.readLong();
+            byte[] fileDigest = new byte[in.readInt()];
+            in.readFully(fileDigest);
+            int[] catalogLinks = new int[in.readInt()];
+            for (int i = 0; i < catalogLinks.length; i++) {
+                catalogLinks[i] = in.readInt();
+            }
+            int numPages1 = in.readInt();
+            int numPages2 = in.readInt();
+            RevisionComparisonResult result = new RevisionComparisonResult(referencePath, referenceSize,
+                    referenceModified, fileLength, lastXref, fileDigest, catalogLinks, numPages1, numPages2,
+                    false, null, 0, new BitSet());
+            result.documentFailures = in.readInt();
+            in.readFully(result.pageFailures);
+            return result;
+        }
+    }
+
+    private static Set<ComparisonCheck> checks(int failures) {
+        Set<ComparisonCheck> checks = EnumSet.noneOf(ComparisonCheck.class);
+        for (ComparisonCheck check : ComparisonCheck.values()) {
+            if ((failures & check.mask()) != 0) {
+                checks.add(check);
+            }
+        }
+        return Collections.unmodifiableSet(checks);
+    }
+
+    @Override
+    public String toString() {
+        return "RevisionComparisonResult[iguales=" + areEqual()
+                + ", páginas=" + numPages1 + "/" + numPages2
+                + ", páginas diferentes=" + getDifferentPages()
+                + ", comprobaciones del documento=" + getFailedDocumentChecks()
+                + (incremental ? ", actualizaciones=" + updateCount + ", páginas revisadas=" + getRevisedPages()
+                : fallbackReason != null ? ", comparación completa: " + fallbackReason : "")
+                + ", páginas comparadas=" + comparedPages + "]";
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.dabogadog;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hilos del {@link ComparisonService}: uno por petición y uno por trabajo. Esta versión, para Java 8 a 20,
+ * usa hilos de plataforma que se reutilizan al terminar cada tarea. El jar es multiversión y en Java 21 o
+ * posterior usa en su lugar la versión de {@code src/main/java21}, con hilos virtuales.
+ */
+final class ServiceThreads {
+
+    private ServiceThreads() {
+    }
+
+    /**
+     * Crea un ejecutor que lanza cada tarea en su propio hilo, sin cola ni límite. Quien lo usa limita
+     * cuántas tareas trabajan a la vez.
+     *
+     * @param name Prefijo del nombre de los hilos.
+     * @return El ejecutor.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String name) {
+        return Executors.newCachedThreadPool(new NamedDaemonThreadFactory(name));
+    }
+
+    /**
+     * @return true si los hilos son virtuales.
+     */
+    static boolean isVirtual() {
+        return false;
+    }
+
+    private static final class NamedDaemonThreadFactory implements ThreadFactory {
+
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private NamedDaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.dabogadog;
+
+/**
+ * Esta clase describe la primera diferencia encontrada al recorrer la estructura de dos archivos PDF
+ * (marcadores o anotaciones): dónde está y qué valor tiene en cada archivo.
+ */
+public final class StructureDifference {
+
+    private final String path;
+    private final String property;
+    private final String value1;
+    private final String value2;
+
+    StructureDifference(String path, String property, String value1, String value2) {
+        this.path = path;
+        this.property = property;
+        this.value1 = value1;
+        this.value2 = value2;
+    }
+
+    /**
+     * @return Ruta del elemento con la diferencia, por ejemplo {@code Marcadores/2/1} o
+     * {@code Página 3/Anotación 2}. Los índices empiezan en 1.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return Propiedad que difiere, por ejemplo {@code Title} o {@code Destino}.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * @return Valor en el primer archivo, o null si el elemento no existe en él.
+     */
+    public String getValue1() {
+        return value1;
+    }
+
+    /**
+     * @return Valor en el segundo archivo, o null si el elemento no existe en él.
+     */
+    public String getValue2() {
+        return value2;
+    }
+
+    @Override
+    public String toString() {
+        return path + " [" + property + "]: Archivo 1: " + value1 + ", Archivo 2: " + value2;
+    }
+}
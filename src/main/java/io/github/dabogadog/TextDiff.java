@@ -0,0 +1,387 @@
+package io.github.dabogadog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Esta clase calcula las diferencias línea por línea entre dos textos con el algoritmo de Myers en espacio
+ * lineal: busca la serpiente central de cada subproblema y lo divide en dos, de modo que la memoria es
+ * proporcional al número de líneas y no a su producto. El resultado es una lista mínima de bloques de líneas
+ * insertadas, eliminadas o cambiadas.
+ *
+ * <p>Para acotar el tiempo en páginas muy distintas, cuando un subproblema supera un coste máximo se divide
+ * por el punto más avanzado encontrado hasta entonces, sin buscar la serpiente central. El resultado sigue
+ * siendo correcto, pero puede no ser mínimo; en ese caso {@link #isApproximate()} devuelve true.</p>
+ */
+public final class TextDiff {
+
+    /**
+     * Coste máximo (número de diferencias) que se explora en cada subproblema antes de usar la heurística.
+     */
+    public static final int DEFAULT_MAX_COST = 1024;
+
+    private final List<Hunk> hunks;
+    private final boolean approximate;
+
+    private TextDiff(List<Hunk> hunks, boolean approximate) {
+        this.hunks = Collections.unmodifiableList(hunks);
+        this.approximate = approximate;
+    }
+
+    /**
+     * Calcula las diferencias entre las líneas de dos textos.
+     *
+     * @param text1 Texto del primer archivo.
+     * @param text2 Texto del segundo archivo.
+     * @return Las diferencias.
+     */
+    public static TextDiff diffLines(String text1, String text2) {
+        return diff(Arrays.asList(text1.split("\\r?\\n")), Arrays.asList(text2.split("\\r?\\n")), DEFAULT_MAX_COST);
+    }
+
+    /**
+     * Calcula las diferencias entre dos listas de líneas.
+     *
+     * @param lines1  Líneas del primer archivo.
+     * @param lines2  Líneas del segundo archivo.
+     * @param maxCost Coste máximo por subproblema antes de usar la heurística.
+     * @return Las diferencias.
+     */
+    public static TextDiff diff(List<String> lines1, List<String> lines2, int maxCost) {
+        if (maxCost < 1) {
+            throw new IllegalArgumentException("El coste máximo debe ser al menos 1: " + maxCost);
+        }
+        // Cada línea se sustituye por un identificador para comparar enteros en lugar de cadenas.
+        Map<String, Integer> ids = new HashMap<>();
+        int[] a = intern(lines1, ids);
+        int[] b = intern(lines2, ids);
+
+        Engine engine = new Engine(a, b, maxCost);
+        engine.run();
+
+        List<Hunk> hunks = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if ((i < a.length && engine.deleted[i]) || (j < b.length && engine.inserted[j])) {
+                int start1 = i;
+                int start2 = j;
+                while (i < a.length && engine.deleted[i]) {
+                    i++;
+                }
+                while (j < b.length && engine.inserted[j]) {
+                    j++;
+                }
+                hunks.add(new Hunk(start1 + 1, new ArrayList<>(lines1.subList(start1, i)),
+                        start2 + 1, new ArrayList<>(lines2.subList(start2, j))));
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return new TextDiff(hunks, engine.approximate);
+    }
+
+    private static int[] intern(List<String> lines, Map<String, Integer> ids) {
+        int[] result = new int[lines.size()];
+        for (int i = 0; i < result.length; i++) {
+            Integer id = ids.get(lines.get(i));
+            if (id == null) {
+                id = ids.size();
+                ids.put(lines.get(i), id);
+            }
+            result[i] = id;
+        }
+        return result;
+    }
+
+    /**
+     * @return Los bloques de diferencias, en orden.
+     */
+    public List<Hunk> getHunks() {
+        return hunks;
+    }
+
+    /**
+     * @return true si los dos textos tienen las mismas líneas.
+     */
+    public boolean isEmpty() {
+        return hunks.isEmpty();
+    }
+
+    /**
+     * @return true si se usó la heurística de corte y el resultado puede no ser mínimo.
+     */
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    /**
+     * @return Número de líneas eliminadas o sustituidas del primer texto.
+     */
+    public int getDeletedLines() {
+        int count = 0;
+        for (Hunk hunk : hunks) {
+            count += hunk.getLines1().size();
+        }
+        return count;
+    }
+
+    /**
+     * @return Número de líneas insertadas o sustituidas en el segundo texto.
+     */
+    public int getInsertedLines() {
+        int count = 0;
+        for (Hunk hunk : hunks) {
+            count += hunk.getLines2().size();
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Hunk hunk : hunks) {
+            sb.append(hunk).append('\n');
+            for (String line : hunk.getLines1()) {
+                sb.append("- ").append(line).append('\n');
+            }
+            for (String line : hunk.getLines2()) {
+                sb.append("+ ").append(line).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Tipo de un bloque de diferencias.
+     */
+    public enum Type {
+        /** Líneas que solo están en el segundo texto. */
+        INSERT,
+        /** Líneas que solo están en el primer texto. */
+        DELETE,
+        /** Líneas del primer texto sustituidas por otras en el segundo. */
+        CHANGE
+    }
+
+    /**
+     * Bloque de líneas consecutivas que difieren entre los dos textos.
+     */
+    public static final class Hunk {
+
+        private final int start1;
+        private final List<String> lines1;
+        private final int start2;
+        private final List<String> lines2;
+
+        private Hunk(int start1, List<String> lines1, int start2, List<String> lines2) {
+            this.start1 = start1;
+            this.lines1 = Collections.unmodifiableList(lines1);
+            this.start2 = start2;
+            this.lines2 = Collections.unmodifiableList(lines2);
+        }
+
+        /**
+         * @return El tipo del bloque.
+         */
+        public Type getType() {
+            if (lines1.isEmpty()) {
+                return Type.INSERT;
+            }
+            return lines2.isEmpty() ? Type.DELETE : Type.CHANGE;
+        }
+
+        /**
+         * @return Línea (empezando en 1) del primer texto donde empieza el bloque. En una inserción, la línea
+         * ante la que se insertan las nuevas.
+         */
+        public int getStart1() {
+            return start1;
+        }
+
+        /**
+         * @return Línea (empezando en 1) del segundo texto donde empieza el bloque. En una eliminación, la
+         * línea que sigue a las eliminadas.
+         */
+        public int getStart2() {
+            return start2;
+        }
+
+        /**
+         * @return Las líneas del primer texto en el bloque (vacía en una inserción).
+         */
+        public List<String> getLines1() {
+            return lines1;
+        }
+
+        /**
+         * @return Las líneas del segundo texto en el bloque (vacía en una eliminación).
+         */
+        public List<String> getLines2() {
+            return lines2;
+        }
+
+        @Override
+        public String toString() {
+            return getType() + " @@ -" + start1 + "," + lines1.size() + " +" + start2 + "," + lines2.size() + " @@";
+        }
+    }
+
+    /**
+     * Implementación del algoritmo. Marca las líneas eliminadas de {@code a} y las insertadas en {@code b};
+     * los subproblemas pendientes se guardan en una pila explícita para no depender de la profundidad de
+     * recursión cuando la heurística produce divisiones desequilibradas.
+     */
+    private static final class Engine {
+
+        private final int[] a;
+        private final int[] b;
+        private final int maxCost;
+        private final boolean[] deleted;
+        private final boolean[] inserted;
+        private final int[] forward;
+        private final int[] backward;
+        private final int offset;
+        private final int[] split = new int[4];
+        private boolean approximate;
+
+        private Engine(int[] a, int[] b, int maxCost) {
+            this.a = a;
+            this.b = b;
+            this.maxCost = maxCost;
+            this.deleted = new boolean[a.length];
+            this.inserted = new boolean[b.length];
+            this.offset = a.length + b.length + 1;
+            this.forward = new int[2 * offset + 1];
+            this.backward = new int[2 * offset + 1];
+        }
+
+        private void run() {
+            Deque<int[]> pending = new ArrayDeque<>();
+            pending.push(new int[]{0, a.length, 0, b.length});
+            while (!pending.isEmpty()) {
+                int[] range = pending.pop();
+                int aLo = range[0];
+                int aHi = range[1];
+                int bLo = range[2];
+                int bHi = range[3];
+
+                while (aLo < aHi && bLo < bHi && a[aLo] == b[bLo]) {
+                    aLo++;
+                    bLo++;
+                }
+                while (aLo < aHi && bLo < bHi && a[aHi - 1] == b[bHi - 1]) {
+                    aHi--;
+                    bHi--;
+                }
+
+                if (aLo == aHi) {
+                    Arrays.fill(inserted, bLo, bHi, true);
+                } else if (bLo == bHi) {
+                    Arrays.fill(deleted, aLo, aHi, true);
+                } else if (findSplit(aLo, aHi, bLo, bHi)) {
+                    pending.push(new int[]{split[2], aHi, split[3], bHi});
+                    pending.push(new int[]{aLo, split[0], bLo, split[1]});
+                } else {
+                    Arrays.fill(deleted, aLo, aHi, true);
+                    Arrays.fill(inserted, bLo, bHi, true);
+                }
+            }
+        }
+
+        /**
+         * Busca la serpiente central del subproblema y deja en {@link #split} su inicio y su fin en
+         * coordenadas absolutas. Si el coste supera el máximo, deja el punto más avanzado de la búsqueda hacia
+         * delante como inicio y fin.
+         *
+         * @return false si no se encontró una división que reduzca el subproblema.
+         */
+        private boolean findSplit(int aLo, int aHi, int bLo, int bHi) {
+            int n = aHi - aLo;
+            int m = bHi - bLo;
+            int delta = n - m;
+            boolean odd = (delta & 1) != 0;
+            int maxD = (n + m + 1) / 2;
+            forward[offset + 1] = 0;
+            backward[offset + 1] = 0;
+
+            for (int d = 0; d <= maxD; d++) {
+                if (d > maxCost) {
+                    approximate = true;
+                    return furthestForward(aLo, aHi, bLo, bHi, d - 1);
+                }
+
+                for (int k = -d; k <= d; k += 2) {
+                    int x = k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])
+                            ? forward[offset + k + 1]
+                            : forward[offset + k - 1] + 1;
+                    int y = x - k;
+                    int x0 = x;
+                    int y0 = y;
+                    while (x < n && y < m && a[aLo + x] == b[bLo + y]) {
+                        x++;
+                        y++;
+                    }
+                    forward[offset + k] = x;
+                    int reverse = delta - k;
+                    if (odd && reverse >= -(d - 1) && reverse <= d - 1 && x + backward[offset + reverse] >= n) {
+                        return setSplit(aLo + x0, bLo + y0, aLo + x, bLo + y, aLo, aHi, bLo, bHi);
+                    }
+                }
+
+                for (int k = -d; k <= d; k += 2) {
+                    int x = k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1])
+                            ? backward[offset + k + 1]
+                            : backward[offset + k - 1] + 1;
+                    int y = x - k;
+                    int x0 = x;
+                    int y0 = y;
+                    while (x < n && y < m && a[aHi - 1 - x] == b[bHi - 1 - y]) {
+                        x++;
+                        y++;
+                    }
+                    backward[offset + k] = x;
+                    int diagonal = delta - k;
+                    if (!odd && diagonal >= -d && diagonal <= d && x + forward[offset + diagonal] >= n) {
+                        return setSplit(aHi - x, bHi - y, aHi - x0, bHi - y0, aLo, aHi, bLo, bHi);
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean furthestForward(int aLo, int aHi, int bLo, int bHi, int d) {
+            int n = aHi - aLo;
+            int m = bHi - bLo;
+            int bestX = 0;
+            int bestY = 0;
+            for (int k = -d; k <= d; k += 2) {
+                int x = Math.min(forward[offset + k], n);
+                int y = x - k;
+                if (y >= 0 && y <= m && x + y > bestX + bestY) {
+                    bestX = x;
+                    bestY = y;
+                }
+            }
+            return setSplit(aLo + bestX, bLo + bestY, aLo + bestX, bLo + bestY, aLo, aHi, bLo, bHi);
+        }
+
+        private boolean setSplit(int x, int y, int u, int v, int aLo, int aHi, int bLo, int bHi) {
+            split[0] = x;
+            split[1] = y;
+            split[2] = u;
+            split[3] = v;
+            int before = (x - aLo) + (y - bLo);
+            int after = (aHi - u) + (bHi - v);
+            int total = (aHi - aLo) + (bHi - bLo);
+            return before < total && after < total;
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package io.github.dabogadog;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Esta clase compara visualmente dos archivos PDF: renderiza cada par de páginas a imágenes, las divide en
+ * bloques cuadrados, calcula una huella de cada bloque y solo compara píxel a píxel los bloques cuyas huellas
+ * difieren. Así detecta cambios que la comparación de texto no ve, como gráficos, logotipos o fuentes.
+ *
+ * <p>Las páginas se renderizan con Apache PDFBox, que usa Java2D sin dependencias nativas ni de GPU, y se
+ * activa el modo {@code java.awt.headless} si no se ha configurado, para que funcione en servidores sin
+ * pantalla. Se procesa un par de páginas cada vez, de modo que la memoria depende del tamaño de una página y
+ * no del número de páginas. Las dos páginas se renderizan a la vez y los bloques se reparten entre los hilos.</p>
+ *
+ * <p>PDFBox es una dependencia opcional de clioPdf: para usar esta clase hay que declarar
+ * {@code org.apache.pdfbox:pdfbox} en el proyecto. El resto de la biblioteca no la necesita.</p>
+ */
+public class VisualComparator {
+
+    private static final Logger logger = Logger.getLogger(VisualComparator.class.getName());
+
+    /**
+     * Color de los píxeles diferentes en la imagen de diferencias.
+     */
+    private static final int HIGHLIGHT = 0xFF0000;
+
+    private static final String KEY_STORE_ALIAS = "clioPdf";
+    private static final String KEY_STORE_PASSWORD = "clioPdf";
+
+    static {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+    }
+
+    private float dpi = 72;
+    private int tileSize = 64;
+    private int colorTolerance;
+    private double maxDiffPercentage;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ComparisonMode mode = ComparisonMode.EXHAUSTIVE;
+    private Path diffImageDirectory;
+
+    /**
+     * @param dpi Resolución de renderizado, en puntos por pulgada. Por defecto 72 (un píxel por punto).
+     * @return Este comparador.
+     */
+    public VisualComparator setDpi(float dpi) {
+        if (!(dpi > 0)) {
+            throw new IllegalArgumentException("La resolución debe ser positiva: " + dpi);
+        }
+        this.dpi = dpi;
+        return this;
+    }
+
+    /**
+     * @param tileSize Lado de los bloques, en píxeles. Por defecto 64.
+     * @return Este comparador.
+     */
+    public VisualComparator setTileSize(int tileSize) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser al menos 1: " + tileSize);
+        }
+        this.tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * @param colorTolerance Diferencia máxima en cada componente de color (0 a 255) para que dos píxeles se
+     *                       consideren iguales, por ejemplo para absorber diferencias de suavizado. Por
+     *                       defecto 0.
+     * @return Este comparador.
+     */
+    public VisualComparator setColorTolerance(int colorTolerance) {
+        if (colorTolerance < 0 || colorTolerance > 255) {
+            throw new IllegalArgumentException("La tolerancia de color debe estar entre 0 y 255: " + colorTolerance);
+        }
+        this.colorTolerance = colorTolerance;
+        return this;
+    }
+
+    /**
+     * @param maxDiffPercentage Porcentaje de píxeles diferentes a partir del cual una página se considera
+     *                          diferente. Por defecto 0: cualquier píxel diferente.
+     * @return Este comparador.
+     */
+    public VisualComparator setMaxDiffPercentage(double maxDiffPercentage) {
+        if (!(maxDiffPercentage >= 0 && maxDiffPercentage <= 100)) {
+            throw new IllegalArgumentException("El porcentaje debe estar entre 0 y 100: " + maxDiffPercentage);
+        }
+        this.maxDiffPercentage = maxDiffPercentage;
+        return this;
+    }
+
+    /**
+     * @param parallelism Número de hilos para renderizar y comparar los bloques.
+     * @return Este comparador.
+     */
+    public VisualComparator setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("El paralelismo debe ser al menos 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @param mode Cuántas páginas diferentes buscar antes de detenerse. Por defecto, todas.
+     * @return Este comparador.
+     */
+    public VisualComparator setMode(ComparisonMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("El modo de comparación no puede ser null");
+        }
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * @param diffImageDirectory Directorio donde se guarda, para cada página con diferencias, una imagen PNG
+     *                           ({@code pagina-N.png}) de la página del segundo archivo atenuada y con los
+     *                           píxeles diferentes en rojo; o null (por defecto) para no generarlas.
+     * @return Este comparador.
+     */
+    public VisualComparator setDiffImageDirectory(Path diffImageDirectory) {
+        this.diffImageDirectory = diffImageDirectory;
+        return this;
+    }
+
+    /**
+     * Compara visualmente dos archivos PDF.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return true si las páginas son visualmente iguales, false si son diferentes o si ocurre un error.
+     */
+    public boolean compareVisually(String filePath1, String filePath2) {
+        return compareVisually(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara visualmente dos archivos PDF, protegidos o no.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return true si las páginas son visualmente iguales, false si son diferentes o si ocurre un error.
+     */
+    public boolean compareVisually(String filePath1, PdfCredentials credentials1,
+                                   String filePath2, PdfCredentials credentials2) {
+        try {
+            VisualComparisonResult result = compare(filePath1, credentials1, filePath2, credentials2);
+            if (result.getNumberOfPages1() != result.getNumberOfPages2()) {
+                logger.log(Level.INFO, "Los archivos PDF tienen un número diferente de páginas.");
+            }
+            for (VisualComparisonResult.PageResult page : result.getPages()) {
+                if (!result.isEqual(page)) {
+                    logger.log(Level.INFO, "Diferencia visual: {0}", page);
+                }
+            }
+            return result.areEqual();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Ocurrió un error durante la comparación visual:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Compara visualmente dos archivos PDF página a página.
+     *
+     * @param filePath1 Ruta al primer archivo PDF.
+     * @param filePath2 Ruta al segundo archivo PDF.
+     * @return El resultado de cada página.
+     * @throws IOException Si ocurre un error leyendo o renderizando los archivos, o guardando las imágenes.
+     */
+    public VisualComparisonResult compare(String filePath1, String filePath2) throws IOException {
+        return compare(filePath1, null, filePath2, null);
+    }
+
+    /**
+     * Compara visualmente dos archivos PDF, protegidos o no, página a página.
+     *
+     * @param filePath1    Ruta al primer archivo PDF.
+     * @param credentials1 Credenciales del primer archivo, o null si no está protegido.
+     * @param filePath2    Ruta al segundo archivo PDF.
+     * @param credentials2 Credenciales del segundo archivo, o null si no está protegido.
+     * @return El resultado de cada página.
+     * @throws IOException Si ocurre un error leyendo o renderizando los archivos, o guardando las imágenes, o
+     *                     si las credenciales no son válidas.
+     */
+    public VisualComparisonResult compare(String filePath1, PdfCredentials credentials1,
+                                          String filePath2, PdfCredentials credentials2) throws IOException {
+        if (diffImageDirectory != null) {
+            Files.createDirectories(diffImageDirectory);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory());
+        try (PDDocument document1 = load(filePath1, credentials1);
+             PDDocument document2 = load(filePath2, credentials2)) {
+            PDFRenderer renderer1 = new PDFRenderer(document1);
+            PDFRenderer renderer2 = new PDFRenderer(document2);
+            int numPages1 = document1.getNumberOfPages();
+            int numPages2 = document2.getNumberOfPages();
+            VisualComparisonResult result = new VisualComparisonResult(numPages1, numPages2, maxDiffPercentage);
+
+            int numPages = Math.max(numPages1, numPages2);
+            int differences = 0;
+            for (int i = 1; i <= numPages; i++) {
+                VisualComparisonResult.PageResult page;
+                if (i > numPages1 || i > numPages2) {
+                    page = new VisualComparisonResult.PageResult(i, true, 0, 0, 0, 0, null);
+                } else {
+                    final int pageNumber = i;
+                    Future<BufferedImage> image1 = executor.submit(() -> render(renderer1, pageNumber));
+                    BufferedImage image2 = render(renderer2, pageNumber);
+                    page = comparePage(pageNumber, image1.get(), image2, executor);
+                }
+                result.addPage(page);
+                if (!result.isEqual(page)) {
+                    differences++;
+                }
+                if (mode.isDone(differences) && i < numPages) {
+                    result.stop();
+                    break;
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Comparación visual interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Ocurrió un error durante la comparación visual", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static PDDocument load(String filePath, PdfCredentials credentials) throws IOException {
+        // En el modo de bajo consumo de memoria, PDFBox guarda los flujos leídos en archivos temporales.
+        MemoryUsageSetting memory = PdfReaders.isLowMemoryMode()
+                ? MemoryUsageSetting.setupTempFileOnly() : MemoryUsageSetting.setupMainMemoryOnly();
+        if (credentials == null) {
+            return PDDocument.load(new File(filePath), memory);
+        }
+        if (credentials.getPassword() != null) {
+            return PDDocument.load(new File(filePath), credentials.getPassword(), memory);
+        }
+        // PDFBox solo acepta el certificado y la clave dentro de un almacén PKCS#12, protegido con la misma
+        // contraseña que pasa al documento.
+        return PDDocument.load(new File(filePath), KEY_STORE_PASSWORD, keyStore(credentials), KEY_STORE_ALIAS, memory);
+    }
+
+    private static InputStream keyStore(PdfCredentials credentials) throws IOException {
+        try {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(null, null);
+            keyStore.setKeyEntry(KEY_STORE_ALIAS, credentials.getPrivateKey(), KEY_STORE_PASSWORD.toCharArray(),
+                    new Certificate[]{credentials.getCertificate()});
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            keyStore.store(out, KEY_STORE_PASSWORD.toCharArray());
+            return new ByteArrayInputStream(out.toByteArray());
+        } catch (GeneralSecurityException e) {
+            throw new IOException("No se pudo preparar el certificado para renderizar el archivo", e);
+        }
+    }
+
+    private BufferedImage render(PDFRenderer renderer, int pageNumber) throws IOException {
+        // PDFBox numera las páginas desde 0. El tipo RGB se guarda como un int por píxel.
+        return renderer.renderImageWithDPI(pageNumber - 1, dpi, ImageType.RGB);
+    }
+
+    private VisualComparisonResult.PageResult comparePage(int pageNumber, BufferedImage image1, BufferedImage image2,
+                                                          ExecutorService executor)
+            throws IOException, InterruptedException, ExecutionException {
+        Page page1 = new Page(image1);
+        Page page2 = new Page(image2);
+        int width = Math.max(page1.width, page2.width);
+        int height = Math.max(page1.height, page2.height);
+        int[] diff = diffImageDirectory != null ? new int[width * height] : null;
+
+        // Una tarea por fila de bloques: suficientes para repartir el trabajo y pocas para no saturar la cola.
+        List<Future<long[]>> rows = new ArrayList<>();
+        for (int y = 0; y < height; y += tileSize) {
+            final int top = y;
+            rows.add(executor.submit(() -> compareTileRow(page1, page2, width, height, top, diff)));
+        }
+        long differentPixels = 0;
+        int differentTiles = 0;
+        for (Future<long[]> row : rows) {
+            long[] counts = row.get();
+            differentPixels += counts[0];
+            differentTiles += (int) counts[1];
+        }
+        int tilesX = (width + tileSize - 1) / tileSize;
+        int totalTiles = tilesX * rows.size();
+
+        Path diffImage = null;
+        if (diff != null && differentPixels > 0) {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            image.setRGB(0, 0, width, height, diff, 0, width);
+            diffImage = diffImageDirectory.resolve("pagina-" + pageNumber + ".png");
+            ImageIO.write(image, "png", diffImage.toFile());
+        }
+        return new VisualComparisonResult.PageResult(pageNumber, false, differentPixels, (long) width * height,
+                differentTiles, totalTiles, diffImage);
+    }
+
+    /**
+     * Compara los bloques de una fila.
+     *
+     * @return Número de píxeles diferentes y número de bloques con huellas distintas.
+     */
+    private long[] compareTileRow(Page page1, Page page2, int width, int height, int top, int[] diff) {
+        int bottom = Math.min(top + tileSize, height);
+        long differentPixels = 0;
+        long differentTiles = 0;
+        for (int left = 0; left < width; left += tileSize) {
+            int right = Math.min(left + tileSize, width);
+            boolean sameTile = page1.hash(left, top, right, bottom) == page2.hash(left, top, right, bottom)
+                    && page1.covers(right, bottom) && page2.covers(right, bottom);
+            if (!sameTile) {
+                differentTiles++;
+                differentPixels += comparePixels(page1, page2, width, left, top, right, bottom, diff);
+            } else if (diff != null) {
+                fade(page2, width, left, top, right, bottom, diff);
+            }
+        }
+        return new long[]{differentPixels, differentTiles};
+    }
+
+    private long comparePixels(Page page1, Page page2, int width, int left, int top, int right, int bottom,
+                               int[] diff) {
+        long different = 0;
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x++) {
+                int pixel1 = page1.pixel(x, y);
+                int pixel2 = page2.pixel(x, y);
+                boolean same = pixel1 >= 0 && pixel2 >= 0 && sameColor(pixel1, pixel2);
+                if (!same) {
+                    different++;
+                }
+                if (diff != null) {
+                    diff[y * width + x] = same ? faded(pixel2) : HIGHLIGHT;
+                }
+            }
+        }
+        return different;
+    }
+
+    private boolean sameColor(int pixel1, int pixel2) {
+        if (colorTolerance == 0) {
+            return pixel1 == pixel2;
+        }
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int component1 = (pixel1 >> shift) & 0xFF;
+            int component2 = (pixel2 >> shift) & 0xFF;
+            if (Math.abs(component1 - component2) > colorTolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void fade(Page page, int width, int left, int top, int right, int bottom, int[] diff) {
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x++) {
+                diff[y * width + x] = faded(page.pixel(x, y));
+            }
+        }
+    }
+
+    /**
+     * Atenúa un píxel mezclándolo con blanco, para que resalten las diferencias.
+     */
+    private static int faded(int pixel) {
+        int r = ((pixel >> 16) & 0xFF) / 4 + 191;
+        int g = ((pixel >> 8) & 0xFF) / 4 + 191;
+        int b = (pixel & 0xFF) / 4 + 191;
+        return (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Píxeles de una página renderizada, leídos directamente del búfer de la imagen.
+     */
+    private static final class Page {
+
+        private final int[] pixels;
+        private final int width;
+        private final int height;
+
+        private Page(BufferedImage image) {
+            this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+        }
+
+        /**
+         * @return true si el rectángulo hasta (right, bottom) está dentro de la página.
+         */
+        private boolean covers(int right, int bottom) {
+            return right <= width && bottom <= height;
+        }
+
+        /**
+         * @return El color RGB del píxel, o -1 si está fuera de la página.
+         */
+        private int pixel(int x, int y) {
+            return x < width && y < height ? pixels[y * width + x] & 0xFFFFFF : -1;
+        }
+
+        /**
+         * Huella de 64 bits de los píxeles de un bloque (FNV-1a sobre cada píxel). Los píxeles fuera de la
+         * página no cuentan; en ese caso {@link #covers(int, int)} es false y el bloque se compara píxel a
+         * píxel.
+         */
+        private long hash(int left, int top, int right, int bottom) {
+            long hash = 0xcbf29ce484222325L;
+            for (int y = top; y < Math.min(bottom, height); y++) {
+                int offset = y * width;
+                for (int x = left; x < Math.min(right, width); x++) {
+                    hash = (hash ^ (pixels[offset + x] & 0xFFFFFF)) * 0x100000001b3L;
+                }
+            }
+            return hash;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "clioPdf-visual-" + COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
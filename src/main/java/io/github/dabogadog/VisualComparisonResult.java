@@ -0,0 +1,196 @@
+package io.github.dabogadog;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Esta clase contiene el resultado de la comparación visual de dos archivos PDF de {@link VisualComparator}:
+ * para cada página, la proporción de píxeles diferentes y, si se pidió, la imagen con las diferencias
+ * resaltadas.
+ */
+public final class VisualComparisonResult {
+
+    private final int numPages1;
+    private final int numPages2;
+    private final double maxDiffPercentage;
+    private final List<PageResult> pages = new ArrayList<>();
+    private boolean complete = true;
+
+    VisualComparisonResult(int numPages1, int numPages2, double maxDiffPercentage) {
+        this.numPages1 = numPages1;
+        this.numPages2 = numPages2;
+        this.maxDiffPercentage = maxDiffPercentage;
+    }
+
+    void addPage(PageResult page) {
+        pages.add(page);
+    }
+
+    void stop() {
+        complete = false;
+    }
+
+    /**
+     * @return true si los dos archivos tienen el mismo número de páginas y ninguna supera el porcentaje de
+     * diferencia permitido.
+     */
+    public boolean areEqual() {
+        if (numPages1 != numPages2) {
+            return false;
+        }
+        for (PageResult page : pages) {
+            if (!isEqual(page)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param page Resultado de una página de esta comparación.
+     * @return true si la página no supera el porcentaje de diferencia permitido.
+     */
+    public boolean isEqual(PageResult page) {
+        return !page.isMissing() && page.getDiffPercentage() <= maxDiffPercentage;
+    }
+
+    /**
+     * @return Número de páginas del primer archivo.
+     */
+    public int getNumberOfPages1() {
+        return numPages1;
+    }
+
+    /**
+     * @return Número de páginas del segundo archivo.
+     */
+    public int getNumberOfPages2() {
+        return numPages2;
+    }
+
+    /**
+     * @return false si la comparación se detuvo al alcanzar el máximo de diferencias de su
+     * {@link ComparisonMode}, antes de comparar todas las páginas.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return El resultado de cada página, en orden de página. Incluye las páginas que solo existen en uno de
+     * los archivos.
+     */
+    public List<PageResult> getPages() {
+        return Collections.unmodifiableList(pages);
+    }
+
+    @Override
+    public String toString() {
+        int different = 0;
+        for (PageResult page : pages) {
+            if (!isEqual(page)) {
+                different++;
+            }
+        }
+        return "VisualComparisonResult[páginas=" + numPages1 + "/" + numPages2 + ", diferentes=" + different
+                + (complete ? "" : ", detenida en la página " + pages.size()) + "]";
+    }
+
+    /**
+     * Resultado de la comparación visual de una página.
+     */
+    public static final class PageResult {
+
+        private final int pageNumber;
+        private final boolean missing;
+        private final long differentPixels;
+        private final long totalPixels;
+        private final int differentTiles;
+        private final int totalTiles;
+        private final Path diffImage;
+
+        PageResult(int pageNumber, boolean missing, long differentPixels, long totalPixels, int differentTiles,
+                   int totalTiles, Path diffImage) {
+            this.pageNumber = pageNumber;
+            this.missing = missing;
+            this.differentPixels = differentPixels;
+            this.totalPixels = totalPixels;
+            this.differentTiles = differentTiles;
+            this.totalTiles = totalTiles;
+            this.diffImage = diffImage;
+        }
+
+        /**
+         * @return Número de página, empezando en 1.
+         */
+        public int getPageNumber() {
+            return pageNumber;
+        }
+
+        /**
+         * @return true si la página solo existe en uno de los archivos. En ese caso no se renderiza.
+         */
+        public boolean isMissing() {
+            return missing;
+        }
+
+        /**
+         * @return Número de píxeles diferentes.
+         */
+        public long getDifferentPixels() {
+            return differentPixels;
+        }
+
+        /**
+         * @return Número de píxeles comparados. Si las páginas tienen tamaños distintos, el del rectángulo que
+         * contiene a las dos, y los píxeles que solo existen en una cuentan como diferentes.
+         */
+        public long getTotalPixels() {
+            return totalPixels;
+        }
+
+        /**
+         * @return Porcentaje de píxeles diferentes, entre 0 y 100. Es 100 si la página falta en un archivo.
+         */
+        public double getDiffPercentage() {
+            if (missing) {
+                return 100;
+            }
+            return totalPixels > 0 ? differentPixels * 100.0 / totalPixels : 0;
+        }
+
+        /**
+         * @return Número de bloques cuya huella era distinta y se compararon píxel a píxel.
+         */
+        public int getDifferentTiles() {
+            return differentTiles;
+        }
+
+        /**
+         * @return Número total de bloques de la página.
+         */
+        public int getTotalTiles() {
+            return totalTiles;
+        }
+
+        /**
+         * @return Ruta de la imagen PNG con las diferencias resaltadas, o null si no se pidió o la página no
+         * tiene diferencias.
+         */
+        public Path getDiffImage() {
+            return diffImage;
+        }
+
+        @Override
+        public String toString() {
+            if (missing) {
+                return "Página " + pageNumber + ": solo existe en uno de los archivos";
+            }
+            return String.format(Locale.ROOT, "Página %d: %.4f%% de píxeles diferentes (%d de %d bloques)",
+                    pageNumber, getDiffPercentage(), differentTiles, totalTiles);
+        }
+    }
+}
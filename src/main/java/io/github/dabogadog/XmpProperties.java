@@ -0,0 +1,245 @@
+package io.github.dabogadog;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lee las propiedades de un paquete de metadatos XMP con un analizador StAX, sin construir el árbol del
+ * documento. Cada valor simple queda bajo una clave con el nombre de la propiedad ({@code xmp:ModifyDate}); los
+ * elementos de las listas se numeran ({@code dc:creator[1]}), los de las alternativas llevan su idioma
+ * ({@code dc:title[x-default]}) y los campos de las estructuras se separan con una barra
+ * ({@code xmpMM:History[1]/stEvt:action}).
+ *
+ * <p>Los espacios de nombres conocidos se escriben con su prefijo habitual, aunque el paquete use otro, para
+ * que dos archivos generados por programas distintos tengan las mismas claves. Los valores de más de
+ * {@link #MAX_VALUE_LENGTH} caracteres, como las miniaturas en base64, se sustituyen por su resumen mientras
+ * se leen, sin guardarlos completos.</p>
+ */
+final class XmpProperties {
+
+    /**
+     * Longitud máxima de un valor guardado tal cual.
+     */
+    static final int MAX_VALUE_LENGTH = 1024;
+
+    private static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    private static final String XML = "http://www.w3.org/XML/1998/namespace";
+
+    private static final Map<String, String> PREFIXES = new HashMap<>();
+
+    static {
+        PREFIXES.put("http://purl.org/dc/elements/1.1/", "dc");
+        PREFIXES.put("http://ns.adobe.com/xap/1.0/", "xmp");
+        PREFIXES.put("http://ns.adobe.com/pdf/1.3/", "pdf");
+        PREFIXES.put("http://ns.adobe.com/xap/1.0/mm/", "xmpMM");
+        PREFIXES.put("http://ns.adobe.com/xap/1.0/rights/", "xmpRights");
+        PREFIXES.put("http://ns.adobe.com/xap/1.0/sType/ResourceEvent#", "stEvt");
+        PREFIXES.put("http://ns.adobe.com/xap/1.0/sType/ResourceRef#", "stRef");
+        PREFIXES.put("http://ns.adobe.com/photoshop/1.0/", "photoshop");
+        PREFIXES.put("http://www.aiim.org/pdfa/ns/id/", "pdfaid");
+        PREFIXES.put("http://www.aiim.org/pdfua/ns/id/", "pdfuaid");
+    }
+
+    /**
+     * La fábrica es segura entre hilos una vez configurada. Los paquetes vienen de archivos no confiables, así
+     * que no se procesan DTD ni entidades externas.
+     */
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, false);
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private XmpProperties() {
+    }
+
+    /**
+     * Lee las propiedades de un paquete XMP.
+     *
+     * @param in Contenido del paquete; la codificación se detecta a partir de sus primeros bytes.
+     * @return Las propiedades, ordenadas por clave.
+     * @throws IOException Si el paquete no es XML válido o no se puede leer.
+     */
+    static TreeMap<String, String> parse(InputStream in) throws IOException {
+        TreeMap<String, String> properties = new TreeMap<>();
+        XMLStreamReader reader = null;
+        try {
+            reader = FACTORY.createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && isRdf(reader, "Description")) {
+                    readDescription(reader, "", properties);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Los metadatos XMP no son XML válido: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // El flujo lo cierra quien lo abrió.
+                }
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Lee una descripción (o una estructura con {@code rdf:parseType="Resource"}): sus atributos y sus
+     * elementos hijos son propiedades. Termina en el cierre del elemento.
+     */
+    private static void readDescription(XMLStreamReader reader, String prefix, Map<String, String> properties)
+            throws XMLStreamException {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if (!RDF.equals(namespace) && !XML.equals(namespace)) {
+                properties.put(prefix + name(namespace, reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                        reader.getAttributeValue(i));
+            }
+        }
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                readValue(reader, prefix + name(reader), properties);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lee el valor de una propiedad, que puede ser un texto, un recurso, una lista o una estructura. Termina
+     * en el cierre del elemento.
+     */
+    private static void readValue(XMLStreamReader reader, String key, Map<String, String> properties)
+            throws XMLStreamException {
+        if ("Resource".equals(reader.getAttributeValue(RDF, "parseType"))) {
+            readDescription(reader, key + "/", properties);
+            return;
+        }
+        String resource = reader.getAttributeValue(RDF, "resource");
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if (!RDF.equals(namespace) && !XML.equals(namespace)) {
+                properties.put(key + "/" + name(namespace, reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                        reader.getAttributeValue(i));
+            }
+        }
+
+        Value value = new Value();
+        boolean structured = false;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                if (!structured) {
+                    value.append(reader.getText());
+                }
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                structured = true;
+                if (isRdf(reader, "Seq") || isRdf(reader, "Bag") || isRdf(reader, "Alt")) {
+                    readArray(reader, key, isRdf(reader, "Alt"), properties);
+                } else if (isRdf(reader, "Description")) {
+                    readDescription(reader, key + "/", properties);
+                } else {
+                    readValue(reader, key + "/" + name(reader), properties);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+        if (!structured) {
+            properties.put(key, resource != null ? resource : value.toString());
+        }
+    }
+
+    /**
+     * Lee los elementos {@code rdf:li} de una lista o alternativa. Termina en el cierre de la lista.
+     */
+    private static void readArray(XMLStreamReader reader, String key, boolean alternative,
+                                  Map<String, String> properties) throws XMLStreamException {
+        int index = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                index++;
+                String language = alternative ? reader.getAttributeValue(XML, "lang") : null;
+                readValue(reader, key + "[" + (language != null ? language : String.valueOf(index)) + "]", properties);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isRdf(XMLStreamReader reader, String localName) {
+        return RDF.equals(reader.getNamespaceURI()) && localName.equals(reader.getLocalName());
+    }
+
+    private static String name(XMLStreamReader reader) {
+        return name(reader.getNamespaceURI(), reader.getPrefix(), reader.getLocalName());
+    }
+
+    private static String name(String namespace, String prefix, String localName) {
+        String known = namespace != null ? PREFIXES.get(namespace) : null;
+        if (known != null) {
+            return known + ":" + localName;
+        }
+        if (prefix != null && !prefix.isEmpty()) {
+            return prefix + ":" + localName;
+        }
+        return namespace != null && !namespace.isEmpty() ? "{" + namespace + "}" + localName : localName;
+    }
+
+    /**
+     * Texto de un valor, que se sustituye por su resumen SHA-256 en cuanto supera {@link #MAX_VALUE_LENGTH}
+     * caracteres.
+     */
+    private static final class Value {
+
+        private final StringBuilder text = new StringBuilder();
+        private MessageDigest digest;
+        private long length;
+
+        private void append(String chunk) {
+            length += chunk.length();
+            if (digest == null && text.length() + chunk.length() <= MAX_VALUE_LENGTH) {
+                text.append(chunk);
+                return;
+            }
+            if (digest == null) {
+                try {
+                    digest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("SHA-256 no está disponible", e);
+                }
+                digest.update(text.toString().getBytes(StandardCharsets.UTF_8));
+                text.setLength(0);
+            }
+            digest.update(chunk.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String toString() {
+            if (digest == null) {
+                return text.toString();
+            }
+            StringBuilder result = new StringBuilder("sha256:");
+            for (byte b : digest.digest()) {
+                result.append(String.format("%02x", b));
+            }
+            return result.append(" (").append(length).append(" caracteres)").toString();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.dabogadog;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hilos del {@link ComparisonService} en Java 21 o posterior: un hilo virtual por petición y por trabajo.
+ * Sustituye en el jar multiversión a la versión de {@code src/main/java}, con la misma interfaz.
+ *
+ * <p>Los métodos sincronizados de {@link PdfDocumentHandle} fijan el hilo virtual a su hilo de plataforma
+ * mientras se ejecutan; por eso el servicio sigue limitando cuántos trabajos se ejecutan a la vez.</p>
+ */
+final class ServiceThreads {
+
+    private ServiceThreads() {
+    }
+
+    /**
+     * Crea un ejecutor que lanza cada tarea en su propio hilo virtual.
+     *
+     * @param name Prefijo del nombre de los hilos.
+     * @return El ejecutor.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+    }
+
+    /**
+     * @return true si los hilos son virtuales.
+     */
+    static boolean isVirtual() {
+        return true;
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.dabogadog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CSVReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private Path write(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void reportsFirstRowAndColumn() throws IOException {
+        Path file = write("datos.csv", "id,nombre\r\n1,Ana\r\n\r\n2,\"Pérez, Juan\"\r\n");
+        CSVSearchResult result = CSVReader.findPhrasesInCSV(file.toString(), "Ana, Juan ,nombre,Luis",
+                StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("Ana", "Juan", "nombre", "Luis"), result.getPhrases());
+        assertEquals(2, result.getFirstRow(0));
+        assertEquals(2, result.getFirstColumn(0));
+        // Las líneas vacías no cuentan como registros.
+        assertEquals(3, result.getFirstRow(1));
+        assertEquals(2, result.getFirstColumn(1));
+        assertEquals(1, result.getFirstRow(2));
+        assertFalse(result.isFound(3));
+        assertEquals(Arrays.asList("Luis"), result.getNotFoundPhrases());
+    }
+
+    @Test
+    void phrasesDoNotSpanFields() throws IOException {
+        Path file = write("campos.csv", "ab,cd\n");
+        assertFalse(CSVReader.findPhrasesInCSV(file.toString(), "bc", StandardCharsets.UTF_8).isFound(0));
+        assertTrue(CSVReader.searchPhrasesInCSV(file.toString(), "ab,cd", StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void quotedFieldsKeepCommasNewlinesAndQuotes() throws IOException {
+        Path file = write("comillas.csv", "1,\"uno\ndos, \"\"tres\"\"\"\n2,cuatro\n");
+        CSVSearchResult result = CSVReader.findPhrasesInCSV(file.toString(), "dos,\"tres\",cuatro",
+                StandardCharsets.UTF_8);
+        assertEquals(1, result.getFirstRow(0));
+        assertEquals(2, result.getFirstColumn(0));
+        assertEquals(1, result.getFirstRow(1));
+        assertEquals(2, result.getFirstRow(2));
+    }
+
+    @Test
+    void chunkBoundaryInsideQuotedField() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= 50; i++) {
+            csv.append(i).append(",\"línea\n").append(i).append(", \"\"con comillas\"\"\nfin\"\n");
+        }
+        csv.append("51,última\n");
+        Path file = write("trozos.csv", csv.toString());
+        // Con trozos de 1 byte, los cortes nominales caen en todas partes, también dentro de las comillas.
+        for (int parallelism = 2; parallelism <= 8; parallelism++) {
+            CSVSearchResult result = CSVReader.findPhrasesInCSVParallel(file.toString(), "fin,última,37, \"con",
+                    StandardCharsets.UTF_8, parallelism, 1);
+            assertEquals(1, result.getFirstRow(0));
+            assertEquals(51, result.getFirstRow(1));
+            assertEquals(37, result.getFirstRow(2));
+            assertEquals(1, result.getFirstColumn(2));
+            assertEquals(1, result.getFirstRow(3));
+            assertEquals(2, result.getFirstColumn(3));
+        }
+    }
+
+    @Test
+    void multiByteCharacterAcrossReadBuffer() throws IOException {
+        // El primer registro termina justo antes del límite del búfer de lectura (1 MB), de modo que la "ñ"
+        // del segundo queda partida entre dos lecturas.
+        int bufferSize = 1 << 20;
+        StringBuilder csv = new StringBuilder();
+        char[] padding = new char[bufferSize - 2];
+        Arrays.fill(padding, 'x');
+        csv.append(padding).append('\n').append("ñandú\n");
+        Path file = write("grande.csv", csv.toString());
+        CSVSearchResult result = CSVReader.findPhrasesInCSV(file.toString(), "ñandú", StandardCharsets.UTF_8);
+        assertEquals(2, result.getFirstRow(0));
+        CSVSearchResult parallel = CSVReader.findPhrasesInCSVParallel(file.toString(), "ñandú",
+                StandardCharsets.UTF_8, 4, 1024);
+        assertEquals(2, parallel.getFirstRow(0));
+    }
+
+    @Test
+    void parallelMatchesSequentialOnRandomFiles() throws IOException {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            Path file = write("aleatorio-" + round + ".csv", randomCsv(random));
+            StringBuilder phrases = new StringBuilder();
+            int count = 1 + random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    phrases.append(',');
+                }
+                phrases.append(randomText(random, 1 + random.nextInt(3), "abcñ"));
+            }
+
+            CSVSearchResult expected = CSVReader.findPhrasesInCSV(file.toString(), phrases.toString(),
+                    StandardCharsets.UTF_8);
+            int parallelism = 2 + random.nextInt(4);
+            long minChunkSize = 1 + random.nextInt(64);
+            CSVSearchResult actual = CSVReader.findPhrasesInCSVParallel(file.toString(), phrases.toString(),
+                    StandardCharsets.UTF_8, parallelism, minChunkSize);
+            for (int p = 0; p < count; p++) {
+                String message = "frase " + expected.getPhrases().get(p) + " en " + file.getFileName();
+                assertEquals(expected.getFirstRow(p), actual.getFirstRow(p), message);
+                assertEquals(expected.getFirstColumn(p), actual.getFirstColumn(p), message);
+            }
+        }
+    }
+
+    @Test
+    void rejectsInvalidParallelism() throws IOException {
+        Path file = write("vacio.csv", "");
+        assertThrows(IllegalArgumentException.class,
+                () -> CSVReader.findPhrasesInCSVParallel(file.toString(), "a", StandardCharsets.UTF_8, 0));
+    }
+
+    /**
+     * CSV bien formado con campos entre comillas que contienen comas, saltos de línea y comillas dobles,
+     * saltos de línea \n y \r\n, y líneas vacías.
+     */
+    private static String randomCsv(Random random) {
+        StringBuilder csv = new StringBuilder();
+        int records = random.nextInt(60);
+        for (int r = 0; r < records; r++) {
+            if (random.nextInt(10) == 0) {
+                csv.append('\n');
+            }
+            int fields = 1 + random.nextInt(4);
+            for (int f = 0; f < fields; f++) {
+                if (f > 0) {
+                    csv.append(',');
+                }
+                if (random.nextInt(3) == 0) {
+                    csv.append('"').append(randomText(random, random.nextInt(12), "abcñ ,\n\"")
+                            .replace("\"", "\"\"")).append('"');
+                } else {
+                    csv.append(randomText(random, random.nextInt(8), "abcñ "));
+                }
+            }
+            csv.append(random.nextBoolean() ? "\n" : "\r\n");
+        }
+        return csv.toString();
+    }
+
+    private static String randomText(Random random, int length, String alphabet) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
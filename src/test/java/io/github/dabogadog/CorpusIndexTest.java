@@ -0,0 +1,217 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CorpusIndexTest {
+
+    private static final List<String> PHRASES = Arrays.asList("Fecha de emisión", "factura", "total a pagar",
+            "documento 3", "anexo");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Crea un PDF con una página por texto.
+     */
+    private Path pdf(String name, String... pages) throws IOException {
+        Path file = directory.resolve("pdfs").resolve(name);
+        Files.createDirectories(file.getParent());
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(file.toString()))) {
+            for (String text : pages) {
+                PdfCanvas canvas = new PdfCanvas(pdfDoc.addNewPage());
+                canvas.beginText().setFontAndSize(PdfFontFactory.createFont(), 12).moveText(50, 700);
+                for (String line : text.split("\n")) {
+                    canvas.showText(line).moveText(0, -16);
+                }
+                canvas.endText();
+            }
+        }
+        return file;
+    }
+
+    private List<Path> corpus() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            files.add(pdf("documento-" + i + ".pdf",
+                    "Documento " + i + "\nFECHA DE\nEMISION: 2024-01-0" + i,
+                    i % 2 == 0 ? "Factura " + i + "\nTotal a pagar: " + (100 * i) : "Anexo " + i));
+        }
+        return files;
+    }
+
+    /**
+     * Resumen comparable de una búsqueda: documento y páginas de cada frase.
+     */
+    private static List<String> summary(CorpusSearchResult result) {
+        List<String> summary = new ArrayList<>();
+        for (int p = 0; p < result.getPhrases().size(); p++) {
+            for (String document : result.getDocuments(p)) {
+                summary.add(p + " " + Paths.get(document).getFileName() + " "
+                        + Arrays.toString(result.getPages(p, document)));
+            }
+        }
+        return summary;
+    }
+
+    @Test
+    void roundTripThroughFlushCompactAndReopen() throws IOException {
+        List<Path> files = corpus();
+        Path indexDirectory = directory.resolve("indice");
+        List<String> expected;
+        try (CorpusIndex index = CorpusIndex.open(indexDirectory)) {
+            // Con un búfer de 1 byte, cada documento se escribe en su propio segmento.
+            index.setBufferBytes(1);
+            for (Path file : files) {
+                assertTrue(index.update(file));
+            }
+            assertFalse(index.update(files.get(0)));
+            index.commit();
+            assertEquals(6, index.getSegmentCount());
+            assertEquals(6, index.getDocumentCount());
+
+            expected = summary(index.search(PHRASES));
+            assertTrue(expected.contains("0 documento-1.pdf [1]"), expected.toString());
+            assertTrue(expected.contains("1 documento-4.pdf [2]"), expected.toString());
+            assertTrue(expected.contains("2 documento-6.pdf [2]"), expected.toString());
+            assertTrue(expected.contains("3 documento-3.pdf [1]"), expected.toString());
+            assertTrue(expected.contains("4 documento-5.pdf [2]"), expected.toString());
+            assertFalse(expected.contains("1 documento-1.pdf [2]"), expected.toString());
+        }
+
+        try (CorpusIndex index = CorpusIndex.open(indexDirectory)) {
+            assertEquals(6, index.getSegmentCount());
+            assertEquals(expected, summary(index.search(PHRASES)));
+
+            // Quitar un documento y volver a indexar otro deja marcas de borrado que la compactación elimina.
+            assertTrue(index.remove(files.get(1)));
+            pdf("documento-3.pdf", "Documento 3 revisado\nsin fecha");
+            Files.setLastModifiedTime(files.get(2), FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+            assertTrue(index.update(files.get(2)));
+            index.commit();
+            assertEquals(5, index.getDocumentCount());
+
+            List<String> changed = summary(index.search(PHRASES));
+            assertFalse(changed.contains("0 documento-3.pdf [1]"), changed.toString());
+            assertTrue(changed.contains("3 documento-3.pdf [1]"), changed.toString());
+            for (String match : changed) {
+                assertFalse(match.contains("documento-2.pdf"), changed.toString());
+            }
+
+            index.compact();
+            assertEquals(1, index.getSegmentCount());
+            assertEquals(5, index.getDocumentCount());
+            assertEquals(changed, summary(index.search(PHRASES)));
+            expected = changed;
+        }
+
+        try (CorpusIndex index = CorpusIndex.open(indexDirectory)) {
+            assertEquals(1, index.getSegmentCount());
+            assertEquals(5, index.getDocumentCount());
+            assertEquals(expected, summary(index.search(PHRASES)));
+            assertEquals(1, segmentFiles(indexDirectory).size());
+        }
+    }
+
+    @Test
+    void uncommittedChangesAreNotVisible() throws IOException {
+        List<Path> files = corpus();
+        Path indexDirectory = directory.resolve("indice");
+        try (CorpusIndex index = CorpusIndex.open(indexDirectory)) {
+            index.update(files.get(0));
+            assertEquals(0, index.getDocumentCount());
+            assertTrue(index.search("anexo").getDocuments(0).isEmpty());
+            index.commit();
+            assertEquals(Collections.singleton(files.get(0).toAbsolutePath().normalize().toString()),
+                    index.search("anexo").getDocuments(0));
+        }
+    }
+
+    @Test
+    void findPhrasesInIndexedDocument() throws IOException {
+        List<Path> files = corpus();
+        try (CorpusIndex index = CorpusIndex.open(directory.resolve("indice"))) {
+            index.update(files.get(3));
+            index.commit();
+            PhraseSearchResult result = index.findPhrases(files.get(3), "fecha de emisión,total a pagar,anexo");
+            assertEquals(1, result.getFirstPage(0));
+            assertEquals(2, result.getFirstPage(1));
+            assertFalse(result.isFound(2));
+            assertNull(index.findPhrases(files.get(0), "anexo"));
+
+            Files.setLastModifiedTime(files.get(3), FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+            assertNull(index.findPhrases(files.get(3), "anexo"));
+        }
+    }
+
+    @Test
+    void indexIsLockedWhileOpen() throws IOException {
+        Path indexDirectory = directory.resolve("indice");
+        try (CorpusIndex index = CorpusIndex.open(indexDirectory)) {
+            assertThrows(IOException.class, () -> CorpusIndex.open(indexDirectory));
+        }
+        CorpusIndex.open(indexDirectory).close();
+    }
+
+    @Test
+    void rejectsInvalidBufferSize() throws IOException {
+        try (CorpusIndex index = CorpusIndex.open(directory.resolve("indice"))) {
+            assertThrows(IllegalArgumentException.class, () -> index.setBufferBytes(0));
+            assertThrows(IllegalArgumentException.class,
+                    () -> index.setBufferBytes(CorpusIndex.MAX_SEGMENT_BYTES + 1));
+            index.setBufferBytes(CorpusIndex.MAX_SEGMENT_BYTES);
+        }
+    }
+
+    @Test
+    void rejectsSegmentWithOffsetOutsideFile() throws IOException {
+        Path indexDirectory = directory.resolve("indice");
+        try (CorpusIndex index = CorpusIndex.open(indexDirectory)) {
+            index.update(corpus().get(0));
+        }
+        Path segment = segmentFiles(indexDirectory).get(0);
+        IndexSegment.open(segment);
+
+        // Posición de las listas de apariciones más allá de 2 GB: antes se truncaba a un int.
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer offset = ByteBuffer.allocate(8).putLong(0, (1L << 32) + IndexSegment.HEADER_LENGTH);
+            channel.write(offset, 40);
+        }
+        assertThrows(IOException.class, () -> IndexSegment.open(segment));
+    }
+
+    private static List<Path> segmentFiles(Path indexDirectory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(indexDirectory, "*.seg")) {
+            for (Path file : stream) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.dabogadog;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LinkValidatorTest {
+
+    private HttpServer server;
+    private String base;
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200));
+        server.createContext("/missing", exchange -> respond(exchange, 404));
+        server.createContext("/moved", exchange -> {
+            exchange.getResponseHeaders().set("Location", base + "/ok");
+            respond(exchange, 302);
+        });
+        server.createContext("/head-not-allowed", exchange ->
+                respond(exchange, "HEAD".equals(exchange.getRequestMethod()) ? 405 : 200));
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200);
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private void respond(HttpExchange exchange, int code) throws IOException {
+        requests.computeIfAbsent(exchange.getRequestURI().getPath(), path -> new AtomicInteger()).incrementAndGet();
+        exchange.sendResponseHeaders(code, -1);
+        exchange.close();
+    }
+
+    private int requestsTo(String path) {
+        AtomicInteger count = requests.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    @Test
+    void validUrl() {
+        LinkCheckResult result = new LinkValidator().validate(base + "/ok");
+        assertEquals(LinkCheckResult.Status.VALID, result.getStatus());
+        assertEquals(200, result.getResponseCode());
+    }
+
+    @Test
+    void followsRedirects() {
+        LinkCheckResult result = new LinkValidator().validate(base + "/moved");
+        assertEquals(LinkCheckResult.Status.VALID, result.getStatus());
+        assertEquals(1, requestsTo("/moved"));
+        assertEquals(1, requestsTo("/ok"));
+    }
+
+    @Test
+    void brokenUrl() {
+        LinkCheckResult result = new LinkValidator().validate(base + "/missing");
+        assertEquals(LinkCheckResult.Status.BROKEN, result.getStatus());
+        assertEquals(404, result.getResponseCode());
+    }
+
+    @Test
+    void retriesWithGetWhenHeadIsNotAllowed() {
+        LinkCheckResult result = new LinkValidator().validate(base + "/head-not-allowed");
+        assertEquals(LinkCheckResult.Status.VALID, result.getStatus());
+        assertEquals(2, requestsTo("/head-not-allowed"));
+    }
+
+    @Test
+    void timeout() {
+        LinkCheckResult result = new LinkValidator().setReadTimeout(200).validate(base + "/slow");
+        assertEquals(LinkCheckResult.Status.TIMEOUT, result.getStatus());
+    }
+
+    @Test
+    void invalidProtocol() {
+        LinkCheckResult result = new LinkValidator().validate("ftp://127.0.0.1/archivo");
+        assertEquals(LinkCheckResult.Status.INVALID_PROTOCOL, result.getStatus());
+    }
+
+    @Test
+    void cachedResultIsReused() {
+        LinkValidator validator = new LinkValidator();
+        validator.validate(base + "/ok");
+        LinkCheckResult result = validator.validate(base + "/ok");
+        assertEquals(LinkCheckResult.Status.VALID, result.getStatus());
+        assertEquals(1, requestsTo("/ok"));
+    }
+
+    @Test
+    void repeatedUrlsAreValidatedOnce() {
+        LinkReport report = new LinkValidator().validate(Arrays.asList(base + "/ok", base + "/missing", base + "/ok"));
+        assertEquals(2, report.getResults().size());
+        assertEquals(1, requestsTo("/ok"));
+    }
+
+    @Test
+    void expiredResultIsEvictedAndValidatedAgain() throws InterruptedException {
+        LinkValidator validator = new LinkValidator().setCacheTtl(1);
+        validator.validate(base + "/ok");
+        Thread.sleep(20);
+        validator.validate(base + "/missing");
+        assertEquals(2, validator.cachedResults());
+        validator.validate(base + "/ok");
+        assertEquals(2, requestsTo("/ok"));
+        assertEquals(2, validator.cachedResults());
+    }
+
+    @Test
+    void disabledCacheValidatesEveryTime() {
+        LinkValidator validator = new LinkValidator().setCacheTtl(0);
+        validator.validate(base + "/ok");
+        validator.validate(base + "/ok");
+        assertEquals(2, requestsTo("/ok"));
+        assertEquals(0, validator.cachedResults());
+    }
+
+    @Test
+    void cacheIsBounded() {
+        LinkValidator validator = new LinkValidator();
+        for (int i = 0; i < LinkValidator.MAX_CACHED_RESULTS + 10; i++) {
+            validator.validate("mailto:" + i + "@example.com");
+        }
+        assertTrue(validator.cachedResults() <= LinkValidator.MAX_CACHED_RESULTS);
+    }
+
+    @Test
+    void busyHostDoesNotHoldBackOtherHosts() throws Exception {
+        // Escucha en todas las interfaces, para que 127.0.0.1 y localhost sean dos hosts del mismo servidor.
+        HttpServer hosts = HttpServer.create(new InetSocketAddress(0), 0);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Map<String, Long> servedAt = new ConcurrentHashMap<>();
+        hosts.createContext("/delay", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            respond(exchange, 200);
+        });
+        hosts.createContext("/fast", exchange -> {
+            servedAt.put(exchange.getRequestURI().toString(), System.nanoTime());
+            respond(exchange, 200);
+        });
+        hosts.setExecutor(Executors.newCachedThreadPool());
+        hosts.start();
+        try {
+            int port = hosts.getAddress().getPort();
+            List<String> urls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                urls.add("http://127.0.0.1:" + port + "/delay?" + i);
+            }
+            urls.add("http://localhost:" + port + "/fast?1");
+            urls.add("http://localhost:" + port + "/fast?2");
+
+            LinkValidator validator = new LinkValidator().setMaxConcurrency(4).setMaxConcurrencyPerHost(2);
+            long start = System.nanoTime();
+            LinkReport report = validator.validate(urls);
+            for (LinkCheckResult result : report.getResults()) {
+                assertEquals(LinkCheckResult.Status.VALID, result.getStatus(), result.getUrl());
+            }
+            // Los enlaces de localhost no esperan a que termine ninguna petición al host ocupado.
+            assertEquals(2, servedAt.size());
+            for (long served : servedAt.values()) {
+                assertTrue(served - start < 400_000_000L, "localhost atendido tras "
+                        + (served - start) / 1_000_000 + " ms");
+            }
+            assertEquals(2, maxInFlight.get());
+            assertEquals(0, validator.activeHosts());
+        } finally {
+            hosts.stop(0);
+        }
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        LinkValidator validator = new LinkValidator();
+        assertThrows(IllegalArgumentException.class, () -> validator.setConnectTimeout(0));
+        assertThrows(IllegalArgumentException.class, () -> validator.setReadTimeout(-1));
+        assertThrows(IllegalArgumentException.class, () -> validator.setCacheTtl(-1));
+        assertThrows(IllegalArgumentException.class, () -> validator.setMaxConcurrency(0));
+        assertThrows(IllegalArgumentException.class, () -> validator.setMaxConcurrencyPerHost(0));
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.dabogadog;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageTextChunksTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Crea un PDF con páginas que ejercitan el orden de lectura y los separadores de iText: varias líneas,
+     * columnas dibujadas en orden inverso, huecos entre palabras, texto elevado, texto girado, varias fuentes
+     * y una página vacía.
+     *
+     * @param regenerated true para añadir a cada página una operación gráfica que cambia su flujo de contenido
+     *                    pero no su texto, como un documento regenerado.
+     */
+    private String pdf(String name, boolean regenerated) throws IOException {
+        String file = directory.resolve(name).toString();
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(file))) {
+            PdfFont helvetica = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+            PdfFont times = PdfFontFactory.createFont(StandardFonts.TIMES_ROMAN);
+            PdfFont courier = PdfFontFactory.createFont(StandardFonts.COURIER);
+
+            PdfCanvas canvas = canvas(pdfDoc, regenerated);
+            canvas.beginText().setFontAndSize(helvetica, 12).moveText(50, 750);
+            for (String line : new String[]{"Fecha de emisión: 2024-01-15", "Año fiscal, señor Núñez",
+                    "  espacios   al principio y al final  "}) {
+                canvas.showText(line).moveText(0, -16);
+            }
+            canvas.endText();
+
+            canvas = canvas(pdfDoc, regenerated);
+            canvas.beginText().setFontAndSize(helvetica, 11).moveText(320, 700).showText("columna derecha")
+                    .endText();
+            canvas.beginText().setFontAndSize(helvetica, 11).moveText(50, 700).showText("columna izquierda")
+                    .endText();
+            canvas.beginText().setFontAndSize(times, 10).moveText(50, 650);
+            for (String word : new String[]{"palabras", "separadas", "por", "huecos"}) {
+                canvas.showText(word).moveText(word.length() * 6 + 8, 0);
+            }
+            canvas.endText();
+            canvas.beginText().setFontAndSize(times, 10).moveText(50, 620).showText("pegadas").moveText(35, 0)
+                    .showText("juntas").endText();
+            canvas.beginText().setFontAndSize(helvetica, 10).moveText(50, 590).showText("m")
+                    .setTextRise(4).showText("2").setTextRise(0).showText(" de superficie").endText();
+            canvas.beginText().setFontAndSize(courier, 14).moveText(50, 560).showText("Total a pagar: 1.250,00")
+                    .endText();
+
+            canvas = canvas(pdfDoc, regenerated);
+            canvas.beginText().setFontAndSize(helvetica, 12).setTextMatrix(0, 1, -1, 0, 100, 300)
+                    .showText("texto girado").endText();
+            canvas.beginText().setFontAndSize(helvetica, 12).setTextMatrix(1, 0, 0, 1, 200, 500)
+                    .showText("texto horizontal").endText();
+            canvas.beginText().setFontAndSize(courier, 8).moveText(200, 480).showText("letra pequeña").endText();
+
+            pdfDoc.addNewPage();
+        }
+        return file;
+    }
+
+    private static PdfCanvas canvas(PdfDocument pdfDoc, boolean regenerated) {
+        PdfCanvas canvas = new PdfCanvas(pdfDoc.addNewPage());
+        if (regenerated) {
+            canvas.setLineWidth(2);
+        }
+        return canvas;
+    }
+
+    @Test
+    void resultantTextMatchesPdfTextExtractor() throws IOException {
+        String file = pdf("paginas.pdf", false);
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfReader(file))) {
+            PageTextChunks.Extractor extractor = PageTextChunks.extractor(pdfDoc);
+            for (int page = 1; page <= pdfDoc.getNumberOfPages(); page++) {
+                String expected = PdfTextExtractor.getTextFromPage(pdfDoc.getPage(page));
+                assertEquals(expected, extractor.extract(page).getResultantText(), "página " + page);
+                assertTrue(extractor.extract(page).contentEquals(PageTextChunks.of(expected)), "página " + page);
+            }
+        }
+    }
+
+    @Test
+    void handleKeepsExtractedText() throws IOException {
+        String file1 = pdf("documento.pdf", false);
+        String file2 = pdf("regenerado.pdf", true);
+        AtomicInteger extracted = new AtomicInteger();
+        Metrics.setDefault(new ComparisonMetrics() {
+            @Override
+            public void recordPages(int pages) {
+                extracted.addAndGet(pages);
+            }
+        });
+        try (PdfDocumentHandle handle1 = PdfDocumentHandle.open(file1);
+             PdfDocumentHandle handle2 = PdfDocumentHandle.open(file2)) {
+            // Las tres páginas con texto se extraen una vez en cada documento; la vacía tiene el mismo resumen.
+            assertTrue(PDFComparator.comparePDFs(handle1, handle2));
+            assertEquals(6, extracted.get());
+            assertTrue(PDFComparator.comparePDFs(handle1, handle2));
+            PhraseSearchResult result = PDFAnalyzer.searchPhrases(handle1,
+                    PhraseMatcher.fromCommaSeparated("señor Núñez,texto girado"));
+            assertEquals(1, result.getFirstPage(0));
+            assertEquals(3, result.getFirstPage(1));
+            assertEquals(6, extracted.get());
+        } finally {
+            Metrics.setDefault(null);
+        }
+    }
+}
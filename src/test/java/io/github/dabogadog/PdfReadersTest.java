@@ -0,0 +1,85 @@
+package io.github.dabogadog;
+
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfReadersTest {
+
+    @TempDir
+    Path directory;
+
+    private String pdf() throws IOException {
+        String file = directory.resolve("documento.pdf").toString();
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(file))) {
+            new PdfCanvas(pdfDoc.addNewPage()).beginText().setFontAndSize(PdfFontFactory.createFont(), 12)
+                    .moveText(50, 700).showText("Página 1").endText();
+        }
+        return file;
+    }
+
+    /**
+     * @return true si {@link PdfReaders#releasePage(PdfDocument, int)} liberó la página: al pedirla otra vez,
+     * sus recursos se vuelven a leer del archivo.
+     */
+    private static boolean releasesPage(PdfDocument pdfDoc) {
+        PdfDictionary resources = pdfDoc.getPage(1).getPdfObject().getAsDictionary(PdfName.Resources);
+        PdfReaders.releasePage(pdfDoc, 1);
+        return resources != pdfDoc.getPage(1).getPdfObject().getAsDictionary(PdfName.Resources);
+    }
+
+    @Test
+    void documentKeepsTheModeItWasOpenedIn() throws IOException {
+        String file = pdf();
+        try {
+            PdfReaders.setLowMemoryMode(false);
+            PdfDocument normal = PdfReaders.open(file);
+            PdfReaders.setLowMemoryMode(true);
+            PdfDocument lowMemory = PdfReaders.open(file);
+            try {
+                assertFalse(PdfReaders.isLowMemory(normal));
+                assertFalse(releasesPage(normal));
+                PdfReaders.setLowMemoryMode(false);
+                assertTrue(PdfReaders.isLowMemory(lowMemory));
+                assertTrue(releasesPage(lowMemory));
+            } finally {
+                normal.close();
+                lowMemory.close();
+            }
+        } finally {
+            PdfReaders.setLowMemoryMode(false);
+        }
+    }
+
+    @Test
+    void handleUsesTheModeOfItsDocument() throws IOException {
+        String file = pdf();
+        try {
+            PdfReaders.setLowMemoryMode(true);
+            try (PdfDocumentHandle handle = PdfDocumentHandle.open(file)) {
+                PdfReaders.setLowMemoryMode(false);
+                // En el modo de bajo consumo el texto no se guarda: cada llamada lo extrae de nuevo.
+                assertNotSame(handle.getPageText(1), handle.getPageText(1));
+            }
+            try (PdfDocumentHandle handle = PdfDocumentHandle.open(file)) {
+                PdfReaders.setLowMemoryMode(true);
+                assertSame(handle.getPageText(1), handle.getPageText(1));
+            }
+        } finally {
+            PdfReaders.setLowMemoryMode(false);
+        }
+    }
+}
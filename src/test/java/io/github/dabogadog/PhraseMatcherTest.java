@@ -0,0 +1,140 @@
+package io.github.dabogadog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PhraseMatcherTest {
+
+    /**
+     * Busca las frases en los segmentos y devuelve los índices encontrados, en el orden en que se notifican.
+     */
+    private static List<Integer> search(PhraseMatcher matcher, String... segments) {
+        List<Integer> found = new ArrayList<>();
+        PhraseMatcher.Session session = matcher.newSession(found::add);
+        for (String segment : segments) {
+            session.beginSegment();
+            session.feed(segment);
+        }
+        return found;
+    }
+
+    private static List<Integer> sorted(List<Integer> values) {
+        List<Integer> copy = new ArrayList<>(values);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @Test
+    void findsOverlappingPhrases() {
+        PhraseMatcher matcher = new PhraseMatcher(Arrays.asList("he", "she", "his", "hers"));
+        assertEquals(Arrays.asList(0, 1, 3), sorted(search(matcher, "ushers")));
+    }
+
+    @Test
+    void findsPhraseThatIsSuffixOfAnother() {
+        PhraseMatcher matcher = new PhraseMatcher(Arrays.asList("fecha de emisión", "emisión", "de"));
+        assertEquals(Arrays.asList(0, 1, 2), sorted(search(matcher, "fecha de emisión")));
+    }
+
+    @Test
+    void findsPhraseReachedOnlyThroughFailureLinks() {
+        // "bcd" solo se reconoce tras fallar desde "abce".
+        PhraseMatcher matcher = new PhraseMatcher(Arrays.asList("abce", "bcd", "c"));
+        assertEquals(Arrays.asList(1, 2), sorted(search(matcher, "abcd")));
+    }
+
+    @Test
+    void findsPhrasesThatOverlapThemselves() {
+        PhraseMatcher matcher = new PhraseMatcher(Arrays.asList("aaa", "aab"));
+        assertEquals(Arrays.asList(0, 1), sorted(search(matcher, "aaaab")));
+        assertEquals(Collections.singletonList(1), search(matcher, "aab"));
+    }
+
+    @Test
+    void reportsRepeatedPhrasesOnceEach() {
+        PhraseMatcher matcher = new PhraseMatcher(Arrays.asList("total", "total", "iva"));
+        List<Integer> found = search(matcher, "total total total");
+        assertEquals(Arrays.asList(0, 1), sorted(found));
+    }
+
+    @Test
+    void emptyPhraseIsFoundInAnySegment() {
+        PhraseMatcher matcher = new PhraseMatcher(Arrays.asList("", "x"));
+        assertEquals(Collections.singletonList(0), search(matcher, ""));
+    }
+
+    @Test
+    void phrasesDoNotSpanSegments() {
+        PhraseMatcher matcher = new PhraseMatcher(Collections.singletonList("abc"));
+        assertTrue(search(matcher, "xa", "bc").isEmpty());
+        assertEquals(Collections.singletonList(0), search(matcher, "xa", "abc"));
+    }
+
+    @Test
+    void sessionIsCompleteWhenAllPhrasesAreFound() {
+        PhraseMatcher matcher = PhraseMatcher.fromCommaSeparated("uno,dos");
+        PhraseMatcher.Session session = matcher.newSession(index -> { });
+        session.beginSegment();
+        session.feed("uno y");
+        assertTrue(session.isFound(0));
+        assertFalse(session.isFound(1));
+        assertFalse(session.isComplete());
+        session.feed(" dos");
+        assertTrue(session.isComplete());
+    }
+
+    @Test
+    void commaSeparatedPhrasesKeepSpaces() {
+        PhraseMatcher matcher = PhraseMatcher.fromCommaSeparated("a, b");
+        assertEquals(Arrays.asList("a", " b"), matcher.getPhrases());
+        assertEquals(Collections.singletonList(0), search(matcher, "ab"));
+    }
+
+    @Test
+    void matchesStringContainsOnRandomInputs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<String> phrases = new ArrayList<>();
+            int count = 1 + random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                phrases.add(randomText(random, 1 + random.nextInt(4)));
+            }
+            String[] segments = new String[1 + random.nextInt(3)];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = randomText(random, random.nextInt(40));
+            }
+
+            List<Integer> expected = new ArrayList<>();
+            for (int p = 0; p < phrases.size(); p++) {
+                for (String segment : segments) {
+                    if (segment.contains(phrases.get(p))) {
+                        expected.add(p);
+                        break;
+                    }
+                }
+            }
+            List<Integer> found = search(new PhraseMatcher(phrases), segments);
+            assertEquals(expected, sorted(found), () -> phrases + " en " + Arrays.toString(segments));
+        }
+    }
+
+    /**
+     * Texto aleatorio con un alfabeto pequeño, para que las frases se solapen a menudo.
+     */
+    private static String randomText(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.dabogadog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextDiffTest {
+
+    /**
+     * Longitud de la subsecuencia común más larga, por programación dinámica.
+     */
+    private static int naiveLcs(List<String> a, List<String> b) {
+        int[][] table = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i--) {
+            for (int j = b.size() - 1; j >= 0; j--) {
+                table[i][j] = a.get(i).equals(b.get(j))
+                        ? table[i + 1][j + 1] + 1
+                        : Math.max(table[i + 1][j], table[i][j + 1]);
+            }
+        }
+        return table[0][0];
+    }
+
+    /**
+     * Comprueba que los bloques transforman el primer texto en el segundo: entre bloques, las líneas de los
+     * dos textos coinciden, y cada bloque empieza donde indica.
+     */
+    private static void assertTransforms(List<String> lines1, List<String> lines2, TextDiff diff) {
+        int i = 0;
+        int j = 0;
+        for (TextDiff.Hunk hunk : diff.getHunks()) {
+            assertFalse(hunk.getLines1().isEmpty() && hunk.getLines2().isEmpty(), "bloque vacío");
+            int unchanged = hunk.getStart1() - 1 - i;
+            assertEquals(unchanged, hunk.getStart2() - 1 - j, "desplazamiento del bloque " + hunk);
+            assertTrue(unchanged >= 0, "bloques desordenados");
+            assertEquals(lines1.subList(i, i + unchanged), lines2.subList(j, j + unchanged));
+            i += unchanged;
+            j += unchanged;
+            assertEquals(lines1.subList(i, i + hunk.getLines1().size()), hunk.getLines1());
+            assertEquals(lines2.subList(j, j + hunk.getLines2().size()), hunk.getLines2());
+            i += hunk.getLines1().size();
+            j += hunk.getLines2().size();
+        }
+        assertEquals(lines1.size() - i, lines2.size() - j);
+        assertEquals(lines1.subList(i, lines1.size()), lines2.subList(j, lines2.size()));
+    }
+
+    private static List<String> randomLines(Random random, int maxLength, int alphabet) {
+        int length = random.nextInt(maxLength + 1);
+        List<String> lines = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            lines.add("línea " + random.nextInt(alphabet));
+        }
+        return lines;
+    }
+
+    @Test
+    void minimalOnRandomInputs() {
+        Random random = new Random(12);
+        for (int round = 0; round < 2000; round++) {
+            int alphabet = 1 + random.nextInt(6);
+            List<String> lines1 = randomLines(random, 30, alphabet);
+            List<String> lines2 = random.nextBoolean() ? randomLines(random, 30, alphabet) : mutate(random, lines1);
+            TextDiff diff = TextDiff.diff(lines1, lines2, TextDiff.DEFAULT_MAX_COST);
+
+            String message = lines1 + " -> " + lines2;
+            assertFalse(diff.isApproximate(), message);
+            assertTransforms(lines1, lines2, diff);
+            int lcs = naiveLcs(lines1, lines2);
+            assertEquals(lines1.size() - lcs, diff.getDeletedLines(), message);
+            assertEquals(lines2.size() - lcs, diff.getInsertedLines(), message);
+        }
+    }
+
+    @Test
+    void correctWhenCostIsBounded() {
+        Random random = new Random(21);
+        boolean approximated = false;
+        for (int round = 0; round < 2000; round++) {
+            int alphabet = 2 + random.nextInt(8);
+            List<String> lines1 = randomLines(random, 60, alphabet);
+            List<String> lines2 = randomLines(random, 60, alphabet);
+            int maxCost = 1 + random.nextInt(4);
+            TextDiff diff = TextDiff.diff(lines1, lines2, maxCost);
+
+            assertTransforms(lines1, lines2, diff);
+            int lcs = naiveLcs(lines1, lines2);
+            assertTrue(diff.getDeletedLines() >= lines1.size() - lcs);
+            if (!diff.isApproximate()) {
+                assertEquals(lines1.size() - lcs, diff.getDeletedLines());
+            }
+            approximated |= diff.isApproximate();
+        }
+        assertTrue(approximated, "la heurística de corte no se usó nunca");
+    }
+
+    @Test
+    void identicalTextsHaveNoHunks() {
+        TextDiff diff = TextDiff.diffLines("a\nb\r\nc", "a\r\nb\nc");
+        assertTrue(diff.isEmpty());
+        assertEquals("", diff.toString());
+    }
+
+    @Test
+    void classifiesHunks() {
+        List<String> lines1 = Arrays.asList("a", "b", "c", "d", "e");
+        List<String> lines2 = Arrays.asList("x", "a", "c", "y", "e");
+        List<TextDiff.Hunk> hunks = TextDiff.diff(lines1, lines2, TextDiff.DEFAULT_MAX_COST).getHunks();
+
+        assertEquals(3, hunks.size());
+        assertEquals(TextDiff.Type.INSERT, hunks.get(0).getType());
+        assertEquals(1, hunks.get(0).getStart1());
+        assertEquals(Collections.singletonList("x"), hunks.get(0).getLines2());
+        assertEquals(TextDiff.Type.DELETE, hunks.get(1).getType());
+        assertEquals(2, hunks.get(1).getStart1());
+        assertEquals(3, hunks.get(1).getStart2());
+        assertEquals(TextDiff.Type.CHANGE, hunks.get(2).getType());
+        assertEquals(Collections.singletonList("d"), hunks.get(2).getLines1());
+        assertEquals(Collections.singletonList("y"), hunks.get(2).getLines2());
+    }
+
+    @Test
+    void emptyInputs() {
+        List<String> empty = Collections.emptyList();
+        List<String> lines = Arrays.asList("a", "b");
+        assertTrue(TextDiff.diff(empty, empty, 1).isEmpty());
+        TextDiff inserted = TextDiff.diff(empty, lines, 1);
+        assertEquals(1, inserted.getHunks().size());
+        assertEquals(2, inserted.getInsertedLines());
+        TextDiff deleted = TextDiff.diff(lines, empty, 1);
+        assertEquals(TextDiff.Type.DELETE, deleted.getHunks().get(0).getType());
+        assertEquals(2, deleted.getDeletedLines());
+    }
+
+    @Test
+    void rejectsInvalidCost() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TextDiff.diff(Collections.<String>emptyList(), Collections.<String>emptyList(), 0));
+    }
+
+    /**
+     * Copia de las líneas con algunas eliminadas, insertadas o cambiadas, como una página editada.
+     */
+    private static List<String> mutate(Random random, List<String> lines) {
+        List<String> result = new ArrayList<>(lines);
+        int edits = random.nextInt(5);
+        for (int e = 0; e < edits; e++) {
+            int position = random.nextInt(result.size() + 1);
+            switch (random.nextInt(3)) {
+                case 0:
+                    result.add(position, "nueva " + e);
+                    break;
+                case 1:
+                    if (position < result.size()) {
+                        result.remove(position);
+                    }
+                    break;
+                default:
+                    if (position < result.size()) {
+                        result.set(position, "cambiada " + e);
+                    }
+                    break;
+            }
+        }
+        return result;
+    }
+}